@@ -0,0 +1,20 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cambios de especificaciones a aplicar en lote. En {@code quitar} la cantidad se ignora:
+ * se elimina la especificación completa del producto.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AsignacionEspecificacionesDTO {
+    private List<CambioEspecificacionDTO> agregar = new ArrayList<>();
+    private List<CambioEspecificacionDTO> quitar = new ArrayList<>();
+}
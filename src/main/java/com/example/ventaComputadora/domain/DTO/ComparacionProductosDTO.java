@@ -0,0 +1,15 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ComparacionProductosDTO {
+    private List<ProductoComparadoDTO> productos;
+    private List<FilaComparacionDTO> filas;
+}
@@ -0,0 +1,22 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConfiguracionDTO {
+    private Long id;
+    private Long productoId;
+    private String nombreProducto;
+    private Set<Long> especificacionIds;
+    private BigDecimal precioGuardado;
+    private CotizacionDTO cotizacionActual;
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,22 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CotizacionDTO {
+    private Long productoId;
+    private String nombreProducto;
+    private BigDecimal precioBase;
+    private BigDecimal precioEspecificaciones;
+    private BigDecimal precio;
+    private boolean compatible;
+    private List<String> problemas;
+    private List<LineaCotizacionDTO> especificaciones;
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -11,7 +13,7 @@ public class EspecificacionDTO {
     private Long id;
     private String nombre;
     private String descripcion;
-    private double precioAdicional;
+    private BigDecimal precioAdicional;
     private String marca;
     private String tipo;
 }
@@ -4,12 +4,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class EspecificacionSimplificadaDTO {
     private Long id;
     private String nombre;
-    private double precioAdicional;
+    private BigDecimal precioAdicional;
     private int cantidad;
 }
\ No newline at end of file
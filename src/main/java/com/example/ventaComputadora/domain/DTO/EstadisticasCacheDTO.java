@@ -0,0 +1,19 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticasCacheDTO {
+    private boolean estadisticasHabilitadas;
+    private long aciertos;
+    private long fallos;
+    private long escrituras;
+    private double tasaAciertos;
+    private List<RegionCacheDTO> regiones;
+}
@@ -0,0 +1,21 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetasDTO {
+    private int total;
+    private Map<String, Integer> ram;
+    private Map<String, Integer> procesador;
+    private Map<String, Integer> tarjetaGrafica;
+    private int enStock;
+    private List<IntervaloPrecioDTO> histogramaPrecio;
+    private Map<String, Map<String, Integer>> especificaciones;
+}
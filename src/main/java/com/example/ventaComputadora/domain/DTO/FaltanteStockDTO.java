@@ -0,0 +1,15 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FaltanteStockDTO {
+    private Long productoId;
+    private String nombre;
+    private int solicitado;
+    private int disponible;
+}
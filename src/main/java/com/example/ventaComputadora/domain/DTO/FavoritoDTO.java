@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -11,6 +13,6 @@ public class FavoritoDTO {
     private Long id;
     private String nombre;
     private String descripcion;
-    private double precio;
+    private BigDecimal precio;
     private String imagen;
 }
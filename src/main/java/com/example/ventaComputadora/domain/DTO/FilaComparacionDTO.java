@@ -0,0 +1,23 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fila de la comparación: un valor por producto, en el mismo orden que las columnas (nulo si el producto no
+ * tiene ese tipo de especificación), y los IDs de los productos con el valor mínimo y máximo de la fila.
+ * Los extremos quedan vacíos cuando los valores no son comparables o son todos iguales.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FilaComparacionDTO {
+    private String nombre;
+    private List<String> valores;
+    private Set<Long> minimos;
+    private Set<Long> maximos;
+}
@@ -0,0 +1,24 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FiltroProductosDTO {
+    private Set<String> ram;
+    private Set<String> procesador;
+    private Set<String> tarjetaGrafica;
+    private Double precioMin;
+    private Double precioMax;
+    private Boolean enStock;
+    /**
+     * Filtros por cualquier otro tipo de especificación del diccionario: tipo (nombre o sinónimo) a valores buscados.
+     */
+    private Map<String, Set<String>> especificaciones;
+}
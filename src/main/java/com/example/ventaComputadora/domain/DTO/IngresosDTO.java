@@ -0,0 +1,18 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IngresosDTO {
+    private LocalDateTime desde;
+    private LocalDateTime hasta;
+    private long cantidadOrdenes;
+    private BigDecimal montoTotal;
+}
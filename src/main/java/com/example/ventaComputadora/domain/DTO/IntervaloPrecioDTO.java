@@ -0,0 +1,14 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntervaloPrecioDTO {
+    private double desde;
+    private double hasta;
+    private int cantidad;
+}
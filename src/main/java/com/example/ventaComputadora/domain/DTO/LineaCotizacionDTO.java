@@ -0,0 +1,19 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LineaCotizacionDTO {
+    private Long especificacionId;
+    private String nombre;
+    private String tipo;
+    private int cantidad;
+    private BigDecimal subtotal;
+    private boolean elegida;
+}
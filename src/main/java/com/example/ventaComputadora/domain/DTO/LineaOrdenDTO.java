@@ -0,0 +1,19 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LineaOrdenDTO {
+    private Long ordenId;
+    private Long productoId;
+    private String nombreProducto;
+    private int cantidad;
+    private BigDecimal precioUnitario;
+    private BigDecimal subtotal;
+}
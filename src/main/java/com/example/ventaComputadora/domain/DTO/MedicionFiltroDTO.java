@@ -0,0 +1,16 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MedicionFiltroDTO {
+    private String estrategia;
+    private int resultados;
+    private double mediaMs;
+    private double minimoMs;
+    private double maximoMs;
+}
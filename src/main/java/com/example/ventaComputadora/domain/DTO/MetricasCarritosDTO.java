@@ -0,0 +1,25 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricasCarritosDTO {
+    private boolean habilitado;
+    private String recuperacion;
+    private int carritosEnMemoria;
+    private int carritosPendientes;
+    private long carritosRechazados;
+    private long persistencias;
+    private long fallosPersistencia;
+    private long carritosPersistidos;
+    private long ultimaPersistenciaMs;
+    private long maximaPersistenciaMs;
+    private double promedioPersistenciaMs;
+    private LocalDateTime ultimaPersistencia;
+}
@@ -0,0 +1,17 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricasCatalogoDTO {
+    private long version;
+    private int productos;
+    private long aciertos;
+    private long fallos;
+    private long reconstrucciones;
+    private long ultimaReconstruccionMs;
+}
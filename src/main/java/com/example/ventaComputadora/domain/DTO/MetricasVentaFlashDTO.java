@@ -0,0 +1,22 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricasVentaFlashDTO {
+    private Long productoId;
+    private LocalDateTime inicio;
+    private int disponible;
+    private long unidadesReservadas;
+    private long reservasRechazadas;
+    private double unidadesPorSegundo;
+    private long unidadesPendientes;
+    private long retrasoAplicacionMs;
+    private LocalDateTime ultimaAplicacion;
+}
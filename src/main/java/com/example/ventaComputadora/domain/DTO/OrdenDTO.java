@@ -1,13 +1,13 @@
 package com.example.ventaComputadora.domain.DTO;
 
-import com.example.ventaComputadora.domain.entity.Usuario;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.Set;
+import java.util.List;
 
 @Getter
 @Setter
@@ -18,6 +18,6 @@ public class OrdenDTO {
     private UsuarioDTO usuario;
     private LocalDateTime fechaCreacion;
     private String estado;
-    private Set<ProductoDTO> productos;
-    private double montoTotal;
+    private List<LineaOrdenDTO> lineas;
+    private BigDecimal montoTotal;
 }
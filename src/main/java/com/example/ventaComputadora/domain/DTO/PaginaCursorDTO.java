@@ -0,0 +1,19 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados paginados por cursor. {@code siguienteCursor} es nulo en la última página.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaginaCursorDTO<T> {
+    private List<T> contenido;
+    private String siguienteCursor;
+    private int tamano;
+}
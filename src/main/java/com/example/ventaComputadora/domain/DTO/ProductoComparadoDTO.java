@@ -0,0 +1,18 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductoComparadoDTO {
+    private Long id;
+    private String nombre;
+    private BigDecimal precio;
+    private int stock;
+    private Long version;
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.Set;
 
 @Data
@@ -13,7 +14,7 @@ public class ProductoDTO {
     private Long id;
     private String nombre;
     private String descripcion;
-    private double precio;
+    private BigDecimal precio;
     private int stock;
     private String imagen;
     private Set<Long> especificacionIds;
@@ -0,0 +1,22 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductoExportacionDTO {
+    private Long id;
+    private String nombre;
+    private BigDecimal precio;
+    private String descripcion;
+    private String imagen;
+    private int stock;
+    private Long version;
+    private List<EspecificacionSimplificadaDTO> especificaciones;
+}
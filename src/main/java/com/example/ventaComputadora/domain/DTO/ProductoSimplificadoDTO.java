@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.Set;
 
 @Data
@@ -12,11 +13,12 @@ import java.util.Set;
 public class ProductoSimplificadoDTO {
     private Long id;
     private String nombre;
-    private double precio;
+    private BigDecimal precio;
     private String descripcion;
     private String imagen;
     private int stock;
     private Set<EspecificacionSimplificadaDTO> especificacionesDisponibles;
     private Set<ComentarioDTO> comentarios;
     private Set<String> favoritos;
+    private Long version;
 }
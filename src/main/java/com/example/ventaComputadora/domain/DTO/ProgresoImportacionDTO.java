@@ -0,0 +1,22 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProgresoImportacionDTO {
+    private String id;
+    private String estado;
+    private long filasLeidas;
+    private long importadas;
+    private long conError;
+    private List<ErrorImportacionDTO> errores;
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+}
@@ -0,0 +1,23 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProgresoReconstruccionDTO {
+    private String id;
+    private String estado;
+    private LocalDate desde;
+    private LocalDate hasta;
+    private int bloquesTotales;
+    private int bloquesTerminados;
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+    private String error;
+}
@@ -0,0 +1,17 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RegionCacheDTO {
+    private String region;
+    private long aciertos;
+    private long fallos;
+    private long escrituras;
+    private long elementosEnMemoria;
+    private double tasaAciertos;
+}
@@ -0,0 +1,15 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoAsignacionDTO {
+    private int productosActualizados;
+    private int agregadas;
+    private int eliminadas;
+    private long duracionMs;
+}
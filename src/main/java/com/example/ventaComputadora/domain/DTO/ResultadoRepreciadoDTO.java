@@ -0,0 +1,13 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResultadoRepreciadoDTO {
+    private int productosRepreciados;
+    private long duracionMs;
+}
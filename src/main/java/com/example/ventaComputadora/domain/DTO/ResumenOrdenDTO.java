@@ -0,0 +1,19 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResumenOrdenDTO {
+    private Long id;
+    private LocalDateTime fechaCreacion;
+    private String estado;
+    private long cantidadArticulos;
+    private BigDecimal montoTotal;
+}
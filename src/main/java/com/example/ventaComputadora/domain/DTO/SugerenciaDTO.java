@@ -0,0 +1,14 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SugerenciaDTO {
+    private String texto;
+    private String tipo;
+    private Long productoId;
+}
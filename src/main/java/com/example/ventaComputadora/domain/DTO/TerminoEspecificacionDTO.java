@@ -0,0 +1,16 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TerminoEspecificacionDTO {
+    private Long id;
+    private String nombre;
+    private Set<String> sinonimos;
+}
@@ -0,0 +1,18 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VentasDiaDTO {
+    private LocalDate fecha;
+    private long ordenes;
+    private long unidades;
+    private BigDecimal monto;
+}
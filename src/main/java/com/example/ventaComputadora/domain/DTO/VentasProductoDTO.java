@@ -0,0 +1,18 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VentasProductoDTO {
+    private Long productoId;
+    private String nombre;
+    private long ordenes;
+    private long unidades;
+    private BigDecimal monto;
+}
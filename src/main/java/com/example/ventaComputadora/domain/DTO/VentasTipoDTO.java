@@ -0,0 +1,17 @@
+package com.example.ventaComputadora.domain.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VentasTipoDTO {
+    private Long tipoId;
+    private String nombre;
+    private long unidades;
+    private BigDecimal monto;
+}
@@ -7,7 +7,7 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comentarios")
+@Table(name = "comentarios", indexes = @Index(name = "idx_comentarios_producto_fecha", columnList = "producto_id, fecha, id"))
 @Getter
 @Setter
 @Builder
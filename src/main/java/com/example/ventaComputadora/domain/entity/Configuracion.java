@@ -0,0 +1,47 @@
+package com.example.ventaComputadora.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Configuración de un producto guardada por un usuario: el producto base y las especificaciones elegidas.
+ * No modifica el producto del catálogo; el precio es el cotizado al guardarla.
+ */
+@Entity
+@Table(name = "configuraciones", indexes = @Index(name = "idx_configuraciones_usuario_id", columnList = "usuario_id, id"))
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class Configuracion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private Usuario usuario;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "producto_id", nullable = false)
+    private Producto producto;
+
+    @Builder.Default
+    @ElementCollection
+    @CollectionTable(name = "configuracion_especificaciones", joinColumns = @JoinColumn(name = "configuracion_id"))
+    @Column(name = "especificacion_id", nullable = false)
+    private Set<Long> especificacionIds = new HashSet<>();
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal precio;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+}
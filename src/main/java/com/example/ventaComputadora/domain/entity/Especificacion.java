@@ -1,15 +1,24 @@
 package com.example.ventaComputadora.domain.entity;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "especificaciones")
+@Table(name = "especificaciones", indexes = {
+        @Index(name = "idx_especificaciones_tipo_id_nombre", columnList = "tipo_id, nombre"),
+        @Index(name = "idx_especificaciones_marca_id", columnList = "marca_id")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @Builder
@@ -22,11 +31,18 @@ public class Especificacion {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Versión para control de concurrencia optimista; también identifica la representación en los ETag.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(nullable = false, length = 100)
     private String nombre;
 
-    @Column(nullable = false)
-    private double precioAdicional;
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal precioAdicional;
 
     @Column(length = 5000)
     private String descripcion;
@@ -37,6 +53,22 @@ public class Especificacion {
     @Column(nullable = false, length = 100)
     private String tipo; // Nuevo campo agregado
 
+    /**
+     * Marca canónica del diccionario a la que se resolvió {@link #marca}.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "marca_id")
+    @JsonIgnore
+    private TerminoEspecificacion marcaTermino;
+
+    /**
+     * Tipo canónico del diccionario al que se resolvió {@link #tipo}; los filtros comparan este ID.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "tipo_id")
+    @JsonIgnore
+    private TerminoEspecificacion tipoTermino;
+
     @OneToMany(mappedBy = "especificacion", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<ProductoEspecificacion> productoEspecificaciones = new HashSet<>();
 }
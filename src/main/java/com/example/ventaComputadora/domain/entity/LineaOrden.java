@@ -0,0 +1,48 @@
+package com.example.ventaComputadora.domain.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Línea de una orden: un producto con su cantidad, su nombre y su precio unitario. El nombre y el precio se toman
+ * al agregar el producto por primera vez y son los que se cobran al pagar; la línea no cambia aunque cambie el
+ * producto.
+ * Hay a lo sumo una línea por producto en cada orden; agregar otra vez el mismo producto suma a la cantidad.
+ */
+@Entity
+@Table(name = "lineas_orden",
+        uniqueConstraints = @UniqueConstraint(name = "uk_lineas_orden_orden_producto", columnNames = {"orden_id", "producto_id"}),
+        indexes = @Index(name = "idx_lineas_orden_producto", columnList = "producto_id"))
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class LineaOrden {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "orden_id", nullable = false)
+    @JsonIgnore
+    private Orden orden;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "producto_id", nullable = false)
+    @JsonIgnore
+    private Producto producto;
+
+    @Column(nullable = false)
+    private int cantidad;
+
+    @Column(name = "precio_unitario", nullable = false, precision = 12, scale = 2)
+    private BigDecimal precioUnitario;
+
+    @Column(name = "nombre_producto")
+    private String nombreProducto;
+}
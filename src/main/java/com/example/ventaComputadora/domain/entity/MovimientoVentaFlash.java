@@ -0,0 +1,34 @@
+package com.example.ventaComputadora.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Unidades vendidas en venta flash que todavía no se descontaron de {@code productos.stock}. Se insertan en la
+ * misma transacción que el pago y se borran en la misma transacción que aplica el descuento, así que lo pendiente
+ * sobrevive a una caída y se aplica al reiniciar.
+ */
+@Entity
+@Table(name = "movimientos_venta_flash")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class MovimientoVentaFlash {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private int cantidad;
+
+    @Column(nullable = false)
+    private LocalDateTime fecha;
+}
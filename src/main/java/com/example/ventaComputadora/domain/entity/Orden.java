@@ -6,12 +6,15 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "ordenes")
+@Table(name = "ordenes", indexes = {
+        @Index(name = "idx_ordenes_usuario_fecha", columnList = "usuario_id, fechaCreacion, id"),
+        @Index(name = "idx_ordenes_estado_fecha_pago", columnList = "estado, fecha_pago, monto_total")})
 @Getter
 @Setter
 @Builder
@@ -24,18 +27,24 @@ public class Orden {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Versión para control de concurrencia optimista; también identifica la representación en los ETag.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     @JsonBackReference // <-- Asegura que no se referencie circularmente
     private Usuario usuario;
 
-    @ManyToMany(fetch = FetchType.EAGER)
-    @JoinTable(
-            name = "orden_productos",
-            joinColumns = @JoinColumn(name = "orden_id"),
-            inverseJoinColumns = @JoinColumn(name = "producto_id")
-    )
-    private Set<Producto> productos = new HashSet<>();
+    /**
+     * Líneas de la orden. Las operaciones del carrito las escriben de a una con JDBC, sin cargar la colección.
+     */
+    @Builder.Default
+    @OneToMany(mappedBy = "orden", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<LineaOrden> lineas = new ArrayList<>();
 
     @Column(nullable = false)
     private LocalDateTime fechaCreacion;
@@ -43,4 +52,13 @@ public class Orden {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private EstadoOrden estado;
+
+    /**
+     * Monto cobrado, guardado al pagar la orden. Es nulo mientras la orden no está pagada.
+     */
+    @Column(name = "monto_total", precision = 12, scale = 2)
+    private BigDecimal montoTotal;
+
+    @Column(name = "fecha_pago")
+    private LocalDateTime fechaPago;
 }
@@ -3,6 +3,7 @@ package com.example.ventaComputadora.domain.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -28,8 +29,8 @@ public class Pago {
     @Column(nullable = false)
     private LocalDateTime fechaPago;
 
-    @Column(nullable = false)
-    private double monto;
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal monto;
 
     @Column(nullable = false)
     private String estado;
@@ -4,12 +4,18 @@ import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "productos")
+@Table(name = "productos", indexes = {
+        @Index(name = "idx_productos_nombre_id", columnList = "nombre, id"),
+        @Index(name = "idx_productos_precio_stock", columnList = "precio, stock")
+})
 @Getter
 @Setter
 @Builder
@@ -22,25 +28,56 @@ public class Producto {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * Versión para control de concurrencia optimista; también identifica la representación en los ETag.
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(nullable = false, length = 100)
     private String nombre;
 
-    @Column(nullable = false)
-    private double precio;
+    /**
+     * Precio final: {@link #precioBase} más {@link #precioEspecificaciones}. Se guarda desnormalizado
+     * para ordenar y filtrar por precio; solo {@link com.example.ventaComputadora.services.PreciosService} lo calcula.
+     */
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal precio;
+
+    /**
+     * Precio del producto sin especificaciones, fijado por el administrador.
+     */
+    @Column(name = "precio_base", precision = 12, scale = 2)
+    private BigDecimal precioBase;
+
+    /**
+     * Suma de {@code precioAdicional * cantidad} de las especificaciones del producto.
+     */
+    @Column(name = "precio_especificaciones", precision = 12, scale = 2)
+    private BigDecimal precioEspecificaciones;
 
     @Column(length = 5000)
     private String descripcion;
 
+    /**
+     * URL externa de la imagen o cadena vacía. Las imágenes subidas en base64 se guardan en el
+     * almacén de imágenes y aquí solo queda su hash.
+     */
     @Column(name = "imagen", nullable = false, columnDefinition = "LONGTEXT")
     private String imagen;
 
+    @Column(name = "imagen_hash", length = 64)
+    private String imagenHash;
+
+    @Column(name = "imagen_tipo", length = 100)
+    private String imagenTipo;
+
     @Column(nullable = false)
     private int stock;
 
-    @ManyToMany(mappedBy = "productos", fetch = FetchType.LAZY)
-    private Set<Orden> ordenes = new HashSet<>();
-
     @OneToMany(mappedBy = "producto", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<ProductoEspecificacion> especificacionesDisponibles = new HashSet<>();
 
     @OneToMany(mappedBy = "producto", cascade = CascadeType.ALL, orphanRemoval = true)
@@ -49,10 +86,10 @@ public class Producto {
     @OneToMany(mappedBy = "producto", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Favorito> favoritos = new HashSet<>();
 
-    public Producto(Long id, String nombre, double precio, String descripcion, String imagen, int stock, Set<ProductoEspecificacion> especificacionesDisponibles, Set<Comentario> comentarios, Set<Favorito> favoritos) {
+    public Producto(Long id, String nombre, BigDecimal precio, String descripcion, String imagen, int stock, Set<ProductoEspecificacion> especificacionesDisponibles, Set<Comentario> comentarios, Set<Favorito> favoritos) {
         this.id = id;
         this.nombre = nombre;
-        this.precio = precio;
+        this.precioBase = precio;
         this.descripcion = descripcion;
         this.imagen = imagen;
         this.stock = stock;
@@ -0,0 +1,19 @@
+package com.example.ventaComputadora.domain.entity;
+
+import com.example.ventaComputadora.domain.DTO.FaltanteStockDTO;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Se lanza cuando una o más líneas de una orden piden más unidades de las que hay en stock.
+ */
+@Getter
+public class StockInsuficienteException extends RuntimeException {
+    private final List<FaltanteStockDTO> faltantes;
+
+    public StockInsuficienteException(List<FaltanteStockDTO> faltantes) {
+        super("Stock insuficiente para " + faltantes.size() + " producto(s).");
+        this.faltantes = faltantes;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.ventaComputadora.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Entrada del diccionario de especificaciones: un tipo (RAM, Procesador, ...) o una marca con su nombre canónico.
+ * Los sinónimos son otras formas de escribirlo que se resuelven al mismo ID.
+ */
+@Entity
+@Table(name = "terminos_especificacion", uniqueConstraints = @UniqueConstraint(name = "uk_terminos_categoria_nombre", columnNames = {"categoria", "nombre"}))
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class TerminoEspecificacion {
+    public enum Categoria {TIPO, MARCA}
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Categoria categoria;
+
+    @Column(nullable = false, length = 100)
+    private String nombre;
+
+    @Builder.Default
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "termino_especificacion_sinonimos", joinColumns = @JoinColumn(name = "termino_id"))
+    @Column(name = "sinonimo", nullable = false, length = 100)
+    private Set<String> sinonimos = new HashSet<>();
+}
@@ -0,0 +1,33 @@
+package com.example.ventaComputadora.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Acumulado de ventas de un día: órdenes pagadas, unidades y monto cobrado. Se suma en la misma transacción
+ * de cada pago y se puede reconstruir desde el historial.
+ */
+@Entity
+@Table(name = "ventas_diarias")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(of = "fecha")
+public class VentaDiaria {
+    @Id
+    private LocalDate fecha;
+
+    @Column(nullable = false)
+    private long ordenes;
+
+    @Column(nullable = false)
+    private long unidades;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal monto;
+}
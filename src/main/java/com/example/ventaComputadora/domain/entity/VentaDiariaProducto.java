@@ -0,0 +1,41 @@
+package com.example.ventaComputadora.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Acumulado de ventas de un producto en un día: órdenes que lo incluyen, unidades y monto cobrado por sus líneas.
+ */
+@Entity
+@Table(name = "ventas_diarias_producto",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ventas_diarias_producto_fecha", columnNames = {"fecha", "producto_id"}),
+        indexes = @Index(name = "idx_ventas_diarias_producto_producto", columnList = "producto_id, fecha"))
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class VentaDiariaProducto {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private long ordenes;
+
+    @Column(nullable = false)
+    private long unidades;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal monto;
+}
@@ -0,0 +1,39 @@
+package com.example.ventaComputadora.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Acumulado de ventas de un tipo canónico de especificación en un día: unidades de componentes de ese tipo
+ * vendidas dentro de los productos y lo que aportaron al precio según su precio adicional.
+ */
+@Entity
+@Table(name = "ventas_diarias_tipo",
+        uniqueConstraints = @UniqueConstraint(name = "uk_ventas_diarias_tipo_fecha", columnNames = {"fecha", "tipo_id"}),
+        indexes = @Index(name = "idx_ventas_diarias_tipo_tipo", columnList = "tipo_id, fecha"))
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(of = "id")
+public class VentaDiariaTipo {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(name = "tipo_id", nullable = false)
+    private Long tipoId;
+
+    @Column(nullable = false)
+    private long unidades;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal monto;
+}
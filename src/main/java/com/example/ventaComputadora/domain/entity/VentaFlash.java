@@ -0,0 +1,32 @@
+package com.example.ventaComputadora.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Producto en modo venta flash: mientras está activa, su stock se reserva en memoria y se aplica a
+ * {@code productos.stock} en lotes a partir de {@link MovimientoVentaFlash}.
+ */
+@Entity
+@Table(name = "ventas_flash")
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(of = "productoId")
+public class VentaFlash {
+    @Id
+    @Column(name = "producto_id")
+    private Long productoId;
+
+    @Column(nullable = false)
+    private boolean activa;
+
+    @Column(nullable = false)
+    private LocalDateTime inicio;
+
+    private LocalDateTime fin;
+}
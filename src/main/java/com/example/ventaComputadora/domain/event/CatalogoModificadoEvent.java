@@ -0,0 +1,77 @@
+package com.example.ventaComputadora.domain.event;
+
+import lombok.Getter;
+
+import java.util.Set;
+
+/**
+ * Evento que se publica cuando cambian datos que forman parte del catálogo de productos.
+ * Si {@code productoIds} es nulo el cambio puede afectar a cualquier producto.
+ * {@code especificaciones} indica que además cambió la definición de alguna especificación (nombre, tipo o precio
+ * adicional), no solo los productos. {@code actividad} indica que el cambio viene de la actividad de los usuarios
+ * (stock, comentarios o favoritos) y no toca nombres, precios ni especificaciones.
+ */
+@Getter
+public class CatalogoModificadoEvent {
+    private final Set<Long> productoIds;
+    private final boolean especificaciones;
+    private final boolean actividad;
+
+    public CatalogoModificadoEvent(Set<Long> productoIds) {
+        this(productoIds, false);
+    }
+
+    public CatalogoModificadoEvent(Set<Long> productoIds, boolean especificaciones) {
+        this(productoIds, especificaciones, false);
+    }
+
+    private CatalogoModificadoEvent(Set<Long> productoIds, boolean especificaciones, boolean actividad) {
+        this.productoIds = productoIds;
+        this.especificaciones = especificaciones;
+        this.actividad = actividad;
+    }
+
+    public static CatalogoModificadoEvent deProducto(Long productoId) {
+        return new CatalogoModificadoEvent(Set.of(productoId));
+    }
+
+    /**
+     * Cambio en la definición de especificaciones que afecta a los productos indicados.
+     */
+    public static CatalogoModificadoEvent deEspecificaciones(Set<Long> productoIds) {
+        return new CatalogoModificadoEvent(productoIds, true);
+    }
+
+    public static CatalogoModificadoEvent deActividad(Long productoId) {
+        return deActividad(Set.of(productoId));
+    }
+
+    /**
+     * Cambio de stock, comentarios o favoritos de los productos indicados.
+     */
+    public static CatalogoModificadoEvent deActividad(Set<Long> productoIds) {
+        return new CatalogoModificadoEvent(productoIds, false, true);
+    }
+
+    public static CatalogoModificadoEvent completo() {
+        return new CatalogoModificadoEvent(null);
+    }
+
+    public boolean esCompleto() {
+        return productoIds == null;
+    }
+
+    /**
+     * Indica si el cambio puede afectar la definición de las especificaciones.
+     */
+    public boolean afectaEspecificaciones() {
+        return especificaciones || esCompleto();
+    }
+
+    /**
+     * Indica si el cambio solo afecta datos de actividad de los usuarios.
+     */
+    public boolean esDeActividad() {
+        return actividad;
+    }
+}
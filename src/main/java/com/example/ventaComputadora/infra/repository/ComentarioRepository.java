@@ -2,10 +2,27 @@ package com.example.ventaComputadora.infra.repository;
 
 import com.example.ventaComputadora.domain.entity.Comentario;
 import com.example.ventaComputadora.domain.entity.Producto;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ComentarioRepository extends JpaRepository<Comentario, Long> {
     List<Comentario> findAllByProducto(Producto producto);
-}
\ No newline at end of file
+
+    @Query("select c from Comentario c join fetch c.usuario where c.producto.id in :productoIds")
+    List<Comentario> findAllConUsuarioByProductoIdIn(@Param("productoIds") Collection<Long> productoIds);
+
+    /**
+     * Devuelve los comentarios del producto anteriores a la clave (fecha, id), del más reciente al más antiguo.
+     * Con fecha nula empieza desde el más reciente.
+     */
+    @Query("select c from Comentario c join fetch c.usuario join fetch c.producto where c.producto.id = :productoId " +
+            "and (:fecha is null or c.fecha < :fecha or (c.fecha = :fecha and c.id < :id)) order by c.fecha desc, c.id desc")
+    List<Comentario> findPaginaPorProductoAntesDe(@Param("productoId") Long productoId, @Param("fecha") LocalDateTime fecha,
+                                                  @Param("id") Long id, Pageable pageable);
+}
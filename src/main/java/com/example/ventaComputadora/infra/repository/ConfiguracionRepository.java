@@ -0,0 +1,17 @@
+package com.example.ventaComputadora.infra.repository;
+
+import com.example.ventaComputadora.domain.entity.Configuracion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ConfiguracionRepository extends JpaRepository<Configuracion, Long> {
+    @Query("select distinct c from Configuracion c left join fetch c.especificacionIds " +
+            "where c.usuario.id = :usuarioId order by c.id desc")
+    List<Configuracion> findAllByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    Optional<Configuracion> findByIdAndUsuarioId(Long id, Long usuarioId);
+}
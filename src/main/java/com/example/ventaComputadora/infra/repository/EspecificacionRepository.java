@@ -1,7 +1,9 @@
 package com.example.ventaComputadora.infra.repository;
 
 import com.example.ventaComputadora.domain.entity.Especificacion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,5 +13,20 @@ public interface EspecificacionRepository extends JpaRepository<Especificacion,
     Optional<Especificacion> findByNombreIgnoreCase(String nombre);
     List<Especificacion> findByMarcaContainingIgnoreCase(String marca);
     List<Especificacion> findByTipoContainingIgnoreCase(String tipo);
-    List<Especificacion> findByMarcaContainingIgnoreCaseAndTipoContainingIgnoreCase(String marca, String tipo);
-}
\ No newline at end of file
+    List<Especificacion> findByTipoTerminoId(Long tipoId);
+    List<Especificacion> findByMarcaTerminoId(Long marcaId);
+    List<Especificacion> findByMarcaTerminoIdAndTipoTerminoId(Long marcaId, Long tipoId);
+    List<Especificacion> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Devuelve filas [id, nombre, tipoId, tipo, precioAdicional] de todas las especificaciones para el configurador.
+     */
+    @Query("select e.id, e.nombre, e.tipoTermino.id, e.tipo, e.precioAdicional from Especificacion e")
+    List<Object[]> findDatosConfigurador();
+
+    /**
+     * Devuelve filas [id, nombre, marca, cantidad de productos que la usan] de todas las especificaciones.
+     */
+    @Query("select e.id, e.nombre, e.marca, count(pe) from Especificacion e left join e.productoEspecificaciones pe group by e.id, e.nombre, e.marca")
+    List<Object[]> findResumenUso();
+}
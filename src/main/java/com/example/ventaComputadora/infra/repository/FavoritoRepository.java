@@ -4,7 +4,10 @@ import com.example.ventaComputadora.domain.entity.Favorito;
 import com.example.ventaComputadora.domain.entity.Producto;
 import com.example.ventaComputadora.domain.entity.Usuario;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +15,16 @@ public interface FavoritoRepository extends JpaRepository<Favorito, Long> {
     List<Favorito> findAllByUsuario(Usuario usuario);
     Optional<Favorito> findByUsuarioAndProducto(Usuario usuario, Producto producto);
     boolean existsByUsuarioAndProducto(Usuario usuario, Producto producto);
-}
\ No newline at end of file
+
+    /**
+     * Devuelve pares [productoId, username] de los favoritos de los productos indicados.
+     */
+    @Query("select f.producto.id, f.usuario.username from Favorito f where f.producto.id in :productoIds")
+    List<Object[]> findUsernamesByProductoIdIn(@Param("productoIds") Collection<Long> productoIds);
+
+    /**
+     * Devuelve pares [productoId, cantidad de favoritos] de todos los productos marcados como favoritos.
+     */
+    @Query("select f.producto.id, count(f) from Favorito f group by f.producto.id")
+    List<Object[]> contarPorProducto();
+}
@@ -0,0 +1,37 @@
+package com.example.ventaComputadora.infra.repository;
+
+import com.example.ventaComputadora.domain.entity.LineaOrden;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface LineaOrdenRepository extends JpaRepository<LineaOrden, Long> {
+    /**
+     * Devuelve filas [ordenId, productoId, nombreProducto, cantidad, precioUnitario] de las órdenes indicadas,
+     * con los valores guardados en las líneas y sin leer la tabla de productos.
+     */
+    @Query("select l.orden.id, l.producto.id, l.nombreProducto, l.cantidad, l.precioUnitario from LineaOrden l " +
+            "where l.orden.id in :ordenIds order by l.id")
+    List<Object[]> findResumenByOrdenIdIn(@Param("ordenIds") Collection<Long> ordenIds);
+
+    @Query("select l.orden.id, l.producto.id, l.nombreProducto, l.cantidad, l.precioUnitario from LineaOrden l " +
+            "where l.orden.id = :ordenId and l.producto.id in :productoIds order by l.id")
+    List<Object[]> findResumenByOrdenIdAndProductoIdIn(@Param("ordenId") Long ordenId,
+                                                       @Param("productoIds") Collection<Long> productoIds);
+
+    /**
+     * Devuelve pares [productoId, cantidad] de una orden.
+     */
+    @Query("select l.producto.id, l.cantidad from LineaOrden l where l.orden.id = :ordenId")
+    List<Object[]> findCantidadesByOrdenId(@Param("ordenId") Long ordenId);
+
+    /**
+     * Monto de una orden con el precio guardado en cada línea por su cantidad.
+     */
+    @Query("select coalesce(sum(l.precioUnitario * l.cantidad), 0) from LineaOrden l where l.orden.id = :ordenId")
+    BigDecimal sumMontoByOrdenId(@Param("ordenId") Long ordenId);
+}
@@ -3,8 +3,13 @@ package com.example.ventaComputadora.infra.repository;
 import com.example.ventaComputadora.domain.entity.EstadoOrden;
 import com.example.ventaComputadora.domain.entity.Orden;
 import com.example.ventaComputadora.domain.entity.Usuario;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +17,66 @@ public interface OrdenRepository extends JpaRepository<Orden, Long> {
 
     List<Orden> findByUsuarioIdAndEstado(Long usuarioId, EstadoOrden estado);
     List<Orden> findByUsuarioId(Long usuarioId);
-}
\ No newline at end of file
+
+    /**
+     * Devuelve pares [id, version] de las órdenes del usuario en el estado indicado, ordenadas por ID.
+     * Las líneas guardan el nombre y el precio del producto, así que la representación de una orden solo
+     * cambia cuando cambia su versión.
+     */
+    @Query("select o.id, o.version from Orden o where o.usuario.id = :usuarioId and o.estado = :estado order by o.id")
+    List<Object[]> findVersionesByUsuarioIdAndEstado(@Param("usuarioId") Long usuarioId, @Param("estado") EstadoOrden estado);
+
+    /**
+     * Devuelve pares [productoId, cantidad de órdenes] de todos los productos que aparecen en alguna orden.
+     * Cada orden tiene a lo sumo una línea por producto, así que contar líneas es contar órdenes.
+     */
+    @Query("select l.producto.id, count(l) from LineaOrden l group by l.producto.id")
+    List<Object[]> contarOrdenesPorProducto();
+
+    /**
+     * Devuelve los IDs de las órdenes del usuario anteriores a la clave (fechaCreacion, id), de la más reciente
+     * a la más antigua. Con fecha nula empieza desde la más reciente.
+     */
+    @Query("select o.id from Orden o where o.usuario.id = :usuarioId and (:fecha is null or o.fechaCreacion < :fecha " +
+            "or (o.fechaCreacion = :fecha and o.id < :id)) order by o.fechaCreacion desc, o.id desc")
+    List<Long> findIdsPorUsuarioAntesDe(@Param("usuarioId") Long usuarioId, @Param("fecha") LocalDateTime fecha,
+                                        @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Devuelve filas [id, fechaCreacion, estado, unidades, monto] de las órdenes del usuario anteriores a
+     * (fecha, id), de la más reciente a la más antigua. Las unidades y el monto se suman desde las líneas en la
+     * misma consulta, agrupando por orden.
+     */
+    @Query("select o.id, o.fechaCreacion, o.estado, coalesce(sum(l.cantidad), 0), " +
+            "coalesce(o.montoTotal, sum(l.precioUnitario * l.cantidad), 0) from Orden o left join o.lineas l " +
+            "where o.usuario.id = :usuarioId and (:fecha is null or o.fechaCreacion < :fecha " +
+            "or (o.fechaCreacion = :fecha and o.id < :id)) " +
+            "group by o.id, o.fechaCreacion, o.estado, o.montoTotal order by o.fechaCreacion desc, o.id desc")
+    List<Object[]> findResumenesPorUsuarioAntesDe(@Param("usuarioId") Long usuarioId, @Param("fecha") LocalDateTime fecha,
+                                                  @Param("id") Long id, Pageable pageable);
+
+    @Query("select o from Orden o join fetch o.usuario where o.id in :ids")
+    List<Orden> findAllConUsuarioByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Devuelve los IDs de las órdenes del usuario en el estado indicado, de la más antigua a la más reciente.
+     */
+    @Query("select o.id from Orden o where o.usuario.id = :usuarioId and o.estado = :estado order by o.id")
+    List<Long> findIdsByUsuarioIdAndEstado(@Param("usuarioId") Long usuarioId, @Param("estado") EstadoOrden estado,
+                                           Pageable pageable);
+
+    @Query("select o.estado from Orden o where o.id = :id")
+    Optional<EstadoOrden> findEstadoById(@Param("id") Long id);
+
+    @Query("select o.usuario.id from Orden o where o.id = :id")
+    Optional<Long> findUsuarioIdById(@Param("id") Long id);
+
+    /**
+     * Devuelve una fila [cantidad de órdenes, monto cobrado] de las órdenes pagadas en [desde, hasta), resuelta
+     * con el índice por estado, fecha de pago y monto sin leer las líneas.
+     */
+    @Query("select count(o), coalesce(sum(o.montoTotal), 0) from Orden o " +
+            "where o.estado = :estado and o.fechaPago >= :desde and o.fechaPago < :hasta")
+    List<Object[]> sumIngresos(@Param("estado") EstadoOrden estado, @Param("desde") LocalDateTime desde,
+                               @Param("hasta") LocalDateTime hasta);
+}
@@ -3,7 +3,36 @@ package com.example.ventaComputadora.infra.repository;
 import com.example.ventaComputadora.domain.entity.ProductoEspecificacion;
 import com.example.ventaComputadora.domain.entity.ProductoEspecificacionId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public interface ProductoEspecificacionRepository extends JpaRepository<ProductoEspecificacion, ProductoEspecificacionId> {
     boolean existsByEspecificacionId(Long especificacionId);
+
+    @Query("select pe.producto.id from ProductoEspecificacion pe where pe.especificacion.id = :especificacionId")
+    Set<Long> findProductoIdsByEspecificacionId(@Param("especificacionId") Long especificacionId);
+
+    /**
+     * Devuelve filas [productoId, tipo, nombre, marca, tipoId] de las especificaciones de los productos indicados;
+     * tipoId es el tipo canónico del diccionario.
+     */
+    @Query("select pe.producto.id, e.tipo, e.nombre, e.marca, e.tipoTermino.id from ProductoEspecificacion pe join pe.especificacion e " +
+            "where pe.producto.id in :productoIds")
+    List<Object[]> findDatosIndiceByProductoIdIn(@Param("productoIds") Collection<Long> productoIds);
+
+    @Query("select pe.producto.id, e.tipo, e.nombre, e.marca, e.tipoTermino.id from ProductoEspecificacion pe join pe.especificacion e")
+    List<Object[]> findDatosIndice();
+
+    /**
+     * Devuelve filas [productoId, especificacionId, cantidad] de los productos indicados para el configurador.
+     */
+    @Query("select pe.producto.id, pe.especificacion.id, pe.cantidad from ProductoEspecificacion pe where pe.producto.id in :productoIds")
+    List<Object[]> findDatosConfiguradorByProductoIdIn(@Param("productoIds") Collection<Long> productoIds);
+
+    @Query("select pe.producto.id, pe.especificacion.id, pe.cantidad from ProductoEspecificacion pe")
+    List<Object[]> findDatosConfigurador();
 }
\ No newline at end of file
@@ -1,15 +1,148 @@
 package com.example.ventaComputadora.infra.repository;
 
 import com.example.ventaComputadora.domain.entity.Producto;
+import com.example.ventaComputadora.infra.storage.ImagenAlmacenada;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
     List<Producto> findByNombreContainingIgnoreCaseOrDescripcionContainingIgnoreCase(String nombre, String descripcion);
     List<Producto> findAllByOrderByNombreAsc();
     Optional<Producto> findByNombreIgnoreCase(String nombre);
+
+    @Query("select p.id from Producto p")
+    List<Long> findAllIds();
+
+    @Query(value = "select p.id from Producto p", countQuery = "select count(p) from Producto p")
+    Page<Long> findPaginaDeIds(Pageable pageable);
+
+    /**
+     * Devuelve una página de IDs en el orden del catálogo: nombre por código Unicode y luego ID.
+     */
+    @Query(value = "SELECT id FROM productos ORDER BY nombre COLLATE utf8mb4_0900_bin, id",
+            countQuery = "SELECT COUNT(*) FROM productos", nativeQuery = true)
+    Page<Long> findPaginaDeIdsPorNombre(Pageable pageable);
+
+    @Query("select distinct p from Producto p " +
+            "left join fetch p.especificacionesDisponibles pe " +
+            "left join fetch pe.especificacion " +
+            "where p.id in :ids")
+    List<Producto> findAllConEspecificacionesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Devuelve filas [id, precio, stock] de los productos indicados para los índices en memoria.
+     */
+    @Query("select p.id, p.precio, p.stock from Producto p where p.id in :ids")
+    List<Object[]> findDatosIndiceByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id, p.precio, p.stock from Producto p")
+    List<Object[]> findDatosIndice();
+
+    /**
+     * Devuelve filas [id, nombre, precio] de los productos indicados para las líneas de los carritos en memoria.
+     */
+    @Query("select p.id, p.nombre, p.precio from Producto p where p.id in :ids")
+    List<Object[]> findNombresYPreciosByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Devuelve filas [id, nombre, precioBase] de los productos indicados para el configurador.
+     */
+    @Query("select p.id, p.nombre, p.precioBase from Producto p where p.id in :ids")
+    List<Object[]> findDatosConfiguradorByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id, p.nombre, p.precioBase from Producto p")
+    List<Object[]> findDatosConfigurador();
+
+    /**
+     * Devuelve filas [id, nombre, descripcion] de los productos indicados para el buscador en memoria.
+     */
+    @Query("select p.id, p.nombre, p.descripcion from Producto p where p.id in :ids")
+    List<Object[]> findTextosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id, p.nombre, p.descripcion from Producto p")
+    List<Object[]> findTextos();
+
+    /**
+     * Devuelve pares [id, nombre] de todos los productos.
+     */
+    @Query("select p.id, p.nombre from Producto p")
+    List<Object[]> findNombres();
+
+    /**
+     * Recorre todos los productos con sus especificaciones como filas
+     * [id, nombre, precio, descripcion, imagen, imagenHash, stock, version, especificacionId, especificacionNombre, precioAdicional, cantidad],
+     * ordenadas por ID de producto. El tamaño de lectura {@code Integer.MIN_VALUE} hace que el driver de MySQL
+     * entregue las filas de a una desde el servidor en lugar de cargar el resultado completo en memoria.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p.id, p.nombre, p.precio, p.descripcion, p.imagen, p.imagenHash, p.stock, p.version, " +
+            "e.id, e.nombre, e.precioAdicional, pe.cantidad " +
+            "from Producto p left join p.especificacionesDisponibles pe left join pe.especificacion e order by p.id")
+    Stream<Object[]> streamExportacion();
+
+    /**
+     * Devuelve pares [id, version] de los productos indicados.
+     */
+    @Query("select p.id, p.version from Producto p where p.id in :ids")
+    List<Object[]> findVersionesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.version from Producto p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Carga el producto y fuerza el incremento de su versión al confirmar la transacción.
+     * Se usa cuando cambian datos que forman parte de su representación sin modificar la fila del producto,
+     * como comentarios y favoritos.
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("select p from Producto p where p.id = :id")
+    Optional<Producto> findByIdForzandoVersion(@Param("id") Long id);
+
+    /**
+     * Incrementa la versión de los productos indicados, por ejemplo cuando cambia una especificación que usan.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Producto p set p.version = p.version + 1 where p.id in :ids")
+    int incrementarVersiones(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Devuelve los IDs de los productos posteriores a la clave (nombre, id) en el orden del catálogo: nombre por
+     * código Unicode (utf8mb4_0900_bin, el mismo orden que {@code CatalogoSnapshot}) y luego ID.
+     * Con nombre nulo empieza desde el primero.
+     */
+    @Query(value = "SELECT id FROM productos WHERE :nombre IS NULL OR nombre COLLATE utf8mb4_0900_bin > :nombre " +
+            "OR (nombre COLLATE utf8mb4_0900_bin = :nombre AND id > :id) ORDER BY nombre COLLATE utf8mb4_0900_bin, id",
+            nativeQuery = true)
+    List<Long> findIdsPorNombreDespuesDe(@Param("nombre") String nombre, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Devuelve los IDs de los productos cuyo nombre o descripción contienen el texto, posteriores al ID indicado.
+     */
+    @Query("select p.id from Producto p where (lower(p.nombre) like lower(concat('%', :texto, '%')) " +
+            "or lower(p.descripcion) like lower(concat('%', :texto, '%'))) and p.id > :despuesDe order by p.id")
+    List<Long> findIdsPorTextoDespuesDe(@Param("texto") String texto, @Param("despuesDe") long despuesDe, Pageable pageable);
+
+    @Query("select new com.example.ventaComputadora.infra.storage.ImagenAlmacenada(p.imagenHash, p.imagenTipo) " +
+            "from Producto p where p.id = :id and p.imagenHash is not null")
+    Optional<ImagenAlmacenada> findImagenById(@Param("id") Long id);
 }
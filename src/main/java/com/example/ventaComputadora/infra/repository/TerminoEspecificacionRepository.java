@@ -0,0 +1,13 @@
+package com.example.ventaComputadora.infra.repository;
+
+import com.example.ventaComputadora.domain.entity.TerminoEspecificacion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface TerminoEspecificacionRepository extends JpaRepository<TerminoEspecificacion, Long> {
+    List<TerminoEspecificacion> findByCategoriaOrderByNombreAsc(TerminoEspecificacion.Categoria categoria);
+    Optional<TerminoEspecificacion> findByCategoriaAndNombreIgnoreCase(TerminoEspecificacion.Categoria categoria, String nombre);
+    boolean existsByCategoria(TerminoEspecificacion.Categoria categoria);
+}
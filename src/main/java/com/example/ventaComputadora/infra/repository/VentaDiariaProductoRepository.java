@@ -0,0 +1,22 @@
+package com.example.ventaComputadora.infra.repository;
+
+import com.example.ventaComputadora.domain.entity.VentaDiariaProducto;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VentaDiariaProductoRepository extends JpaRepository<VentaDiariaProducto, Long> {
+    List<VentaDiariaProducto> findByProductoIdAndFechaBetweenOrderByFecha(Long productoId, LocalDate desde, LocalDate hasta);
+
+    /**
+     * Devuelve filas [productoId, órdenes, unidades, monto] de los productos vendidos entre las fechas indicadas,
+     * inclusive, de mayor a menor monto.
+     */
+    @Query("select v.productoId, sum(v.ordenes), sum(v.unidades), sum(v.monto) from VentaDiariaProducto v " +
+            "where v.fecha between :desde and :hasta group by v.productoId order by sum(v.monto) desc, v.productoId")
+    List<Object[]> sumPorProducto(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta, Pageable pageable);
+}
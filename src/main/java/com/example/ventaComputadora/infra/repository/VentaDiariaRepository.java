@@ -0,0 +1,11 @@
+package com.example.ventaComputadora.infra.repository;
+
+import com.example.ventaComputadora.domain.entity.VentaDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VentaDiariaRepository extends JpaRepository<VentaDiaria, LocalDate> {
+    List<VentaDiaria> findByFechaBetweenOrderByFecha(LocalDate desde, LocalDate hasta);
+}
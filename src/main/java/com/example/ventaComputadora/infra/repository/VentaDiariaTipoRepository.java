@@ -0,0 +1,20 @@
+package com.example.ventaComputadora.infra.repository;
+
+import com.example.ventaComputadora.domain.entity.VentaDiariaTipo;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VentaDiariaTipoRepository extends JpaRepository<VentaDiariaTipo, Long> {
+
+    /**
+     * Devuelve filas [tipoId, unidades, monto] de los tipos de especificación vendidos entre las fechas indicadas,
+     * inclusive, de mayor a menor monto.
+     */
+    @Query("select v.tipoId, sum(v.unidades), sum(v.monto) from VentaDiariaTipo v " +
+            "where v.fecha between :desde and :hasta group by v.tipoId order by sum(v.monto) desc, v.tipoId")
+    List<Object[]> sumPorTipo(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+}
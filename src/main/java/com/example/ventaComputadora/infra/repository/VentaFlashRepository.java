@@ -0,0 +1,10 @@
+package com.example.ventaComputadora.infra.repository;
+
+import com.example.ventaComputadora.domain.entity.VentaFlash;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface VentaFlashRepository extends JpaRepository<VentaFlash, Long> {
+    List<VentaFlash> findByActivaTrue();
+}
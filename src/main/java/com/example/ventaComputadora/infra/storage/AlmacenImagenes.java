@@ -0,0 +1,155 @@
+package com.example.ventaComputadora.infra.storage;
+
+import com.example.ventaComputadora.domain.entity.Producto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Almacén de imágenes en disco direccionado por contenido.
+ * Cada imagen se guarda una sola vez bajo el hash SHA-256 de sus bytes.
+ */
+@Component
+public class AlmacenImagenes {
+    private static final String PREFIJO_URL = "/productos/";
+
+    private final Path directorio;
+
+    public AlmacenImagenes(@Value("${app.imagenes.directorio:imagenes}") String directorio) {
+        this.directorio = Paths.get(directorio).toAbsolutePath();
+    }
+
+    /**
+     * Guarda una imagen recibida en base64, con o sin el prefijo "data:[tipo];base64,".
+     *
+     * @param contenido Imagen codificada en base64.
+     * @return Referencia a la imagen almacenada.
+     * @throws IllegalArgumentException Si el contenido no es base64 válido.
+     */
+    public ImagenAlmacenada guardarBase64(String contenido) {
+        String tipo = null;
+        String datos = contenido.trim();
+        if (datos.startsWith("data:")) {
+            int coma = datos.indexOf(',');
+            if (coma < 0) {
+                throw new IllegalArgumentException("Imagen en formato data URL inválido");
+            }
+            String cabecera = datos.substring(5, coma);
+            int puntoYComa = cabecera.indexOf(';');
+            tipo = puntoYComa >= 0 ? cabecera.substring(0, puntoYComa) : cabecera;
+            datos = datos.substring(coma + 1);
+        }
+        byte[] bytes = Base64.getMimeDecoder().decode(datos);
+        return guardar(bytes, StringUtils.hasText(tipo) ? tipo : detectarTipo(bytes));
+    }
+
+    /**
+     * Guarda los bytes de una imagen. Si ya existe una imagen con el mismo contenido no se vuelve a escribir.
+     *
+     * @param bytes Contenido de la imagen.
+     * @param tipo Tipo MIME de la imagen.
+     * @return Referencia a la imagen almacenada.
+     */
+    public ImagenAlmacenada guardar(byte[] bytes, String tipo) {
+        String hash = calcularHash(bytes);
+        Path destino = resolver(hash);
+        if (!Files.exists(destino)) {
+            try {
+                Files.createDirectories(destino.getParent());
+                Path temporal = Files.createTempFile(destino.getParent(), hash, ".tmp");
+                Files.write(temporal, bytes);
+                try {
+                    Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    Files.deleteIfExists(temporal);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo guardar la imagen " + hash, e);
+            }
+        }
+        return new ImagenAlmacenada(hash, tipo);
+    }
+
+    /**
+     * Resuelve la ruta en disco de una imagen a partir de su hash.
+     *
+     * @param hash Hash SHA-256 en hexadecimal.
+     * @return Ruta del archivo.
+     */
+    public Path resolver(String hash) {
+        if (hash.length() != 64 || !hash.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            throw new IllegalArgumentException("Hash de imagen inválido");
+        }
+        return directorio.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * Construye la URL pública de la imagen de un producto.
+     * Si la imagen está en el almacén la URL incluye el hash, de modo que cambia cuando cambia la imagen;
+     * si el producto apunta a una URL externa se devuelve tal cual.
+     *
+     * @param producto Producto.
+     * @return URL de la imagen o cadena vacía si no tiene.
+     */
+    public String construirUrl(Producto producto) {
+        return construirUrl(producto.getId(), producto.getImagenHash(), producto.getImagen());
+    }
+
+    public String construirUrl(Long productoId, String imagenHash, String imagenExterna) {
+        if (imagenHash != null) {
+            return PREFIJO_URL + productoId + "/imagen?v=" + imagenHash.substring(0, 16);
+        }
+        return imagenExterna != null ? imagenExterna : "";
+    }
+
+    /**
+     * Indica si el valor es una URL externa (http/https) que no se guarda en el almacén.
+     */
+    public boolean esUrlExterna(String valor) {
+        return valor.startsWith("http://") || valor.startsWith("https://");
+    }
+
+    /**
+     * Indica si el valor es una URL generada por {@link #construirUrl(Producto)}.
+     */
+    public boolean esUrlPropia(String valor) {
+        return valor.startsWith(PREFIJO_URL);
+    }
+
+    private String calcularHash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String detectarTipo(byte[] bytes) {
+        if (bytes.length >= 8 && (bytes[0] & 0xFF) == 0x89 && bytes[1] == 'P' && bytes[2] == 'N' && bytes[3] == 'G') {
+            return "image/png";
+        }
+        if (bytes.length >= 3 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xD8 && (bytes[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (bytes.length >= 6 && bytes[0] == 'G' && bytes[1] == 'I' && bytes[2] == 'F') {
+            return "image/gif";
+        }
+        if (bytes.length >= 12 && bytes[0] == 'R' && bytes[1] == 'I' && bytes[2] == 'F' && bytes[3] == 'F'
+                && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P') {
+            return "image/webp";
+        }
+        return "application/octet-stream";
+    }
+}
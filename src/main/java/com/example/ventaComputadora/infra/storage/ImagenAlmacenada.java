@@ -0,0 +1,14 @@
+package com.example.ventaComputadora.infra.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Referencia a una imagen guardada en el almacén: hash SHA-256 del contenido y tipo MIME.
+ */
+@Getter
+@AllArgsConstructor
+public class ImagenAlmacenada {
+    private final String hash;
+    private final String tipo;
+}
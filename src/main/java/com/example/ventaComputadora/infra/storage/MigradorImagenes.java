@@ -0,0 +1,56 @@
+package com.example.ventaComputadora.infra.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mueve al almacén de imágenes las imágenes base64 que aún quedan en la columna LONGTEXT productos.imagen.
+ * Se ejecuta al iniciar la aplicación y procesa los productos por lotes de ID. La columna solo se vacía después de
+ * escribir la imagen, así que app.imagenes.directorio debe apuntar a un disco persistente (en Fly, el volumen
+ * montado en /data); si una imagen no se puede escribir, el producto conserva su copia en la base de datos.
+ */
+@Component
+@RequiredArgsConstructor
+public class MigradorImagenes implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MigradorImagenes.class);
+    private static final int TAMANO_LOTE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AlmacenImagenes almacenImagenes;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long ultimoId = 0;
+        int migradas = 0;
+        List<Map<String, Object>> lote;
+        do {
+            lote = jdbcTemplate.queryForList(
+                    "SELECT id, imagen FROM productos WHERE id > ? AND imagen_hash IS NULL AND imagen <> '' " +
+                            "AND imagen NOT LIKE 'http%' ORDER BY id LIMIT " + TAMANO_LOTE, ultimoId);
+            for (Map<String, Object> fila : lote) {
+                ultimoId = ((Number) fila.get("id")).longValue();
+                try {
+                    ImagenAlmacenada imagen = almacenImagenes.guardarBase64((String) fila.get("imagen"));
+                    jdbcTemplate.update("UPDATE productos SET imagen_hash = ?, imagen_tipo = ?, imagen = '' WHERE id = ?",
+                            imagen.getHash(), imagen.getTipo(), ultimoId);
+                    migradas++;
+                } catch (IllegalArgumentException | UncheckedIOException e) {
+                    logger.warn("No se pudo migrar la imagen del producto con ID: {}", ultimoId, e);
+                }
+            }
+        } while (lote.size() == TAMANO_LOTE);
+
+        if (migradas > 0) {
+            logger.info("Imágenes migradas al almacén: {}", migradas);
+        }
+    }
+}
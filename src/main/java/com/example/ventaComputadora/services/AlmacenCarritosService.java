@@ -0,0 +1,726 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.LineaOrdenDTO;
+import com.example.ventaComputadora.domain.DTO.MetricasCarritosDTO;
+import com.example.ventaComputadora.domain.DTO.OrdenDTO;
+import com.example.ventaComputadora.domain.DTO.UsuarioDTO;
+import com.example.ventaComputadora.domain.entity.EstadoOrden;
+import com.example.ventaComputadora.domain.entity.Orden;
+import com.example.ventaComputadora.domain.entity.Usuario;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import com.example.ventaComputadora.infra.repository.LineaOrdenRepository;
+import com.example.ventaComputadora.infra.repository.OrdenRepository;
+import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import com.example.ventaComputadora.infra.repository.UsuarioRepository;
+import com.example.ventaComputadora.services.carrito.DiarioCarritos;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Almacén opcional de carritos en memoria con escritura diferida ({@code app.carrito.write-behind.habilitado}).
+ * Mientras un carrito está en memoria, agregar o quitar productos no toca la base de datos: los cambios se
+ * aplican al mapa bajo el candado de la franja del usuario y un hilo en segundo plano escribe los carritos
+ * modificados en lotes, en una sola transacción. Al pagar, reemplazar o eliminar la orden el carrito se escribe
+ * dentro de esa transacción y sale de memoria cuando se confirma.
+ * Las escrituras diferidas solo afectan órdenes que siguen en estado CARRITO, así que un lote atrasado nunca
+ * modifica una orden ya pagada.
+ * El mapa tiene un tamaño máximo aproximado: si está lleno se expulsa el carrito sin cambios pendientes menos
+ * usado y, si todos tienen cambios, el carrito nuevo se atiende directamente en la base de datos. Los carritos se
+ * mantienen además en orden de último uso, así que encontrar el que se expulsa no recorre todo el mapa.
+ * Con {@code recuperacion=DIARIO} cada cambio se anota además en un {@link DiarioCarritos} que se aplica al
+ * iniciar, de modo que una caída no pierde cambios; con {@code NINGUNA} se pierden los cambios del último
+ * intervalo. Los carritos viven en cada instancia: el modo supone que las peticiones de un usuario las atiende
+ * siempre la misma.
+ */
+@Service
+public class AlmacenCarritosService {
+    private static final Logger logger = LoggerFactory.getLogger(AlmacenCarritosService.class);
+    private static final int CANTIDAD_FRANJAS = 64;
+    private static final int MAXIMO_PRODUCTOS_GUARDADOS = 50_000;
+
+    private static final String GUARDAR_LINEA = "INSERT INTO lineas_orden (orden_id, producto_id, cantidad, precio_unitario, " +
+            "nombre_producto) SELECT id, ?, ?, ?, ? FROM ordenes WHERE id = ? AND estado = 'CARRITO' " +
+            "ON DUPLICATE KEY UPDATE cantidad = VALUES(cantidad)";
+    private static final String COMPLETAR_NOMBRES = "UPDATE lineas_orden l JOIN productos p ON p.id = l.producto_id " +
+            "SET l.nombre_producto = p.nombre WHERE l.nombre_producto IS NULL";
+    private static final String QUITAR_LINEA = "DELETE l FROM lineas_orden l JOIN ordenes o ON o.id = l.orden_id " +
+            "WHERE l.orden_id = ? AND l.producto_id = ? AND o.estado = 'CARRITO'";
+    private static final String INCREMENTAR_VERSION = "UPDATE ordenes SET version = version + 1 WHERE id = ? AND estado = 'CARRITO'";
+
+    /**
+     * Qué ocurre con los cambios aún no escritos si el proceso se cae.
+     */
+    public enum Recuperacion {NINGUNA, DIARIO}
+
+    private final OrdenRepository ordenRepository;
+    private final LineaOrdenRepository lineaOrdenRepository;
+    private final ProductoRepository productoRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int maximoCarritos;
+    private final long intervaloMs;
+    private final long inactividadMs;
+    private final Recuperacion recuperacion;
+    private final DiarioCarritos diario;
+
+    private final Object[] franjas = new Object[CANTIDAD_FRANJAS];
+    private final Map<Long, Carrito> porUsuario = new ConcurrentHashMap<>();
+    private final Map<Long, Long> usuarioPorOrden = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Long, Carrito> porUso = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, DatoProducto> productos = new ConcurrentHashMap<>();
+    private final String arranque = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong revisiones = new AtomicLong();
+
+    private final LongAdder rechazados = new LongAdder();
+    private final LongAdder persistencias = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder carritosPersistidos = new LongAdder();
+    private final LongAdder milisPersistiendo = new LongAdder();
+    private volatile long ultimaPersistenciaMs;
+    private volatile long maximaPersistenciaMs;
+    private volatile LocalDateTime ultimaPersistencia;
+
+    private final ScheduledExecutorService ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "carritos-write-behind");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /**
+     * Carrito en memoria. Todos sus campos se leen y escriben con el candado de la franja de su usuario.
+     */
+    private static final class Carrito {
+        private final Long ordenId;
+        private final UsuarioDTO usuario;
+        private final LocalDateTime fechaCreacion;
+        private final Map<Long, Linea> lineas = new LinkedHashMap<>();
+        private final Set<Long> quitados = new HashSet<>();
+        private volatile boolean sucio;
+        private boolean cerrado;
+        private long revision;
+        private volatile long ultimoAcceso = System.currentTimeMillis();
+
+        private Carrito(Long ordenId, UsuarioDTO usuario, LocalDateTime fechaCreacion) {
+            this.ordenId = ordenId;
+            this.usuario = usuario;
+            this.fechaCreacion = fechaCreacion;
+        }
+    }
+
+    private static final class Linea {
+        private final String nombre;
+        private final BigDecimal precioUnitario;
+        private int cantidad;
+
+        private Linea(String nombre, BigDecimal precioUnitario, int cantidad) {
+            this.nombre = nombre;
+            this.precioUnitario = precioUnitario;
+            this.cantidad = cantidad;
+        }
+    }
+
+    private record DatoProducto(String nombre, BigDecimal precio) {
+    }
+
+    /**
+     * Estado de un carrito a escribir: filas [productoId, cantidad, precioUnitario, nombreProducto, ordenId] y
+     * productos quitados.
+     */
+    private record Cambios(Long ordenId, List<Object[]> guardar, List<Long> quitar) {
+    }
+
+    public AlmacenCarritosService(OrdenRepository ordenRepository,
+                                  LineaOrdenRepository lineaOrdenRepository,
+                                  ProductoRepository productoRepository,
+                                  UsuarioRepository usuarioRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.carrito.write-behind.habilitado:false}") boolean habilitado,
+                                  @Value("${app.carrito.write-behind.maximo-carritos:10000}") int maximoCarritos,
+                                  @Value("${app.carrito.write-behind.intervalo-ms:1000}") long intervaloMs,
+                                  @Value("${app.carrito.write-behind.inactividad-ms:1800000}") long inactividadMs,
+                                  @Value("${app.carrito.write-behind.recuperacion:DIARIO}") Recuperacion recuperacion,
+                                  @Value("${app.carrito.write-behind.directorio-diario:carritos-diario}") String directorioDiario) {
+        this.ordenRepository = ordenRepository;
+        this.lineaOrdenRepository = lineaOrdenRepository;
+        this.productoRepository = productoRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.habilitado = habilitado;
+        this.maximoCarritos = maximoCarritos;
+        this.intervaloMs = intervaloMs;
+        this.inactividadMs = inactividadMs;
+        this.recuperacion = recuperacion;
+        this.diario = habilitado && recuperacion == Recuperacion.DIARIO ? new DiarioCarritos(Path.of(directorioDiario)) : null;
+        for (int i = 0; i < franjas.length; i++) {
+            franjas[i] = new Object();
+        }
+    }
+
+    /**
+     * Indica si los carritos se guardan en memoria.
+     */
+    public boolean habilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Agrega cantidades al carrito del usuario en memoria, cargándolo si hace falta. Si el almacén está lleno de
+     * carritos con cambios pendientes se usa la operación en base de datos, con el candado del usuario tomado
+     * para que ningún otro hilo cargue su carrito a la vez.
+     *
+     * @param usuarioId ID del usuario.
+     * @param cantidades Unidades a agregar por ID de producto.
+     * @param enBaseDeDatos Operación equivalente en la base de datos.
+     * @return Las líneas afectadas con sus cantidades actualizadas.
+     * @throws EntityNotFoundException Si alguno de los productos o el usuario no existe.
+     * @throws IllegalStateException Si el carrito se está pagando.
+     */
+    public List<LineaOrdenDTO> agregar(Long usuarioId, Map<Long, Integer> cantidades,
+                                       Supplier<List<LineaOrdenDTO>> enBaseDeDatos) {
+        Map<Long, DatoProducto> datos = datosProductos(cantidades.keySet());
+        boolean hayLugar = porUsuario.containsKey(usuarioId) || hacerLugar();
+        synchronized (franja(usuarioId)) {
+            Carrito carrito = porUsuario.get(usuarioId);
+            if (carrito == null) {
+                if (!hayLugar) {
+                    rechazados.increment();
+                    return enBaseDeDatos.get();
+                }
+                carrito = cargar(usuarioId);
+            }
+            validarAbierto(carrito);
+
+            List<LineaOrdenDTO> afectadas = new ArrayList<>();
+            for (Map.Entry<Long, Integer> entrada : cantidades.entrySet()) {
+                Long productoId = entrada.getKey();
+                Linea linea = carrito.lineas.get(productoId);
+                int cantidad = (linea == null ? 0 : linea.cantidad) + entrada.getValue();
+                BigDecimal precio = linea == null ? datos.get(productoId).precio() : linea.precioUnitario;
+                anotar(carrito.ordenId, productoId, cantidad, precio);
+                if (linea == null) {
+                    linea = new Linea(datos.get(productoId).nombre(), precio, cantidad);
+                    carrito.lineas.put(productoId, linea);
+                } else {
+                    linea.cantidad = cantidad;
+                }
+                carrito.quitados.remove(productoId);
+                afectadas.add(convertirLinea(carrito.ordenId, productoId, linea));
+            }
+            modificado(carrito);
+            return afectadas;
+        }
+    }
+
+    /**
+     * Quita unidades de un producto de un carrito en memoria o, si la orden no está en memoria, ejecuta la
+     * operación en la base de datos con el candado de su usuario tomado.
+     *
+     * @param ordenId ID de la orden.
+     * @param productoId ID del producto.
+     * @param cantidad Unidades a quitar o nulo para quitar la línea.
+     * @param enBaseDeDatos Operación equivalente en la base de datos.
+     * @return La línea con su nueva cantidad, o vacío si se eliminó.
+     * @throws EntityNotFoundException Si la orden no existe.
+     * @throws IllegalStateException Si el carrito se está pagando.
+     */
+    public Optional<LineaOrdenDTO> quitar(Long ordenId, Long productoId, Integer cantidad,
+                                          Supplier<Optional<LineaOrdenDTO>> enBaseDeDatos) {
+        Long usuarioId = usuarioPorOrden.get(ordenId);
+        if (usuarioId == null) {
+            usuarioId = ordenRepository.findUsuarioIdById(ordenId)
+                    .orElseThrow(() -> new EntityNotFoundException("Orden no encontrada"));
+        }
+        synchronized (franja(usuarioId)) {
+            Carrito carrito = porUsuario.get(usuarioId);
+            if (carrito == null || !carrito.ordenId.equals(ordenId)) {
+                return enBaseDeDatos.get();
+            }
+            validarAbierto(carrito);
+            Linea linea = carrito.lineas.get(productoId);
+            if (linea == null) {
+                usado(carrito);
+                return Optional.empty();
+            }
+            int restante = cantidad == null ? 0 : Math.max(linea.cantidad - cantidad, 0);
+            anotar(ordenId, productoId, restante, linea.precioUnitario);
+            modificado(carrito);
+            if (restante == 0) {
+                carrito.lineas.remove(productoId);
+                carrito.quitados.add(productoId);
+                return Optional.empty();
+            }
+            linea.cantidad = restante;
+            return Optional.of(convertirLinea(ordenId, productoId, linea));
+        }
+    }
+
+    /**
+     * Obtiene el carrito activo de un usuario si está en memoria.
+     */
+    public Optional<OrdenDTO> obtenerActivo(Long usuarioId) {
+        synchronized (franja(usuarioId)) {
+            Carrito carrito = porUsuario.get(usuarioId);
+            return carrito == null ? Optional.empty() : Optional.of(convertirADTO(carrito));
+        }
+    }
+
+    /**
+     * Obtiene una orden si es un carrito en memoria.
+     */
+    public Optional<OrdenDTO> obtener(Long ordenId) {
+        Long usuarioId = usuarioPorOrden.get(ordenId);
+        if (usuarioId == null) {
+            return Optional.empty();
+        }
+        synchronized (franja(usuarioId)) {
+            Carrito carrito = porUsuario.get(usuarioId);
+            return carrito == null || !carrito.ordenId.equals(ordenId) ? Optional.empty() : Optional.of(convertirADTO(carrito));
+        }
+    }
+
+    /**
+     * ETag del carrito activo de un usuario si está en memoria. Incluye una marca del arranque porque las
+     * revisiones se numeran desde cero en cada proceso.
+     */
+    public Optional<String> obtenerEtagActivo(Long usuarioId) {
+        synchronized (franja(usuarioId)) {
+            Carrito carrito = porUsuario.get(usuarioId);
+            return carrito == null ? Optional.empty()
+                    : Optional.of("carrito-" + arranque + "-" + carrito.ordenId + "-" + carrito.revision);
+        }
+    }
+
+    /**
+     * Escribe el carrito de la orden dentro de la transacción en curso y lo saca de memoria cuando se confirma;
+     * si se revierte, el carrito sigue en memoria con sus cambios pendientes. Mientras tanto el carrito no admite
+     * cambios. Se llama antes de pagar, reemplazar o eliminar una orden para que la base de datos esté al día.
+     *
+     * @param ordenId ID de la orden.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void retirar(Long ordenId) {
+        Long usuarioId = usuarioPorOrden.get(ordenId);
+        if (usuarioId == null) {
+            return;
+        }
+        synchronized (franja(usuarioId)) {
+            Carrito carrito = porUsuario.get(usuarioId);
+            if (carrito == null || !carrito.ordenId.equals(ordenId)) {
+                return;
+            }
+            validarAbierto(carrito);
+            carrito.cerrado = true;
+            escribir(List.of(cambios(carrito)));
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    synchronized (franja(usuarioId)) {
+                        if (estado == STATUS_COMMITTED) {
+                            porUsuario.remove(usuarioId, carrito);
+                            usuarioPorOrden.remove(ordenId, usuarioId);
+                            synchronized (porUso) {
+                                porUso.remove(usuarioId, carrito);
+                            }
+                            if (diario != null) {
+                                diario.registrarRetiro(ordenId);
+                            }
+                        } else {
+                            carrito.cerrado = false;
+                            carrito.sucio = true;
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Escribe en una sola transacción todos los carritos con cambios pendientes. Si la escritura falla los
+     * carritos quedan pendientes para el siguiente intento.
+     *
+     * @return Cantidad de carritos escritos.
+     */
+    public synchronized int persistirPendientes() {
+        long segmento = diario == null ? 0 : diario.rotar();
+        List<Carrito> tomados = new ArrayList<>();
+        List<Cambios> lote = new ArrayList<>();
+        for (Map.Entry<Long, Carrito> entrada : porUsuario.entrySet()) {
+            Carrito carrito = entrada.getValue();
+            if (!carrito.sucio) {
+                continue;
+            }
+            synchronized (franja(entrada.getKey())) {
+                if (carrito.sucio && !carrito.cerrado) {
+                    lote.add(cambios(carrito));
+                    tomados.add(carrito);
+                    carrito.sucio = false;
+                    carrito.quitados.clear();
+                }
+            }
+        }
+        if (lote.isEmpty()) {
+            if (diario != null) {
+                diario.descartarHasta(segmento);
+            }
+            return 0;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> escribir(lote));
+        } catch (RuntimeException e) {
+            fallos.increment();
+            for (int i = 0; i < tomados.size(); i++) {
+                Carrito carrito = tomados.get(i);
+                synchronized (franja(carrito.usuario.getId())) {
+                    carrito.sucio = true;
+                    for (Long productoId : lote.get(i).quitar()) {
+                        if (!carrito.lineas.containsKey(productoId)) {
+                            carrito.quitados.add(productoId);
+                        }
+                    }
+                }
+            }
+            throw e;
+        }
+        long milis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        persistencias.increment();
+        carritosPersistidos.add(lote.size());
+        milisPersistiendo.add(milis);
+        ultimaPersistenciaMs = milis;
+        maximaPersistenciaMs = Math.max(maximaPersistenciaMs, milis);
+        ultimaPersistencia = LocalDateTime.now();
+        if (diario != null) {
+            diario.descartarHasta(segmento);
+        }
+        return lote.size();
+    }
+
+    /**
+     * Obtiene las métricas del almacén: carritos en memoria y pendientes, y duración de las escrituras.
+     */
+    public MetricasCarritosDTO obtenerMetricas() {
+        int pendientes = 0;
+        for (Carrito carrito : porUsuario.values()) {
+            if (carrito.sucio) {
+                pendientes++;
+            }
+        }
+        long cantidad = persistencias.sum();
+        return new MetricasCarritosDTO(habilitado, recuperacion.name(), porUsuario.size(), pendientes, rechazados.sum(),
+                cantidad, fallos.sum(), carritosPersistidos.sum(), ultimaPersistenciaMs, maximaPersistenciaMs,
+                cantidad == 0 ? 0 : (double) milisPersistiendo.sum() / cantidad, ultimaPersistencia);
+    }
+
+    /**
+     * Olvida los datos guardados de los productos modificados, para que las líneas nuevas tomen su precio actual.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        if (evento.esCompleto()) {
+            productos.clear();
+        } else {
+            evento.getProductoIds().forEach(productos::remove);
+        }
+    }
+
+    /**
+     * Aplica el diario que quedó de una caída y programa la escritura periódica.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        if (diario != null) {
+            long hasta = diario.ultimoCerrado();
+            Map<Long, Map<Long, DiarioCarritos.Entrada>> ultimas = new HashMap<>();
+            for (DiarioCarritos.Entrada entrada : diario.leer()) {
+                if (entrada.esRetiro()) {
+                    ultimas.remove(entrada.ordenId());
+                } else {
+                    ultimas.computeIfAbsent(entrada.ordenId(), id -> new HashMap<>()).put(entrada.productoId(), entrada);
+                }
+            }
+            if (!ultimas.isEmpty()) {
+                List<Cambios> porOrden = new ArrayList<>();
+                ultimas.forEach((ordenId, entradas) -> {
+                    Cambios cambios = new Cambios(ordenId, new ArrayList<>(), new ArrayList<>());
+                    for (DiarioCarritos.Entrada entrada : entradas.values()) {
+                        if (entrada.cantidad() > 0) {
+                            cambios.guardar().add(new Object[]{entrada.productoId(), entrada.cantidad(),
+                                    entrada.precioUnitario(), null, ordenId});
+                        } else {
+                            cambios.quitar().add(entrada.productoId());
+                        }
+                    }
+                    porOrden.add(cambios);
+                });
+                transactionTemplate.executeWithoutResult(status -> {
+                    escribir(porOrden);
+                    jdbcTemplate.update(COMPLETAR_NOMBRES);
+                });
+                logger.info("Aplicados del diario los cambios pendientes de {} carritos", porOrden.size());
+            }
+            diario.descartarHasta(hasta);
+        }
+        ejecutor.scheduleWithFixedDelay(this::ciclo, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (!habilitado) {
+            return;
+        }
+        ejecutor.shutdownNow();
+        try {
+            persistirPendientes();
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron escribir los carritos pendientes al detener", e);
+        }
+        if (diario != null) {
+            try {
+                diario.close();
+            } catch (IOException e) {
+                logger.warn("No se pudo cerrar el diario de carritos", e);
+            }
+        }
+    }
+
+    private void ciclo() {
+        try {
+            persistirPendientes();
+        } catch (RuntimeException e) {
+            logger.error("Error al escribir los carritos pendientes", e);
+        }
+        long limite = System.currentTimeMillis() - inactividadMs;
+        for (Map.Entry<Long, Carrito> entrada : porUsuario.entrySet()) {
+            if (entrada.getValue().ultimoAcceso < limite) {
+                expulsar(entrada.getKey(), entrada.getValue());
+            }
+        }
+    }
+
+    /**
+     * Expulsa el carrito sin cambios pendientes usado hace más tiempo si el almacén está lleno. Recorre los
+     * carritos desde el menos usado y se detiene en el primero sin cambios; los que tienen cambios pendientes
+     * son pocos porque se escriben en cada intervalo.
+     *
+     * @return Si hay lugar para un carrito más.
+     */
+    private boolean hacerLugar() {
+        if (porUsuario.size() < maximoCarritos) {
+            return true;
+        }
+        Map.Entry<Long, Carrito> candidato = null;
+        synchronized (porUso) {
+            for (Map.Entry<Long, Carrito> entrada : porUso.entrySet()) {
+                if (!entrada.getValue().sucio && !entrada.getValue().cerrado) {
+                    candidato = Map.entry(entrada.getKey(), entrada.getValue());
+                    break;
+                }
+            }
+        }
+        if (candidato != null) {
+            expulsar(candidato.getKey(), candidato.getValue());
+        }
+        return porUsuario.size() < maximoCarritos;
+    }
+
+    private void expulsar(Long usuarioId, Carrito carrito) {
+        synchronized (franja(usuarioId)) {
+            if (!carrito.sucio && !carrito.cerrado && porUsuario.remove(usuarioId, carrito)) {
+                usuarioPorOrden.remove(carrito.ordenId, usuarioId);
+                synchronized (porUso) {
+                    porUso.remove(usuarioId, carrito);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marca el carrito como recién usado. Se llama con el candado de la franja de su usuario tomado.
+     */
+    private void usado(Carrito carrito) {
+        carrito.ultimoAcceso = System.currentTimeMillis();
+        synchronized (porUso) {
+            porUso.get(carrito.usuario.getId());
+        }
+    }
+
+    /**
+     * Carga en memoria el carrito activo del usuario, creándolo en la base de datos si no tiene uno.
+     * Se llama con el candado de la franja del usuario tomado.
+     */
+    private Carrito cargar(Long usuarioId) {
+        Carrito carrito = transactionTemplate.execute(status -> {
+            Long ordenId = ordenRepository.findIdsByUsuarioIdAndEstado(usuarioId, EstadoOrden.CARRITO, PageRequest.of(0, 1))
+                    .stream().findFirst()
+                    .orElseGet(() -> crearOrden(usuarioId));
+            Orden orden = ordenRepository.findAllConUsuarioByIdIn(List.of(ordenId)).get(0);
+            Usuario usuario = orden.getUsuario();
+            Carrito cargado = new Carrito(ordenId,
+                    new UsuarioDTO(usuario.getId(), usuario.getNombre(), usuario.getApellido(), usuario.getCorreo()),
+                    orden.getFechaCreacion());
+            for (Object[] fila : lineaOrdenRepository.findResumenByOrdenIdIn(List.of(ordenId))) {
+                cargado.lineas.put((Long) fila[1], new Linea((String) fila[2], (BigDecimal) fila[4], ((Number) fila[3]).intValue()));
+            }
+            return cargado;
+        });
+        carrito.revision = revisiones.incrementAndGet();
+        porUsuario.put(usuarioId, carrito);
+        usuarioPorOrden.put(carrito.ordenId, usuarioId);
+        synchronized (porUso) {
+            porUso.put(usuarioId, carrito);
+        }
+        return carrito;
+    }
+
+    private Long crearOrden(Long usuarioId) {
+        Usuario usuario = usuarioRepository.findById(usuarioId)
+                .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado"));
+        return ordenRepository.save(Orden.builder()
+                .usuario(usuario)
+                .fechaCreacion(LocalDateTime.now())
+                .estado(EstadoOrden.CARRITO)
+                .build()).getId();
+    }
+
+    /**
+     * Nombre y precio de los productos, desde memoria o con una sola consulta para los que falten.
+     */
+    private Map<Long, DatoProducto> datosProductos(Set<Long> ids) {
+        Map<Long, DatoProducto> datos = new HashMap<>();
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : ids) {
+            DatoProducto dato = productos.get(id);
+            if (dato == null) {
+                faltantes.add(id);
+            } else {
+                datos.put(id, dato);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            if (productos.size() > MAXIMO_PRODUCTOS_GUARDADOS) {
+                productos.clear();
+            }
+            for (Object[] fila : productoRepository.findNombresYPreciosByIdIn(faltantes)) {
+                DatoProducto dato = new DatoProducto((String) fila[1], (BigDecimal) fila[2]);
+                productos.put((Long) fila[0], dato);
+                datos.put((Long) fila[0], dato);
+            }
+        }
+        if (datos.size() < ids.size()) {
+            throw new EntityNotFoundException("Producto no encontrado");
+        }
+        return datos;
+    }
+
+    private void anotar(Long ordenId, Long productoId, int cantidad, BigDecimal precioUnitario) {
+        if (diario != null) {
+            diario.registrar(ordenId, productoId, cantidad, precioUnitario);
+        }
+    }
+
+    private void modificado(Carrito carrito) {
+        carrito.sucio = true;
+        carrito.revision = revisiones.incrementAndGet();
+        usado(carrito);
+    }
+
+    private static void validarAbierto(Carrito carrito) {
+        if (carrito.cerrado) {
+            throw new IllegalStateException("El carrito se está pagando o actualizando.");
+        }
+    }
+
+    private static Cambios cambios(Carrito carrito) {
+        List<Object[]> guardar = new ArrayList<>(carrito.lineas.size());
+        carrito.lineas.forEach((productoId, linea) ->
+                guardar.add(new Object[]{productoId, linea.cantidad, linea.precioUnitario, linea.nombre, carrito.ordenId}));
+        return new Cambios(carrito.ordenId, guardar, List.copyOf(carrito.quitados));
+    }
+
+    /**
+     * Escribe los cambios en la transacción en curso, en orden de orden y producto para que dos escrituras
+     * simultáneas tomen los candados de las filas en el mismo orden.
+     */
+    private void escribir(Collection<Cambios> lote) {
+        List<Cambios> ordenados = new ArrayList<>(lote);
+        ordenados.sort(Comparator.comparing(Cambios::ordenId));
+        List<Object[]> guardar = new ArrayList<>();
+        List<Object[]> quitar = new ArrayList<>();
+        List<Object[]> versiones = new ArrayList<>();
+        for (Cambios cambios : ordenados) {
+            cambios.guardar().stream()
+                    .sorted(Comparator.comparing(fila -> (Long) fila[0]))
+                    .forEach(guardar::add);
+            cambios.quitar().stream().sorted()
+                    .forEach(productoId -> quitar.add(new Object[]{cambios.ordenId(), productoId}));
+            versiones.add(new Object[]{cambios.ordenId()});
+        }
+        jdbcTemplate.batchUpdate(GUARDAR_LINEA, guardar);
+        jdbcTemplate.batchUpdate(QUITAR_LINEA, quitar);
+        jdbcTemplate.batchUpdate(INCREMENTAR_VERSION, versiones);
+    }
+
+    private OrdenDTO convertirADTO(Carrito carrito) {
+        usado(carrito);
+        List<LineaOrdenDTO> lineas = new ArrayList<>(carrito.lineas.size());
+        carrito.lineas.forEach((productoId, linea) -> lineas.add(convertirLinea(carrito.ordenId, productoId, linea)));
+        BigDecimal montoTotal = lineas.stream()
+                .map(LineaOrdenDTO::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new OrdenDTO(carrito.ordenId, carrito.usuario, carrito.fechaCreacion, EstadoOrden.CARRITO.name(),
+                lineas, montoTotal);
+    }
+
+    private static LineaOrdenDTO convertirLinea(Long ordenId, Long productoId, Linea linea) {
+        return new LineaOrdenDTO(ordenId, productoId, linea.nombre, linea.cantidad, linea.precioUnitario,
+                PreciosService.subtotal(linea.precioUnitario, linea.cantidad));
+    }
+
+    private Object franja(Long usuarioId) {
+        return franjas[Math.floorMod(Long.hashCode(usuarioId), franjas.length)];
+    }
+}
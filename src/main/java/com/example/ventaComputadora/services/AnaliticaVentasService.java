@@ -0,0 +1,368 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.ProgresoReconstruccionDTO;
+import com.example.ventaComputadora.domain.DTO.VentasDiaDTO;
+import com.example.ventaComputadora.domain.DTO.VentasProductoDTO;
+import com.example.ventaComputadora.domain.DTO.VentasTipoDTO;
+import com.example.ventaComputadora.domain.entity.TerminoEspecificacion.Categoria;
+import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import com.example.ventaComputadora.infra.repository.VentaDiariaProductoRepository;
+import com.example.ventaComputadora.infra.repository.VentaDiariaRepository;
+import com.example.ventaComputadora.infra.repository.VentaDiariaTipoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio de analítica de ventas sobre tablas de acumulados por día: totales del día, por producto y por tipo
+ * de especificación. Cada pago suma sus líneas a los acumulados en la misma transacción que lo registra, así que
+ * las consultas por rango leen unas pocas filas por día en lugar de recorrer las órdenes.
+ * Los acumulados se pueden reconstruir desde las órdenes pagadas en segundo plano, por bloques de días que se
+ * procesan en paralelo, cada uno en su propia transacción.
+ */
+@Service
+public class AnaliticaVentasService {
+    private static final Logger logger = LoggerFactory.getLogger(AnaliticaVentasService.class);
+    private static final int LIMITE_MAXIMO = 100;
+    private static final int INTENTOS_POR_BLOQUE = 3;
+    private static final long HORAS_RETENCION = 24;
+
+    private static final String SUMAR_PRODUCTOS = "INSERT INTO ventas_diarias_producto " +
+            "(fecha, producto_id, ordenes, unidades, monto) " +
+            "SELECT ?, l.producto_id, 1, l.cantidad, l.precio_unitario * l.cantidad " +
+            "FROM lineas_orden l WHERE l.orden_id = ? ORDER BY l.producto_id " +
+            "ON DUPLICATE KEY UPDATE ventas_diarias_producto.ordenes = ventas_diarias_producto.ordenes + VALUES(ordenes), " +
+            "ventas_diarias_producto.unidades = ventas_diarias_producto.unidades + VALUES(unidades), " +
+            "ventas_diarias_producto.monto = ventas_diarias_producto.monto + VALUES(monto)";
+    private static final String SUMAR_TIPOS = "INSERT INTO ventas_diarias_tipo (fecha, tipo_id, unidades, monto) " +
+            "SELECT * FROM (SELECT ? AS fecha, e.tipo_id, SUM(l.cantidad * pe.cantidad) AS unidades, " +
+            "SUM(l.cantidad * pe.cantidad * e.precio_adicional) AS monto " +
+            "FROM lineas_orden l JOIN producto_especificaciones pe ON pe.producto_id = l.producto_id " +
+            "JOIN especificaciones e ON e.id = pe.especificacion_id " +
+            "WHERE l.orden_id = ? AND e.tipo_id IS NOT NULL GROUP BY e.tipo_id) t ORDER BY t.tipo_id " +
+            "ON DUPLICATE KEY UPDATE ventas_diarias_tipo.unidades = ventas_diarias_tipo.unidades + VALUES(unidades), " +
+            "ventas_diarias_tipo.monto = ventas_diarias_tipo.monto + VALUES(monto)";
+    private static final String SUMAR_DIA = "INSERT INTO ventas_diarias (fecha, ordenes, unidades, monto) " +
+            "SELECT * FROM (SELECT ? AS fecha, 1 AS ordenes, COALESCE(SUM(l.cantidad), 0) AS unidades, ? AS monto " +
+            "FROM lineas_orden l WHERE l.orden_id = ?) t " +
+            "ON DUPLICATE KEY UPDATE ventas_diarias.ordenes = ventas_diarias.ordenes + VALUES(ordenes), " +
+            "ventas_diarias.unidades = ventas_diarias.unidades + VALUES(unidades), " +
+            "ventas_diarias.monto = ventas_diarias.monto + VALUES(monto)";
+
+    private static final String BORRAR_PRODUCTOS = "DELETE FROM ventas_diarias_producto WHERE fecha BETWEEN ? AND ?";
+    private static final String BORRAR_TIPOS = "DELETE FROM ventas_diarias_tipo WHERE fecha BETWEEN ? AND ?";
+    private static final String BORRAR_DIAS = "DELETE FROM ventas_diarias WHERE fecha BETWEEN ? AND ?";
+    private static final String RECONSTRUIR_PRODUCTOS = "INSERT INTO ventas_diarias_producto " +
+            "(fecha, producto_id, ordenes, unidades, monto) " +
+            "SELECT DATE(o.fecha_pago), l.producto_id, COUNT(*), SUM(l.cantidad), SUM(l.precio_unitario * l.cantidad) " +
+            "FROM ordenes o JOIN lineas_orden l ON l.orden_id = o.id " +
+            "WHERE o.estado = 'PAGADO' AND o.fecha_pago >= ? AND o.fecha_pago < ? " +
+            "GROUP BY DATE(o.fecha_pago), l.producto_id";
+    private static final String RECONSTRUIR_TIPOS = "INSERT INTO ventas_diarias_tipo (fecha, tipo_id, unidades, monto) " +
+            "SELECT DATE(o.fecha_pago), e.tipo_id, SUM(l.cantidad * pe.cantidad), " +
+            "SUM(l.cantidad * pe.cantidad * e.precio_adicional) " +
+            "FROM ordenes o JOIN lineas_orden l ON l.orden_id = o.id " +
+            "JOIN producto_especificaciones pe ON pe.producto_id = l.producto_id " +
+            "JOIN especificaciones e ON e.id = pe.especificacion_id " +
+            "WHERE o.estado = 'PAGADO' AND o.fecha_pago >= ? AND o.fecha_pago < ? AND e.tipo_id IS NOT NULL " +
+            "GROUP BY DATE(o.fecha_pago), e.tipo_id";
+    private static final String RECONSTRUIR_DIAS = "INSERT INTO ventas_diarias (fecha, ordenes, unidades, monto) " +
+            "SELECT DATE(o.fecha_pago), COUNT(*), 0, COALESCE(SUM(o.monto_total), 0) FROM ordenes o " +
+            "WHERE o.estado = 'PAGADO' AND o.fecha_pago >= ? AND o.fecha_pago < ? GROUP BY DATE(o.fecha_pago)";
+    private static final String COMPLETAR_UNIDADES_DIAS = "UPDATE ventas_diarias d JOIN (" +
+            "SELECT fecha, SUM(unidades) AS unidades FROM ventas_diarias_producto WHERE fecha BETWEEN ? AND ? " +
+            "GROUP BY fecha) p ON p.fecha = d.fecha SET d.unidades = p.unidades";
+
+    private final VentaDiariaRepository ventaDiariaRepository;
+    private final VentaDiariaProductoRepository ventaDiariaProductoRepository;
+    private final VentaDiariaTipoRepository ventaDiariaTipoRepository;
+    private final ProductoRepository productoRepository;
+    private final DiccionarioEspecificacionesService diccionarioEspecificacionesService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int diasPorBloque;
+
+    private final Map<String, Reconstruccion> reconstrucciones = new ConcurrentHashMap<>();
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "reconstruccion-ventas");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    private final ExecutorService bloques;
+
+    public AnaliticaVentasService(VentaDiariaRepository ventaDiariaRepository,
+                                  VentaDiariaProductoRepository ventaDiariaProductoRepository,
+                                  VentaDiariaTipoRepository ventaDiariaTipoRepository,
+                                  ProductoRepository productoRepository,
+                                  DiccionarioEspecificacionesService diccionarioEspecificacionesService,
+                                  JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.analitica.dias-por-bloque:7}") int diasPorBloque,
+                                  @Value("${app.analitica.hilos-reconstruccion:4}") int hilosReconstruccion) {
+        this.ventaDiariaRepository = ventaDiariaRepository;
+        this.ventaDiariaProductoRepository = ventaDiariaProductoRepository;
+        this.ventaDiariaTipoRepository = ventaDiariaTipoRepository;
+        this.productoRepository = productoRepository;
+        this.diccionarioEspecificacionesService = diccionarioEspecificacionesService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.diasPorBloque = Math.max(1, diasPorBloque);
+        AtomicInteger numero = new AtomicInteger();
+        this.bloques = Executors.newFixedThreadPool(Math.max(1, hilosReconstruccion), r -> {
+            Thread hilo = new Thread(r, "reconstruccion-ventas-bloque-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Suma una orden recién pagada a los acumulados del día de pago, en la transacción del pago. Las líneas deben
+     * tener ya su precio fijado. Las filas se actualizan siempre en el mismo orden (productos por ID, tipos por ID
+     * y por último el día) para que dos pagos simultáneos no se bloqueen mutuamente.
+     *
+     * @param ordenId ID de la orden.
+     * @param fechaPago Fecha de pago de la orden.
+     * @param montoTotal Monto cobrado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarPago(Long ordenId, LocalDateTime fechaPago, BigDecimal montoTotal) {
+        LocalDate fecha = fechaPago.toLocalDate();
+        jdbcTemplate.update(SUMAR_PRODUCTOS, fecha, ordenId);
+        jdbcTemplate.update(SUMAR_TIPOS, fecha, ordenId);
+        jdbcTemplate.update(SUMAR_DIA, fecha, montoTotal, ordenId);
+    }
+
+    /**
+     * Obtiene las ventas de cada día del rango, en total o de un producto. Los días sin ventas no se incluyen.
+     *
+     * @param desde Primer día del rango.
+     * @param hasta Último día del rango, inclusive.
+     * @param productoId ID del producto o nulo para el total.
+     * @return Órdenes, unidades y monto por día.
+     * @throws IllegalArgumentException Si el rango no es válido.
+     */
+    @Transactional(readOnly = true)
+    public List<VentasDiaDTO> ventasPorDia(LocalDate desde, LocalDate hasta, Long productoId) {
+        validarRango(desde, hasta);
+        if (productoId != null) {
+            return ventaDiariaProductoRepository.findByProductoIdAndFechaBetweenOrderByFecha(productoId, desde, hasta).stream()
+                    .map(v -> new VentasDiaDTO(v.getFecha(), v.getOrdenes(), v.getUnidades(), v.getMonto()))
+                    .toList();
+        }
+        return ventaDiariaRepository.findByFechaBetweenOrderByFecha(desde, hasta).stream()
+                .map(v -> new VentasDiaDTO(v.getFecha(), v.getOrdenes(), v.getUnidades(), v.getMonto()))
+                .toList();
+    }
+
+    /**
+     * Obtiene los productos más vendidos del rango, de mayor a menor monto.
+     *
+     * @param desde Primer día del rango.
+     * @param hasta Último día del rango, inclusive.
+     * @param limite Cantidad máxima de productos, entre 1 y 100.
+     * @return Órdenes, unidades y monto por producto; el nombre es el actual o nulo si el producto ya no existe.
+     * @throws IllegalArgumentException Si el rango o el límite no son válidos.
+     */
+    @Transactional(readOnly = true)
+    public List<VentasProductoDTO> ventasPorProducto(LocalDate desde, LocalDate hasta, int limite) {
+        validarRango(desde, hasta);
+        if (limite < 1 || limite > LIMITE_MAXIMO) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+        List<Object[]> filas = ventaDiariaProductoRepository.sumPorProducto(desde, hasta, PageRequest.of(0, limite));
+        if (filas.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = filas.stream().map(fila -> (Long) fila[0]).toList();
+        Map<Long, String> nombres = new HashMap<>();
+        for (Object[] fila : productoRepository.findNombresYPreciosByIdIn(ids)) {
+            nombres.put((Long) fila[0], (String) fila[1]);
+        }
+        List<VentasProductoDTO> resultado = new ArrayList<>(filas.size());
+        for (Object[] fila : filas) {
+            Long productoId = (Long) fila[0];
+            resultado.add(new VentasProductoDTO(productoId, nombres.get(productoId), ((Number) fila[1]).longValue(),
+                    ((Number) fila[2]).longValue(), PreciosService.normalizar((BigDecimal) fila[3])));
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene las ventas del rango por tipo canónico de especificación, de mayor a menor monto.
+     *
+     * @param desde Primer día del rango.
+     * @param hasta Último día del rango, inclusive.
+     * @return Unidades de componentes vendidas y monto aportado por tipo.
+     * @throws IllegalArgumentException Si el rango no es válido.
+     */
+    @Transactional(readOnly = true)
+    public List<VentasTipoDTO> ventasPorTipo(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        return ventaDiariaTipoRepository.sumPorTipo(desde, hasta).stream()
+                .map(fila -> new VentasTipoDTO((Long) fila[0], diccionarioEspecificacionesService.nombre(Categoria.TIPO, (Long) fila[0]),
+                        ((Number) fila[1]).longValue(), PreciosService.normalizar((BigDecimal) fila[2])))
+                .toList();
+    }
+
+    /**
+     * Programa la reconstrucción de los acumulados del rango desde las órdenes pagadas. El rango se divide en
+     * bloques de días que se procesan en paralelo; cada bloque borra y recalcula sus días en una transacción,
+     * así que los pagos de esos días que lleguen mientras tanto esperan a que termine y se suman después.
+     *
+     * @param desde Primer día del rango.
+     * @param hasta Último día del rango, inclusive.
+     * @return Estado inicial de la reconstrucción.
+     * @throws IllegalArgumentException Si el rango no es válido.
+     * @throws IllegalStateException Si ya hay una reconstrucción en curso.
+     */
+    public synchronized ProgresoReconstruccionDTO reconstruir(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        if (reconstrucciones.values().stream().anyMatch(r -> r.fin == null)) {
+            throw new IllegalStateException("Ya hay una reconstrucción de los acumulados en curso");
+        }
+        LocalDateTime limite = LocalDateTime.now().minusHours(HORAS_RETENCION);
+        reconstrucciones.values().removeIf(r -> r.fin != null && r.fin.isBefore(limite));
+
+        List<LocalDate[]> rangos = new ArrayList<>();
+        for (LocalDate inicio = desde; !inicio.isAfter(hasta); inicio = inicio.plusDays(diasPorBloque)) {
+            LocalDate fin = inicio.plusDays(diasPorBloque - 1L);
+            rangos.add(new LocalDate[]{inicio, fin.isAfter(hasta) ? hasta : fin});
+        }
+        Reconstruccion reconstruccion = new Reconstruccion(UUID.randomUUID().toString(), desde, hasta, rangos.size());
+        reconstrucciones.put(reconstruccion.id, reconstruccion);
+        ejecutor.execute(() -> procesar(reconstruccion, rangos));
+        return reconstruccion.progreso();
+    }
+
+    /**
+     * Obtiene el avance de una reconstrucción.
+     *
+     * @param id ID de la reconstrucción.
+     * @return Avance de la reconstrucción o vacío si no existe.
+     */
+    public Optional<ProgresoReconstruccionDTO> obtenerProgreso(String id) {
+        return Optional.ofNullable(reconstrucciones.get(id)).map(Reconstruccion::progreso);
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+        bloques.shutdownNow();
+    }
+
+    private void procesar(Reconstruccion reconstruccion, List<LocalDate[]> rangos) {
+        reconstruccion.estado = "EN_PROCESO";
+        List<Future<?>> pendientes = new ArrayList<>(rangos.size());
+        try {
+            for (LocalDate[] rango : rangos) {
+                pendientes.add(bloques.submit(() -> {
+                    reconstruirBloque(rango[0], rango[1]);
+                    reconstruccion.bloquesTerminados.incrementAndGet();
+                }));
+            }
+            for (Future<?> pendiente : pendientes) {
+                pendiente.get();
+            }
+            reconstruccion.estado = "COMPLETADA";
+            logger.info("Acumulados de ventas reconstruidos del {} al {}", reconstruccion.desde, reconstruccion.hasta);
+        } catch (ExecutionException e) {
+            logger.error("Error en la reconstrucción {}", reconstruccion.id, e.getCause());
+            pendientes.forEach(pendiente -> pendiente.cancel(false));
+            reconstruccion.error = e.getCause().getMessage();
+            reconstruccion.estado = "FALLIDA";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pendientes.forEach(pendiente -> pendiente.cancel(true));
+            reconstruccion.error = "Reconstrucción interrumpida";
+            reconstruccion.estado = "FALLIDA";
+        } finally {
+            reconstruccion.fin = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * Recalcula los días de un bloque en una transacción. Primero borra sus filas, en el mismo orden de tablas en
+     * que las escribe un pago, y después las vuelve a calcular leyendo las órdenes pagadas hasta ese momento.
+     * Si la base de datos elige la transacción como víctima de un bloqueo, se reintenta.
+     */
+    private void reconstruirBloque(LocalDate desde, LocalDate hasta) {
+        LocalDateTime inicio = desde.atStartOfDay();
+        LocalDateTime fin = hasta.plusDays(1).atStartOfDay();
+        for (int intento = 1; ; intento++) {
+            try {
+                transactionTemplate.executeWithoutResult(estado -> {
+                    jdbcTemplate.update(BORRAR_PRODUCTOS, desde, hasta);
+                    jdbcTemplate.update(BORRAR_TIPOS, desde, hasta);
+                    jdbcTemplate.update(BORRAR_DIAS, desde, hasta);
+                    jdbcTemplate.update(RECONSTRUIR_PRODUCTOS, inicio, fin);
+                    jdbcTemplate.update(RECONSTRUIR_TIPOS, inicio, fin);
+                    jdbcTemplate.update(RECONSTRUIR_DIAS, inicio, fin);
+                    jdbcTemplate.update(COMPLETAR_UNIDADES_DIAS, desde, hasta);
+                });
+                return;
+            } catch (ConcurrencyFailureException e) {
+                if (intento == INTENTOS_POR_BLOQUE) {
+                    throw e;
+                }
+                logger.warn("Conflicto al reconstruir los acumulados del {} al {}, reintentando", desde, hasta);
+            }
+        }
+    }
+
+    private static void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null || desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("El inicio del rango no puede ser posterior al fin.");
+        }
+    }
+
+    /**
+     * Estado de una reconstrucción en curso o terminada.
+     */
+    private static class Reconstruccion {
+        private final String id;
+        private final LocalDate desde;
+        private final LocalDate hasta;
+        private final int bloquesTotales;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final AtomicInteger bloquesTerminados = new AtomicInteger();
+        private volatile String estado = "PENDIENTE";
+        private volatile String error;
+        private volatile LocalDateTime fin;
+
+        Reconstruccion(String id, LocalDate desde, LocalDate hasta, int bloquesTotales) {
+            this.id = id;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.bloquesTotales = bloquesTotales;
+        }
+
+        ProgresoReconstruccionDTO progreso() {
+            return new ProgresoReconstruccionDTO(id, estado, desde, hasta, bloquesTotales, bloquesTerminados.get(),
+                    inicio, fin, error);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.AsignacionEspecificacionesDTO;
+import com.example.ventaComputadora.domain.DTO.CambioEspecificacionDTO;
+import com.example.ventaComputadora.domain.DTO.ResultadoAsignacionDTO;
+import com.example.ventaComputadora.domain.entity.ProductoEspecificacionId;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio que aplica en una sola transacción altas y bajas de especificaciones sobre muchos productos.
+ * Las bajas se aplican antes que las altas; las altas de una especificación que el producto ya tiene
+ * suman la cantidad, igual que {@link ProductoService#agregarEspecificacion}. Al final el precio de todos los
+ * productos afectados se recalcula en una sola sentencia con {@link PreciosService#repreciarProductos}.
+ */
+@Service
+@RequiredArgsConstructor
+public class AsignacionEspecificacionesService {
+    private static final int TAMANO_LOTE = 500;
+
+    private static final String INSERTAR_O_SUMAR = "INSERT INTO producto_especificaciones (producto_id, especificacion_id, cantidad) " +
+            "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE cantidad = cantidad + VALUES(cantidad)";
+    private static final String ELIMINAR = "DELETE FROM producto_especificaciones WHERE producto_id = ? AND especificacion_id = ?";
+    private static final String INCREMENTAR_VERSIONES = "UPDATE productos SET version = version + 1 WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final PreciosService preciosService;
+    private final CacheEspecificacionesService cacheEspecificacionesService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Aplica los cambios de especificaciones.
+     *
+     * @param asignacion Especificaciones a agregar y a quitar.
+     * @return Resumen de los cambios aplicados.
+     * @throws IllegalArgumentException Si alguna cantidad a agregar no es positiva.
+     * @throws EntityNotFoundException Si algún producto, especificación o especificación a quitar no existe.
+     */
+    @Transactional
+    public ResultadoAsignacionDTO aplicar(AsignacionEspecificacionesDTO asignacion) {
+        long inicio = System.nanoTime();
+        List<CambioEspecificacionDTO> agregar = asignacion.getAgregar() == null ? List.of() : asignacion.getAgregar();
+        List<CambioEspecificacionDTO> quitar = asignacion.getQuitar() == null ? List.of() : asignacion.getQuitar();
+        if (agregar.stream().anyMatch(cambio -> cambio.getCantidad() < 1)) {
+            throw new IllegalArgumentException("La cantidad a agregar debe ser mayor que cero");
+        }
+
+        Set<Long> productoIds = new HashSet<>();
+        Set<Long> especificacionIds = new HashSet<>();
+        for (CambioEspecificacionDTO cambio : agregar) {
+            productoIds.add(cambio.getProductoId());
+            especificacionIds.add(cambio.getEspecificacionId());
+        }
+        for (CambioEspecificacionDTO cambio : quitar) {
+            productoIds.add(cambio.getProductoId());
+            especificacionIds.add(cambio.getEspecificacionId());
+        }
+        if (productoIds.isEmpty()) {
+            return new ResultadoAsignacionDTO(0, 0, 0, 0);
+        }
+        verificarProductos(productoIds);
+        verificarEspecificaciones(especificacionIds);
+
+        if (!quitar.isEmpty()) {
+            List<Object[]> bajas = new ArrayList<>();
+            for (List<Long> par : cargarCantidades(quitar).keySet()) {
+                bajas.add(new Object[]{par.get(0), par.get(1)});
+            }
+            jdbcTemplate.batchUpdate(ELIMINAR, bajas);
+        }
+
+        if (!agregar.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERTAR_O_SUMAR, agregar, TAMANO_LOTE, (ps, cambio) -> {
+                ps.setLong(1, cambio.getProductoId());
+                ps.setLong(2, cambio.getEspecificacionId());
+                ps.setInt(3, cambio.getCantidad());
+            });
+        }
+
+        Set<ProductoEspecificacionId> modificadas = new HashSet<>();
+        agregar.forEach(cambio -> modificadas.add(new ProductoEspecificacionId(cambio.getProductoId(), cambio.getEspecificacionId())));
+        quitar.forEach(cambio -> modificadas.add(new ProductoEspecificacionId(cambio.getProductoId(), cambio.getEspecificacionId())));
+        cacheEspecificacionesService.invalidarProductoEspecificaciones(modificadas);
+
+        namedParameterJdbcTemplate.update(INCREMENTAR_VERSIONES, Map.of("ids", productoIds));
+        preciosService.repreciarProductos(productoIds);
+
+        eventPublisher.publishEvent(new CatalogoModificadoEvent(productoIds));
+        return new ResultadoAsignacionDTO(productoIds.size(), agregar.size(), quitar.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private void verificarProductos(Set<Long> productoIds) {
+        Set<Long> existentes = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT id FROM productos WHERE id IN (:ids)", Map.of("ids", productoIds), Long.class));
+        Set<Long> faltantes = new HashSet<>(productoIds);
+        faltantes.removeAll(existentes);
+        if (!faltantes.isEmpty()) {
+            throw new EntityNotFoundException("Productos no encontrados: " + faltantes);
+        }
+    }
+
+    private void verificarEspecificaciones(Set<Long> especificacionIds) {
+        Set<Long> existentes = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "SELECT id FROM especificaciones WHERE id IN (:ids)", Map.of("ids", especificacionIds), Long.class));
+        Set<Long> faltantes = new HashSet<>(especificacionIds);
+        faltantes.removeAll(existentes);
+        if (!faltantes.isEmpty()) {
+            throw new EntityNotFoundException("Especificaciones no encontradas: " + faltantes);
+        }
+    }
+
+    /**
+     * Devuelve la cantidad actual de cada par (producto, especificación) a quitar, en una sola consulta.
+     */
+    private Map<List<Long>, Integer> cargarCantidades(List<CambioEspecificacionDTO> quitar) {
+        Set<List<Long>> pares = quitar.stream()
+                .map(cambio -> List.of(cambio.getProductoId(), cambio.getEspecificacionId()))
+                .collect(Collectors.toSet());
+        List<Object[]> tuplas = pares.stream().map(List::toArray).collect(Collectors.toList());
+        Map<List<Long>, Integer> cantidades = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT producto_id, especificacion_id, cantidad FROM producto_especificaciones " +
+                        "WHERE (producto_id, especificacion_id) IN (:pares)",
+                Map.of("pares", tuplas), rs -> {
+                    cantidades.put(List.of(rs.getLong(1), rs.getLong(2)), rs.getInt(3));
+                });
+        if (cantidades.size() < pares.size()) {
+            Set<List<Long>> faltantes = new HashSet<>(pares);
+            faltantes.removeAll(cantidades.keySet());
+            throw new EntityNotFoundException("El producto no tiene las especificaciones: " + faltantes);
+        }
+        return cantidades;
+    }
+}
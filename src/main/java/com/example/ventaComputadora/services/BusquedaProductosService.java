@@ -0,0 +1,125 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import com.example.ventaComputadora.infra.repository.ProductoEspecificacionRepository;
+import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import com.example.ventaComputadora.services.indice.IndiceTexto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Buscador de productos en memoria sobre nombre, descripción y nombre y marca de sus especificaciones.
+ * Se construye al iniciar la aplicación y se actualiza de forma incremental a partir de {@link CatalogoModificadoEvent}.
+ */
+@Service
+@RequiredArgsConstructor
+public class BusquedaProductosService {
+    private static final double PESO_NOMBRE = 3.0;
+    private static final double PESO_ESPECIFICACION = 2.0;
+    private static final double PESO_DESCRIPCION = 1.0;
+
+    private final ProductoRepository productoRepository;
+    private final ProductoEspecificacionRepository productoEspecificacionRepository;
+
+    private final IndiceTexto indice = new IndiceTexto();
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    private volatile boolean listo;
+
+    /**
+     * Indica si el buscador ya se construyó y puede responder consultas.
+     */
+    public boolean estaListo() {
+        return listo;
+    }
+
+    /**
+     * Busca productos por relevancia.
+     *
+     * @param consulta Texto buscado.
+     * @param limite Número máximo de resultados.
+     * @param despuesDe Último resultado de la página anterior, o nulo para la primera página.
+     * @return Resultados ordenados por relevancia.
+     */
+    public List<IndiceTexto.Resultado> buscar(String consulta, int limite, IndiceTexto.Resultado despuesDe) {
+        candado.readLock().lock();
+        try {
+            return indice.buscar(consulta, limite, despuesDe);
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Construye el buscador completo al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void construir() {
+        candado.writeLock().lock();
+        try {
+            indice.limpiar();
+            aplicar(productoRepository.findTextos(), productoEspecificacionRepository.findDatosIndice());
+            listo = true;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reindexa los productos afectados una vez confirmada la transacción que los modificó. Las filas se leen con
+     * el candado de escritura tomado, para que dos eventos seguidos no apliquen sus lecturas en desorden y una
+     * lectura vieja no pise una más nueva. Los eventos de actividad no cambian textos y se ignoran.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        if (evento.esCompleto()) {
+            construir();
+            return;
+        }
+        Set<Long> ids = evento.getProductoIds();
+        if (ids.isEmpty() || evento.esDeActividad()) {
+            return;
+        }
+        candado.writeLock().lock();
+        try {
+            List<Object[]> productos = productoRepository.findTextosByIdIn(ids);
+            List<Object[]> especificaciones = productoEspecificacionRepository.findDatosIndiceByProductoIdIn(ids);
+            ids.forEach(indice::quitar);
+            aplicar(productos, especificaciones);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    private void aplicar(Collection<Object[]> productos, Collection<Object[]> especificaciones) {
+        Map<Long, List<IndiceTexto.Campo>> campos = new HashMap<>();
+        for (Object[] fila : productos) {
+            List<IndiceTexto.Campo> documento = new ArrayList<>();
+            documento.add(new IndiceTexto.Campo((String) fila[1], PESO_NOMBRE));
+            documento.add(new IndiceTexto.Campo((String) fila[2], PESO_DESCRIPCION));
+            campos.put((Long) fila[0], documento);
+        }
+        for (Object[] fila : especificaciones) {
+            List<IndiceTexto.Campo> documento = campos.get((Long) fila[0]);
+            if (documento != null) {
+                documento.add(new IndiceTexto.Campo((String) fila[2], PESO_ESPECIFICACION));
+                documento.add(new IndiceTexto.Campo((String) fila[3], PESO_ESPECIFICACION));
+            }
+        }
+        campos.forEach(indice::agregar);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.EstadisticasCacheDTO;
+import com.example.ventaComputadora.domain.DTO.RegionCacheDTO;
+import com.example.ventaComputadora.domain.entity.Especificacion;
+import com.example.ventaComputadora.domain.entity.Producto;
+import com.example.ventaComputadora.domain.entity.ProductoEspecificacion;
+import com.example.ventaComputadora.domain.entity.ProductoEspecificacionId;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Mantiene coherente la caché de segundo nivel de Hibernate para las especificaciones, las especificaciones de
+ * cada producto y la colección {@code Producto.especificacionesDisponibles}; los límites y la expiración de cada
+ * región se configuran en {@code ehcache.xml}.
+ * Hibernate actualiza la caché en las escrituras hechas con JPA; este servicio invalida lo que cambia por otros
+ * caminos: la colección de cada producto cuando se borran especificaciones desde el otro lado de la relación y
+ * las filas escritas directamente con JDBC.
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheEspecificacionesService {
+    static final String REGION_ESPECIFICACIONES = Especificacion.class.getName();
+    static final String REGION_PRODUCTO_ESPECIFICACIONES = ProductoEspecificacion.class.getName();
+    static final String REGION_ESPECIFICACIONES_DE_PRODUCTO = Producto.class.getName() + ".especificacionesDisponibles";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Invalida la colección de especificaciones de los productos modificados una vez confirmada la transacción.
+     * Se ejecuta antes que los demás oyentes del evento para que reconstruyan índices y fotos con datos frescos.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        Cache cache = cache();
+        if (evento.esCompleto()) {
+            cache.evictCollectionData(REGION_ESPECIFICACIONES_DE_PRODUCTO);
+            cache.evictEntityData(ProductoEspecificacion.class);
+            return;
+        }
+        for (Long productoId : evento.getProductoIds()) {
+            cache.evictCollectionData(REGION_ESPECIFICACIONES_DE_PRODUCTO, productoId);
+        }
+    }
+
+    /**
+     * Invalida especificaciones de productos escritas con JDBC. Si hay una transacción activa la invalidación
+     * se hace al confirmarla, para que ninguna lectura concurrente vuelva a guardar el valor anterior.
+     *
+     * @param ids IDs de las especificaciones de producto modificadas.
+     */
+    public void invalidarProductoEspecificaciones(Collection<ProductoEspecificacionId> ids) {
+        Runnable invalidar = () -> {
+            Cache cache = cache();
+            for (ProductoEspecificacionId id : ids) {
+                cache.evictEntityData(ProductoEspecificacion.class, id);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidar.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidar.run();
+            }
+        });
+    }
+
+    /**
+     * Vacía las tres regiones de especificaciones.
+     */
+    public void invalidarTodo() {
+        Cache cache = cache();
+        cache.evictEntityData(Especificacion.class);
+        cache.evictEntityData(ProductoEspecificacion.class);
+        cache.evictCollectionData(REGION_ESPECIFICACIONES_DE_PRODUCTO);
+    }
+
+    /**
+     * Obtiene aciertos, fallos y escrituras de la caché de segundo nivel, en total y por región.
+     *
+     * @return Estadísticas de la caché.
+     */
+    public EstadisticasCacheDTO obtenerEstadisticas() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<RegionCacheDTO> regiones = new ArrayList<>();
+        for (String region : List.of(REGION_ESPECIFICACIONES, REGION_PRODUCTO_ESPECIFICACIONES, REGION_ESPECIFICACIONES_DE_PRODUCTO)) {
+            CacheRegionStatistics estadisticasRegion = estadisticas.getDomainDataRegionStatistics(region);
+            regiones.add(new RegionCacheDTO(
+                    region,
+                    estadisticasRegion.getHitCount(),
+                    estadisticasRegion.getMissCount(),
+                    estadisticasRegion.getPutCount(),
+                    estadisticasRegion.getElementCountInMemory(),
+                    tasa(estadisticasRegion.getHitCount(), estadisticasRegion.getMissCount())
+            ));
+        }
+        return new EstadisticasCacheDTO(
+                estadisticas.isStatisticsEnabled(),
+                estadisticas.getSecondLevelCacheHitCount(),
+                estadisticas.getSecondLevelCacheMissCount(),
+                estadisticas.getSecondLevelCachePutCount(),
+                tasa(estadisticas.getSecondLevelCacheHitCount(), estadisticas.getSecondLevelCacheMissCount()),
+                regiones
+        );
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    private static double tasa(long aciertos, long fallos) {
+        long total = aciertos + fallos;
+        return total == 0 ? 0 : (double) aciertos / total;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.FacetasDTO;
+import com.example.ventaComputadora.domain.DTO.FiltroProductosDTO;
+import com.example.ventaComputadora.domain.DTO.MedicionFiltroDTO;
+import com.example.ventaComputadora.domain.DTO.PaginaCursorDTO;
+import com.example.ventaComputadora.domain.DTO.ProductoSimplificadoDTO;
+import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import com.example.ventaComputadora.services.indice.IndiceTexto;
+import com.example.ventaComputadora.services.paginacion.Paginador;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio de consultas del catálogo que se resuelven con los índices en memoria
+ * y se completan con la foto del catálogo.
+ * El filtro por especificaciones puede resolverse en el índice en memoria o en la base de datos según
+ * {@code app.catalogo.filtro.estrategia}.
+ */
+@Service
+public class CatalogoConsultaService {
+    /**
+     * Formas de resolver el filtro de productos.
+     * INDICE usa el índice en memoria, SQL una consulta dinámica en la base de datos y MEMORIA recorre
+     * todos los productos en la JVM (solo se conserva para comparar).
+     */
+    public enum EstrategiaFiltro {INDICE, SQL, MEMORIA}
+
+    private final IndiceEspecificacionesService indiceEspecificacionesService;
+    private final FiltroSqlProductosService filtroSqlProductosService;
+    private final BusquedaProductosService busquedaProductosService;
+    private final CatalogoSnapshotService catalogoSnapshotService;
+    private final ProductoService productoService;
+    private final ProductoRepository productoRepository;
+    private final Paginador paginador;
+    private final EstrategiaFiltro estrategiaFiltro;
+
+    public CatalogoConsultaService(IndiceEspecificacionesService indiceEspecificacionesService,
+                                   FiltroSqlProductosService filtroSqlProductosService,
+                                   BusquedaProductosService busquedaProductosService,
+                                   CatalogoSnapshotService catalogoSnapshotService,
+                                   ProductoService productoService,
+                                   ProductoRepository productoRepository,
+                                   Paginador paginador,
+                                   @Value("${app.catalogo.filtro.estrategia:INDICE}") EstrategiaFiltro estrategiaFiltro) {
+        this.indiceEspecificacionesService = indiceEspecificacionesService;
+        this.filtroSqlProductosService = filtroSqlProductosService;
+        this.busquedaProductosService = busquedaProductosService;
+        this.catalogoSnapshotService = catalogoSnapshotService;
+        this.productoService = productoService;
+        this.productoRepository = productoRepository;
+        this.paginador = paginador;
+        this.estrategiaFiltro = estrategiaFiltro;
+    }
+
+    /**
+     * Filtra los productos según las especificaciones y otros criterios, paginando por ID ascendente.
+     * Con la estrategia INDICE, mientras el índice no esté construido se usa la consulta SQL.
+     *
+     * @param filtro Criterios de filtrado.
+     * @param cursor Cursor de la página anterior o nulo para la primera.
+     * @param tamano Tamaño de página o nulo para el predeterminado.
+     * @return Página de productos filtrados.
+     * @throws IllegalArgumentException Si el cursor o el tamaño no son válidos.
+     */
+    public PaginaCursorDTO<ProductoSimplificadoDTO> filtrarProductos(FiltroProductosDTO filtro, String cursor, Integer tamano) {
+        int cantidad = paginador.tamano(tamano);
+        String[] clave = paginador.decodificar(cursor, 1);
+        Long despuesDe = clave == null ? null : Long.valueOf(clave[0]);
+
+        EstrategiaFiltro estrategia = estrategiaFiltro == EstrategiaFiltro.INDICE && !indiceEspecificacionesService.estaListo()
+                ? EstrategiaFiltro.SQL
+                : estrategiaFiltro;
+        List<ProductoSimplificadoDTO> productos = filtrar(estrategia, filtro, despuesDe, cantidad + 1);
+        return paginador.armar(productos, cantidad, producto -> new Object[]{producto.getId()}, producto -> producto);
+    }
+
+    /**
+     * Mide la primera página del filtro con cada estrategia disponible, incluidas la conversión a DTO.
+     * Cada estrategia se ejecuta una vez para calentar antes de medir.
+     *
+     * @param filtro Criterios de filtrado.
+     * @param tamano Tamaño de página o nulo para el predeterminado.
+     * @param repeticiones Cantidad de ejecuciones medidas por estrategia.
+     * @return Tiempos medio, mínimo y máximo por estrategia.
+     * @throws IllegalArgumentException Si el tamaño o las repeticiones no son válidos.
+     */
+    public List<MedicionFiltroDTO> compararEstrategiasFiltro(FiltroProductosDTO filtro, Integer tamano, int repeticiones) {
+        if (repeticiones < 1 || repeticiones > 100) {
+            throw new IllegalArgumentException("Las repeticiones deben estar entre 1 y 100.");
+        }
+        int cantidad = paginador.tamano(tamano);
+        List<MedicionFiltroDTO> mediciones = new ArrayList<>();
+        for (EstrategiaFiltro estrategia : EstrategiaFiltro.values()) {
+            if (estrategia == EstrategiaFiltro.INDICE && !indiceEspecificacionesService.estaListo()) {
+                continue;
+            }
+            int resultados = filtrar(estrategia, filtro, null, cantidad).size();
+            long total = 0;
+            long minimo = Long.MAX_VALUE;
+            long maximo = 0;
+            for (int i = 0; i < repeticiones; i++) {
+                long inicio = System.nanoTime();
+                filtrar(estrategia, filtro, null, cantidad);
+                long duracion = System.nanoTime() - inicio;
+                total += duracion;
+                minimo = Math.min(minimo, duracion);
+                maximo = Math.max(maximo, duracion);
+            }
+            mediciones.add(new MedicionFiltroDTO(estrategia.name(), resultados,
+                    total / (double) repeticiones / 1_000_000, minimo / 1_000_000.0, maximo / 1_000_000.0));
+        }
+        return mediciones;
+    }
+
+    private List<ProductoSimplificadoDTO> filtrar(EstrategiaFiltro estrategia, FiltroProductosDTO filtro, Long despuesDe, int limite) {
+        return switch (estrategia) {
+            case INDICE -> catalogoSnapshotService.obtenerDTOs(indiceEspecificacionesService.filtrar(filtro, despuesDe, limite));
+            case SQL -> productoService.convertirASimplificadoDTOs(filtroSqlProductosService.filtrar(filtro, despuesDe, limite));
+            case MEMORIA -> productoService.filtrarProductos(filtro).stream()
+                    .filter(producto -> despuesDe == null || producto.getId() > despuesDe)
+                    .sorted(Comparator.comparing(ProductoSimplificadoDTO::getId))
+                    .limit(limite)
+                    .collect(Collectors.toList());
+        };
+    }
+
+    /**
+     * Calcula las facetas de navegación para la selección actual.
+     *
+     * @param filtro Selección actual.
+     * @param intervalos Número de intervalos del histograma de precios.
+     * @return Conteos por valor de especificación, stock e histograma de precios.
+     * @throws IllegalStateException Si el índice aún no está construido.
+     */
+    public FacetasDTO calcularFacetas(FiltroProductosDTO filtro, int intervalos) {
+        if (!indiceEspecificacionesService.estaListo()) {
+            throw new IllegalStateException("El índice del catálogo aún se está construyendo");
+        }
+        return indiceEspecificacionesService.facetas(filtro, intervalos);
+    }
+
+    /**
+     * Busca productos por texto en nombre, descripción y especificaciones, ordenados por relevancia
+     * y paginados por (puntuación, ID).
+     * Mientras el buscador no esté construido se usa la búsqueda por nombre o descripción en la base de datos, ordenada por ID.
+     *
+     * @param texto Texto buscado.
+     * @param cursor Cursor de la página anterior o nulo para la primera.
+     * @param tamano Tamaño de página o nulo para el predeterminado.
+     * @return Página de productos encontrados.
+     * @throws IllegalArgumentException Si el cursor o el tamaño no son válidos.
+     */
+    public PaginaCursorDTO<ProductoSimplificadoDTO> buscarProductos(String texto, String cursor, Integer tamano) {
+        int cantidad = paginador.tamano(tamano);
+        String[] clave = paginador.decodificar(cursor, 2);
+
+        if (busquedaProductosService.estaListo()) {
+            IndiceTexto.Resultado despuesDe = clave == null ? null
+                    : new IndiceTexto.Resultado(Long.parseLong(clave[1]), Double.parseDouble(clave[0]));
+            List<IndiceTexto.Resultado> resultados = busquedaProductosService.buscar(texto, cantidad + 1, despuesDe);
+            Map<Long, ProductoSimplificadoDTO> productos = catalogoSnapshotService.obtenerDTOs(resultados.stream()
+                            .map(IndiceTexto.Resultado::id)
+                            .collect(Collectors.toList())).stream()
+                    .collect(Collectors.toMap(ProductoSimplificadoDTO::getId, producto -> producto));
+            return paginador.armar(resultados.stream().filter(resultado -> productos.containsKey(resultado.id())).collect(Collectors.toList()), cantidad,
+                    resultado -> new Object[]{resultado.puntuacion(), resultado.id()},
+                    resultado -> productos.get(resultado.id()));
+        }
+
+        long despuesDe = clave == null ? 0 : Long.parseLong(clave[1]);
+        List<Long> ids = productoRepository.findIdsPorTextoDespuesDe(texto, despuesDe, PageRequest.of(0, cantidad + 1));
+        return paginador.armar(catalogoSnapshotService.obtenerDTOs(ids), cantidad,
+                producto -> new Object[]{0.0, producto.getId()}, producto -> producto);
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.ProductoSimplificadoDTO;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Foto inmutable del catálogo: DTOs simplificados ya serializados a JSON y su orden por nombre.
+ * Una vez publicada no se modifica; cada cambio produce una nueva versión con {@link #conCambios}. Si los cambios
+ * no mueven ningún producto en el orden por nombre, la versión nueva comparte el arreglo ordenado y el mapa base
+ * con la anterior y guarda aparte solo las entradas reemplazadas, que se consultan antes que las del arreglo.
+ * El orden por nombre compara códigos Unicode, igual que la collation utf8mb4_0900_bin con la que ordenan las
+ * consultas del catálogo en la base de datos, así que un cursor sirve para continuar por cualquiera de los dos.
+ */
+public final class CatalogoSnapshot {
+    static final Comparator<String> ORDEN_NOMBRE_BINARIO = CatalogoSnapshot::compararNombres;
+    static final Comparator<ProductoSimplificadoDTO> ORDEN_NOMBRE = Comparator
+            .comparing(ProductoSimplificadoDTO::getNombre, ORDEN_NOMBRE_BINARIO)
+            .thenComparing(ProductoSimplificadoDTO::getId);
+    private static final Comparator<Entrada> ORDEN_ENTRADAS = (a, b) -> ORDEN_NOMBRE.compare(a.dto(), b.dto());
+    private static final int MINIMO_CAMBIOS_A_COMPACTAR = 1024;
+
+    /**
+     * Producto del catálogo con su JSON precalculado.
+     */
+    public record Entrada(ProductoSimplificadoDTO dto, byte[] json) {
+    }
+
+    private final long version;
+    private final Map<Long, Entrada> porId;
+    private final Map<Long, Entrada> reemplazos;
+    private final Entrada[] porNombre;
+
+    CatalogoSnapshot(long version, Map<Long, Entrada> porId) {
+        this.version = version;
+        this.porId = Collections.unmodifiableMap(porId);
+        this.reemplazos = Map.of();
+        this.porNombre = porId.values().toArray(new Entrada[0]);
+        Arrays.sort(this.porNombre, ORDEN_ENTRADAS);
+    }
+
+    private CatalogoSnapshot(long version, Map<Long, Entrada> porId, Map<Long, Entrada> reemplazos, Entrada[] porNombre) {
+        this.version = version;
+        this.porId = porId;
+        this.reemplazos = reemplazos;
+        this.porNombre = porNombre;
+    }
+
+    static CatalogoSnapshot vacio() {
+        return new CatalogoSnapshot(0, new HashMap<>());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getTamano() {
+        return porNombre.length;
+    }
+
+    public Entrada obtener(Long productoId) {
+        Entrada reemplazo = reemplazos.get(productoId);
+        return reemplazo != null ? reemplazo : porId.get(productoId);
+    }
+
+    /**
+     * Devuelve una nueva versión con las entradas indicadas agregadas o reemplazadas y los productos eliminados
+     * quitados. Si ningún producto se agrega, se elimina ni cambia de nombre, el orden por nombre se comparte tal
+     * cual; si no, solo se ordenan las entradas que cambiaron y se intercalan con el resto en una pasada.
+     *
+     * @param nuevaVersion Número de la nueva versión.
+     * @param actualizadas Entradas nuevas o modificadas por ID de producto.
+     * @param eliminados IDs de los productos que ya no existen.
+     * @return La nueva versión de la foto.
+     */
+    CatalogoSnapshot conCambios(long nuevaVersion, Map<Long, Entrada> actualizadas, Set<Long> eliminados) {
+        boolean reordenar = eliminados.stream().anyMatch(id -> obtener(id) != null);
+        for (Map.Entry<Long, Entrada> actualizada : actualizadas.entrySet()) {
+            Entrada previa = obtener(actualizada.getKey());
+            if (previa == null || !previa.dto().getNombre().equals(actualizada.getValue().dto().getNombre())) {
+                reordenar = true;
+                break;
+            }
+        }
+
+        if (!reordenar) {
+            Map<Long, Entrada> nuevosReemplazos = new HashMap<>(reemplazos);
+            nuevosReemplazos.putAll(actualizadas);
+            if (nuevosReemplazos.size() < Math.max(MINIMO_CAMBIOS_A_COMPACTAR, porNombre.length / 8)) {
+                return new CatalogoSnapshot(nuevaVersion, porId, Collections.unmodifiableMap(nuevosReemplazos), porNombre);
+            }
+            Map<Long, Entrada> compactado = new HashMap<>(porId);
+            compactado.putAll(nuevosReemplazos);
+            Entrada[] mismoOrden = new Entrada[porNombre.length];
+            for (int i = 0; i < porNombre.length; i++) {
+                mismoOrden[i] = compactado.get(porNombre[i].dto().getId());
+            }
+            return new CatalogoSnapshot(nuevaVersion, Collections.unmodifiableMap(compactado), Map.of(), mismoOrden);
+        }
+
+        Map<Long, Entrada> compactado = new HashMap<>(porId);
+        compactado.putAll(reemplazos);
+        compactado.putAll(actualizadas);
+        compactado.keySet().removeAll(eliminados);
+        Entrada[] entrantes = actualizadas.values().toArray(new Entrada[0]);
+        Arrays.sort(entrantes, ORDEN_ENTRADAS);
+        Entrada[] ordenadas = new Entrada[compactado.size()];
+        int n = 0;
+        int e = 0;
+        for (Entrada entrada : porNombre) {
+            Long id = entrada.dto().getId();
+            if (actualizadas.containsKey(id) || eliminados.contains(id)) {
+                continue;
+            }
+            Entrada vigente = compactado.get(id);
+            while (e < entrantes.length && ORDEN_ENTRADAS.compare(entrantes[e], vigente) < 0) {
+                ordenadas[n++] = entrantes[e++];
+            }
+            ordenadas[n++] = vigente;
+        }
+        while (e < entrantes.length) {
+            ordenadas[n++] = entrantes[e++];
+        }
+        return new CatalogoSnapshot(nuevaVersion, Collections.unmodifiableMap(compactado), Map.of(), ordenadas);
+    }
+
+    /**
+     * Devuelve las entradas de la página indicada según el orden por nombre.
+     */
+    public List<Entrada> pagina(int pagina, int tamano) {
+        long desde = (long) pagina * tamano;
+        if (desde >= porNombre.length) {
+            return Collections.emptyList();
+        }
+        int hasta = (int) Math.min(desde + tamano, porNombre.length);
+        return rango((int) desde, hasta);
+    }
+
+    /**
+     * Devuelve hasta {@code cantidad} entradas posteriores, en el orden por nombre, a la clave (nombre, id) indicada.
+     * La posición de inicio se ubica por búsqueda binaria, así que cualquier página cuesta lo mismo.
+     *
+     * @param nombre Nombre de la última entrada entregada o nulo para empezar desde el principio.
+     * @param id ID de la última entrada entregada.
+     * @param cantidad Número máximo de entradas.
+     */
+    public List<Entrada> despuesDe(String nombre, Long id, int cantidad) {
+        int desde = 0;
+        if (nombre != null) {
+            int inferior = 0;
+            int superior = porNombre.length;
+            while (inferior < superior) {
+                int medio = (inferior + superior) >>> 1;
+                ProductoSimplificadoDTO dto = porNombre[medio].dto();
+                int comparacion = compararNombres(dto.getNombre(), nombre);
+                if (comparacion < 0 || (comparacion == 0 && dto.getId() <= id)) {
+                    inferior = medio + 1;
+                } else {
+                    superior = medio;
+                }
+            }
+            desde = inferior;
+        }
+        int hasta = (int) Math.min((long) desde + cantidad, porNombre.length);
+        return rango(desde, hasta);
+    }
+
+    /**
+     * Entradas vigentes de las posiciones indicadas del orden por nombre.
+     */
+    private List<Entrada> rango(int desde, int hasta) {
+        if (reemplazos.isEmpty()) {
+            return Collections.unmodifiableList(Arrays.asList(porNombre).subList(desde, hasta));
+        }
+        List<Entrada> entradas = new ArrayList<>(hasta - desde);
+        for (int i = desde; i < hasta; i++) {
+            Entrada reemplazo = reemplazos.get(porNombre[i].dto().getId());
+            entradas.add(reemplazo != null ? reemplazo : porNombre[i]);
+        }
+        return Collections.unmodifiableList(entradas);
+    }
+
+    /**
+     * Indica si el orden pedido es el de la foto: por nombre ascendente y, opcionalmente, por ID ascendente.
+     */
+    static boolean esOrdenPorNombre(Sort sort) {
+        List<Sort.Order> ordenes = sort.toList();
+        if (ordenes.isEmpty() || ordenes.size() > 2) {
+            return false;
+        }
+        Sort.Order primero = ordenes.get(0);
+        if (!primero.getProperty().equals("nombre") || !primero.isAscending()) {
+            return false;
+        }
+        return ordenes.size() == 1 || (ordenes.get(1).getProperty().equals("id") && ordenes.get(1).isAscending());
+    }
+
+    /**
+     * Compara dos nombres por código Unicode, que es el orden de sus bytes UTF-8.
+     */
+    static int compararNombres(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
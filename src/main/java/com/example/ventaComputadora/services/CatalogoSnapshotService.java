@@ -0,0 +1,331 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.MetricasCatalogoDTO;
+import com.example.ventaComputadora.domain.DTO.PaginaCursorDTO;
+import com.example.ventaComputadora.domain.DTO.PaginaDTO;
+import com.example.ventaComputadora.domain.DTO.ProductoSimplificadoDTO;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import com.example.ventaComputadora.services.paginacion.Paginador;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio que mantiene una foto inmutable y versionada del catálogo en memoria.
+ * Las lecturas del catálogo se sirven desde la foto vigente sin bloquear ni consultar la base de datos;
+ * cada escritura del catálogo publica una nueva versión que se reconstruye en segundo plano.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogoSnapshotService {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogoSnapshotService.class);
+    private static final int TAMANO_LOTE = 500;
+
+    private final ProductoService productoService;
+    private final ProductoRepository productoRepository;
+    private final ObjectMapper objectMapper;
+    private final Paginador paginador;
+
+    private final AtomicReference<CatalogoSnapshot> actual = new AtomicReference<>(CatalogoSnapshot.vacio());
+    private final AtomicBoolean listo = new AtomicBoolean(false);
+    private final long arranque = System.currentTimeMillis();
+    private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean reconstruccionCompletaPendiente = new AtomicBoolean(true);
+    private final AtomicBoolean reconstruccionProgramada = new AtomicBoolean(false);
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "catalogo-snapshot");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder reconstrucciones = new LongAdder();
+    private volatile long ultimaReconstruccionMs;
+
+    /**
+     * Devuelve la foto vigente del catálogo.
+     */
+    public CatalogoSnapshot obtenerSnapshot() {
+        return actual.get();
+    }
+
+    /**
+     * Indica si ya se construyó la primera foto completa del catálogo.
+     */
+    public boolean estaListo() {
+        return listo.get();
+    }
+
+    /**
+     * Devuelve una página del catálogo serializada como JSON con la forma de {@link PaginaDTO}.
+     * Si la foto está lista y el orden es por nombre, la página se arma concatenando el JSON
+     * precalculado de cada producto; en otro caso se consulta la base de datos.
+     *
+     * @param pageable Página, tamaño y orden solicitados.
+     * @return JSON de la página.
+     */
+    public byte[] paginaCatalogoJson(Pageable pageable) {
+        CatalogoSnapshot snapshot = actual.get();
+        if (!listo.get() || !CatalogoSnapshot.esOrdenPorNombre(pageable.getSort())) {
+            fallos.increment();
+            return serializar(productoService.listarCatalogo(pageable));
+        }
+        aciertos.increment();
+
+        List<CatalogoSnapshot.Entrada> entradas = snapshot.pagina(pageable.getPageNumber(), pageable.getPageSize());
+        int totalPaginas = (snapshot.getTamano() + pageable.getPageSize() - 1) / pageable.getPageSize();
+
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(entradas.stream().mapToInt(e -> e.json().length + 1).sum() + 128);
+        salida.writeBytes("{\"contenido\":[".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < entradas.size(); i++) {
+            if (i > 0) {
+                salida.write(',');
+            }
+            salida.writeBytes(entradas.get(i).json());
+        }
+        salida.writeBytes(("],\"pagina\":" + pageable.getPageNumber()
+                + ",\"tamano\":" + pageable.getPageSize()
+                + ",\"totalElementos\":" + snapshot.getTamano()
+                + ",\"totalPaginas\":" + totalPaginas + "}").getBytes(StandardCharsets.UTF_8));
+        return salida.toByteArray();
+    }
+
+    /**
+     * Devuelve una página del catálogo ordenada por nombre y paginada por cursor, serializada como JSON
+     * con la forma de {@link PaginaCursorDTO}. Si la foto está lista la página se ubica por búsqueda binaria
+     * y se arma con el JSON precalculado; en otro caso se consulta la base de datos por clave.
+     *
+     * @param cursor Cursor de la página anterior o nulo para la primera.
+     * @param tamano Tamaño de página o nulo para el predeterminado.
+     * @return JSON de la página.
+     * @throws IllegalArgumentException Si el cursor o el tamaño no son válidos.
+     */
+    public byte[] paginaCatalogoCursorJson(String cursor, Integer tamano) {
+        int cantidad = paginador.tamano(tamano);
+        String[] clave = paginador.decodificar(cursor, 2);
+        String nombre = clave == null ? null : clave[0];
+        Long id = clave == null ? null : Long.valueOf(clave[1]);
+
+        if (!listo.get()) {
+            fallos.increment();
+            List<Long> ids = productoRepository.findIdsPorNombreDespuesDe(nombre, id, PageRequest.of(0, cantidad + 1));
+            return serializar(paginador.armar(productoService.convertirASimplificadoDTOs(ids), cantidad,
+                    dto -> new Object[]{dto.getNombre(), dto.getId()}, dto -> dto));
+        }
+        aciertos.increment();
+
+        List<CatalogoSnapshot.Entrada> entradas = actual.get().despuesDe(nombre, id, cantidad + 1);
+        boolean hayMas = entradas.size() > cantidad;
+        if (hayMas) {
+            entradas = entradas.subList(0, cantidad);
+        }
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(entradas.stream().mapToInt(e -> e.json().length + 1).sum() + 128);
+        salida.writeBytes("{\"contenido\":[".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < entradas.size(); i++) {
+            if (i > 0) {
+                salida.write(',');
+            }
+            salida.writeBytes(entradas.get(i).json());
+        }
+        String siguiente = "null";
+        if (hayMas) {
+            ProductoSimplificadoDTO ultimo = entradas.get(entradas.size() - 1).dto();
+            siguiente = "\"" + paginador.codificar(ultimo.getNombre(), ultimo.getId()) + "\"";
+        }
+        salida.writeBytes(("],\"siguienteCursor\":" + siguiente + ",\"tamano\":" + cantidad + "}").getBytes(StandardCharsets.UTF_8));
+        return salida.toByteArray();
+    }
+
+    /**
+     * Devuelve la entrada de un producto en la foto vigente, con su JSON precalculado y su versión.
+     *
+     * @param productoId ID del producto.
+     * @return Entrada del producto o vacío si la foto no lo contiene.
+     */
+    public Optional<CatalogoSnapshot.Entrada> detalle(Long productoId) {
+        CatalogoSnapshot.Entrada entrada = listo.get() ? actual.get().obtener(productoId) : null;
+        if (entrada == null) {
+            fallos.increment();
+            return Optional.empty();
+        }
+        aciertos.increment();
+        return Optional.of(entrada);
+    }
+
+    /**
+     * Devuelve el ETag de una página del catálogo servida desde la foto vigente. Incluye el instante de arranque
+     * porque la numeración de versiones de la foto se reinicia con la aplicación, y el cursor y el tamaño para que
+     * cada página tenga su propia etiqueta.
+     *
+     * @param cursor Cursor de la página anterior o nulo para la primera.
+     * @param tamano Tamaño de página o nulo para el predeterminado.
+     * @return ETag o vacío si la foto aún no está lista y el catálogo se sirve desde la base de datos.
+     * @throws IllegalArgumentException Si el cursor o el tamaño no son válidos.
+     */
+    public Optional<String> etagCatalogo(String cursor, Integer tamano) {
+        int cantidad = paginador.tamano(tamano);
+        paginador.decodificar(cursor, 2);
+        if (!listo.get()) {
+            return Optional.empty();
+        }
+        String pagina = cursor == null || cursor.isBlank() ? "inicio" : cursor;
+        return Optional.of("catalogo-" + arranque + "-" + actual.get().getVersion() + "-" + cantidad + "-" + pagina);
+    }
+
+    /**
+     * Devuelve los DTOs de los productos indicados, en el mismo orden. Los que no estén en la foto
+     * vigente se cargan de la base de datos en un solo lote.
+     *
+     * @param productoIds IDs de los productos.
+     * @return DTOs simplificados de los productos que existen.
+     */
+    public List<ProductoSimplificadoDTO> obtenerDTOs(List<Long> productoIds) {
+        CatalogoSnapshot snapshot = actual.get();
+        Map<Long, ProductoSimplificadoDTO> encontrados = new HashMap<>();
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : productoIds) {
+            CatalogoSnapshot.Entrada entrada = listo.get() ? snapshot.obtener(id) : null;
+            if (entrada != null) {
+                encontrados.put(id, entrada.dto());
+            } else {
+                faltantes.add(id);
+            }
+        }
+        if (faltantes.isEmpty()) {
+            aciertos.increment();
+        } else {
+            fallos.increment();
+            productoService.convertirASimplificadoDTOs(faltantes).forEach(dto -> encontrados.put(dto.getId(), dto));
+        }
+        return productoIds.stream()
+                .map(encontrados::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Devuelve las métricas de uso y reconstrucción de la foto del catálogo.
+     */
+    public MetricasCatalogoDTO obtenerMetricas() {
+        CatalogoSnapshot snapshot = actual.get();
+        return new MetricasCatalogoDTO(
+                snapshot.getVersion(),
+                snapshot.getTamano(),
+                aciertos.sum(),
+                fallos.sum(),
+                reconstrucciones.sum(),
+                ultimaReconstruccionMs
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        programarReconstruccion();
+    }
+
+    /**
+     * Registra los productos modificados y programa una nueva versión de la foto una vez confirmada la transacción.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        if (evento.esCompleto()) {
+            reconstruccionCompletaPendiente.set(true);
+        } else {
+            pendientes.addAll(evento.getProductoIds());
+        }
+        programarReconstruccion();
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    private void programarReconstruccion() {
+        if (reconstruccionProgramada.compareAndSet(false, true)) {
+            ejecutor.execute(this::reconstruir);
+        }
+    }
+
+    private void reconstruir() {
+        reconstruccionProgramada.set(false);
+        boolean completa = reconstruccionCompletaPendiente.getAndSet(false);
+        Set<Long> ids = new HashSet<>(pendientes);
+        pendientes.removeAll(ids);
+        if (!completa && ids.isEmpty()) {
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            CatalogoSnapshot anterior = actual.get();
+            if (completa) {
+                ids = new HashSet<>(productoRepository.findAllIds());
+            }
+            Map<Long, CatalogoSnapshot.Entrada> entradas = new HashMap<>();
+            List<Long> lista = new ArrayList<>(ids);
+            for (int desde = 0; desde < lista.size(); desde += TAMANO_LOTE) {
+                List<Long> lote = lista.subList(desde, Math.min(desde + TAMANO_LOTE, lista.size()));
+                for (ProductoSimplificadoDTO dto : productoService.convertirASimplificadoDTOs(lote)) {
+                    entradas.put(dto.getId(), new CatalogoSnapshot.Entrada(dto, serializar(dto)));
+                }
+            }
+
+            if (completa) {
+                actual.set(new CatalogoSnapshot(anterior.getVersion() + 1, entradas));
+            } else {
+                Set<Long> eliminados = new HashSet<>(ids);
+                eliminados.removeAll(entradas.keySet());
+                actual.set(anterior.conCambios(anterior.getVersion() + 1, entradas, eliminados));
+            }
+            listo.set(true);
+            reconstrucciones.increment();
+        } catch (RuntimeException e) {
+            logger.error("Error al reconstruir la foto del catálogo", e);
+            if (completa) {
+                reconstruccionCompletaPendiente.set(true);
+            } else {
+                pendientes.addAll(ids);
+            }
+        } finally {
+            ultimaReconstruccionMs = (System.nanoTime() - inicio) / 1_000_000;
+        }
+    }
+
+    private byte[] serializar(Object valor) {
+        try {
+            return objectMapper.writeValueAsBytes(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo", e);
+        }
+    }
+}
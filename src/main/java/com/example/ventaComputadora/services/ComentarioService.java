@@ -1,12 +1,18 @@
 package com.example.ventaComputadora.services;
 
+import com.example.ventaComputadora.domain.DTO.ComentarioDTO;
+import com.example.ventaComputadora.domain.DTO.PaginaCursorDTO;
 import com.example.ventaComputadora.domain.entity.Comentario;
 import com.example.ventaComputadora.domain.entity.Producto;
 import com.example.ventaComputadora.domain.entity.Usuario;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
 import com.example.ventaComputadora.infra.repository.ComentarioRepository;
 import com.example.ventaComputadora.infra.repository.ProductoRepository;
 import com.example.ventaComputadora.infra.repository.UsuarioRepository;
+import com.example.ventaComputadora.services.paginacion.Paginador;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,6 +28,8 @@ public class ComentarioService {
     private final ComentarioRepository comentarioRepository;
     private final ProductoRepository productoRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Paginador paginador;
 
     /**
      * Agrega un nuevo comentario a un producto por un usuario.
@@ -35,7 +43,7 @@ public class ComentarioService {
     public Comentario agregarComentario(Long usuarioId, Long productoId, String contenido) {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        Producto producto = productoRepository.findById(productoId)
+        Producto producto = productoRepository.findByIdForzandoVersion(productoId)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
 
         Comentario comentario = Comentario.builder()
@@ -45,21 +53,38 @@ public class ComentarioService {
                 .fecha(LocalDateTime.now())
                 .build();
 
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deActividad(productoId));
         return comentarioRepository.save(comentario);
     }
 
     /**
-     * Lista todos los comentarios de un producto.
+     * Lista los comentarios de un producto del más reciente al más antiguo, paginados por (fecha, id).
      *
      * @param productoId ID del producto.
-     * @return Lista de comentarios del producto.
+     * @param cursor Cursor de la página anterior o nulo para la primera.
+     * @param tamano Tamaño de página o nulo para el predeterminado.
+     * @return Página de comentarios del producto.
+     * @throws IllegalArgumentException Si el cursor o el tamaño no son válidos.
      */
     @Transactional(readOnly = true)
-    public List<Comentario> listarComentariosPorProducto(Long productoId) {
-        Producto producto = productoRepository.findById(productoId)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+    public PaginaCursorDTO<ComentarioDTO> listarComentariosPorProducto(Long productoId, String cursor, Integer tamano) {
+        if (!productoRepository.existsById(productoId)) {
+            throw new RuntimeException("Producto no encontrado");
+        }
+        int cantidad = paginador.tamano(tamano);
+        String[] clave = paginador.decodificar(cursor, 2);
+        LocalDateTime fecha = clave == null ? null : LocalDateTime.parse(clave[0]);
+        Long id = clave == null ? null : Long.valueOf(clave[1]);
 
-        return comentarioRepository.findAllByProducto(producto);
+        List<Comentario> comentarios = comentarioRepository.findPaginaPorProductoAntesDe(productoId, fecha, id, PageRequest.of(0, cantidad + 1));
+        return paginador.armar(comentarios, cantidad, c -> new Object[]{c.getFecha(), c.getId()}, c -> new ComentarioDTO(
+                c.getId(),
+                c.getProducto().getNombre(),
+                c.getContenido(),
+                c.getUsuario().getId(),
+                c.getUsuario().getUsername(),
+                c.getFecha()
+        ));
     }
 
     /**
@@ -79,8 +104,10 @@ public class ComentarioService {
             throw new RuntimeException("No tienes permiso para editar este comentario");
         }
 
+        productoRepository.findByIdForzandoVersion(comentario.getProducto().getId());
         comentario.setContenido(nuevoContenido);
         comentario.setFecha(LocalDateTime.now());
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deActividad(comentario.getProducto().getId()));
         return comentarioRepository.save(comentario);
     }
 
@@ -99,6 +126,8 @@ public class ComentarioService {
             throw new RuntimeException("No tienes permiso para eliminar este comentario");
         }
 
+        productoRepository.findByIdForzandoVersion(comentario.getProducto().getId());
         comentarioRepository.deleteById(comentarioId);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deActividad(comentario.getProducto().getId()));
     }
 }
@@ -0,0 +1,258 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.ComparacionProductosDTO;
+import com.example.ventaComputadora.domain.DTO.FilaComparacionDTO;
+import com.example.ventaComputadora.domain.DTO.ProductoComparadoDTO;
+import com.example.ventaComputadora.domain.entity.Especificacion;
+import com.example.ventaComputadora.domain.entity.Producto;
+import com.example.ventaComputadora.domain.entity.ProductoEspecificacion;
+import com.example.ventaComputadora.domain.entity.TerminoEspecificacion.Categoria;
+import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Comparación lado a lado de varios productos: una matriz de tipo de especificación por producto con el mínimo
+ * y el máximo de cada fila marcados en el servidor.
+ * Los productos y sus especificaciones se cargan con una sola consulta, y el resultado se guarda por conjunto
+ * ordenado de IDs junto con las versiones de los productos; mientras ninguna versión cambie, la misma
+ * comparación se responde desde memoria con solo consultar esas versiones.
+ */
+@Service
+@RequiredArgsConstructor
+public class ComparacionProductosService {
+    public static final int MINIMO_PRODUCTOS = 2;
+    public static final int MAXIMO_PRODUCTOS = 6;
+    private static final int MAXIMO_COMPARACIONES_GUARDADAS = 1000;
+
+    static final String FILA_PRECIO = "Precio";
+    static final String FILA_STOCK = "Stock";
+
+    /**
+     * Magnitud con unidad dentro del nombre de una especificación, por ejemplo "16 GB" o "3.5GHz".
+     */
+    private static final Pattern MAGNITUD = Pattern.compile("(\\d+(?:[.,]\\d+)?)\\s*(TB|GB|MB|GHZ|MHZ|HZ|W)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private final ProductoRepository productoRepository;
+    private final DiccionarioEspecificacionesService diccionarioEspecificacionesService;
+
+    private final Map<List<Long>, Comparacion> comparaciones = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Long>, Comparacion> mayor) {
+                    return size() > MAXIMO_COMPARACIONES_GUARDADAS;
+                }
+            });
+
+    /**
+     * Comparación calculada junto con las versiones de los productos con las que se armó.
+     *
+     * @param etag Etiqueta de la comparación: cambia si cambia cualquiera de los productos.
+     */
+    public record Comparacion(String etag, Map<Long, Long> versiones, ComparacionProductosDTO dto) {
+    }
+
+    /**
+     * Compara los productos indicados. Las columnas siguen el orden ascendente de los IDs, así que el mismo
+     * conjunto pedido en cualquier orden produce la misma respuesta y la misma etiqueta.
+     *
+     * @param ids IDs de los productos a comparar.
+     * @return Comparación con su etiqueta.
+     * @throws IllegalArgumentException Si no se piden entre 2 y 6 productos distintos.
+     * @throws EntityNotFoundException Si alguno de los productos no existe.
+     */
+    @Transactional(readOnly = true)
+    public Comparacion comparar(Collection<Long> ids) {
+        List<Long> clave = List.copyOf(new TreeSet<>(ids));
+        if (clave.size() < MINIMO_PRODUCTOS || clave.size() > MAXIMO_PRODUCTOS) {
+            throw new IllegalArgumentException("Se pueden comparar entre " + MINIMO_PRODUCTOS + " y "
+                    + MAXIMO_PRODUCTOS + " productos distintos.");
+        }
+
+        Map<Long, Long> versiones = new HashMap<>();
+        for (Object[] fila : productoRepository.findVersionesByIdIn(clave)) {
+            versiones.put((Long) fila[0], (Long) fila[1]);
+        }
+        if (versiones.size() < clave.size()) {
+            throw new EntityNotFoundException("Producto no encontrado");
+        }
+        Comparacion guardada = comparaciones.get(clave);
+        if (guardada != null && guardada.versiones().equals(versiones)) {
+            return guardada;
+        }
+
+        Map<Long, Producto> productos = productoRepository.findAllConEspecificacionesByIdIn(clave).stream()
+                .collect(Collectors.toMap(Producto::getId, p -> p));
+        if (productos.size() < clave.size()) {
+            throw new EntityNotFoundException("Producto no encontrado");
+        }
+        List<Producto> columnas = clave.stream().map(productos::get).toList();
+        Comparacion comparacion = construir(clave, columnas);
+        comparaciones.put(clave, comparacion);
+        return comparacion;
+    }
+
+    private Comparacion construir(List<Long> clave, List<Producto> columnas) {
+        Map<Long, Long> versiones = new HashMap<>();
+        List<ProductoComparadoDTO> productos = new ArrayList<>();
+        for (Producto producto : columnas) {
+            versiones.put(producto.getId(), producto.getVersion());
+            productos.add(new ProductoComparadoDTO(producto.getId(), producto.getNombre(), producto.getPrecio(),
+                    producto.getStock(), producto.getVersion()));
+        }
+
+        List<FilaComparacionDTO> filas = new ArrayList<>();
+        filas.add(filaNumerica(FILA_PRECIO, columnas, columnas.stream().map(Producto::getPrecio).toList()));
+        filas.add(filaNumerica(FILA_STOCK, columnas, columnas.stream().map(p -> BigDecimal.valueOf(p.getStock())).toList()));
+
+        Map<String, List<List<ProductoEspecificacion>>> porTipo = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < columnas.size(); i++) {
+            for (ProductoEspecificacion pe : columnas.get(i).getEspecificacionesDisponibles()) {
+                List<List<ProductoEspecificacion>> celdas = porTipo.computeIfAbsent(nombreTipo(pe.getEspecificacion()), t -> {
+                    List<List<ProductoEspecificacion>> vacias = new ArrayList<>();
+                    for (int j = 0; j < columnas.size(); j++) {
+                        vacias.add(new ArrayList<>());
+                    }
+                    return vacias;
+                });
+                celdas.get(i).add(pe);
+            }
+        }
+        porTipo.forEach((tipo, celdas) -> filas.add(filaEspecificacion(tipo, columnas, celdas)));
+
+        String etag = "comparacion-" + clave.stream()
+                .map(id -> id + "." + versiones.get(id))
+                .collect(Collectors.joining("-"));
+        return new Comparacion(etag, versiones, new ComparacionProductosDTO(productos, filas));
+    }
+
+    /**
+     * Nombre de la fila de una especificación: el tipo canónico del diccionario o, si aún no está enlazada,
+     * el texto libre del tipo.
+     */
+    private String nombreTipo(Especificacion especificacion) {
+        if (especificacion.getTipoTermino() != null) {
+            String nombre = diccionarioEspecificacionesService.nombre(Categoria.TIPO, especificacion.getTipoTermino().getId());
+            if (nombre != null) {
+                return nombre;
+            }
+        }
+        return especificacion.getTipo();
+    }
+
+    private static FilaComparacionDTO filaNumerica(String nombre, List<Producto> columnas, List<BigDecimal> numeros) {
+        List<String> valores = numeros.stream().map(n -> n == null ? null : n.toPlainString()).toList();
+        return extremos(nombre, valores, columnas, numeros);
+    }
+
+    /**
+     * Arma la fila de un tipo de especificación. Cada celda lista los nombres de las especificaciones del
+     * producto con su cantidad; los extremos se calculan con la magnitud del nombre (capacidad, frecuencia o
+     * potencia) solo si todas las celdas con valor la tienen y en la misma unidad.
+     */
+    private static FilaComparacionDTO filaEspecificacion(String tipo, List<Producto> columnas,
+                                                         List<List<ProductoEspecificacion>> celdas) {
+        List<String> valores = new ArrayList<>();
+        List<BigDecimal> numeros = new ArrayList<>();
+        Set<String> unidades = new HashSet<>();
+        boolean comparable = true;
+        for (List<ProductoEspecificacion> celda : celdas) {
+            if (celda.isEmpty()) {
+                valores.add(null);
+                numeros.add(null);
+                continue;
+            }
+            celda.sort((a, b) -> a.getEspecificacion().getNombre().compareToIgnoreCase(b.getEspecificacion().getNombre()));
+            valores.add(celda.stream()
+                    .map(pe -> pe.getCantidad() > 1 ? pe.getCantidad() + " x " + pe.getEspecificacion().getNombre()
+                            : pe.getEspecificacion().getNombre())
+                    .collect(Collectors.joining(", ")));
+
+            BigDecimal total = BigDecimal.ZERO;
+            for (ProductoEspecificacion pe : celda) {
+                Magnitud magnitud = magnitud(pe.getEspecificacion().getNombre());
+                if (magnitud == null) {
+                    comparable = false;
+                    break;
+                }
+                unidades.add(magnitud.unidad());
+                total = total.add(magnitud.valor().multiply(BigDecimal.valueOf(pe.getCantidad())));
+            }
+            numeros.add(total);
+        }
+        if (!comparable || unidades.size() != 1) {
+            return new FilaComparacionDTO(tipo, valores, Set.of(), Set.of());
+        }
+        return extremos(tipo, valores, columnas, numeros);
+    }
+
+    private static FilaComparacionDTO extremos(String nombre, List<String> valores, List<Producto> columnas,
+                                               List<BigDecimal> numeros) {
+        BigDecimal minimo = null;
+        BigDecimal maximo = null;
+        for (BigDecimal numero : numeros) {
+            if (numero == null) {
+                continue;
+            }
+            minimo = minimo == null || numero.compareTo(minimo) < 0 ? numero : minimo;
+            maximo = maximo == null || numero.compareTo(maximo) > 0 ? numero : maximo;
+        }
+        if (minimo == null || minimo.compareTo(maximo) == 0) {
+            return new FilaComparacionDTO(nombre, valores, Set.of(), Set.of());
+        }
+        Set<Long> minimos = new TreeSet<>();
+        Set<Long> maximos = new TreeSet<>();
+        for (int i = 0; i < numeros.size(); i++) {
+            BigDecimal numero = numeros.get(i);
+            if (numero != null && numero.compareTo(minimo) == 0) {
+                minimos.add(columnas.get(i).getId());
+            }
+            if (numero != null && numero.compareTo(maximo) == 0) {
+                maximos.add(columnas.get(i).getId());
+            }
+        }
+        return new FilaComparacionDTO(nombre, valores, minimos, maximos);
+    }
+
+    private record Magnitud(BigDecimal valor, String unidad) {
+    }
+
+    /**
+     * Extrae la primera magnitud con unidad del nombre, llevando TB a GB y GHz a MHz para poder compararlas.
+     */
+    private static Magnitud magnitud(String nombre) {
+        Matcher matcher = MAGNITUD.matcher(nombre);
+        if (!matcher.find()) {
+            return null;
+        }
+        BigDecimal valor = new BigDecimal(matcher.group(1).replace(',', '.'));
+        String unidad = matcher.group(2).toUpperCase(Locale.ROOT);
+        return switch (unidad) {
+            case "TB" -> new Magnitud(valor.multiply(BigDecimal.valueOf(1024)), "GB");
+            case "MB" -> new Magnitud(valor.divide(BigDecimal.valueOf(1024)), "GB");
+            case "GHZ" -> new Magnitud(valor.multiply(BigDecimal.valueOf(1000)), "MHZ");
+            case "HZ" -> new Magnitud(valor, "HZ");
+            default -> new Magnitud(valor, unidad);
+        };
+    }
+}
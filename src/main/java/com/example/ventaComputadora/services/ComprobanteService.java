@@ -52,24 +52,30 @@ public class ComprobanteService {
         document.add(new Paragraph("Método de Pago: " + pago.getMetodoPago()));
         document.add(new Paragraph("Monto Total: $" + pago.getMonto()));
 
-        PdfPTable table = new PdfPTable(2);
+        PdfPTable table = new PdfPTable(3);
         table.setWidthPercentage(100);
-        table.setWidths(new int[]{1, 3});
+        table.setWidths(new int[]{3, 1, 1});
 
         PdfPCell hcell;
         hcell = new PdfPCell(new Paragraph("Producto"));
         table.addCell(hcell);
 
+        hcell = new PdfPCell(new Paragraph("Cantidad"));
+        table.addCell(hcell);
+
         hcell = new PdfPCell(new Paragraph("Precio"));
         table.addCell(hcell);
 
-        orden.getProductos().forEach(producto -> {
+        orden.getLineas().forEach(linea -> {
             PdfPCell cell;
 
-            cell = new PdfPCell(new Paragraph(producto.getNombre()));
+            cell = new PdfPCell(new Paragraph(linea.getNombreProducto()));
+            table.addCell(cell);
+
+            cell = new PdfPCell(new Paragraph(String.valueOf(linea.getCantidad())));
             table.addCell(cell);
 
-            cell = new PdfPCell(new Paragraph("$" + producto.getPrecio()));
+            cell = new PdfPCell(new Paragraph("$" + linea.getPrecioUnitario()));
             table.addCell(cell);
         });
 
@@ -0,0 +1,280 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.ConfiguracionDTO;
+import com.example.ventaComputadora.domain.DTO.CotizacionDTO;
+import com.example.ventaComputadora.domain.DTO.LineaCotizacionDTO;
+import com.example.ventaComputadora.domain.entity.Configuracion;
+import com.example.ventaComputadora.domain.entity.TerminoEspecificacion.Categoria;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import com.example.ventaComputadora.infra.repository.ConfiguracionRepository;
+import com.example.ventaComputadora.infra.repository.EspecificacionRepository;
+import com.example.ventaComputadora.infra.repository.ProductoEspecificacionRepository;
+import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import com.example.ventaComputadora.infra.repository.UsuarioRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Configurador de productos: cotiza un producto base con las especificaciones elegidas por el cliente sin
+ * modificar el producto del catálogo.
+ * Cada tipo de especificación que trae el producto es una ranura; una especificación elegida reemplaza a las
+ * que el producto trae de ese tipo, conservando la cantidad. La configuración es incompatible si elige una
+ * especificación inexistente, un tipo que el producto no tiene o más de una especificación del mismo tipo.
+ * Las cotizaciones se resuelven con una copia en memoria de los precios y las ranuras, que se actualiza al
+ * confirmarse cada cambio del catálogo, así que no consultan ni escriben la base; solo guardar una
+ * configuración escribe.
+ */
+@Service
+@RequiredArgsConstructor
+public class ConfiguradorService {
+    public static final int MAXIMO_ESPECIFICACIONES = 50;
+
+    private final ProductoRepository productoRepository;
+    private final EspecificacionRepository especificacionRepository;
+    private final ProductoEspecificacionRepository productoEspecificacionRepository;
+    private final ConfiguracionRepository configuracionRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final DiccionarioEspecificacionesService diccionarioEspecificacionesService;
+
+    private volatile Map<Long, Opcion> especificaciones = Map.of();
+    private final Map<Long, Base> productos = new ConcurrentHashMap<>();
+    private volatile boolean listo;
+
+    /**
+     * Especificación tal como la usa el configurador.
+     */
+    private record Opcion(Long id, String nombre, Long tipo, String nombreTipo, BigDecimal precioAdicional) {
+    }
+
+    /**
+     * Producto base: precio sin especificaciones y especificaciones que trae, con su cantidad.
+     */
+    private record Base(Long id, String nombre, BigDecimal precioBase, Map<Long, Integer> cantidades) {
+    }
+
+    /**
+     * Cotiza un producto con las especificaciones elegidas.
+     *
+     * @param productoId ID del producto base.
+     * @param especificacionIds IDs de las especificaciones elegidas.
+     * @return Precio, detalle por especificación y veredicto de compatibilidad.
+     * @throws EntityNotFoundException Si el producto no existe.
+     * @throws IllegalArgumentException Si se eligen demasiadas especificaciones.
+     * @throws IllegalStateException Si el configurador todavía no se cargó.
+     */
+    public CotizacionDTO cotizar(Long productoId, Collection<Long> especificacionIds) {
+        if (!listo) {
+            throw new IllegalStateException("El configurador todavía no está disponible.");
+        }
+        Set<Long> elegidas = especificacionIds == null ? Set.of() : new TreeSet<>(especificacionIds);
+        if (elegidas.size() > MAXIMO_ESPECIFICACIONES) {
+            throw new IllegalArgumentException("Se pueden elegir hasta " + MAXIMO_ESPECIFICACIONES + " especificaciones.");
+        }
+        Base base = productos.get(productoId);
+        if (base == null) {
+            throw new EntityNotFoundException("Producto no encontrado");
+        }
+        Map<Long, Opcion> opciones = especificaciones;
+
+        Map<Long, List<Opcion>> ranuras = new HashMap<>();
+        Map<Long, Integer> cantidadPorRanura = new HashMap<>();
+        base.cantidades().forEach((id, cantidad) -> {
+            Opcion opcion = opciones.get(id);
+            if (opcion != null) {
+                ranuras.computeIfAbsent(opcion.tipo(), t -> new ArrayList<>()).add(opcion);
+                cantidadPorRanura.merge(opcion.tipo(), cantidad, Math::max);
+            }
+        });
+
+        List<String> problemas = new ArrayList<>();
+        Map<Long, Opcion> eleccionPorRanura = new HashMap<>();
+        for (Long id : elegidas) {
+            Opcion opcion = opciones.get(id);
+            if (opcion == null) {
+                problemas.add("La especificación " + id + " no existe.");
+            } else if (!ranuras.containsKey(opcion.tipo())) {
+                problemas.add("El producto no admite especificaciones de tipo " + opcion.nombreTipo() + ".");
+            } else if (eleccionPorRanura.putIfAbsent(opcion.tipo(), opcion) != null) {
+                problemas.add("Se eligió más de una especificación de tipo " + opcion.nombreTipo() + ".");
+            }
+        }
+
+        List<LineaCotizacionDTO> lineas = new ArrayList<>();
+        BigDecimal precioEspecificaciones = BigDecimal.ZERO;
+        for (Map.Entry<Long, List<Opcion>> ranura : ranuras.entrySet()) {
+            Opcion eleccion = eleccionPorRanura.get(ranura.getKey());
+            if (eleccion != null) {
+                int cantidad = cantidadPorRanura.get(ranura.getKey());
+                BigDecimal subtotal = PreciosService.subtotal(eleccion.precioAdicional(), cantidad);
+                lineas.add(new LineaCotizacionDTO(eleccion.id(), eleccion.nombre(), eleccion.nombreTipo(), cantidad, subtotal, true));
+                precioEspecificaciones = precioEspecificaciones.add(subtotal);
+                continue;
+            }
+            for (Opcion incluida : ranura.getValue()) {
+                int cantidad = base.cantidades().get(incluida.id());
+                BigDecimal subtotal = PreciosService.subtotal(incluida.precioAdicional(), cantidad);
+                lineas.add(new LineaCotizacionDTO(incluida.id(), incluida.nombre(), incluida.nombreTipo(), cantidad, subtotal, false));
+                precioEspecificaciones = precioEspecificaciones.add(subtotal);
+            }
+        }
+
+        lineas.sort(Comparator.comparing(LineaCotizacionDTO::getTipo, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                .thenComparing(LineaCotizacionDTO::getNombre, String.CASE_INSENSITIVE_ORDER));
+
+        BigDecimal precioBase = PreciosService.normalizar(base.precioBase());
+        return new CotizacionDTO(base.id(), base.nombre(), precioBase, PreciosService.normalizar(precioEspecificaciones),
+                precioBase.add(PreciosService.normalizar(precioEspecificaciones)), problemas.isEmpty(), problemas, lineas);
+    }
+
+    /**
+     * Guarda una configuración del usuario con el precio cotizado en ese momento.
+     *
+     * @param usuarioId ID del usuario.
+     * @param productoId ID del producto base.
+     * @param especificacionIds IDs de las especificaciones elegidas.
+     * @return La configuración guardada.
+     * @throws IllegalArgumentException Si la configuración no es compatible.
+     * @throws EntityNotFoundException Si el producto no existe.
+     */
+    @Transactional
+    public ConfiguracionDTO guardar(Long usuarioId, Long productoId, Collection<Long> especificacionIds) {
+        CotizacionDTO cotizacion = cotizar(productoId, especificacionIds);
+        if (!cotizacion.isCompatible()) {
+            throw new IllegalArgumentException(String.join(" ", cotizacion.getProblemas()));
+        }
+        Configuracion configuracion = configuracionRepository.save(Configuracion.builder()
+                .usuario(usuarioRepository.getReferenceById(usuarioId))
+                .producto(productoRepository.getReferenceById(productoId))
+                .especificacionIds(new HashSet<>(especificacionIds == null ? Set.of() : especificacionIds))
+                .precio(cotizacion.getPrecio())
+                .fecha(LocalDateTime.now())
+                .build());
+        return new ConfiguracionDTO(configuracion.getId(), productoId, cotizacion.getNombreProducto(),
+                new TreeSet<>(configuracion.getEspecificacionIds()), configuracion.getPrecio(), cotizacion, configuracion.getFecha());
+    }
+
+    /**
+     * Lista las configuraciones guardadas de un usuario, cada una con su cotización a precios actuales.
+     *
+     * @param usuarioId ID del usuario.
+     * @return Configuraciones de la más reciente a la más antigua.
+     */
+    @Transactional(readOnly = true)
+    public List<ConfiguracionDTO> listar(Long usuarioId) {
+        List<ConfiguracionDTO> resultado = new ArrayList<>();
+        for (Configuracion configuracion : configuracionRepository.findAllByUsuarioId(usuarioId)) {
+            Long productoId = configuracion.getProducto().getId();
+            CotizacionDTO actual = null;
+            try {
+                actual = cotizar(productoId, configuracion.getEspecificacionIds());
+            } catch (EntityNotFoundException | IllegalStateException e) {
+                // El producto ya no existe o el configurador aún no se cargó: se devuelve solo lo guardado.
+            }
+            resultado.add(new ConfiguracionDTO(configuracion.getId(), productoId,
+                    actual != null ? actual.getNombreProducto() : null,
+                    new TreeSet<>(configuracion.getEspecificacionIds()), configuracion.getPrecio(), actual, configuracion.getFecha()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Elimina una configuración del usuario.
+     *
+     * @param usuarioId ID del usuario.
+     * @param id ID de la configuración.
+     * @throws EntityNotFoundException Si la configuración no existe o es de otro usuario.
+     */
+    @Transactional
+    public void eliminar(Long usuarioId, Long id) {
+        Configuracion configuracion = configuracionRepository.findByIdAndUsuarioId(id, usuarioId)
+                .orElseThrow(() -> new EntityNotFoundException("Configuración no encontrada"));
+        configuracionRepository.delete(configuracion);
+    }
+
+    /**
+     * Carga las especificaciones y todos los productos al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void construir() {
+        cargarEspecificaciones();
+        productos.clear();
+        aplicar(productoRepository.findDatosConfigurador(), productoEspecificacionRepository.findDatosConfigurador(), Set.of());
+        listo = true;
+    }
+
+    /**
+     * Actualiza los productos afectados una vez confirmada la transacción que los modificó. Las especificaciones
+     * solo se recargan cuando el evento indica que cambió su definición; los pagos, ventas flash, comentarios y
+     * favoritos solo tocan productos y no leen la tabla de especificaciones.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        if (evento.esCompleto()) {
+            construir();
+            return;
+        }
+        if (evento.afectaEspecificaciones()) {
+            cargarEspecificaciones();
+        }
+        Set<Long> ids = evento.getProductoIds();
+        if (!ids.isEmpty()) {
+            aplicar(productoRepository.findDatosConfiguradorByIdIn(ids),
+                    productoEspecificacionRepository.findDatosConfiguradorByProductoIdIn(ids), ids);
+        }
+    }
+
+    private void cargarEspecificaciones() {
+        Map<Long, Opcion> nuevas = new HashMap<>();
+        for (Object[] fila : especificacionRepository.findDatosConfigurador()) {
+            Long tipo = (Long) fila[2];
+            String nombreTipo = tipo != null ? diccionarioEspecificacionesService.nombre(Categoria.TIPO, tipo) : null;
+            nuevas.put((Long) fila[0], new Opcion((Long) fila[0], (String) fila[1], tipo,
+                    Objects.requireNonNullElse(nombreTipo, (String) fila[3]), (BigDecimal) fila[4]));
+        }
+        especificaciones = Map.copyOf(nuevas);
+    }
+
+    /**
+     * Reemplaza los productos indicados; los que ya no existen se quitan.
+     */
+    private void aplicar(List<Object[]> filasProductos, List<Object[]> filasEspecificaciones, Set<Long> ids) {
+        Map<Long, Map<Long, Integer>> cantidades = filasEspecificaciones.stream().collect(Collectors.groupingBy(
+                fila -> (Long) fila[0],
+                Collectors.toMap(fila -> (Long) fila[1], fila -> ((Number) fila[2]).intValue())));
+        Set<Long> presentes = new HashSet<>();
+        for (Object[] fila : filasProductos) {
+            Long id = (Long) fila[0];
+            presentes.add(id);
+            productos.put(id, new Base(id, (String) fila[1], (BigDecimal) fila[2],
+                    Map.copyOf(cantidades.getOrDefault(id, Map.of()))));
+        }
+        for (Long id : ids) {
+            if (!presentes.contains(id)) {
+                productos.remove(id);
+            }
+        }
+    }
+}
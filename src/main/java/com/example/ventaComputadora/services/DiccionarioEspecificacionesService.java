@@ -0,0 +1,250 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.FiltroProductosDTO;
+import com.example.ventaComputadora.domain.DTO.TerminoEspecificacionDTO;
+import com.example.ventaComputadora.domain.entity.TerminoEspecificacion;
+import com.example.ventaComputadora.domain.entity.TerminoEspecificacion.Categoria;
+import com.example.ventaComputadora.infra.repository.TerminoEspecificacionRepository;
+import com.example.ventaComputadora.services.indice.NormalizadorTexto;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Diccionario de tipos y marcas de especificaciones. Cada nombre canónico y cada sinónimo se resuelve, sin
+ * distinguir mayúsculas ni acentos, al ID de su término; los filtros trabajan con esos IDs en lugar de comparar
+ * el texto libre de {@code Especificacion.tipo} y {@code Especificacion.marca}.
+ * El diccionario se guarda en memoria como una foto inmutable que se reemplaza al confirmar cada cambio.
+ */
+@Service
+@RequiredArgsConstructor
+public class DiccionarioEspecificacionesService {
+    public static final String TIPO_RAM = "RAM";
+    public static final String TIPO_PROCESADOR = "Procesador";
+    public static final String TIPO_TARJETA_GRAFICA = "Tarjeta Gráfica";
+
+    /**
+     * Tipos con los que se siembra el diccionario vacío; son los que antes estaban fijos en el código.
+     */
+    private static final Map<String, Set<String>> TIPOS_INICIALES = Map.of(
+            TIPO_RAM, Set.of("Memoria RAM"),
+            TIPO_PROCESADOR, Set.of("CPU"),
+            TIPO_TARJETA_GRAFICA, Set.of("GPU"));
+
+    private final TerminoEspecificacionRepository terminoEspecificacionRepository;
+
+    private volatile Map<Categoria, Diccionario> diccionarios = vacios();
+
+    /**
+     * Términos de una categoría: texto normalizado (nombre o sinónimo) a ID, e ID a nombre canónico.
+     */
+    private record Diccionario(Map<String, Long> idPorTexto, Map<Long, String> nombrePorId) {
+    }
+
+    /**
+     * Grupo de un filtro de productos: tipos canónicos que abarca y valores buscados en el nombre de la especificación.
+     */
+    public record Grupo(String nombre, Set<Long> tipos, Set<String> valores) {
+    }
+
+    /**
+     * Arma los grupos de un filtro: RAM, procesador y tarjeta gráfica siempre y en ese orden, seguidos de uno por
+     * cada tipo pedido en {@code especificaciones}. Un tipo que no está en el diccionario da un grupo sin tipos.
+     *
+     * @param filtro Criterios de filtrado.
+     * @return Grupos del filtro.
+     */
+    public List<Grupo> grupos(FiltroProductosDTO filtro) {
+        List<Grupo> grupos = new ArrayList<>();
+        grupos.add(new Grupo(TIPO_RAM, idsTipos(List.of(TIPO_RAM)), filtro.getRam()));
+        grupos.add(new Grupo(TIPO_PROCESADOR, idsTipos(List.of(TIPO_PROCESADOR)), filtro.getProcesador()));
+        grupos.add(new Grupo(TIPO_TARJETA_GRAFICA, idsTipos(List.of(TIPO_TARJETA_GRAFICA)), filtro.getTarjetaGrafica()));
+        if (filtro.getEspecificaciones() != null) {
+            filtro.getEspecificaciones().forEach((tipo, valores) -> grupos.add(new Grupo(tipo, idsTipos(List.of(tipo)), valores)));
+        }
+        return grupos;
+    }
+
+    /**
+     * Vuelve a cargar el diccionario completo desde la base de datos.
+     */
+    @Transactional(readOnly = true)
+    public void recargar() {
+        Map<Categoria, Diccionario> nuevos = new EnumMap<>(Categoria.class);
+        for (Categoria categoria : Categoria.values()) {
+            Map<String, Long> idPorTexto = new HashMap<>();
+            Map<Long, String> nombrePorId = new HashMap<>();
+            for (TerminoEspecificacion termino : terminoEspecificacionRepository.findByCategoriaOrderByNombreAsc(categoria)) {
+                nombrePorId.put(termino.getId(), termino.getNombre());
+                idPorTexto.put(NormalizadorTexto.normalizar(termino.getNombre()), termino.getId());
+                for (String sinonimo : termino.getSinonimos()) {
+                    idPorTexto.putIfAbsent(NormalizadorTexto.normalizar(sinonimo), termino.getId());
+                }
+            }
+            nuevos.put(categoria, new Diccionario(Map.copyOf(idPorTexto), Map.copyOf(nombrePorId)));
+        }
+        diccionarios = nuevos;
+    }
+
+    /**
+     * Resuelve un texto de tipo o marca a su ID canónico.
+     *
+     * @param categoria Tipo o marca.
+     * @param texto Nombre canónico o sinónimo, en cualquier combinación de mayúsculas y acentos.
+     * @return ID del término o vacío si no está en el diccionario.
+     */
+    public Optional<Long> id(Categoria categoria, String texto) {
+        if (!StringUtils.hasText(texto)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(diccionarios.get(categoria).idPorTexto().get(NormalizadorTexto.normalizar(texto)));
+    }
+
+    /**
+     * Resuelve varios textos de tipo a sus IDs canónicos, ignorando los que no están en el diccionario.
+     *
+     * @param textos Nombres o sinónimos de tipos.
+     * @return IDs de los tipos encontrados.
+     */
+    public Set<Long> idsTipos(Collection<String> textos) {
+        Set<Long> ids = new HashSet<>();
+        for (String texto : textos) {
+            id(Categoria.TIPO, texto).ifPresent(ids::add);
+        }
+        return ids;
+    }
+
+    /**
+     * Obtiene el nombre canónico de un término.
+     *
+     * @param categoria Tipo o marca.
+     * @param id ID del término.
+     * @return Nombre canónico o nulo si el ID no existe.
+     */
+    public String nombre(Categoria categoria, Long id) {
+        return diccionarios.get(categoria).nombrePorId().get(id);
+    }
+
+    /**
+     * Devuelve el término al que corresponde un texto, dándolo de alta si todavía no existe; así un tipo nuevo
+     * queda disponible para filtrar en cuanto se registra la primera especificación que lo usa.
+     *
+     * @param categoria Tipo o marca.
+     * @param texto Texto escrito en la especificación.
+     * @return Término existente o recién creado.
+     */
+    @Transactional
+    public TerminoEspecificacion resolver(Categoria categoria, String texto) {
+        Optional<Long> id = id(categoria, texto);
+        if (id.isPresent()) {
+            return terminoEspecificacionRepository.getReferenceById(id.get());
+        }
+        String nombre = texto.trim();
+        Optional<TerminoEspecificacion> existente = terminoEspecificacionRepository.findByCategoriaAndNombreIgnoreCase(categoria, nombre);
+        if (existente.isPresent()) {
+            return existente.get();
+        }
+        TerminoEspecificacion termino = terminoEspecificacionRepository.save(TerminoEspecificacion.builder()
+                .categoria(categoria)
+                .nombre(nombre)
+                .build());
+        recargarAlConfirmar();
+        return termino;
+    }
+
+    /**
+     * Agrega un sinónimo a un término.
+     *
+     * @param id ID del término.
+     * @param sinonimo Sinónimo a agregar.
+     * @return Término actualizado.
+     * @throws IllegalArgumentException Si el sinónimo está vacío o ya corresponde a otro término de la misma categoría.
+     * @throws EntityNotFoundException Si el término no existe.
+     */
+    @Transactional
+    public TerminoEspecificacionDTO agregarSinonimo(Long id, String sinonimo) {
+        if (!StringUtils.hasText(sinonimo) || sinonimo.trim().length() > 100) {
+            throw new IllegalArgumentException("El sinónimo debe tener entre 1 y 100 caracteres.");
+        }
+        TerminoEspecificacion termino = terminoEspecificacionRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Término no encontrado"));
+        Optional<Long> actual = id(termino.getCategoria(), sinonimo);
+        if (actual.isPresent() && !actual.get().equals(id)) {
+            throw new IllegalArgumentException("El sinónimo ya corresponde a " + nombre(termino.getCategoria(), actual.get()) + ".");
+        }
+        termino.getSinonimos().add(sinonimo.trim());
+        recargarAlConfirmar();
+        return convertirADTO(termino);
+    }
+
+    /**
+     * Lista los términos de una categoría con sus sinónimos.
+     *
+     * @param categoria Tipo o marca.
+     * @return Términos ordenados por nombre.
+     */
+    @Transactional(readOnly = true)
+    public List<TerminoEspecificacionDTO> listar(Categoria categoria) {
+        return terminoEspecificacionRepository.findByCategoriaOrderByNombreAsc(categoria).stream()
+                .map(this::convertirADTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Da de alta los tipos iniciales si el diccionario de tipos está vacío.
+     */
+    @Transactional
+    public void sembrar() {
+        if (terminoEspecificacionRepository.existsByCategoria(Categoria.TIPO)) {
+            return;
+        }
+        List<TerminoEspecificacion> tipos = new ArrayList<>();
+        TIPOS_INICIALES.forEach((nombre, sinonimos) -> tipos.add(TerminoEspecificacion.builder()
+                .categoria(Categoria.TIPO)
+                .nombre(nombre)
+                .sinonimos(new HashSet<>(sinonimos))
+                .build()));
+        terminoEspecificacionRepository.saveAll(tipos);
+        recargarAlConfirmar();
+    }
+
+    private void recargarAlConfirmar() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recargar();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recargar();
+            }
+        });
+    }
+
+    private TerminoEspecificacionDTO convertirADTO(TerminoEspecificacion termino) {
+        return new TerminoEspecificacionDTO(termino.getId(), termino.getNombre(), new HashSet<>(termino.getSinonimos()));
+    }
+
+    private static Map<Categoria, Diccionario> vacios() {
+        Map<Categoria, Diccionario> vacios = new EnumMap<>(Categoria.class);
+        for (Categoria categoria : Categoria.values()) {
+            vacios.put(categoria, new Diccionario(Map.of(), Map.of()));
+        }
+        return vacios;
+    }
+}
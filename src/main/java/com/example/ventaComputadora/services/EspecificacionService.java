@@ -1,15 +1,26 @@
 package com.example.ventaComputadora.services;
 
 import com.example.ventaComputadora.domain.DTO.EspecificacionDTO;
+import com.example.ventaComputadora.domain.DTO.PaginaCursorDTO;
 import com.example.ventaComputadora.domain.entity.Especificacion;
+import com.example.ventaComputadora.domain.entity.TerminoEspecificacion.Categoria;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
 import com.example.ventaComputadora.infra.repository.EspecificacionRepository;
+import com.example.ventaComputadora.infra.repository.ProductoEspecificacionRepository;
 import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import com.example.ventaComputadora.services.paginacion.Paginador;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -20,6 +31,11 @@ import java.util.stream.Collectors;
 public class EspecificacionService {
     private final EspecificacionRepository especificacionRepository;
     private final ProductoRepository productoRepository;
+    private final ProductoEspecificacionRepository productoEspecificacionRepository;
+    private final PreciosService preciosService;
+    private final DiccionarioEspecificacionesService diccionarioEspecificacionesService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Paginador paginador;
 
     /**
      * Registra una nueva especificación.
@@ -32,16 +48,20 @@ public class EspecificacionService {
      * @return La especificación registrada.
      */
     @Transactional
-    public Especificacion registrarEspecificacion(String nombre, String descripcion, double precioAdicional, String marca, String tipo) {
+    public Especificacion registrarEspecificacion(String nombre, String descripcion, BigDecimal precioAdicional, String marca, String tipo) {
         Especificacion especificacion = Especificacion.builder()
                 .nombre(nombre)
                 .descripcion(descripcion)
-                .precioAdicional(precioAdicional)
+                .precioAdicional(PreciosService.normalizar(precioAdicional))
                 .marca(marca)
                 .tipo(tipo)
+                .marcaTermino(diccionarioEspecificacionesService.resolver(Categoria.MARCA, marca))
+                .tipoTermino(diccionarioEspecificacionesService.resolver(Categoria.TIPO, tipo))
                 .build();
 
-        return especificacionRepository.save(especificacion);
+        Especificacion guardada = especificacionRepository.save(especificacion);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deEspecificaciones(Set.of()));
+        return guardada;
     }
 
     /**
@@ -54,11 +74,19 @@ public class EspecificacionService {
         if (productoRepository.existsById(especificacionId)) {
             throw new DataIntegrityViolationException("No se puede eliminar la especificación porque está asociada a un producto.");
         }
+        Set<Long> productoIds = productoEspecificacionRepository.findProductoIdsByEspecificacionId(especificacionId);
         especificacionRepository.deleteById(especificacionId);
+        if (!productoIds.isEmpty()) {
+            especificacionRepository.flush();
+            productoRepository.incrementarVersiones(productoIds);
+            preciosService.repreciarProductos(productoIds);
+        }
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deEspecificaciones(productoIds));
     }
 
     /**
-     * Actualiza una especificación existente.
+     * Actualiza una especificación existente. Si cambia el precio adicional, recalcula en la base el precio de
+     * todos los productos que la usan.
      *
      * @param id ID de la especificación.
      * @param especificacion Nueva información de la especificación.
@@ -70,10 +98,24 @@ public class EspecificacionService {
                 .orElseThrow(() -> new IllegalStateException("Especificación no encontrada."));
         especificacionExistente.setNombre(especificacion.getNombre());
         especificacionExistente.setDescripcion(especificacion.getDescripcion());
-        especificacionExistente.setPrecioAdicional(especificacion.getPrecioAdicional());
+        BigDecimal precioAdicional = PreciosService.normalizar(especificacion.getPrecioAdicional());
+        boolean cambiaPrecio = precioAdicional.compareTo(especificacionExistente.getPrecioAdicional()) != 0;
+        especificacionExistente.setPrecioAdicional(precioAdicional);
         especificacionExistente.setMarca(especificacion.getMarca());
         especificacionExistente.setTipo(especificacion.getTipo());
-        return especificacionRepository.save(especificacionExistente);
+        especificacionExistente.setMarcaTermino(diccionarioEspecificacionesService.resolver(Categoria.MARCA, especificacion.getMarca()));
+        especificacionExistente.setTipoTermino(diccionarioEspecificacionesService.resolver(Categoria.TIPO, especificacion.getTipo()));
+        Especificacion actualizada = especificacionRepository.saveAndFlush(especificacionExistente);
+
+        Set<Long> productoIds = productoEspecificacionRepository.findProductoIdsByEspecificacionId(id);
+        if (!productoIds.isEmpty()) {
+            productoRepository.incrementarVersiones(productoIds);
+            if (cambiaPrecio) {
+                preciosService.repreciarPorEspecificacion(id);
+            }
+        }
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deEspecificaciones(productoIds));
+        return actualizada;
     }
 
     /**
@@ -91,7 +133,8 @@ public class EspecificacionService {
     }
 
     /**
-     * Busca especificaciones por marca y tipo.
+     * Busca especificaciones por marca y tipo. Ambos se resuelven con el diccionario, de modo que un sinónimo
+     * encuentra las especificaciones registradas con el nombre canónico; un criterio vacío no filtra.
      *
      * @param marca Marca de la especificación.
      * @param tipo Tipo de la especificación.
@@ -99,23 +142,41 @@ public class EspecificacionService {
      */
     @Transactional(readOnly = true)
     public List<EspecificacionDTO> buscarEspecificacionesPorMarcaYTipo(String marca, String tipo) {
-        return especificacionRepository.findByMarcaContainingIgnoreCaseAndTipoContainingIgnoreCase(marca, tipo)
-                .stream()
+        Optional<Long> marcaId = diccionarioEspecificacionesService.id(Categoria.MARCA, marca);
+        Optional<Long> tipoId = diccionarioEspecificacionesService.id(Categoria.TIPO, tipo);
+        if ((StringUtils.hasText(marca) && marcaId.isEmpty()) || (StringUtils.hasText(tipo) && tipoId.isEmpty())) {
+            return List.of();
+        }
+        List<Especificacion> especificaciones;
+        if (marcaId.isPresent() && tipoId.isPresent()) {
+            especificaciones = especificacionRepository.findByMarcaTerminoIdAndTipoTerminoId(marcaId.get(), tipoId.get());
+        } else if (marcaId.isPresent()) {
+            especificaciones = especificacionRepository.findByMarcaTerminoId(marcaId.get());
+        } else if (tipoId.isPresent()) {
+            especificaciones = especificacionRepository.findByTipoTerminoId(tipoId.get());
+        } else {
+            especificaciones = especificacionRepository.findAll();
+        }
+        return especificaciones.stream()
                 .map(this::convertirADTO)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Lista todas las especificaciones.
+     * Lista las especificaciones ordenadas por ID, paginadas por cursor.
      *
-     * @return Lista de todas las especificaciones.
+     * @param cursor Cursor de la página anterior o nulo para la primera.
+     * @param tamano Tamaño de página o nulo para el predeterminado.
+     * @return Página de especificaciones.
+     * @throws IllegalArgumentException Si el cursor o el tamaño no son válidos.
      */
     @Transactional(readOnly = true)
-    public List<EspecificacionDTO> listarEspecificaciones() {
-        return especificacionRepository.findAll()
-                .stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+    public PaginaCursorDTO<EspecificacionDTO> listarEspecificaciones(String cursor, Integer tamano) {
+        int cantidad = paginador.tamano(tamano);
+        String[] clave = paginador.decodificar(cursor, 1);
+        long despuesDe = clave == null ? 0 : Long.parseLong(clave[0]);
+        List<Especificacion> especificaciones = especificacionRepository.findByIdGreaterThanOrderByIdAsc(despuesDe, PageRequest.of(0, cantidad + 1));
+        return paginador.armar(especificaciones, cantidad, e -> new Object[]{e.getId()}, this::convertirADTO);
     }
 
     /**
@@ -0,0 +1,103 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.EspecificacionSimplificadaDTO;
+import com.example.ventaComputadora.domain.DTO.ProductoExportacionDTO;
+import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import com.example.ventaComputadora.infra.storage.AlmacenImagenes;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Servicio que exporta el catálogo completo como NDJSON (un producto por línea).
+ * Las filas se leen con un cursor de solo avance y cada producto se escribe en cuanto se completan
+ * sus especificaciones, de modo que la memoria usada no depende del tamaño del catálogo.
+ * La consulta es una proyección escalar, así que no se agregan entidades al contexto de persistencia.
+ */
+@Service
+public class ExportacionCatalogoService {
+    private static final Logger logger = LoggerFactory.getLogger(ExportacionCatalogoService.class);
+    private static final int PRODUCTOS_POR_ENVIO = 500;
+
+    private final ProductoRepository productoRepository;
+    private final AlmacenImagenes almacenImagenes;
+    private final ObjectWriter escritor;
+
+    public ExportacionCatalogoService(ProductoRepository productoRepository, AlmacenImagenes almacenImagenes, ObjectMapper objectMapper) {
+        this.productoRepository = productoRepository;
+        this.almacenImagenes = almacenImagenes;
+        this.escritor = objectMapper.writerFor(ProductoExportacionDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Escribe el catálogo en la salida, un objeto JSON por línea, en orden de ID.
+     *
+     * @param salida Flujo de salida; no se cierra.
+     * @return Número de productos exportados.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    @Transactional(readOnly = true)
+    public long exportar(OutputStream salida) throws IOException {
+        long inicio = System.nanoTime();
+        long exportados = 0;
+        try (Stream<Object[]> filas = productoRepository.streamExportacion();
+             JsonGenerator generador = escritor.getFactory().createGenerator(salida)) {
+            generador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generador.setRootValueSeparator(null);
+
+            ProductoExportacionDTO producto = null;
+            Iterator<Object[]> iterador = filas.iterator();
+            while (iterador.hasNext()) {
+                Object[] fila = iterador.next();
+                Long id = (Long) fila[0];
+                if (producto == null || !producto.getId().equals(id)) {
+                    if (producto != null) {
+                        escribir(generador, producto);
+                        if (++exportados % PRODUCTOS_POR_ENVIO == 0) {
+                            generador.flush();
+                        }
+                    }
+                    producto = new ProductoExportacionDTO(
+                            id,
+                            (String) fila[1],
+                            (BigDecimal) fila[2],
+                            (String) fila[3],
+                            almacenImagenes.construirUrl(id, (String) fila[5], (String) fila[4]),
+                            (Integer) fila[6],
+                            (Long) fila[7],
+                            new ArrayList<>()
+                    );
+                }
+                if (fila[8] != null) {
+                    producto.getEspecificaciones().add(new EspecificacionSimplificadaDTO(
+                            (Long) fila[8], (String) fila[9], (BigDecimal) fila[10], (Integer) fila[11]));
+                }
+            }
+            if (producto != null) {
+                escribir(generador, producto);
+                exportados++;
+            }
+            generador.flush();
+        }
+        logger.info("Catálogo exportado: {} productos en {} ms", exportados, (System.nanoTime() - inicio) / 1_000_000);
+        return exportados;
+    }
+
+    private void escribir(JsonGenerator generador, ProductoExportacionDTO producto) throws IOException {
+        escritor.writeValue(generador, producto);
+        generador.writeRaw('\n');
+    }
+}
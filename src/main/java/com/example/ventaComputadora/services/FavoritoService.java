@@ -4,10 +4,13 @@ import com.example.ventaComputadora.domain.DTO.FavoritoDTO;
 import com.example.ventaComputadora.domain.entity.Favorito;
 import com.example.ventaComputadora.domain.entity.Producto;
 import com.example.ventaComputadora.domain.entity.Usuario;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
 import com.example.ventaComputadora.infra.repository.FavoritoRepository;
 import com.example.ventaComputadora.infra.repository.ProductoRepository;
 import com.example.ventaComputadora.infra.repository.UsuarioRepository;
+import com.example.ventaComputadora.infra.storage.AlmacenImagenes;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +26,8 @@ public class FavoritoService {
     private final FavoritoRepository favoritoRepository;
     private final UsuarioRepository usuarioRepository;
     private final ProductoRepository productoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AlmacenImagenes almacenImagenes;
 
     /**
      * Agrega un producto a los favoritos de un usuario.
@@ -35,7 +40,7 @@ public class FavoritoService {
     public Favorito agregarAFavoritos(Long usuarioId, Long productoId) {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        Producto producto = productoRepository.findById(productoId)
+        Producto producto = productoRepository.findByIdForzandoVersion(productoId)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
 
         if (favoritoRepository.existsByUsuarioAndProducto(usuario, producto)) {
@@ -47,6 +52,7 @@ public class FavoritoService {
                 .producto(producto)
                 .build();
 
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deActividad(productoId));
         return favoritoRepository.save(favorito);
     }
 
@@ -67,7 +73,7 @@ public class FavoritoService {
                         favorito.getProducto().getNombre(),
                         favorito.getProducto().getDescripcion(),
                         favorito.getProducto().getPrecio(),
-                        favorito.getProducto().getImagen()))
+                        almacenImagenes.construirUrl(favorito.getProducto())))
                 .collect(Collectors.toList());
     }
 
@@ -78,7 +84,11 @@ public class FavoritoService {
      */
     @Transactional
     public void eliminarDeFavoritos(Long favoritoId) {
-        favoritoRepository.deleteById(favoritoId);
+        favoritoRepository.findById(favoritoId).ifPresent(favorito -> {
+            productoRepository.findByIdForzandoVersion(favorito.getProducto().getId());
+            favoritoRepository.delete(favorito);
+            eventPublisher.publishEvent(CatalogoModificadoEvent.deActividad(favorito.getProducto().getId()));
+        });
     }
 
     /**
@@ -91,12 +101,13 @@ public class FavoritoService {
     public void eliminarDeFavoritosPorUsuarioYProducto(Long usuarioId, Long productoId) {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        Producto producto = productoRepository.findById(productoId)
+        Producto producto = productoRepository.findByIdForzandoVersion(productoId)
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
 
         Favorito favorito = favoritoRepository.findByUsuarioAndProducto(usuario, producto)
                 .orElseThrow(() -> new RuntimeException("Favorito no encontrado"));
 
         favoritoRepository.delete(favorito);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deActividad(productoId));
     }
 }
@@ -0,0 +1,109 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.FiltroProductosDTO;
+import com.example.ventaComputadora.domain.entity.Especificacion;
+import com.example.ventaComputadora.domain.entity.Producto;
+import com.example.ventaComputadora.domain.entity.ProductoEspecificacion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.CollectionUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filtro de productos resuelto en la base de datos, para catálogos que no conviene indexar en memoria.
+ * Compila los criterios en una sola consulta: cada grupo de especificaciones es un {@code EXISTS} sobre
+ * producto_especificaciones unida con especificaciones que compara el ID del tipo canónico (apoyado en el
+ * índice por tipo y nombre), y el precio y el stock son condiciones sobre productos.
+ * Devuelve solo IDs, en orden ascendente y a partir de un cursor.
+ */
+@Service
+@RequiredArgsConstructor
+public class FiltroSqlProductosService {
+    private static final char ESCAPE = '\\';
+
+    private final EntityManager entityManager;
+    private final DiccionarioEspecificacionesService diccionarioEspecificacionesService;
+
+    /**
+     * Busca los IDs de los productos que cumplen el filtro.
+     *
+     * @param filtro Criterios de filtrado.
+     * @param despuesDe Último ID de la página anterior o nulo para empezar desde el principio.
+     * @param limite Cantidad máxima de IDs a devolver.
+     * @return IDs de productos en orden ascendente.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> filtrar(FiltroProductosDTO filtro, Long despuesDe, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> consulta = cb.createQuery(Long.class);
+        Root<Producto> producto = consulta.from(Producto.class);
+
+        List<Predicate> condiciones = new ArrayList<>();
+        for (DiccionarioEspecificacionesService.Grupo grupo : diccionarioEspecificacionesService.grupos(filtro)) {
+            agregarGrupo(condiciones, cb, consulta, producto, grupo);
+        }
+        if (filtro.getPrecioMin() != null) {
+            condiciones.add(cb.greaterThanOrEqualTo(producto.get("precio"), BigDecimal.valueOf(filtro.getPrecioMin())));
+        }
+        if (filtro.getPrecioMax() != null) {
+            condiciones.add(cb.lessThanOrEqualTo(producto.get("precio"), BigDecimal.valueOf(filtro.getPrecioMax())));
+        }
+        if (filtro.getEnStock() != null) {
+            condiciones.add(filtro.getEnStock() ? cb.greaterThan(producto.get("stock"), 0) : cb.disjunction());
+        }
+        if (despuesDe != null) {
+            condiciones.add(cb.greaterThan(producto.get("id"), despuesDe));
+        }
+
+        consulta.select(producto.get("id"))
+                .where(condiciones.toArray(new Predicate[0]))
+                .orderBy(cb.asc(producto.get("id")));
+        return entityManager.createQuery(consulta).setMaxResults(limite).getResultList();
+    }
+
+    /**
+     * Agrega la condición "tiene alguna especificación de estos tipos cuyo nombre contiene alguno de los valores".
+     */
+    private void agregarGrupo(List<Predicate> condiciones, CriteriaBuilder cb, CriteriaQuery<Long> consulta,
+                              Root<Producto> producto, DiccionarioEspecificacionesService.Grupo grupo) {
+        if (CollectionUtils.isEmpty(grupo.valores())) {
+            return;
+        }
+        if (grupo.tipos().isEmpty()) {
+            condiciones.add(cb.disjunction());
+            return;
+        }
+        Subquery<Integer> subconsulta = consulta.subquery(Integer.class);
+        Root<ProductoEspecificacion> productoEspecificacion = subconsulta.from(ProductoEspecificacion.class);
+        Join<ProductoEspecificacion, Especificacion> especificacion = productoEspecificacion.join("especificacion");
+
+        List<Predicate> nombres = new ArrayList<>();
+        for (String valor : grupo.valores()) {
+            nombres.add(cb.like(cb.lower(especificacion.get("nombre")), "%" + escaparLike(valor) + "%", ESCAPE));
+        }
+        subconsulta.select(cb.literal(1)).where(
+                cb.equal(productoEspecificacion.get("producto"), producto),
+                especificacion.get("tipoTermino").get("id").in(grupo.tipos()),
+                cb.or(nombres.toArray(new Predicate[0])));
+        condiciones.add(cb.exists(subconsulta));
+    }
+
+    private static String escaparLike(String valor) {
+        return valor.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,478 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.ErrorImportacionDTO;
+import com.example.ventaComputadora.domain.DTO.ProductoDTO;
+import com.example.ventaComputadora.domain.DTO.ProgresoImportacionDTO;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import com.example.ventaComputadora.infra.storage.AlmacenImagenes;
+import com.example.ventaComputadora.infra.storage.ImagenAlmacenada;
+import com.example.ventaComputadora.services.importacion.LectorCsv;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servicio de importación masiva de productos desde CSV o NDJSON.
+ * El archivo se procesa en segundo plano por lotes: cada lote valida los nombres contra la base de datos
+ * con una sola consulta, resuelve sus especificaciones una vez y escribe productos y especificaciones
+ * con lotes JDBC dentro de su propia transacción. El avance y los errores por fila se consultan por ID.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportacionProductosService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionProductosService.class);
+    private static final int TAMANO_LOTE = 500;
+    private static final int MAX_ERRORES_REPORTADOS = 1000;
+    private static final long HORAS_RETENCION = 24;
+
+    private static final String INSERTAR_PRODUCTO = "INSERT INTO productos " +
+            "(nombre, descripcion, precio, precio_base, precio_especificaciones, stock, imagen, imagen_hash, imagen_tipo, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERTAR_ESPECIFICACION = "INSERT INTO producto_especificaciones " +
+            "(producto_id, especificacion_id, cantidad) VALUES (?, ?, 1)";
+
+    /**
+     * Formatos de archivo admitidos.
+     */
+    public enum Formato {
+        CSV, NDJSON
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AlmacenImagenes almacenImagenes;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, Importacion> importaciones = new ConcurrentHashMap<>();
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "importacion-productos");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /**
+     * Guarda el archivo recibido y programa su importación.
+     *
+     * @param contenido Contenido del archivo.
+     * @param formato Formato del archivo.
+     * @return Estado inicial de la importación.
+     * @throws IOException Si no se puede guardar el archivo.
+     */
+    public ProgresoImportacionDTO iniciar(InputStream contenido, Formato formato) throws IOException {
+        Path archivo = Files.createTempFile("importacion-", "." + formato.name().toLowerCase(Locale.ROOT));
+        Files.copy(contenido, archivo, StandardCopyOption.REPLACE_EXISTING);
+
+        LocalDateTime limite = LocalDateTime.now().minusHours(HORAS_RETENCION);
+        importaciones.values().removeIf(i -> i.fin != null && i.fin.isBefore(limite));
+
+        Importacion importacion = new Importacion(UUID.randomUUID().toString());
+        importaciones.put(importacion.id, importacion);
+        ejecutor.execute(() -> procesar(importacion, archivo, formato));
+        return importacion.progreso();
+    }
+
+    /**
+     * Obtiene el avance de una importación.
+     *
+     * @param id ID de la importación.
+     * @return Avance de la importación o vacío si no existe.
+     */
+    public Optional<ProgresoImportacionDTO> obtenerProgreso(String id) {
+        return Optional.ofNullable(importaciones.get(id)).map(Importacion::progreso);
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    private void procesar(Importacion importacion, Path archivo, Formato formato) {
+        importacion.estado = "EN_PROCESO";
+        try (BufferedReader lector = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            LectorFilas filas = formato == Formato.CSV ? new LectorFilasCsv(new LectorCsv(lector)) : new LectorFilasNdjson(lector);
+            List<Fila> lote = new ArrayList<>(TAMANO_LOTE);
+            Fila fila;
+            while ((fila = filas.siguiente()) != null) {
+                importacion.filasLeidas.incrementAndGet();
+                if (fila.error() != null) {
+                    importacion.registrarError(fila.numero(), fila.error());
+                    continue;
+                }
+                lote.add(fila);
+                if (lote.size() == TAMANO_LOTE) {
+                    procesarLote(importacion, lote);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                procesarLote(importacion, lote);
+            }
+            importacion.estado = "COMPLETADA";
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error en la importación {}", importacion.id, e);
+            importacion.registrarError(importacion.filasLeidas.get(), "Importación interrumpida: " + e.getMessage());
+            importacion.estado = "FALLIDA";
+        } finally {
+            importacion.fin = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(archivo);
+            } catch (IOException e) {
+                logger.warn("No se pudo eliminar el archivo temporal {}", archivo, e);
+            }
+            if (importacion.importadas.get() > 0) {
+                eventPublisher.publishEvent(CatalogoModificadoEvent.completo());
+            }
+        }
+    }
+
+    private void procesarLote(Importacion importacion, List<Fila> lote) {
+        try {
+            List<ErrorImportacionDTO> errores = new ArrayList<>();
+            List<Fila> guardadas = transactionTemplate.execute(estado -> importarLote(importacion, lote, errores));
+            errores.forEach(error -> importacion.registrarError(error.getFila(), error.getMensaje()));
+            for (Fila fila : guardadas) {
+                importacion.nombresImportados.add(fila.producto().getNombre().toLowerCase(Locale.ROOT));
+            }
+            importacion.importadas.addAndGet(guardadas.size());
+        } catch (DataAccessException e) {
+            logger.warn("Error al guardar un lote de la importación {}", importacion.id, e);
+            for (Fila fila : lote) {
+                importacion.registrarError(fila.numero(), "No se pudo guardar el lote: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    /**
+     * Valida e inserta un lote dentro de la transacción actual.
+     *
+     * @return Filas insertadas; los rechazos por fila se agregan a {@code errores}.
+     */
+    private List<Fila> importarLote(Importacion importacion, List<Fila> lote, List<ErrorImportacionDTO> errores) {
+        Set<String> nombres = new HashSet<>();
+        Set<Long> especificacionIds = new HashSet<>();
+        for (Fila fila : lote) {
+            nombres.add(fila.producto().getNombre().toLowerCase(Locale.ROOT));
+            especificacionIds.addAll(fila.producto().getEspecificacionIds());
+        }
+
+        Set<String> existentes = new HashSet<>();
+        namedParameterJdbcTemplate.query("SELECT nombre FROM productos WHERE nombre IN (:nombres)",
+                Map.of("nombres", nombres), rs -> {
+                    existentes.add(rs.getString(1).toLowerCase(Locale.ROOT));
+                });
+        Map<Long, BigDecimal> preciosEspecificaciones = new HashMap<>();
+        if (!especificacionIds.isEmpty()) {
+            namedParameterJdbcTemplate.query("SELECT id, precio_adicional FROM especificaciones WHERE id IN (:ids)",
+                    Map.of("ids", especificacionIds), rs -> {
+                        preciosEspecificaciones.put(rs.getLong(1), rs.getBigDecimal(2));
+                    });
+        }
+
+        List<Fila> validas = new ArrayList<>(lote.size());
+        List<ImagenAlmacenada> imagenes = new ArrayList<>(lote.size());
+        List<BigDecimal> preciosDeEspecificaciones = new ArrayList<>(lote.size());
+        Set<String> nombresDelLote = new HashSet<>();
+        for (Fila fila : lote) {
+            ProductoDTO producto = fila.producto();
+            String nombre = producto.getNombre().toLowerCase(Locale.ROOT);
+            if (existentes.contains(nombre) || importacion.nombresImportados.contains(nombre) || !nombresDelLote.add(nombre)) {
+                errores.add(new ErrorImportacionDTO(fila.numero(), "Ya existe un producto con el nombre " + producto.getNombre()));
+                continue;
+            }
+            Optional<Long> desconocida = producto.getEspecificacionIds().stream()
+                    .filter(id -> !preciosEspecificaciones.containsKey(id))
+                    .findFirst();
+            if (desconocida.isPresent()) {
+                errores.add(new ErrorImportacionDTO(fila.numero(), "Especificación no encontrada: " + desconocida.get()));
+                nombresDelLote.remove(nombre);
+                continue;
+            }
+            ImagenAlmacenada imagen = null;
+            String valorImagen = producto.getImagen();
+            if (StringUtils.hasText(valorImagen) && !almacenImagenes.esUrlExterna(valorImagen)) {
+                try {
+                    imagen = almacenImagenes.guardarBase64(valorImagen);
+                } catch (IllegalArgumentException e) {
+                    errores.add(new ErrorImportacionDTO(fila.numero(), "Imagen inválida: " + e.getMessage()));
+                    nombresDelLote.remove(nombre);
+                    continue;
+                }
+            }
+            BigDecimal precioDeEspecificaciones = BigDecimal.ZERO;
+            for (Long especificacionId : producto.getEspecificacionIds()) {
+                precioDeEspecificaciones = precioDeEspecificaciones.add(PreciosService.subtotal(preciosEspecificaciones.get(especificacionId), 1));
+            }
+            producto.setPrecio(PreciosService.normalizar(producto.getPrecio()));
+            validas.add(fila);
+            imagenes.add(imagen);
+            preciosDeEspecificaciones.add(PreciosService.normalizar(precioDeEspecificaciones));
+        }
+        if (validas.isEmpty()) {
+            return validas;
+        }
+
+        KeyHolder claves = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(conexion -> conexion.prepareStatement(INSERTAR_PRODUCTO, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ProductoDTO producto = validas.get(i).producto();
+                        ImagenAlmacenada imagen = imagenes.get(i);
+                        ps.setString(1, producto.getNombre());
+                        ps.setString(2, producto.getDescripcion());
+                        BigDecimal precioDeEspecificaciones = preciosDeEspecificaciones.get(i);
+                        ps.setBigDecimal(3, producto.getPrecio().add(precioDeEspecificaciones));
+                        ps.setBigDecimal(4, producto.getPrecio());
+                        ps.setBigDecimal(5, precioDeEspecificaciones);
+                        ps.setInt(6, producto.getStock());
+                        ps.setString(7, imagen == null && StringUtils.hasText(producto.getImagen()) ? producto.getImagen() : "");
+                        ps.setString(8, imagen == null ? null : imagen.getHash());
+                        ps.setString(9, imagen == null ? null : imagen.getTipo());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return validas.size();
+                    }
+                }, claves);
+
+        List<long[]> especificaciones = new ArrayList<>();
+        List<Map<String, Object>> generadas = claves.getKeyList();
+        for (int i = 0; i < validas.size(); i++) {
+            long productoId = ((Number) generadas.get(i).values().iterator().next()).longValue();
+            for (Long especificacionId : validas.get(i).producto().getEspecificacionIds()) {
+                especificaciones.add(new long[]{productoId, especificacionId});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERTAR_ESPECIFICACION, especificaciones, TAMANO_LOTE, (ps, par) -> {
+            ps.setLong(1, par[0]);
+            ps.setLong(2, par[1]);
+        });
+        return validas;
+    }
+
+    /**
+     * Valida los campos de un producto leído del archivo.
+     *
+     * @return Mensaje de error o nulo si es válido.
+     */
+    private static String validar(ProductoDTO producto) {
+        if (!StringUtils.hasText(producto.getNombre())) {
+            return "El nombre es obligatorio";
+        }
+        if (producto.getNombre().length() > 100) {
+            return "El nombre supera los 100 caracteres";
+        }
+        if (producto.getDescripcion() != null && producto.getDescripcion().length() > 5000) {
+            return "La descripción supera los 5000 caracteres";
+        }
+        if (producto.getPrecio() == null) {
+            return "El precio es obligatorio";
+        }
+        if (producto.getPrecio().signum() < 0) {
+            return "El precio no puede ser negativo";
+        }
+        if (producto.getStock() < 0) {
+            return "El stock no puede ser negativo";
+        }
+        return null;
+    }
+
+    private record Fila(long numero, ProductoDTO producto, String error) {
+        static Fila de(long numero, ProductoDTO producto) {
+            if (producto.getEspecificacionIds() == null) {
+                producto.setEspecificacionIds(Collections.emptySet());
+            }
+            if (producto.getNombre() != null) {
+                producto.setNombre(producto.getNombre().trim());
+            }
+            String error = validar(producto);
+            return new Fila(numero, error == null ? producto : null, error);
+        }
+
+        static Fila conError(long numero, String error) {
+            return new Fila(numero, null, error);
+        }
+    }
+
+    private interface LectorFilas {
+        Fila siguiente() throws IOException;
+    }
+
+    /**
+     * Lee filas CSV con encabezado. Columnas reconocidas: nombre, descripcion, precio, stock, imagen
+     * y especificaciones (IDs separados por punto y coma).
+     */
+    private static class LectorFilasCsv implements LectorFilas {
+        private final LectorCsv csv;
+        private Map<String, Integer> columnas;
+        private long numero;
+
+        LectorFilasCsv(LectorCsv csv) {
+            this.csv = csv;
+        }
+
+        @Override
+        public Fila siguiente() throws IOException {
+            if (columnas == null) {
+                List<String> encabezado = csv.leer();
+                if (encabezado == null) {
+                    return null;
+                }
+                columnas = new HashMap<>();
+                for (int i = 0; i < encabezado.size(); i++) {
+                    columnas.put(encabezado.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+                numero++;
+                if (!columnas.containsKey("nombre") || !columnas.containsKey("precio")) {
+                    throw new IllegalArgumentException("El encabezado debe incluir las columnas nombre y precio");
+                }
+            }
+            List<String> campos;
+            do {
+                campos = csv.leer();
+                numero++;
+            } while (campos != null && campos.size() == 1 && campos.get(0).isBlank());
+            if (campos == null) {
+                return null;
+            }
+            String precio = campo(campos, "precio");
+            if (!StringUtils.hasText(precio)) {
+                return Fila.conError(numero, "El precio es obligatorio");
+            }
+            try {
+                ProductoDTO producto = new ProductoDTO();
+                producto.setNombre(campo(campos, "nombre"));
+                producto.setDescripcion(campo(campos, "descripcion"));
+                producto.setImagen(campo(campos, "imagen"));
+                producto.setPrecio(new BigDecimal(precio.trim()));
+                String stock = campo(campos, "stock");
+                producto.setStock(StringUtils.hasText(stock) ? Integer.parseInt(stock.trim()) : 0);
+                Set<Long> especificacionIds = new LinkedHashSet<>();
+                String especificaciones = campo(campos, "especificaciones");
+                if (StringUtils.hasText(especificaciones)) {
+                    for (String id : especificaciones.split(";")) {
+                        if (!id.isBlank()) {
+                            especificacionIds.add(Long.parseLong(id.trim()));
+                        }
+                    }
+                }
+                producto.setEspecificacionIds(especificacionIds);
+                return Fila.de(numero, producto);
+            } catch (NumberFormatException e) {
+                return Fila.conError(numero, "Valor numérico inválido: " + e.getMessage());
+            }
+        }
+
+        private String campo(List<String> campos, String nombre) {
+            Integer indice = columnas.get(nombre);
+            return indice == null || indice >= campos.size() ? null : campos.get(indice);
+        }
+    }
+
+    /**
+     * Lee un objeto JSON por línea con la forma de {@link ProductoDTO}.
+     */
+    private class LectorFilasNdjson implements LectorFilas {
+        private final BufferedReader lector;
+        private long numero;
+
+        LectorFilasNdjson(BufferedReader lector) {
+            this.lector = lector;
+        }
+
+        @Override
+        public Fila siguiente() throws IOException {
+            String linea;
+            do {
+                linea = lector.readLine();
+                numero++;
+            } while (linea != null && linea.isBlank());
+            if (linea == null) {
+                return null;
+            }
+            try {
+                return Fila.de(numero, objectMapper.readValue(linea, ProductoDTO.class));
+            } catch (JsonProcessingException e) {
+                return Fila.conError(numero, "JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * Estado de una importación en curso o terminada.
+     */
+    private static class Importacion {
+        private final String id;
+        private final LocalDateTime inicio = LocalDateTime.now();
+        private final AtomicLong filasLeidas = new AtomicLong();
+        private final AtomicLong importadas = new AtomicLong();
+        private final AtomicLong conError = new AtomicLong();
+        private final List<ErrorImportacionDTO> errores = Collections.synchronizedList(new ArrayList<>());
+        private final Set<String> nombresImportados = new HashSet<>();
+        private volatile String estado = "PENDIENTE";
+        private volatile LocalDateTime fin;
+
+        Importacion(String id) {
+            this.id = id;
+        }
+
+        void registrarError(long fila, String mensaje) {
+            conError.incrementAndGet();
+            if (errores.size() < MAX_ERRORES_REPORTADOS) {
+                errores.add(new ErrorImportacionDTO(fila, mensaje));
+            }
+        }
+
+        ProgresoImportacionDTO progreso() {
+            List<ErrorImportacionDTO> copia;
+            synchronized (errores) {
+                copia = new ArrayList<>(errores);
+            }
+            return new ProgresoImportacionDTO(id, estado, filasLeidas.get(), importadas.get(), conError.get(), copia, inicio, fin);
+        }
+    }
+}
@@ -0,0 +1,467 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.FacetasDTO;
+import com.example.ventaComputadora.domain.DTO.FiltroProductosDTO;
+import com.example.ventaComputadora.domain.DTO.IntervaloPrecioDTO;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import com.example.ventaComputadora.infra.repository.ProductoEspecificacionRepository;
+import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import com.example.ventaComputadora.services.indice.ConjuntoBits;
+import com.example.ventaComputadora.services.indice.NormalizadorTexto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.CollectionUtils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria de las especificaciones de los productos.
+ * Asocia cada tipo canónico de especificación (su ID en el diccionario) y nombre normalizado con el conjunto
+ * de productos que la tienen,
+ * y guarda precio y stock por producto, de modo que filtrar el catálogo y contar facetas se reduce a
+ * intersecciones de bits.
+ * Se mantiene de forma incremental a partir de {@link CatalogoModificadoEvent}: un producto modificado conserva su
+ * número de documento y el de un producto eliminado se reutiliza, así que el tamaño de los conjuntos de bits
+ * depende de la cantidad de productos y no de la cantidad de cambios.
+ */
+@Service
+@RequiredArgsConstructor
+public class IndiceEspecificacionesService {
+    private final ProductoRepository productoRepository;
+    private final ProductoEspecificacionRepository productoEspecificacionRepository;
+    private final DiccionarioEspecificacionesService diccionarioEspecificacionesService;
+
+    private final ReentrantReadWriteLock candado = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> docPorProducto = new HashMap<>();
+    private final Map<Integer, List<Clave>> especificacionesPorDoc = new HashMap<>();
+    private final Map<Long, Map<String, ConjuntoBits>> porTipo = new HashMap<>();
+    private final Map<Long, Map<String, String>> nombresOriginales = new HashMap<>();
+    private final ConjuntoBits vivos = new ConjuntoBits();
+    private final ConjuntoBits conStock = new ConjuntoBits();
+    private final Deque<Integer> docsLibres = new ArrayDeque<>();
+    private long[] productoPorDoc = new long[1024];
+    private long[] precioPorDoc = new long[1024];
+    private int[] docsPorPrecio = new int[0];
+    private int siguienteDoc;
+    private volatile boolean listo;
+
+    /**
+     * Indica si el índice ya se construyó y puede responder consultas.
+     */
+    public boolean estaListo() {
+        return listo;
+    }
+
+    /**
+     * Filtra los productos con la misma semántica que {@link ProductoService#filtrarProductos}:
+     * cada valor de un grupo (RAM, procesador, tarjeta gráfica u otro tipo del diccionario) coincide si está
+     * contenido en el nombre de una especificación del tipo correspondiente, y {@code enStock = false} no devuelve productos.
+     *
+     * @param filtro Criterios de filtrado.
+     * @param despuesDe ID del último producto de la página anterior, o nulo para la primera página.
+     * @param limite Número máximo de IDs.
+     * @return IDs de los productos que cumplen el filtro, ordenados de menor a mayor.
+     */
+    public List<Long> filtrar(FiltroProductosDTO filtro, Long despuesDe, int limite) {
+        long minimo = despuesDe == null ? Long.MIN_VALUE : despuesDe;
+        candado.readLock().lock();
+        try {
+            List<DiccionarioEspecificacionesService.Grupo> grupos = diccionarioEspecificacionesService.grupos(filtro);
+            ConjuntoBits resultado = combinar(mascarasDeGrupos(grupos), -1, mascaraPrecio(filtro), mascaraStock(filtro));
+            if (limite <= 0) {
+                return List.of();
+            }
+            PriorityQueue<Long> menores = new PriorityQueue<>(limite, Comparator.reverseOrder());
+            for (int doc = resultado.siguiente(0); doc >= 0; doc = resultado.siguiente(doc + 1)) {
+                long id = productoPorDoc[doc];
+                if (id > minimo && (menores.size() < limite || id < menores.peek())) {
+                    menores.offer(id);
+                    if (menores.size() > limite) {
+                        menores.poll();
+                    }
+                }
+            }
+            List<Long> ids = new ArrayList<>(menores);
+            ids.sort(null);
+            return ids;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calcula las facetas de la selección actual: para cada valor de RAM, procesador, tarjeta gráfica y de los
+     * demás tipos pedidos en el filtro,
+     * cuántos productos quedarían al sumarlo a los demás filtros; cuántos tienen stock y un histograma de precios.
+     * Cada conteo se hace intersecando palabras de bits sin crear conjuntos intermedios.
+     *
+     * @param filtro Selección actual.
+     * @param intervalos Número de intervalos del histograma de precios.
+     * @return Facetas con sus conteos.
+     */
+    public FacetasDTO facetas(FiltroProductosDTO filtro, int intervalos) {
+        candado.readLock().lock();
+        try {
+            List<DiccionarioEspecificacionesService.Grupo> grupos = diccionarioEspecificacionesService.grupos(filtro);
+            ConjuntoBits[] mascaras = mascarasDeGrupos(grupos);
+            ConjuntoBits precio = mascaraPrecio(filtro);
+            ConjuntoBits stock = mascaraStock(filtro);
+
+            List<Map<String, Integer>> conteos = new ArrayList<>();
+            for (int i = 0; i < grupos.size(); i++) {
+                ConjuntoBits base = combinar(mascaras, i, precio, stock);
+                Map<String, Integer> conteo = new TreeMap<>();
+                for (Long tipo : grupos.get(i).tipos()) {
+                    Map<String, String> originales = nombresOriginales.getOrDefault(tipo, Map.of());
+                    for (Map.Entry<String, ConjuntoBits> nombre : porTipo.getOrDefault(tipo, Map.of()).entrySet()) {
+                        conteo.merge(originales.get(nombre.getKey()), ConjuntoBits.contarInterseccion(base, nombre.getValue()), Integer::sum);
+                    }
+                }
+                conteos.add(conteo);
+            }
+
+            Map<String, Map<String, Integer>> otrosTipos = new TreeMap<>();
+            for (int i = 3; i < grupos.size(); i++) {
+                otrosTipos.put(grupos.get(i).nombre(), conteos.get(i));
+            }
+
+            int enStock = ConjuntoBits.contarInterseccion(combinar(mascaras, -1, precio, null), conStock);
+            return new FacetasDTO(
+                    combinar(mascaras, -1, precio, stock).cardinalidad(),
+                    conteos.get(0),
+                    conteos.get(1),
+                    conteos.get(2),
+                    enStock,
+                    histograma(combinar(mascaras, -1, null, stock), filtro, intervalos),
+                    otrosTipos
+            );
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    private record Clave(Long tipo, String nombre) {
+    }
+
+    /**
+     * Calcula la máscara de cada grupo con valores seleccionados; los grupos sin selección quedan en nulo.
+     */
+    private ConjuntoBits[] mascarasDeGrupos(List<DiccionarioEspecificacionesService.Grupo> grupos) {
+        ConjuntoBits[] mascaras = new ConjuntoBits[grupos.size()];
+        for (int i = 0; i < grupos.size(); i++) {
+            DiccionarioEspecificacionesService.Grupo grupo = grupos.get(i);
+            if (!CollectionUtils.isEmpty(grupo.valores())) {
+                mascaras[i] = coincidenciasGrupo(grupo.tipos(), grupo.valores());
+            }
+        }
+        return mascaras;
+    }
+
+    /**
+     * Intersecta los productos vivos con todas las máscaras no nulas, salvo la del grupo {@code excluido}.
+     */
+    private ConjuntoBits combinar(ConjuntoBits[] mascaras, int excluido, ConjuntoBits precio, ConjuntoBits stock) {
+        ConjuntoBits resultado = vivos.copia();
+        for (int i = 0; i < mascaras.length; i++) {
+            if (i != excluido && mascaras[i] != null) {
+                resultado.intersectar(mascaras[i]);
+            }
+        }
+        if (precio != null) {
+            resultado.intersectar(precio);
+        }
+        if (stock != null) {
+            resultado.intersectar(stock);
+        }
+        return resultado;
+    }
+
+    /**
+     * Une los documentos de todas las especificaciones de los tipos dados cuyo nombre contiene alguno de los valores.
+     */
+    private ConjuntoBits coincidenciasGrupo(Set<Long> tipos, Set<String> valores) {
+        List<String> buscados = valores.stream().map(NormalizadorTexto::normalizar).toList();
+        ConjuntoBits grupo = new ConjuntoBits(siguienteDoc);
+        for (Long tipo : tipos) {
+            for (Map.Entry<String, ConjuntoBits> nombre : porTipo.getOrDefault(tipo, Map.of()).entrySet()) {
+                if (buscados.stream().anyMatch(nombre.getKey()::contains)) {
+                    grupo.unir(nombre.getValue());
+                }
+            }
+        }
+        return grupo;
+    }
+
+    private ConjuntoBits mascaraStock(FiltroProductosDTO filtro) {
+        if (filtro.getEnStock() == null) {
+            return null;
+        }
+        return filtro.getEnStock() ? conStock : new ConjuntoBits();
+    }
+
+    /**
+     * Devuelve los documentos con precio en el rango del filtro usando búsqueda binaria sobre el orden por precio.
+     */
+    private ConjuntoBits mascaraPrecio(FiltroProductosDTO filtro) {
+        if (filtro.getPrecioMin() == null && filtro.getPrecioMax() == null) {
+            return null;
+        }
+        long minimo = filtro.getPrecioMin() != null ? aCentimos(filtro.getPrecioMin()) : Long.MIN_VALUE;
+        long maximo = filtro.getPrecioMax() != null ? aCentimos(filtro.getPrecioMax()) : Long.MAX_VALUE;
+        ConjuntoBits rango = new ConjuntoBits(siguienteDoc);
+        for (int i = primeraPosicionConPrecio(minimo); i < docsPorPrecio.length && precioPorDoc[docsPorPrecio[i]] <= maximo; i++) {
+            rango.agregar(docsPorPrecio[i]);
+        }
+        return rango;
+    }
+
+    private List<IntervaloPrecioDTO> histograma(ConjuntoBits base, FiltroProductosDTO filtro, int intervalos) {
+        if (docsPorPrecio.length == 0 || intervalos <= 0) {
+            return List.of();
+        }
+        long minimo = filtro.getPrecioMin() != null ? aCentimos(filtro.getPrecioMin()) : precioPorDoc[docsPorPrecio[0]];
+        long maximo = filtro.getPrecioMax() != null ? aCentimos(filtro.getPrecioMax()) : precioPorDoc[docsPorPrecio[docsPorPrecio.length - 1]];
+        long ancho = Math.max(1, (maximo - minimo + intervalos) / intervalos);
+
+        int[] cantidades = new int[intervalos];
+        for (int doc = base.siguiente(0); doc >= 0; doc = base.siguiente(doc + 1)) {
+            long precio = precioPorDoc[doc];
+            if (precio >= minimo && precio <= maximo) {
+                cantidades[(int) Math.min(intervalos - 1, (precio - minimo) / ancho)]++;
+            }
+        }
+
+        List<IntervaloPrecioDTO> resultado = new ArrayList<>(intervalos);
+        for (int i = 0; i < intervalos; i++) {
+            long desde = minimo + i * ancho;
+            resultado.add(new IntervaloPrecioDTO(desde / 100.0, (desde + ancho) / 100.0, cantidades[i]));
+        }
+        return resultado;
+    }
+
+    /**
+     * Construye el índice completo al iniciar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void construir() {
+        candado.writeLock().lock();
+        try {
+            docPorProducto.clear();
+            especificacionesPorDoc.clear();
+            porTipo.clear();
+            nombresOriginales.clear();
+            vivos.limpiar();
+            conStock.limpiar();
+            docsLibres.clear();
+            siguienteDoc = 0;
+
+            List<Object[]> productos = new ArrayList<>(productoRepository.findDatosIndice());
+            productos.sort((a, b) -> Long.compare((Long) a[0], (Long) b[0]));
+            aplicar(productos, productoEspecificacionRepository.findDatosIndice());
+            ordenarPorPrecio();
+            listo = true;
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Actualiza los productos afectados una vez confirmada la transacción que los modificó. Los datos se leen con
+     * el candado de escritura tomado, de modo que dos confirmaciones simultáneas se aplican en orden y la última
+     * deja los datos vigentes. El orden por precio solo se toca si cambió algún precio o se agregó o eliminó un
+     * producto, y en ese caso solo se reubican esos documentos.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        if (evento.esCompleto()) {
+            construir();
+            return;
+        }
+        Set<Long> ids = evento.getProductoIds();
+        if (ids.isEmpty()) {
+            return;
+        }
+        candado.writeLock().lock();
+        try {
+            List<Object[]> productos = productoRepository.findDatosIndiceByIdIn(ids);
+            List<Object[]> especificaciones = productoEspecificacionRepository.findDatosIndiceByProductoIdIn(ids);
+            ids.forEach(this::vaciarProducto);
+            List<Integer> reubicados = aplicar(productos, especificaciones);
+
+            Set<Long> eliminados = new HashSet<>(ids);
+            productos.forEach(fila -> eliminados.remove((Long) fila[0]));
+            List<Integer> quitados = new ArrayList<>(reubicados);
+            for (Long productoId : eliminados) {
+                Integer doc = docPorProducto.remove(productoId);
+                if (doc != null) {
+                    docsLibres.push(doc);
+                    quitados.add(doc);
+                }
+            }
+            if (!quitados.isEmpty()) {
+                reubicarPorPrecio(quitados, reubicados);
+            }
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Carga las filas en el índice sin tocar el orden por precio.
+     *
+     * @return Documentos nuevos o cuyo precio cambió, que deben reubicarse en el orden por precio.
+     */
+    private List<Integer> aplicar(Collection<Object[]> productos, Collection<Object[]> especificaciones) {
+        List<Integer> reubicados = new ArrayList<>();
+        for (Object[] fila : productos) {
+            Long productoId = (Long) fila[0];
+            Integer existente = docPorProducto.get(productoId);
+            int doc = existente != null ? existente : nuevoDoc();
+            docPorProducto.put(productoId, doc);
+            long precio = aCentimos((BigDecimal) fila[1]);
+            if (existente == null || precioPorDoc[doc] != precio) {
+                reubicados.add(doc);
+            }
+            productoPorDoc[doc] = productoId;
+            precioPorDoc[doc] = precio;
+            vivos.agregar(doc);
+            if (((Number) fila[2]).intValue() > 0) {
+                conStock.agregar(doc);
+            }
+        }
+        for (Object[] fila : especificaciones) {
+            Integer doc = docPorProducto.get((Long) fila[0]);
+            if (doc == null) {
+                continue;
+            }
+            Long tipo = (Long) fila[4];
+            if (tipo == null) {
+                continue;
+            }
+            String nombre = NormalizadorTexto.normalizar((String) fila[2]);
+            nombresOriginales.computeIfAbsent(tipo, t -> new HashMap<>()).putIfAbsent(nombre, (String) fila[2]);
+            porTipo.computeIfAbsent(tipo, t -> new HashMap<>())
+                    .computeIfAbsent(nombre, n -> new ConjuntoBits(siguienteDoc))
+                    .agregar(doc);
+            especificacionesPorDoc.computeIfAbsent(doc, d -> new ArrayList<>()).add(new Clave(tipo, nombre));
+        }
+        return reubicados;
+    }
+
+    /**
+     * Quita el documento del producto de todos los conjuntos, conservando su número para volver a llenarlo.
+     */
+    private void vaciarProducto(Long productoId) {
+        Integer doc = docPorProducto.get(productoId);
+        if (doc == null) {
+            return;
+        }
+        vivos.quitar(doc);
+        conStock.quitar(doc);
+        List<Clave> especificaciones = especificacionesPorDoc.remove(doc);
+        if (especificaciones != null) {
+            for (Clave especificacion : especificaciones) {
+                Map<String, ConjuntoBits> nombres = porTipo.get(especificacion.tipo());
+                ConjuntoBits docs = nombres.get(especificacion.nombre());
+                docs.quitar(doc);
+                if (docs.estaVacio()) {
+                    nombres.remove(especificacion.nombre());
+                    nombresOriginales.get(especificacion.tipo()).remove(especificacion.nombre());
+                }
+            }
+        }
+    }
+
+    private int nuevoDoc() {
+        if (!docsLibres.isEmpty()) {
+            return docsLibres.pop();
+        }
+        int doc = siguienteDoc++;
+        if (doc >= productoPorDoc.length) {
+            productoPorDoc = Arrays.copyOf(productoPorDoc, productoPorDoc.length * 2);
+            precioPorDoc = Arrays.copyOf(precioPorDoc, precioPorDoc.length * 2);
+        }
+        return doc;
+    }
+
+    private void ordenarPorPrecio() {
+        docsPorPrecio = ordenadosPorPrecio(docPorProducto.values());
+    }
+
+    /**
+     * Saca del orden por precio los documentos {@code quitados} y vuelve a intercalar los {@code agregados}, que
+     * deben estar entre los quitados si ya figuraban. Solo se ordenan los agregados; el resto se recorre una vez.
+     */
+    private void reubicarPorPrecio(Collection<Integer> quitados, Collection<Integer> agregados) {
+        ConjuntoBits fuera = new ConjuntoBits(siguienteDoc);
+        quitados.forEach(fuera::agregar);
+        int[] entrantes = ordenadosPorPrecio(agregados);
+        int[] resultado = new int[docPorProducto.size()];
+        int n = 0;
+        int e = 0;
+        for (int doc : docsPorPrecio) {
+            if (fuera.contiene(doc)) {
+                continue;
+            }
+            while (e < entrantes.length && precioPorDoc[entrantes[e]] < precioPorDoc[doc]) {
+                resultado[n++] = entrantes[e++];
+            }
+            resultado[n++] = doc;
+        }
+        while (e < entrantes.length) {
+            resultado[n++] = entrantes[e++];
+        }
+        docsPorPrecio = n == resultado.length ? resultado : Arrays.copyOf(resultado, n);
+    }
+
+    private int[] ordenadosPorPrecio(Collection<Integer> docs) {
+        return docs.stream()
+                .sorted((a, b) -> Long.compare(precioPorDoc[a], precioPorDoc[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private int primeraPosicionConPrecio(long minimo) {
+        int bajo = 0;
+        int alto = docsPorPrecio.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (precioPorDoc[docsPorPrecio[medio]] < minimo) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    static long aCentimos(double precio) {
+        return Math.round(precio * 100);
+    }
+
+    static long aCentimos(BigDecimal precio) {
+        return precio.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.entity.TerminoEspecificacion.Categoria;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Carga el diccionario de tipos y marcas al iniciar la aplicación y enlaza con él las especificaciones que aún
+ * no tienen término: cada texto distinto de {@code tipo} y {@code marca} se resuelve (o se da de alta) una vez
+ * y se asigna con un único UPDATE a todas las filas que lo usan.
+ */
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class MigradorDiccionarioEspecificaciones implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MigradorDiccionarioEspecificaciones.class);
+
+    private final DiccionarioEspecificacionesService diccionarioEspecificacionesService;
+    private final CacheEspecificacionesService cacheEspecificacionesService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        diccionarioEspecificacionesService.sembrar();
+        diccionarioEspecificacionesService.recargar();
+
+        int enlazadas = enlazar(Categoria.TIPO, "tipo", "tipo_id") + enlazar(Categoria.MARCA, "marca", "marca_id");
+        diccionarioEspecificacionesService.recargar();
+        if (enlazadas > 0) {
+            logger.info("Diccionario enlazado en {} columnas de especificaciones", enlazadas);
+            cacheEspecificacionesService.invalidarTodo();
+            eventPublisher.publishEvent(CatalogoModificadoEvent.completo());
+        }
+    }
+
+    private int enlazar(Categoria categoria, String columna, String columnaTermino) {
+        List<String> textos = jdbcTemplate.queryForList("SELECT DISTINCT " + columna + " FROM especificaciones " +
+                "WHERE " + columnaTermino + " IS NULL AND " + columna + " IS NOT NULL AND TRIM(" + columna + ") <> ''", String.class);
+        int enlazadas = 0;
+        for (String texto : textos) {
+            Long id = diccionarioEspecificacionesService.resolver(categoria, texto).getId();
+            enlazadas += jdbcTemplate.update("UPDATE especificaciones SET " + columnaTermino + " = ? " +
+                    "WHERE " + columnaTermino + " IS NULL AND " + columna + " = ?", id, texto);
+        }
+        return enlazadas;
+    }
+}
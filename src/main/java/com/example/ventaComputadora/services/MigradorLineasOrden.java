@@ -0,0 +1,55 @@
+package com.example.ventaComputadora.services;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pasa las órdenes de la antigua tabla de unión orden_productos a lineas_orden al iniciar la aplicación.
+ * Cada par orden-producto se convierte en una línea de una unidad con el precio actual del producto; la tabla
+ * vieja se renombra para que la migración no se repita y los datos originales queden disponibles.
+ * Después completa el nombre de las líneas que aún no lo guardan y el monto y la fecha de pago de las órdenes
+ * pagadas antes de que se guardaran, tomando el monto del pago registrado.
+ */
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class MigradorLineasOrden implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MigradorLineasOrden.class);
+
+    private static final String COPIAR_LINEAS = "INSERT IGNORE INTO lineas_orden " +
+            "(orden_id, producto_id, cantidad, precio_unitario, nombre_producto) " +
+            "SELECT op.orden_id, op.producto_id, 1, p.precio, p.nombre " +
+            "FROM orden_productos op JOIN productos p ON p.id = op.producto_id";
+    private static final String COMPLETAR_NOMBRES = "UPDATE lineas_orden l JOIN productos p ON p.id = l.producto_id " +
+            "SET l.nombre_producto = p.nombre WHERE l.nombre_producto IS NULL";
+    private static final String COMPLETAR_PAGOS = "UPDATE ordenes o JOIN (" +
+            "SELECT orden_id, MIN(fecha_pago) AS fecha, MIN(monto) AS monto FROM pagos GROUP BY orden_id) p " +
+            "ON p.orden_id = o.id " +
+            "SET o.fecha_pago = p.fecha, o.monto_total = p.monto " +
+            "WHERE o.estado = 'PAGADO' AND o.monto_total IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer existe = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.TABLES " +
+                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'orden_productos'", Integer.class);
+        if (existe != null && existe > 0) {
+            int migradas = jdbcTemplate.update(COPIAR_LINEAS);
+            jdbcTemplate.execute("RENAME TABLE orden_productos TO orden_productos_migrada");
+            logger.info("{} líneas de orden migradas desde orden_productos", migradas);
+        }
+
+        int nombres = jdbcTemplate.update(COMPLETAR_NOMBRES);
+        int pagadas = jdbcTemplate.update(COMPLETAR_PAGOS);
+        if (nombres > 0 || pagadas > 0) {
+            logger.info("Completados {} nombres de líneas y el monto de {} órdenes pagadas", nombres, pagadas);
+        }
+    }
+}
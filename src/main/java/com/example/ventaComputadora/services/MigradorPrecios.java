@@ -0,0 +1,63 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Prepara las columnas de precios al iniciar la aplicación. Hibernate no cambia el tipo de columnas existentes,
+ * así que los montos que aún son {@code double} se pasan a {@code DECIMAL(12,2)}; después se separa el precio
+ * base de los productos que todavía no lo tienen, descontando del precio guardado lo que aportan sus especificaciones.
+ */
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class MigradorPrecios implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MigradorPrecios.class);
+
+    private static final List<String[]> COLUMNAS_DECIMALES = List.of(
+            new String[]{"productos", "precio"},
+            new String[]{"especificaciones", "precio_adicional"},
+            new String[]{"pagos", "monto"});
+
+    private static final String SEPARAR_PRECIO_BASE = "UPDATE productos p LEFT JOIN (" +
+            "SELECT pe.producto_id, SUM(e.precio_adicional * pe.cantidad) AS total " +
+            "FROM producto_especificaciones pe JOIN especificaciones e ON e.id = pe.especificacion_id " +
+            "GROUP BY pe.producto_id) t ON t.producto_id = p.id " +
+            "SET p.precio_especificaciones = COALESCE(t.total, 0), " +
+            "p.precio_base = GREATEST(p.precio - COALESCE(t.total, 0), 0), " +
+            "p.precio = GREATEST(p.precio - COALESCE(t.total, 0), 0) + COALESCE(t.total, 0), " +
+            "p.version = p.version + 1 " +
+            "WHERE p.precio_base IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        for (String[] columna : COLUMNAS_DECIMALES) {
+            String tipo = jdbcTemplate.query("SELECT DATA_TYPE FROM information_schema.COLUMNS " +
+                            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?",
+                    rs -> rs.next() ? rs.getString(1) : null, columna[0], columna[1]);
+            if ("double".equalsIgnoreCase(tipo) || "float".equalsIgnoreCase(tipo)) {
+                jdbcTemplate.execute("ALTER TABLE " + columna[0] + " MODIFY " + columna[1] + " DECIMAL(12,2) NOT NULL");
+                logger.info("Columna {}.{} convertida a DECIMAL(12,2)", columna[0], columna[1]);
+            }
+        }
+
+        int migrados = jdbcTemplate.update(SEPARAR_PRECIO_BASE);
+        if (migrados > 0) {
+            logger.info("Precio base separado en {} productos", migrados);
+            eventPublisher.publishEvent(CatalogoModificadoEvent.completo());
+        }
+    }
+}
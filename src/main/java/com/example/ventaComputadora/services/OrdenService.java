@@ -1,145 +1,373 @@
 package com.example.ventaComputadora.services;
 
+import com.example.ventaComputadora.domain.DTO.IngresosDTO;
+import com.example.ventaComputadora.domain.DTO.LineaCarritoDTO;
+import com.example.ventaComputadora.domain.DTO.LineaOrdenDTO;
 import com.example.ventaComputadora.domain.DTO.OrdenDTO;
-import com.example.ventaComputadora.domain.DTO.ProductoDTO;
+import com.example.ventaComputadora.domain.DTO.PaginaCursorDTO;
+import com.example.ventaComputadora.domain.DTO.ResumenOrdenDTO;
 import com.example.ventaComputadora.domain.DTO.UsuarioDTO;
 import com.example.ventaComputadora.domain.entity.EstadoOrden;
 import com.example.ventaComputadora.domain.entity.Orden;
-import com.example.ventaComputadora.domain.entity.Producto;
+import com.example.ventaComputadora.domain.entity.StockInsuficienteException;
 import com.example.ventaComputadora.domain.entity.Usuario;
+import com.example.ventaComputadora.infra.repository.LineaOrdenRepository;
 import com.example.ventaComputadora.infra.repository.OrdenRepository;
 import com.example.ventaComputadora.infra.repository.ProductoRepository;
 import com.example.ventaComputadora.infra.repository.UsuarioRepository;
+import com.example.ventaComputadora.services.paginacion.Paginador;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
-import org.hibernate.Hibernate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
  * Servicio para manejar las órdenes de compra.
+ * Las operaciones del carrito escriben solo las líneas afectadas, con sentencias de una fila por producto, y
+ * devuelven solo esas líneas; ninguna carga la orden completa, así que su costo no depende del tamaño del carrito.
+ * Si {@link AlmacenCarritosService} está habilitado, el carrito activo se modifica en memoria y se escribe después;
+ * las operaciones que necesitan la base de datos al día lo retiran de memoria primero.
  */
 @Service
 @RequiredArgsConstructor
 public class OrdenService {
+    public static final int MAXIMO_LINEAS_POR_OPERACION = 100;
+
+    private static final String AGREGAR_LINEA = "INSERT INTO lineas_orden (orden_id, producto_id, cantidad, precio_unitario, " +
+            "nombre_producto) VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE cantidad = cantidad + VALUES(cantidad)";
+    private static final String QUITAR_UNIDADES =
+            "UPDATE lineas_orden SET cantidad = cantidad - ? WHERE orden_id = ? AND producto_id = ? AND cantidad > ?";
+    private static final String ELIMINAR_LINEA = "DELETE FROM lineas_orden WHERE orden_id = ? AND producto_id = ?";
+    private static final String ELIMINAR_LINEAS = "DELETE FROM lineas_orden WHERE orden_id = ?";
+    private static final String INCREMENTAR_VERSION = "UPDATE ordenes SET version = version + 1 WHERE id = ?";
+
     private final OrdenRepository ordenRepository;
+    private final LineaOrdenRepository lineaOrdenRepository;
     private final UsuarioRepository usuarioRepository;
     private final ProductoRepository productoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Paginador paginador;
+    private final StockService stockService;
+    private final AlmacenCarritosService almacenCarritos;
+    private final TransactionTemplate transactionTemplate;
+    private final AnaliticaVentasService analiticaVentas;
+    private final EntityManager entityManager;
 
     /**
-     * Crea una nueva orden de compra.
+     * Crea una nueva orden de compra con una unidad de cada producto.
      *
      * @param usuarioId ID del usuario que realiza la orden.
      * @param productoIds IDs de los productos en la orden.
      * @return La orden creada.
+     * @throws EntityNotFoundException Si alguno de los productos no existe.
      */
     @Transactional
     public Orden crearOrden(Long usuarioId, Set<Long> productoIds) {
         Usuario usuario = usuarioRepository.findById(usuarioId)
                 .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-        Set<Producto> productos = new HashSet<>(productoRepository.findAllById(productoIds));
 
-        Orden orden = Orden.builder()
+        Orden orden = ordenRepository.save(Orden.builder()
                 .usuario(usuario)
-                .productos(productos)
                 .fechaCreacion(LocalDateTime.now())
                 .estado(EstadoOrden.CARRITO)
-                .build();
-
-        return ordenRepository.save(orden);
+                .build());
+        if (productoIds != null && !productoIds.isEmpty()) {
+            Map<Long, Integer> cantidades = new TreeMap<>();
+            productoIds.forEach(id -> cantidades.put(id, 1));
+            insertarLineas(orden.getId(), cantidades);
+        }
+        return orden;
     }
 
     /**
-     * Agrega un producto a la orden activa del usuario.
+     * Agrega una unidad de un producto al carrito del usuario.
      *
      * @param usuarioId ID del usuario.
      * @param productoId ID del producto a agregar.
-     * @return La orden actualizada.
+     * @return La línea del producto con su cantidad actualizada.
      */
-    @Transactional
-    public Orden agregarProductoALaOrden(Long usuarioId, Long productoId) {
-        Optional<Orden> ordenActiva = obtenerOrdenActiva(usuarioId);
-        Orden orden;
-        if (ordenActiva.isEmpty()) {
-            orden = crearOrden(usuarioId, new HashSet<>());
-        } else {
-            orden = ordenActiva.get();
-        }
+    public LineaOrdenDTO agregarProductoALaOrden(Long usuarioId, Long productoId) {
+        return agregarLineas(usuarioId, List.of(new LineaCarritoDTO(productoId, 1))).get(0);
+    }
 
-        Producto producto = productoRepository.findById(productoId)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+    /**
+     * Agrega varias líneas al carrito del usuario, creándolo si no tiene uno. Si un producto ya está en el
+     * carrito se suma la cantidad y se conserva el precio con el que se agregó la primera vez.
+     *
+     * @param usuarioId ID del usuario.
+     * @param lineas Productos y cantidades a agregar.
+     * @return Las líneas afectadas con sus cantidades actualizadas.
+     * @throws IllegalArgumentException Si no hay líneas, son demasiadas o alguna cantidad no es positiva.
+     * @throws EntityNotFoundException Si alguno de los productos no existe.
+     */
+    public List<LineaOrdenDTO> agregarLineas(Long usuarioId, List<LineaCarritoDTO> lineas) {
+        Map<Long, Integer> cantidades = validarLineas(lineas);
+        if (almacenCarritos.habilitado()) {
+            return almacenCarritos.agregar(usuarioId, cantidades, () -> agregarEnBaseDeDatos(usuarioId, cantidades));
+        }
+        return agregarEnBaseDeDatos(usuarioId, cantidades);
+    }
 
-        orden.getProductos().add(producto);
-        return ordenRepository.save(orden);
+    private List<LineaOrdenDTO> agregarEnBaseDeDatos(Long usuarioId, Map<Long, Integer> cantidades) {
+        return transactionTemplate.execute(status -> {
+            Long ordenId = ordenRepository.findIdsByUsuarioIdAndEstado(usuarioId, EstadoOrden.CARRITO, PageRequest.of(0, 1))
+                    .stream().findFirst()
+                    .orElseGet(() -> crearOrden(usuarioId, Set.of()).getId());
+            insertarLineas(ordenId, cantidades);
+            jdbcTemplate.update(INCREMENTAR_VERSION, ordenId);
+            return convertirLineas(lineaOrdenRepository.findResumenByOrdenIdAndProductoIdIn(ordenId, cantidades.keySet()));
+        });
     }
 
     /**
-     * Elimina un producto de una orden.
+     * Quita unidades de un producto de una orden, o la línea completa si no se indica cantidad o no quedan unidades.
      *
      * @param ordenId ID de la orden.
-     * @param productoId ID del producto a eliminar.
-     * @return La orden actualizada.
+     * @param productoId ID del producto a quitar.
+     * @param cantidad Unidades a quitar o nulo para quitar la línea.
+     * @return La línea con su nueva cantidad, o vacío si se eliminó.
+     * @throws EntityNotFoundException Si la orden no existe.
+     * @throws IllegalStateException Si la orden ya está pagada.
+     * @throws IllegalArgumentException Si la cantidad no es positiva.
      */
-    @Transactional
-    public Orden eliminarProductoDeLaOrden(Long ordenId, Long productoId) {
-        Orden orden = ordenRepository.findById(ordenId)
-                .orElseThrow(() -> new RuntimeException("Orden no encontrada"));
-
-        if (EstadoOrden.PAGADO.equals(orden.getEstado())) {
-            throw new IllegalStateException("No se puede eliminar un producto de una orden pagada");
+    public Optional<LineaOrdenDTO> eliminarProductoDeLaOrden(Long ordenId, Long productoId, Integer cantidad) {
+        if (cantidad != null && cantidad <= 0) {
+            throw new IllegalArgumentException("La cantidad debe ser positiva.");
         }
+        if (almacenCarritos.habilitado()) {
+            return almacenCarritos.quitar(ordenId, productoId, cantidad, () -> quitarEnBaseDeDatos(ordenId, productoId, cantidad));
+        }
+        return quitarEnBaseDeDatos(ordenId, productoId, cantidad);
+    }
 
-        Producto producto = productoRepository.findById(productoId)
-                .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
+    private Optional<LineaOrdenDTO> quitarEnBaseDeDatos(Long ordenId, Long productoId, Integer cantidad) {
+        return transactionTemplate.execute(status -> {
+            EstadoOrden estado = ordenRepository.findEstadoById(ordenId)
+                    .orElseThrow(() -> new EntityNotFoundException("Orden no encontrada"));
+            if (EstadoOrden.PAGADO.equals(estado)) {
+                throw new IllegalStateException("No se puede eliminar un producto de una orden pagada");
+            }
+
+            jdbcTemplate.update(INCREMENTAR_VERSION, ordenId);
+            if (cantidad != null && jdbcTemplate.update(QUITAR_UNIDADES, cantidad, ordenId, productoId, cantidad) > 0) {
+                return convertirLineas(lineaOrdenRepository.findResumenByOrdenIdAndProductoIdIn(ordenId, Set.of(productoId)))
+                        .stream().findFirst();
+            }
+            jdbcTemplate.update(ELIMINAR_LINEA, ordenId, productoId);
+            return Optional.<LineaOrdenDTO>empty();
+        });
+    }
+
+    /**
+     * Lista las órdenes de un usuario de la más reciente a la más antigua, paginadas por (fechaCreacion, id).
+     *
+     * @param usuarioId ID del usuario.
+     * @param cursor Cursor de la página anterior o nulo para la primera.
+     * @param tamano Tamaño de página o nulo para el predeterminado.
+     * @return Página de órdenes del usuario.
+     * @throws IllegalArgumentException Si el cursor o el tamaño no son válidos.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<OrdenDTO> listarOrdenesPorUsuario(Long usuarioId, String cursor, Integer tamano) {
+        int cantidad = paginador.tamano(tamano);
+        String[] clave = paginador.decodificar(cursor, 2);
+        LocalDateTime fecha = clave == null ? null : LocalDateTime.parse(clave[0]);
+        Long id = clave == null ? null : Long.valueOf(clave[1]);
 
-        orden.getProductos().remove(producto);
-        return ordenRepository.save(orden);
+        List<Long> ids = ordenRepository.findIdsPorUsuarioAntesDe(usuarioId, fecha, id, PageRequest.of(0, cantidad + 1));
+        Map<Long, Orden> ordenes = ordenRepository.findAllConUsuarioByIdIn(ids).stream()
+                .collect(Collectors.toMap(Orden::getId, orden -> orden));
+        List<Orden> enOrden = ids.stream().map(ordenes::get).filter(Objects::nonNull).collect(Collectors.toList());
+        Map<Long, List<LineaOrdenDTO>> lineas = lineasPorOrden(ids);
+        return paginador.armar(enOrden, cantidad, orden -> new Object[]{orden.getFechaCreacion(), orden.getId()},
+                orden -> almacenCarritos.obtener(orden.getId())
+                        .orElseGet(() -> convertirADTO(orden, lineas.getOrDefault(orden.getId(), List.of()))));
     }
 
     /**
-     * Lista todas las órdenes de un usuario.
+     * Lista el historial de órdenes de un usuario, de la más reciente a la más antigua, paginado por
+     * (fechaCreacion, id). Cada página es una sola consulta agrupada que devuelve por orden sus unidades y su
+     * monto, sin cargar líneas ni productos; el detalle se pide aparte con {@link #obtenerDetalle(Long)}.
      *
      * @param usuarioId ID del usuario.
-     * @return Lista de órdenes del usuario.
+     * @param cursor Cursor de la página anterior o nulo para la primera.
+     * @param tamano Tamaño de página o nulo para el predeterminado.
+     * @return Página de resúmenes de órdenes.
+     * @throws IllegalArgumentException Si el cursor o el tamaño no son válidos.
+     */
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<ResumenOrdenDTO> listarResumenesPorUsuario(Long usuarioId, String cursor, Integer tamano) {
+        int cantidad = paginador.tamano(tamano);
+        String[] clave = paginador.decodificar(cursor, 2);
+        LocalDateTime fecha = clave == null ? null : LocalDateTime.parse(clave[0]);
+        Long id = clave == null ? null : Long.valueOf(clave[1]);
+
+        List<Object[]> filas = ordenRepository.findResumenesPorUsuarioAntesDe(usuarioId, fecha, id, PageRequest.of(0, cantidad + 1));
+        return paginador.armar(filas, cantidad, fila -> new Object[]{fila[1], fila[0]}, this::convertirResumen);
+    }
+
+    private ResumenOrdenDTO convertirResumen(Object[] fila) {
+        Long ordenId = (Long) fila[0];
+        Optional<OrdenDTO> enMemoria = almacenCarritos.obtener(ordenId);
+        if (enMemoria.isPresent()) {
+            OrdenDTO carrito = enMemoria.get();
+            long unidades = carrito.getLineas().stream().mapToLong(LineaOrdenDTO::getCantidad).sum();
+            return new ResumenOrdenDTO(ordenId, carrito.getFechaCreacion(), carrito.getEstado(), unidades,
+                    carrito.getMontoTotal());
+        }
+        return new ResumenOrdenDTO(ordenId, (LocalDateTime) fila[1], ((EstadoOrden) fila[2]).name(),
+                ((Number) fila[3]).longValue(), PreciosService.normalizar((BigDecimal) fila[4]));
+    }
+
+    /**
+     * Obtiene el detalle de una orden con sus líneas.
+     *
+     * @param ordenId ID de la orden.
+     * @return DTO de la orden.
+     * @throws EntityNotFoundException Si la orden no existe.
+     */
+    @Transactional(readOnly = true)
+    public OrdenDTO obtenerDetalle(Long ordenId) {
+        Optional<OrdenDTO> enMemoria = almacenCarritos.obtener(ordenId);
+        if (enMemoria.isPresent()) {
+            return enMemoria.get();
+        }
+        return ordenRepository.findAllConUsuarioByIdIn(List.of(ordenId)).stream()
+                .findFirst()
+                .map(this::convertirADTO)
+                .orElseThrow(() -> new EntityNotFoundException("Orden no encontrada"));
+    }
+
+    /**
+     * Suma lo cobrado por las órdenes pagadas en un rango de fechas de pago, con el monto guardado en cada orden.
+     *
+     * @param desde Inicio del rango, inclusive.
+     * @param hasta Fin del rango, exclusive.
+     * @return Cantidad de órdenes y monto cobrado.
+     * @throws IllegalArgumentException Si el rango está vacío.
      */
     @Transactional(readOnly = true)
-    public List<OrdenDTO> listarOrdenesPorUsuario(Long usuarioId) {
-        List<Orden> ordenes = ordenRepository.findByUsuarioId(usuarioId);
-        ordenes.forEach(orden -> Hibernate.initialize(orden.getProductos())); // Forzar la carga de los productos
-        return ordenes.stream().map(this::convertirADTO).collect(Collectors.toList());
+    public IngresosDTO obtenerIngresos(LocalDateTime desde, LocalDateTime hasta) {
+        if (!desde.isBefore(hasta)) {
+            throw new IllegalArgumentException("El inicio del rango debe ser anterior al fin.");
+        }
+        Object[] fila = ordenRepository.sumIngresos(EstadoOrden.PAGADO, desde, hasta).get(0);
+        return new IngresosDTO(desde, hasta, ((Number) fila[0]).longValue(), PreciosService.normalizar((BigDecimal) fila[1]));
     }
 
     /**
-     * Convierte una orden a un DTO.
+     * Convierte una orden a un DTO, leyendo sus líneas sin cargar los productos.
      *
      * @param orden Orden a convertir.
      * @return DTO de la orden.
      */
     public OrdenDTO convertirADTO(Orden orden) {
-        double montoTotal = orden.getProductos().stream()
-                .mapToDouble(Producto::getPrecio)
-                .sum();
+        return convertirADTO(orden, lineasPorOrden(List.of(orden.getId())).getOrDefault(orden.getId(), List.of()));
+    }
 
-        Set<ProductoDTO> productosDTO = orden.getProductos().stream()
-                .map(this::convertirProductoADTO)
-                .collect(Collectors.toSet());
+    private OrdenDTO convertirADTO(Orden orden, List<LineaOrdenDTO> lineas) {
+        BigDecimal montoTotal = orden.getMontoTotal() != null ? orden.getMontoTotal() : lineas.stream()
+                .map(LineaOrdenDTO::getSubtotal)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         return new OrdenDTO(
                 orden.getId(),
                 convertirUsuarioADTO(orden.getUsuario()),
                 orden.getFechaCreacion(),
                 orden.getEstado().name(),
-                productosDTO,
+                lineas,
                 montoTotal
         );
     }
 
+    /**
+     * Unidades de cada producto de una orden, para descontarlas del stock.
+     *
+     * @param ordenId ID de la orden.
+     * @return Cantidad por ID de producto.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> cantidadesPorProducto(Long ordenId) {
+        Map<Long, Integer> cantidades = new HashMap<>();
+        for (Object[] fila : lineaOrdenRepository.findCantidadesByOrdenId(ordenId)) {
+            cantidades.put((Long) fila[0], ((Number) fila[1]).intValue());
+        }
+        return cantidades;
+    }
+
+    private Map<Long, List<LineaOrdenDTO>> lineasPorOrden(Collection<Long> ordenIds) {
+        if (ordenIds.isEmpty()) {
+            return Map.of();
+        }
+        return convertirLineas(lineaOrdenRepository.findResumenByOrdenIdIn(ordenIds)).stream()
+                .collect(Collectors.groupingBy(LineaOrdenDTO::getOrdenId));
+    }
+
+    private static List<LineaOrdenDTO> convertirLineas(List<Object[]> filas) {
+        List<LineaOrdenDTO> lineas = new ArrayList<>(filas.size());
+        for (Object[] fila : filas) {
+            int cantidad = ((Number) fila[3]).intValue();
+            BigDecimal precioUnitario = (BigDecimal) fila[4];
+            lineas.add(new LineaOrdenDTO((Long) fila[0], (Long) fila[1], (String) fila[2], cantidad, precioUnitario,
+                    PreciosService.subtotal(precioUnitario, cantidad)));
+        }
+        return lineas;
+    }
+
+    /**
+     * Valida las líneas pedidas y junta las que repiten producto.
+     */
+    private static Map<Long, Integer> validarLineas(List<LineaCarritoDTO> lineas) {
+        if (lineas == null || lineas.isEmpty() || lineas.size() > MAXIMO_LINEAS_POR_OPERACION) {
+            throw new IllegalArgumentException("Se pueden agregar entre 1 y " + MAXIMO_LINEAS_POR_OPERACION + " líneas.");
+        }
+        Map<Long, Integer> cantidades = new TreeMap<>();
+        for (LineaCarritoDTO linea : lineas) {
+            if (linea.getProductoId() == null || linea.getCantidad() <= 0) {
+                throw new IllegalArgumentException("Cada línea necesita un producto y una cantidad positiva.");
+            }
+            cantidades.merge(linea.getProductoId(), linea.getCantidad(), Integer::sum);
+        }
+        return cantidades;
+    }
+
+    /**
+     * Inserta o suma las líneas con un lote de sentencias de una fila, con el nombre y el precio actual de cada
+     * producto.
+     */
+    private void insertarLineas(Long ordenId, Map<Long, Integer> cantidades) {
+        Map<Long, Object[]> productos = new HashMap<>();
+        for (Object[] fila : productoRepository.findNombresYPreciosByIdIn(cantidades.keySet())) {
+            productos.put((Long) fila[0], fila);
+        }
+        if (productos.size() < cantidades.size()) {
+            throw new EntityNotFoundException("Producto no encontrado");
+        }
+        List<Object[]> filas = new ArrayList<>(cantidades.size());
+        new TreeMap<>(cantidades).forEach((productoId, cantidad) -> filas.add(new Object[]{ordenId, productoId, cantidad,
+                productos.get(productoId)[2], productos.get(productoId)[1]}));
+        jdbcTemplate.batchUpdate(AGREGAR_LINEA, filas);
+    }
+
     private UsuarioDTO convertirUsuarioADTO(Usuario usuario) {
         return new UsuarioDTO(
                 usuario.getId(),
@@ -149,17 +377,6 @@ public class OrdenService {
         );
     }
 
-    private ProductoDTO convertirProductoADTO(Producto producto) {
-        ProductoDTO productoDTO = new ProductoDTO();
-        productoDTO.setId(producto.getId());
-        productoDTO.setNombre(producto.getNombre());
-        productoDTO.setDescripcion(producto.getDescripcion());
-        productoDTO.setPrecio(producto.getPrecio());
-        productoDTO.setStock(producto.getStock());
-        productoDTO.setImagen(producto.getImagen());
-        return productoDTO;
-    }
-
     /**
      * Obtiene la orden activa de un usuario.
      *
@@ -168,38 +385,127 @@ public class OrdenService {
      */
     @Transactional(readOnly = true)
     public Optional<Orden> obtenerOrdenActiva(Long usuarioId) {
-        return ordenRepository.findByUsuarioIdAndEstado(usuarioId, EstadoOrden.CARRITO)
-                .stream().findFirst();
+        return ordenRepository.findIdsByUsuarioIdAndEstado(usuarioId, EstadoOrden.CARRITO, PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .flatMap(ordenRepository::findById);
+    }
+
+    /**
+     * Obtiene la orden activa de un usuario como DTO, desde memoria si su carrito está en el almacén.
+     *
+     * @param usuarioId ID del usuario.
+     * @return La orden activa del usuario.
+     */
+    @Transactional(readOnly = true)
+    public Optional<OrdenDTO> obtenerOrdenActivaDTO(Long usuarioId) {
+        Optional<OrdenDTO> enMemoria = almacenCarritos.obtenerActivo(usuarioId);
+        if (enMemoria.isPresent()) {
+            return enMemoria;
+        }
+        return obtenerOrdenActiva(usuarioId).map(this::convertirADTO);
+    }
+
+    /**
+     * Obtiene el ETag de la orden activa de un usuario a partir de su versión y la de sus productos, sin cargar la orden.
+     *
+     * @param usuarioId ID del usuario.
+     * @return ETag de la orden activa o vacío si el usuario no tiene una.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> obtenerEtagOrdenActiva(Long usuarioId) {
+        Optional<String> enMemoria = almacenCarritos.obtenerEtagActivo(usuarioId);
+        if (enMemoria.isPresent()) {
+            return enMemoria;
+        }
+        return ordenRepository.findVersionesByUsuarioIdAndEstado(usuarioId, EstadoOrden.CARRITO).stream()
+                .findFirst()
+                .map(fila -> "orden-" + fila[0] + "-" + fila[1]);
     }
 
     /**
-     * Procesa una orden, cambiando su estado a pagado.
+     * Procesa una orden, descontando el stock de sus productos y cambiando su estado a pagado.
      *
      * @param ordenId ID de la orden.
      * @return La orden procesada.
+     * @throws StockInsuficienteException Si falta stock para alguno de los productos.
+     * @throws IllegalStateException Si la orden no tiene productos.
      */
     @Transactional
     public Orden procesarOrden(Long ordenId) {
+        almacenCarritos.retirar(ordenId);
         Orden orden = ordenRepository.findById(ordenId)
                 .orElseThrow(() -> new RuntimeException("Orden no encontrada"));
+        if (orden.getEstado() != EstadoOrden.PAGADO) {
+            cerrarPago(orden);
+        }
+        return orden;
+    }
+
+    /**
+     * Cierra el pago de una orden en la transacción en curso: descuenta el stock y guarda en la orden el monto
+     * cobrado y la fecha de pago. Se cobra el precio que cada línea guardó al agregarse, que es el que el cliente
+     * vio en su carrito; un cambio posterior del precio del producto no altera el carrito ni el cobro. Desde
+     * entonces la orden, sus DTO y sus comprobantes usan esos valores. La venta se suma a los acumulados de
+     * {@link AnaliticaVentasService} en la misma transacción.
+     *
+     * @param orden Orden a cerrar.
+     * @return Monto cobrado.
+     * @throws StockInsuficienteException Si falta stock para alguno de los productos.
+     * @throws IllegalStateException Si la orden no tiene productos.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BigDecimal cerrarPago(Orden orden) {
+        Map<Long, Integer> cantidades = cantidadesPorProducto(orden.getId());
+        if (cantidades.isEmpty()) {
+            throw new IllegalStateException("No se puede pagar una orden sin productos.");
+        }
+        stockService.descontar(cantidades);
+        BigDecimal montoTotal = PreciosService.normalizar(lineaOrdenRepository.sumMontoByOrdenId(orden.getId()));
+
+        orden.setMontoTotal(montoTotal);
+        orden.setFechaPago(LocalDateTime.now());
         orden.setEstado(EstadoOrden.PAGADO);
-        return ordenRepository.save(orden);
+        analiticaVentas.registrarPago(orden.getId(), orden.getFechaPago(), montoTotal);
+        ordenRepository.save(orden);
+        return montoTotal;
     }
 
     /**
-     * Actualiza una orden.
+     * Reemplaza las líneas de una orden y, si se indica, cambia su estado. La versión de la orden sube una sola
+     * vez: con la actualización de la fila si cambia el estado o, si no, forzando el incremento al confirmar, y la
+     * orden devuelta queda con la versión final.
      *
      * @param id ID de la orden.
-     * @param nuevaOrden Nueva información de la orden.
+     * @param estado Nuevo estado o nulo para conservarlo; una orden solo pasa a pagada al pagarla.
+     * @param lineas Nuevas líneas de la orden.
      * @return La orden actualizada.
+     * @throws IllegalStateException Si la orden ya está pagada.
+     * @throws IllegalArgumentException Si se pide marcarla como pagada o las líneas no son válidas.
      */
     @Transactional
-    public Orden actualizarOrden(Long id, Orden nuevaOrden) {
+    public Orden actualizarOrden(Long id, EstadoOrden estado, List<LineaCarritoDTO> lineas) {
+        almacenCarritos.retirar(id);
         Orden orden = ordenRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Orden no encontrada"));
-        orden.setProductos(nuevaOrden.getProductos());
-        orden.setEstado(nuevaOrden.getEstado());
-        return ordenRepository.save(orden);
+        if (EstadoOrden.PAGADO.equals(orden.getEstado())) {
+            throw new IllegalStateException("No se puede modificar una orden pagada");
+        }
+        if (EstadoOrden.PAGADO.equals(estado)) {
+            throw new IllegalArgumentException("Una orden solo se marca como pagada al registrar su pago.");
+        }
+        Map<Long, Integer> cantidades = lineas == null || lineas.isEmpty() ? Map.of() : validarLineas(lineas);
+        if (estado != null && estado != orden.getEstado()) {
+            orden.setEstado(estado);
+            ordenRepository.saveAndFlush(orden);
+        } else {
+            entityManager.lock(orden, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        }
+
+        jdbcTemplate.update(ELIMINAR_LINEAS, id);
+        if (!cantidades.isEmpty()) {
+            insertarLineas(id, cantidades);
+        }
+        return orden;
     }
 
     /**
@@ -209,6 +515,7 @@ public class OrdenService {
      */
     @Transactional
     public void eliminarOrden(Long id) {
+        almacenCarritos.retirar(id);
         ordenRepository.deleteById(id);
     }
 }
@@ -13,8 +13,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.io.ByteArrayOutputStream;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 
@@ -26,16 +26,21 @@ import java.util.List;
 public class PagoService {
     private final PagoRepository pagoRepository;
     private final OrdenRepository ordenRepository;
+    private final OrdenService ordenService;
+    private final AlmacenCarritosService almacenCarritos;
     private static final Logger logger = LoggerFactory.getLogger(PagoService.class);
 
     /**
-     * Realiza un pago.
+     * Realiza un pago. El stock de los productos de la orden se descuenta en la misma transacción, de modo que
+     * si falta stock el pago no se registra y la orden sigue pendiente.
      *
      * @param pago Información del pago.
      * @return El pago realizado.
+     * @throws StockInsuficienteException Si falta stock para alguno de los productos.
      */
     @Transactional
     public Pago realizarPago(Pago pago) {
+        almacenCarritos.retirar(pago.getOrden().getId());
         Orden orden = ordenRepository.findById(pago.getOrden().getId())
                 .orElseThrow(() -> new RuntimeException("Orden no encontrada"));
 
@@ -43,19 +48,14 @@ public class PagoService {
             throw new RuntimeException("La orden ya ha sido pagada.");
         }
 
-        double montoTotal = orden.getProductos().stream()
-                .mapToDouble(Producto::getPrecio)
-                .sum();
+        BigDecimal montoTotal = ordenService.cerrarPago(orden);
 
         pago.setMonto(montoTotal);
         pago.setEstado("COMPLETADO");
-        pago.setFechaPago(LocalDateTime.now());
+        pago.setFechaPago(orden.getFechaPago());
 
         Pago nuevoPago = pagoRepository.save(pago);
 
-        orden.setEstado(EstadoOrden.PAGADO);
-        ordenRepository.save(orden);
-
         logger.info("Pago realizado con ID: {}", nuevoPago.getId());
         return nuevoPago;
     }
@@ -114,7 +114,8 @@ public class PagoService {
 
         // Información de productos
         document.add(new Paragraph("Productos:", boldFont));
-        for (Producto producto : orden.getProductos()) {
+        for (LineaOrden linea : orden.getLineas()) {
+            Producto producto = linea.getProducto();
             // Crear tabla para cada producto
             PdfPTable productTable = new PdfPTable(2);
             productTable.setWidthPercentage(100);
@@ -124,10 +125,13 @@ public class PagoService {
 
             // Añadir celdas
             productTable.addCell(createCell("Producto", boldFont, Element.ALIGN_LEFT));
-            productTable.addCell(createCell(producto.getNombre(), normalFont, Element.ALIGN_LEFT));
+            productTable.addCell(createCell(linea.getNombreProducto(), normalFont, Element.ALIGN_LEFT));
 
             productTable.addCell(createCell("Precio", boldFont, Element.ALIGN_LEFT));
-            productTable.addCell(createCell("$" + producto.getPrecio(), normalFont, Element.ALIGN_LEFT));
+            productTable.addCell(createCell("$" + linea.getPrecioUnitario(), normalFont, Element.ALIGN_LEFT));
+
+            productTable.addCell(createCell("Cantidad", boldFont, Element.ALIGN_LEFT));
+            productTable.addCell(createCell(String.valueOf(linea.getCantidad()), normalFont, Element.ALIGN_LEFT));
 
             productTable.addCell(createCell("Descripción", boldFont, Element.ALIGN_LEFT));
             productTable.addCell(createCell(producto.getDescripcion(), normalFont, Element.ALIGN_LEFT));
@@ -0,0 +1,147 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.ResultadoRepreciadoDTO;
+import com.example.ventaComputadora.domain.entity.Producto;
+import com.example.ventaComputadora.domain.entity.ProductoEspecificacion;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Calcula el precio de los productos: {@code precio = precioBase + Σ precioAdicional * cantidad}.
+ * Todos los montos son decimales de dos cifras; el precio nunca se ajusta sumando o restando sobre el anterior,
+ * siempre se recalcula desde el precio base y las especificaciones actuales.
+ */
+@Service
+@RequiredArgsConstructor
+public class PreciosService {
+    private static final Logger logger = LoggerFactory.getLogger(PreciosService.class);
+    private static final int ESCALA = 2;
+    private static final long TAMANO_TRAMO = 5000;
+
+    /**
+     * Recalcula en la base el precio de los productos que cumplen el filtro (sobre {@code pe.producto_id} y
+     * {@code p.id}) con una sola sentencia.
+     * Solo toca (y solo cuenta) los productos cuyo precio cambió, a los que además les incrementa la versión.
+     */
+    private static final String RECALCULAR = "UPDATE productos p LEFT JOIN (" +
+            "SELECT pe.producto_id, SUM(e.precio_adicional * pe.cantidad) AS total " +
+            "FROM producto_especificaciones pe JOIN especificaciones e ON e.id = pe.especificacion_id " +
+            "WHERE %1$s GROUP BY pe.producto_id) t ON t.producto_id = p.id " +
+            "SET p.precio_especificaciones = COALESCE(t.total, 0), " +
+            "p.precio = p.precio_base + COALESCE(t.total, 0), " +
+            "p.version = p.version + 1 " +
+            "WHERE %2$s AND (p.precio_especificaciones IS NULL " +
+            "OR p.precio_especificaciones <> COALESCE(t.total, 0) " +
+            "OR p.precio <> p.precio_base + COALESCE(t.total, 0))";
+
+    private static final String USAN_ESPECIFICACION =
+            "SELECT producto_id FROM producto_especificaciones WHERE especificacion_id = :especificacionId";
+    private static final String POR_IDS = String.format(RECALCULAR, "pe.producto_id IN (:ids)", "p.id IN (:ids)");
+    private static final String POR_ESPECIFICACION = String.format(RECALCULAR,
+            "pe.producto_id IN (" + USAN_ESPECIFICACION + ")", "p.id IN (" + USAN_ESPECIFICACION + ")");
+    private static final String POR_TRAMO = String.format(RECALCULAR,
+            "pe.producto_id BETWEEN :desde AND :hasta", "p.id BETWEEN :desde AND :hasta");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Lleva un monto a la escala de dos decimales usada en todos los precios.
+     *
+     * @param monto Monto a normalizar; nulo equivale a cero.
+     * @return Monto con dos decimales.
+     */
+    public static BigDecimal normalizar(BigDecimal monto) {
+        return monto == null ? BigDecimal.ZERO.setScale(ESCALA) : monto.setScale(ESCALA, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Calcula lo que aporta una especificación al precio de un producto.
+     *
+     * @param precioAdicional Precio adicional de la especificación.
+     * @param cantidad Cantidad de la especificación en el producto.
+     * @return Precio adicional multiplicado por la cantidad.
+     */
+    public static BigDecimal subtotal(BigDecimal precioAdicional, int cantidad) {
+        return normalizar(precioAdicional).multiply(BigDecimal.valueOf(cantidad));
+    }
+
+    /**
+     * Recalcula en memoria el precio de un producto a partir de su precio base y de sus especificaciones cargadas.
+     *
+     * @param producto Producto a recalcular; su colección de especificaciones debe estar al día.
+     */
+    public void recalcular(Producto producto) {
+        BigDecimal especificaciones = BigDecimal.ZERO;
+        for (ProductoEspecificacion productoEspecificacion : producto.getEspecificacionesDisponibles()) {
+            especificaciones = especificaciones.add(subtotal(
+                    productoEspecificacion.getEspecificacion().getPrecioAdicional(), productoEspecificacion.getCantidad()));
+        }
+        producto.setPrecioBase(normalizar(producto.getPrecioBase()));
+        producto.setPrecioEspecificaciones(normalizar(especificaciones));
+        producto.setPrecio(producto.getPrecioBase().add(producto.getPrecioEspecificaciones()));
+    }
+
+    /**
+     * Recalcula en la base el precio de los productos indicados. Debe llamarse dentro de la transacción que
+     * modificó sus especificaciones y después de sincronizar con la base cualquier cambio hecho por JPA.
+     *
+     * @param productoIds IDs de los productos a recalcular.
+     * @return Cantidad de productos cuyo precio cambió y duración.
+     */
+    public ResultadoRepreciadoDTO repreciarProductos(Collection<Long> productoIds) {
+        long inicio = System.nanoTime();
+        int repreciados = productoIds.isEmpty() ? 0 : jdbcTemplate.update(POR_IDS, Map.of("ids", productoIds));
+        return new ResultadoRepreciadoDTO(repreciados, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Recalcula en la base el precio de todos los productos que usan una especificación, por ejemplo después de
+     * cambiar su precio adicional. Mismas condiciones que {@link #repreciarProductos}.
+     *
+     * @param especificacionId ID de la especificación.
+     * @return Cantidad de productos cuyo precio cambió y duración.
+     */
+    public ResultadoRepreciadoDTO repreciarPorEspecificacion(Long especificacionId) {
+        long inicio = System.nanoTime();
+        int repreciados = jdbcTemplate.update(POR_ESPECIFICACION, Map.of("especificacionId", especificacionId));
+        ResultadoRepreciadoDTO resultado = new ResultadoRepreciadoDTO(repreciados, (System.nanoTime() - inicio) / 1_000_000);
+        logger.info("Especificación {}: {} productos repreciados en {} ms", especificacionId,
+                resultado.getProductosRepreciados(), resultado.getDuracionMs());
+        return resultado;
+    }
+
+    /**
+     * Recalcula el precio de todo el catálogo por tramos de ID, cada tramo en su propia sentencia, para corregir
+     * precios desalineados sin bloquear toda la tabla a la vez.
+     *
+     * @return Cantidad de productos cuyo precio cambió y duración.
+     */
+    public ResultadoRepreciadoDTO repreciarCatalogo() {
+        long inicio = System.nanoTime();
+        Map<String, Object> rango = jdbcTemplate.queryForMap("SELECT MIN(id) AS minimo, MAX(id) AS maximo FROM productos", Map.of());
+        int repreciados = 0;
+        if (rango.get("minimo") != null) {
+            long maximo = ((Number) rango.get("maximo")).longValue();
+            for (long desde = ((Number) rango.get("minimo")).longValue(); desde <= maximo; desde += TAMANO_TRAMO) {
+                repreciados += jdbcTemplate.update(POR_TRAMO, Map.of("desde", desde, "hasta", desde + TAMANO_TRAMO - 1));
+            }
+        }
+        if (repreciados > 0) {
+            eventPublisher.publishEvent(CatalogoModificadoEvent.completo());
+        }
+        ResultadoRepreciadoDTO resultado = new ResultadoRepreciadoDTO(repreciados, (System.nanoTime() - inicio) / 1_000_000);
+        logger.info("Catálogo repreciado: {} productos en {} ms", resultado.getProductosRepreciados(), resultado.getDuracionMs());
+        return resultado;
+    }
+}
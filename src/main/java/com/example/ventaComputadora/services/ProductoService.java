@@ -2,25 +2,45 @@ package com.example.ventaComputadora.services;
 
 import com.example.ventaComputadora.domain.DTO.ComentarioDTO;
 import com.example.ventaComputadora.domain.DTO.EspecificacionSimplificadaDTO;
+import com.example.ventaComputadora.domain.DTO.FiltroProductosDTO;
+import com.example.ventaComputadora.domain.DTO.PaginaDTO;
 import com.example.ventaComputadora.domain.DTO.ProductoSimplificadoDTO;
+import com.example.ventaComputadora.domain.entity.Comentario;
 import com.example.ventaComputadora.domain.entity.Especificacion;
 import com.example.ventaComputadora.domain.entity.Producto;
 import com.example.ventaComputadora.domain.entity.ProductoEspecificacion;
 import com.example.ventaComputadora.domain.entity.ProductoEspecificacionId;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import com.example.ventaComputadora.infra.repository.ComentarioRepository;
 import com.example.ventaComputadora.infra.repository.EspecificacionRepository;
+import com.example.ventaComputadora.infra.repository.FavoritoRepository;
 import com.example.ventaComputadora.infra.repository.ProductoEspecificacionRepository;
 import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import com.example.ventaComputadora.infra.storage.AlmacenImagenes;
+import com.example.ventaComputadora.infra.storage.ImagenAlmacenada;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -32,20 +52,83 @@ public class ProductoService {
     private final ProductoRepository productoRepository;
     private final EspecificacionRepository especificacionRepository;
     private final ProductoEspecificacionRepository productoEspecificacionRepository;
+    private final ComentarioRepository comentarioRepository;
+    private final FavoritoRepository favoritoRepository;
+    private final AlmacenImagenes almacenImagenes;
+    private final PreciosService preciosService;
+    private final DiccionarioEspecificacionesService diccionarioEspecificacionesService;
+    private final VentaFlashService ventaFlashService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    private static final Set<String> RAM_TYPES = Set.of("RAM", "Memoria RAM");
-    private static final Set<String> PROCESSOR_TYPES = Set.of("Procesador", "CPU");
-    private static final Set<String> GRAPHICS_CARD_TYPES = Set.of("Tarjeta Gráfica", "GPU");
+    private static final Set<String> CAMPOS_ORDENABLES = Set.of("id", "nombre", "precio", "stock");
 
     /**
-     * Lista los productos simplificados.
+     * Lista una página del catálogo de productos simplificados.
+     * La página se arma con un número fijo de consultas, sin importar el tamaño del catálogo. El orden por nombre
+     * es el mismo de {@link CatalogoSnapshot}, así que las páginas coinciden con las que sirve la foto del catálogo.
      *
-     * @return Lista de productos simplificados.
+     * @param pageable Página, tamaño y orden solicitados.
+     * @return Página de productos simplificados.
+     * @throws IllegalArgumentException Si se pide ordenar por un campo no permitido.
      */
     @Transactional(readOnly = true)
-    public List<ProductoSimplificadoDTO> listarProductosSimplificados() {
-        return productoRepository.findAllByOrderByNombreAsc().stream()
-                .map(this::convertirASimplificadoDTO)
+    public PaginaDTO<ProductoSimplificadoDTO> listarCatalogo(Pageable pageable) {
+        for (Sort.Order orden : pageable.getSort()) {
+            if (!CAMPOS_ORDENABLES.contains(orden.getProperty())) {
+                throw new IllegalArgumentException("No se puede ordenar por el campo: " + orden.getProperty());
+            }
+        }
+        Sort sort = pageable.getSort().getOrderFor("id") == null
+                ? pageable.getSort().and(Sort.by("id"))
+                : pageable.getSort();
+
+        Page<Long> ids = CatalogoSnapshot.esOrdenPorNombre(pageable.getSort())
+                ? productoRepository.findPaginaDeIdsPorNombre(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()))
+                : productoRepository.findPaginaDeIds(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort));
+        return new PaginaDTO<>(
+                convertirASimplificadoDTOs(ids.getContent()),
+                ids.getNumber(),
+                ids.getSize(),
+                ids.getTotalElements(),
+                ids.getTotalPages()
+        );
+    }
+
+    /**
+     * Convierte un lote de productos a DTOs simplificados respetando el orden de los IDs recibidos.
+     * Carga productos, especificaciones, comentarios y favoritos en tres consultas en total.
+     *
+     * @param productoIds IDs de los productos a convertir.
+     * @return Lista de DTOs simplificados en el mismo orden que los IDs.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductoSimplificadoDTO> convertirASimplificadoDTOs(List<Long> productoIds) {
+        if (productoIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<Long, Producto> productos = productoRepository.findAllConEspecificacionesByIdIn(productoIds).stream()
+                .collect(Collectors.toMap(Producto::getId, Function.identity()));
+
+        Map<Long, Set<ComentarioDTO>> comentarios = new HashMap<>();
+        for (Comentario comentario : comentarioRepository.findAllConUsuarioByProductoIdIn(productoIds)) {
+            Long productoId = comentario.getProducto().getId();
+            comentarios.computeIfAbsent(productoId, id -> new HashSet<>())
+                    .add(convertirComentarioADTO(comentario, productos.get(productoId).getNombre()));
+        }
+
+        Map<Long, Set<String>> favoritos = new HashMap<>();
+        for (Object[] fila : favoritoRepository.findUsernamesByProductoIdIn(productoIds)) {
+            favoritos.computeIfAbsent((Long) fila[0], id -> new HashSet<>()).add((String) fila[1]);
+        }
+
+        return productoIds.stream()
+                .map(productos::get)
+                .filter(Objects::nonNull)
+                .map(producto -> construirSimplificadoDTO(
+                        producto,
+                        comentarios.getOrDefault(producto.getId(), Collections.emptySet()),
+                        favoritos.getOrDefault(producto.getId(), Collections.emptySet())))
                 .collect(Collectors.toList());
     }
 
@@ -66,16 +149,20 @@ public class ProductoService {
             producto.setEspecificacionesDisponibles(new HashSet<>());
         }
 
+        String imagen = producto.getImagen();
+        producto.setImagen("");
+        asignarImagen(producto, imagen);
+
         List<Especificacion> especificaciones = especificacionRepository.findAllById(especificacionIds);
-        double precioTotal = producto.getPrecio();
         for (Especificacion especificacion : especificaciones) {
             ProductoEspecificacion productoEspecificacion = new ProductoEspecificacion(producto, especificacion, 1);
             producto.getEspecificacionesDisponibles().add(productoEspecificacion);
-            precioTotal += especificacion.getPrecioAdicional();
         }
-        producto.setPrecio(precioTotal);
+        preciosService.recalcular(producto);
 
-        return productoRepository.save(producto);
+        Producto guardado = productoRepository.save(producto);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(guardado.getId()));
+        return guardado;
     }
 
     /**
@@ -86,6 +173,18 @@ public class ProductoService {
     @Transactional
     public void eliminarProducto(Long productoId) {
         productoRepository.deleteById(productoId);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(productoId));
+    }
+
+    /**
+     * Obtiene la versión actual de un producto sin cargarlo.
+     *
+     * @param id ID del producto.
+     * @return Versión del producto o vacío si no existe.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> obtenerVersion(Long id) {
+        return productoRepository.findVersionById(id);
     }
 
     /**
@@ -109,7 +208,7 @@ public class ProductoService {
      */
     @Transactional
     public Producto modificarEspecificaciones(Long productoId, Set<Long> especificacionIds) {
-        Producto producto = productoRepository.findById(productoId)
+        Producto producto = productoRepository.findByIdForzandoVersion(productoId)
                 .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado"));
 
         if (producto.getEspecificacionesDisponibles() == null) {
@@ -119,14 +218,13 @@ public class ProductoService {
         }
 
         List<Especificacion> especificaciones = especificacionRepository.findAllById(especificacionIds);
-        double precioTotal = producto.getPrecio();
         for (Especificacion especificacion : especificaciones) {
             ProductoEspecificacion productoEspecificacion = new ProductoEspecificacion(producto, especificacion, 1);
             producto.getEspecificacionesDisponibles().add(productoEspecificacion);
-            precioTotal += especificacion.getPrecioAdicional();
         }
-        producto.setPrecio(precioTotal);
+        preciosService.recalcular(producto);
 
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(productoId));
         return productoRepository.save(producto);
     }
 
@@ -147,24 +245,65 @@ public class ProductoService {
      * @param id ID del producto a editar.
      * @param nombre Nuevo nombre del producto.
      * @param descripcion Nueva descripción del producto.
-     * @param precio Nuevo precio del producto.
+     * @param precio Nuevo precio base del producto, sin especificaciones.
      * @param stock Nuevo stock del producto.
      * @param imagen Nueva imagen del producto.
      * @return El producto editado.
+     * @throws IllegalStateException Si se cambia el stock de un producto en venta flash.
      */
     @Transactional
-    public Producto editarProducto(Long id, String nombre, String descripcion, double precio, int stock, String imagen) {
+    public Producto editarProducto(Long id, String nombre, String descripcion, BigDecimal precio, int stock, String imagen) {
         Producto producto = productoRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado"));
+        if (stock != producto.getStock() && ventaFlashService.esFlash(id)) {
+            throw new IllegalStateException("El stock de un producto en venta flash no se puede editar hasta terminarla.");
+        }
         producto.setNombre(nombre);
         producto.setDescripcion(descripcion);
-        producto.setPrecio(precio);
+        producto.setPrecioBase(precio);
+        preciosService.recalcular(producto);
         producto.setStock(stock);
-        producto.setImagen(imagen);
+        asignarImagen(producto, imagen);
 
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(id));
         return productoRepository.save(producto);
     }
 
+    /**
+     * Obtiene la referencia a la imagen almacenada de un producto.
+     *
+     * @param id ID del producto.
+     * @return Hash y tipo de la imagen.
+     */
+    @Transactional(readOnly = true)
+    public ImagenAlmacenada obtenerImagen(Long id) {
+        return productoRepository.findImagenById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Imagen no encontrada"));
+    }
+
+    /**
+     * Asigna la imagen recibida al producto. Las imágenes base64 se guardan en el almacén y las URL
+     * externas se conservan tal cual; si se recibe vacía o la URL propia del almacén se mantiene la actual.
+     *
+     * @param producto Producto a actualizar.
+     * @param imagen Imagen en base64, URL externa o URL propia.
+     */
+    private void asignarImagen(Producto producto, String imagen) {
+        if (!StringUtils.hasText(imagen) || almacenImagenes.esUrlPropia(imagen)) {
+            return;
+        }
+        if (almacenImagenes.esUrlExterna(imagen)) {
+            producto.setImagen(imagen);
+            producto.setImagenHash(null);
+            producto.setImagenTipo(null);
+            return;
+        }
+        ImagenAlmacenada almacenada = almacenImagenes.guardarBase64(imagen);
+        producto.setImagen("");
+        producto.setImagenHash(almacenada.getHash());
+        producto.setImagenTipo(almacenada.getTipo());
+    }
+
     /**
      * Convierte un producto a un DTO simplificado.
      *
@@ -172,12 +311,24 @@ public class ProductoService {
      * @return DTO simplificado del producto.
      */
     public ProductoSimplificadoDTO convertirASimplificadoDTO(Producto producto) {
+        return construirSimplificadoDTO(
+                producto,
+                producto.getComentarios().stream()
+                        .map(comentario -> convertirComentarioADTO(comentario, producto.getNombre()))
+                        .collect(Collectors.toSet()),
+                producto.getFavoritos().stream()
+                        .map(favorito -> favorito.getUsuario().getUsername())
+                        .collect(Collectors.toSet())
+        );
+    }
+
+    private ProductoSimplificadoDTO construirSimplificadoDTO(Producto producto, Set<ComentarioDTO> comentarios, Set<String> favoritos) {
         return new ProductoSimplificadoDTO(
                 producto.getId(),
                 producto.getNombre(),
                 producto.getPrecio(),
                 producto.getDescripcion(),
-                producto.getImagen(),
+                almacenImagenes.construirUrl(producto),
                 producto.getStock(),
                 producto.getEspecificacionesDisponibles().stream()
                         .map(productoEspecificacion -> new EspecificacionSimplificadaDTO(
@@ -187,19 +338,20 @@ public class ProductoService {
                                 productoEspecificacion.getCantidad() // Asegúrate de incluir la cantidad aquí
                         ))
                         .collect(Collectors.toSet()),
-                producto.getComentarios().stream()
-                        .map(comentario -> new ComentarioDTO(
-                                comentario.getId(),
-                                producto.getNombre(),
-                                comentario.getContenido(),
-                                comentario.getUsuario().getId(),
-                                comentario.getUsuario().getNombre() + " " + comentario.getUsuario().getApellido(),
-                                comentario.getFecha()
-                        ))
-                        .collect(Collectors.toSet()),
-                producto.getFavoritos().stream()
-                        .map(favorito -> favorito.getUsuario().getUsername())
-                        .collect(Collectors.toSet())
+                comentarios,
+                favoritos,
+                producto.getVersion()
+        );
+    }
+
+    private ComentarioDTO convertirComentarioADTO(Comentario comentario, String nombreProducto) {
+        return new ComentarioDTO(
+                comentario.getId(),
+                nombreProducto,
+                comentario.getContenido(),
+                comentario.getUsuario().getId(),
+                comentario.getUsuario().getNombre() + " " + comentario.getUsuario().getApellido(),
+                comentario.getFecha()
         );
     }
 
@@ -213,7 +365,7 @@ public class ProductoService {
      */
     @Transactional
     public Producto agregarEspecificacion(Long productoId, Long especificacionId, int cantidad) {
-        Producto producto = productoRepository.findById(productoId)
+        Producto producto = productoRepository.findByIdForzandoVersion(productoId)
                 .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado"));
 
         Especificacion especificacion = especificacionRepository.findById(especificacionId)
@@ -230,13 +382,12 @@ public class ProductoService {
         } else {
             ProductoEspecificacion productoEspecificacion = new ProductoEspecificacion(producto, especificacion, cantidad);
             productoEspecificacionRepository.save(productoEspecificacion);
+            producto.getEspecificacionesDisponibles().add(productoEspecificacion);
         }
 
-        // Actualizar el precio del producto
-        double precioTotal = producto.getPrecio();
-        precioTotal += especificacion.getPrecioAdicional() * cantidad;
-        producto.setPrecio(precioTotal);
+        preciosService.recalcular(producto);
 
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(productoId));
         return productoRepository.save(producto);
     }
 
@@ -249,87 +400,58 @@ public class ProductoService {
      */
     @Transactional
     public Producto eliminarEspecificacion(Long productoId, Long especificacionId) {
-        Producto producto = productoRepository.findById(productoId)
+        Producto producto = productoRepository.findByIdForzandoVersion(productoId)
                 .orElseThrow(() -> new EntityNotFoundException("Producto no encontrado"));
 
         ProductoEspecificacionId productoEspecificacionId = new ProductoEspecificacionId(productoId, especificacionId);
         ProductoEspecificacion productoEspecificacion = productoEspecificacionRepository.findById(productoEspecificacionId)
                 .orElseThrow(() -> new EntityNotFoundException("ProductoEspecificacion no encontrada"));
 
-        // Actualizar el precio del producto antes de eliminar la especificación
-        double precioTotal = producto.getPrecio();
-        precioTotal -= productoEspecificacion.getEspecificacion().getPrecioAdicional() * productoEspecificacion.getCantidad();
-        producto.setPrecio(precioTotal);
-
-        productoEspecificacionRepository.deleteById(productoEspecificacionId);
+        productoEspecificacionRepository.delete(productoEspecificacion);
 
         // Actualiza el producto después de la eliminación
         producto.getEspecificacionesDisponibles().removeIf(pe -> pe.getEspecificacion().getId().equals(especificacionId));
+        preciosService.recalcular(producto);
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deProducto(productoId));
         return productoRepository.save(producto);
     }
 
     /**
-     * Filtra los productos según las especificaciones y otros criterios.
+     * Filtra los productos según las especificaciones y otros criterios recorriendo todo el catálogo en memoria.
+     * Los tipos se comparan por su ID canónico en el diccionario de especificaciones.
      *
-     * @param ram Tipos de RAM.
-     * @param procesador Tipos de procesador.
-     * @param tarjetaGrafica Tipos de tarjeta gráfica.
-     * @param precioMin Precio mínimo.
-     * @param precioMax Precio máximo.
-     * @param enStock Indica si el producto está en stock.
+     * @param filtro Criterios de filtrado.
      * @return Lista de productos filtrados.
      */
     @Transactional(readOnly = true)
-    public List<ProductoSimplificadoDTO> filtrarProductos(Set<String> ram, Set<String> procesador, Set<String> tarjetaGrafica, Double precioMin, Double precioMax, Boolean enStock) {
+    public List<ProductoSimplificadoDTO> filtrarProductos(FiltroProductosDTO filtro) {
+        List<DiccionarioEspecificacionesService.Grupo> grupos = diccionarioEspecificacionesService.grupos(filtro).stream()
+                .filter(grupo -> !CollectionUtils.isEmpty(grupo.valores()))
+                .toList();
+        Double precioMin = filtro.getPrecioMin();
+        Double precioMax = filtro.getPrecioMax();
+        Boolean enStock = filtro.getEnStock();
         List<Producto> productos = productoRepository.findAll();
         return productos.stream()
-                .filter(producto -> filtrarPorEspecificaciones(producto, ram, procesador, tarjetaGrafica))
-                .filter(producto -> precioMin == null || producto.getPrecio() >= precioMin)
-                .filter(producto -> precioMax == null || producto.getPrecio() <= precioMax)
+                .filter(producto -> grupos.stream().allMatch(grupo -> coincideGrupo(producto, grupo)))
+                .filter(producto -> precioMin == null || producto.getPrecio().doubleValue() >= precioMin)
+                .filter(producto -> precioMax == null || producto.getPrecio().doubleValue() <= precioMax)
                 .filter(producto -> enStock == null || (enStock && producto.getStock() > 0))
                 .map(this::convertirASimplificadoDTO)
                 .collect(Collectors.toList());
     }
 
     /**
-     * Filtra los productos según las especificaciones.
+     * Indica si el producto tiene alguna especificación de los tipos del grupo cuyo nombre contiene alguno de los valores.
      *
      * @param producto Producto a filtrar.
-     * @param ram Tipos de RAM.
-     * @param procesador Tipos de procesador.
-     * @param tarjetaGrafica Tipos de tarjeta gráfica.
-     * @return Verdadero si el producto cumple con los criterios, falso en caso contrario.
+     * @param grupo Tipos canónicos y valores buscados.
+     * @return Verdadero si el producto cumple con el grupo, falso en caso contrario.
      */
-    private boolean filtrarPorEspecificaciones(Producto producto, Set<String> ram, Set<String> procesador, Set<String> tarjetaGrafica) {
-        boolean coincide = true;
-
-        if (!CollectionUtils.isEmpty(ram)) {
-            boolean coincideRam = producto.getEspecificacionesDisponibles().stream()
-                    .map(ProductoEspecificacion::getEspecificacion)
-                    .anyMatch(e -> RAM_TYPES.contains(e.getTipo()) && ram.stream().anyMatch(r -> e.getNombre().toLowerCase().contains(r.toLowerCase())));
-            if (!coincideRam) {
-                coincide = false;
-            }
-        }
-
-        if (!CollectionUtils.isEmpty(procesador)) {
-            boolean coincideProcesador = producto.getEspecificacionesDisponibles().stream()
-                    .map(ProductoEspecificacion::getEspecificacion)
-                    .anyMatch(e -> PROCESSOR_TYPES.contains(e.getTipo()) && procesador.stream().anyMatch(p -> e.getNombre().toLowerCase().contains(p.toLowerCase())));
-            if (!coincideProcesador) {
-                coincide = false;
-            }
-        }
-
-        if (!CollectionUtils.isEmpty(tarjetaGrafica)) {
-            boolean coincideTarjetaGrafica = producto.getEspecificacionesDisponibles().stream()
-                    .map(ProductoEspecificacion::getEspecificacion)
-                    .anyMatch(e -> GRAPHICS_CARD_TYPES.contains(e.getTipo()) && tarjetaGrafica.stream().anyMatch(t -> e.getNombre().toLowerCase().contains(t.toLowerCase())));
-            if (!coincideTarjetaGrafica) {
-                coincide = false;
-            }
-        }
-
-        return coincide;
+    private boolean coincideGrupo(Producto producto, DiccionarioEspecificacionesService.Grupo grupo) {
+        return producto.getEspecificacionesDisponibles().stream()
+                .map(ProductoEspecificacion::getEspecificacion)
+                .anyMatch(e -> e.getTipoTermino() != null && grupo.tipos().contains(e.getTipoTermino().getId())
+                        && grupo.valores().stream().anyMatch(v -> e.getNombre().toLowerCase().contains(v.toLowerCase())));
     }
 }
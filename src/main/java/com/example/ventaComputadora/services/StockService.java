@@ -0,0 +1,103 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.FaltanteStockDTO;
+import com.example.ventaComputadora.domain.entity.StockInsuficienteException;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Descuenta stock de forma atómica. Cada línea es un UPDATE condicional que solo descuenta si alcanza el stock,
+ * así que la propia fila bloqueada por la base hace de reserva y dos compras simultáneas nunca venden la misma
+ * unidad, sin leer el stock antes ni bloquear el producto durante el resto del pago.
+ * Todas las líneas se envían en un solo lote y en orden de ID, para que dos órdenes con productos en común
+ * no se bloqueen mutuamente. Los productos en venta flash se reservan en memoria con {@link VentaFlashService},
+ * que mantiene fijo el modo de cada producto hasta que termine la transacción.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockService {
+    private static final String DESCONTAR =
+            "UPDATE productos SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
+    private static final String DISPONIBLE = "SELECT id, nombre, stock FROM productos WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final VentaFlashService ventaFlashService;
+
+    /**
+     * Descuenta las cantidades indicadas dentro de la transacción en curso. Si alguna línea no tiene stock
+     * suficiente lanza la excepción con todas las que fallaron y la transacción se revierte completa, incluidas
+     * las líneas que sí se habían descontado.
+     *
+     * @param cantidades Unidades a descontar por ID de producto.
+     * @throws StockInsuficienteException Si falta stock en alguna línea.
+     * @throws IllegalArgumentException Si alguna cantidad no es positiva.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void descontar(Map<Long, Integer> cantidades) {
+        if (cantidades.isEmpty()) {
+            return;
+        }
+        ventaFlashService.fijarModo(cantidades.keySet());
+        List<Object[]> lineas = new ArrayList<>();
+        Map<Long, Integer> flash = new HashMap<>();
+        for (Map.Entry<Long, Integer> linea : new TreeMap<>(cantidades).entrySet()) {
+            if (linea.getValue() == null || linea.getValue() <= 0) {
+                throw new IllegalArgumentException("La cantidad de cada producto debe ser positiva.");
+            }
+            if (ventaFlashService.esFlash(linea.getKey())) {
+                flash.put(linea.getKey(), linea.getValue());
+            } else {
+                lineas.add(new Object[]{linea.getValue(), linea.getKey(), linea.getValue()});
+            }
+        }
+
+        Map<Long, Integer> fallidas = new HashMap<>();
+        if (!flash.isEmpty()) {
+            fallidas.putAll(ventaFlashService.reservar(flash));
+        }
+        if (!lineas.isEmpty()) {
+            int[] actualizadas = jdbcTemplate.batchUpdate(DESCONTAR, lineas);
+            for (int i = 0; i < actualizadas.length; i++) {
+                if (actualizadas[i] == 0) {
+                    fallidas.put((Long) lineas.get(i)[1], (Integer) lineas.get(i)[0]);
+                }
+            }
+        }
+        if (!fallidas.isEmpty()) {
+            throw new StockInsuficienteException(faltantes(fallidas));
+        }
+        if (!lineas.isEmpty()) {
+            Set<Long> descontados = new HashSet<>();
+            lineas.forEach(linea -> descontados.add((Long) linea[1]));
+            eventPublisher.publishEvent(CatalogoModificadoEvent.deActividad(descontados));
+        }
+    }
+
+    private List<FaltanteStockDTO> faltantes(Map<Long, Integer> fallidas) {
+        Map<Long, FaltanteStockDTO> porId = new TreeMap<>();
+        fallidas.forEach((id, solicitado) -> porId.put(id, new FaltanteStockDTO(id, null, solicitado, 0)));
+        namedParameterJdbcTemplate.query(DISPONIBLE, Map.of("ids", fallidas.keySet()), rs -> {
+            FaltanteStockDTO faltante = porId.get(rs.getLong("id"));
+            faltante.setNombre(rs.getString("nombre"));
+            Integer enMemoria = ventaFlashService.disponible(faltante.getProductoId());
+            faltante.setDisponible(enMemoria != null ? enMemoria : rs.getInt("stock"));
+        });
+        return new ArrayList<>(porId.values());
+    }
+}
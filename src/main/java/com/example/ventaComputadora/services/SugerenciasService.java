@@ -0,0 +1,149 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.SugerenciaDTO;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import com.example.ventaComputadora.infra.repository.EspecificacionRepository;
+import com.example.ventaComputadora.infra.repository.FavoritoRepository;
+import com.example.ventaComputadora.infra.repository.OrdenRepository;
+import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import com.example.ventaComputadora.services.indice.IndiceSugerencias;
+import com.example.ventaComputadora.services.indice.NormalizadorTexto;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Servicio de autocompletado sobre nombres de productos y nombres y marcas de especificaciones.
+ * Las sugerencias se ordenan por popularidad: favoritos y órdenes en el caso de los productos,
+ * y cantidad de productos que las usan en el caso de especificaciones y marcas.
+ * El índice es inmutable y se reemplaza completo en segundo plano cuando cambia el catálogo,
+ * y periódicamente para recoger la popularidad que aportan las órdenes nuevas.
+ */
+@Service
+@RequiredArgsConstructor
+public class SugerenciasService {
+    private static final Logger logger = LoggerFactory.getLogger(SugerenciasService.class);
+    private static final long MINUTOS_ENTRE_ACTUALIZACIONES = 10;
+    static final String TIPO_PRODUCTO = "PRODUCTO";
+    static final String TIPO_ESPECIFICACION = "ESPECIFICACION";
+    static final String TIPO_MARCA = "MARCA";
+    private static final ThreadLocal<int[]> ENCONTRADAS = ThreadLocal.withInitial(() -> new int[IndiceSugerencias.MAX_SUGERENCIAS]);
+
+    private final ProductoRepository productoRepository;
+    private final EspecificacionRepository especificacionRepository;
+    private final FavoritoRepository favoritoRepository;
+    private final OrdenRepository ordenRepository;
+
+    private volatile IndiceSugerencias indice = IndiceSugerencias.vacio();
+    private final AtomicBoolean reconstruccionProgramada = new AtomicBoolean(false);
+    private final ScheduledExecutorService ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "sugerencias");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /**
+     * Devuelve las sugerencias más populares que empiezan con el texto indicado.
+     *
+     * @param texto Texto escrito por el usuario.
+     * @param limite Número máximo de sugerencias.
+     * @return Sugerencias de la más a la menos popular.
+     */
+    public List<SugerenciaDTO> sugerir(String texto, int limite) {
+        IndiceSugerencias vigente = indice;
+        int[] encontradas = ENCONTRADAS.get();
+        int cantidad = Math.min(limite, vigente.sugerir(NormalizadorTexto.normalizar(texto), encontradas));
+        List<SugerenciaDTO> sugerencias = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            IndiceSugerencias.Entrada entrada = vigente.entrada(encontradas[i]);
+            Long productoId = TIPO_PRODUCTO.equals(entrada.tipo()) ? entrada.referencia() : null;
+            sugerencias.add(new SugerenciaDTO(entrada.texto(), entrada.tipo(), productoId));
+        }
+        return sugerencias;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alIniciar() {
+        ejecutor.scheduleWithFixedDelay(this::programarReconstruccion, 0, MINUTOS_ENTRE_ACTUALIZACIONES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Programa la reconstrucción del índice una vez confirmada la transacción que modificó el catálogo.
+     * Varios eventos seguidos se agrupan en una sola reconstrucción. Los eventos de actividad (stock, comentarios
+     * y favoritos) no cambian los textos sugeribles; la popularidad que mueven la recoge la actualización periódica.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        if (!evento.esDeActividad()) {
+            programarReconstruccion();
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    private void programarReconstruccion() {
+        if (reconstruccionProgramada.compareAndSet(false, true)) {
+            ejecutor.execute(this::reconstruir);
+        }
+    }
+
+    private void reconstruir() {
+        reconstruccionProgramada.set(false);
+        try {
+            Map<Long, Long> popularidad = new HashMap<>();
+            for (Object[] fila : favoritoRepository.contarPorProducto()) {
+                popularidad.merge((Long) fila[0], (Long) fila[1], Long::sum);
+            }
+            for (Object[] fila : ordenRepository.contarOrdenesPorProducto()) {
+                popularidad.merge((Long) fila[0], (Long) fila[1], Long::sum);
+            }
+
+            List<IndiceSugerencias.Entrada> entradas = new ArrayList<>();
+            for (Object[] fila : productoRepository.findNombres()) {
+                Long id = (Long) fila[0];
+                entradas.add(new IndiceSugerencias.Entrada((String) fila[1], TIPO_PRODUCTO, id, popularidad.getOrDefault(id, 0L)));
+            }
+
+            Map<String, String> marcas = new HashMap<>();
+            Map<String, Long> usoPorMarca = new HashMap<>();
+            Map<String, String> nombres = new HashMap<>();
+            Map<String, Long> usoPorNombre = new HashMap<>();
+            for (Object[] fila : especificacionRepository.findResumenUso()) {
+                String nombre = (String) fila[1];
+                String marca = (String) fila[2];
+                long uso = (Long) fila[3];
+                String claveNombre = NormalizadorTexto.normalizar(nombre);
+                nombres.putIfAbsent(claveNombre, nombre);
+                usoPorNombre.merge(claveNombre, uso, Long::sum);
+                String claveMarca = NormalizadorTexto.normalizar(marca);
+                marcas.putIfAbsent(claveMarca, marca);
+                usoPorMarca.merge(claveMarca, uso, Long::sum);
+            }
+            nombres.forEach((clave, nombre) ->
+                    entradas.add(new IndiceSugerencias.Entrada(nombre, TIPO_ESPECIFICACION, null, usoPorNombre.get(clave))));
+            marcas.forEach((clave, marca) ->
+                    entradas.add(new IndiceSugerencias.Entrada(marca, TIPO_MARCA, null, usoPorMarca.get(clave))));
+
+            indice = IndiceSugerencias.construir(entradas);
+        } catch (RuntimeException e) {
+            logger.error("Error al reconstruir el índice de sugerencias", e);
+        }
+    }
+}
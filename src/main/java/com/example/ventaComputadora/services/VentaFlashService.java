@@ -0,0 +1,405 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.MetricasVentaFlashDTO;
+import com.example.ventaComputadora.domain.entity.VentaFlash;
+import com.example.ventaComputadora.domain.event.CatalogoModificadoEvent;
+import com.example.ventaComputadora.infra.repository.VentaFlashRepository;
+import com.example.ventaComputadora.services.ventaflash.ContadorStockRepartido;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Modo venta flash: para los productos activados, el stock se reserva en un {@link ContadorStockRepartido} en
+ * memoria en lugar de con un UPDATE sobre la fila del producto, que con miles de compradores simultáneos
+ * serializa todas las compras.
+ * Cada reserva confirmada deja un {@code MovimientoVentaFlash} en la misma transacción del pago; un hilo en
+ * segundo plano los suma por producto y los descuenta de {@code productos.stock} en lotes. Al reiniciar se
+ * aplican los movimientos que quedaron pendientes antes de cargar los contadores desde la columna, así que una
+ * caída no pierde ventas.
+ * Los contadores viven en cada instancia: el modo supone que las compras de estos productos las atiende una sola.
+ * Cada pago toma el candado de lectura de sus productos hasta terminar su transacción y activar o desactivar
+ * toma el de escritura, así que el cambio de modo espera a los pagos en curso y ningún pago mezcla los dos modos.
+ */
+@Service
+public class VentaFlashService {
+    private static final Logger logger = LoggerFactory.getLogger(VentaFlashService.class);
+    private static final int TAMANO_LOTE = 5000;
+    private static final int CANDADOS = 256;
+
+    private static final String INSERTAR_MOVIMIENTO =
+            "INSERT INTO movimientos_venta_flash (producto_id, cantidad, fecha) VALUES (?, ?, ?)";
+    private static final String LEER_MOVIMIENTOS =
+            "SELECT id, producto_id, cantidad FROM movimientos_venta_flash ORDER BY id LIMIT " + TAMANO_LOTE;
+    private static final String DESCONTAR =
+            "UPDATE productos SET stock = stock - ?, version = version + 1 WHERE id = ? AND stock >= ?";
+    private static final String AGOTAR = "UPDATE productos SET stock = 0, version = version + 1 WHERE id = ?";
+    private static final String BORRAR_MOVIMIENTOS = "DELETE FROM movimientos_venta_flash WHERE id IN (:ids)";
+    private static final String PENDIENTES =
+            "SELECT producto_id, SUM(cantidad), MIN(fecha) FROM movimientos_venta_flash GROUP BY producto_id";
+
+    private final VentaFlashRepository ventaFlashRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long intervaloMs;
+    private final int cantidadFranjas = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    private final Map<Long, Estado> activas = new ConcurrentHashMap<>();
+    private final ReadWriteLock[] candados = new ReadWriteLock[CANDADOS];
+    private volatile LocalDateTime ultimaAplicacion;
+    private final ScheduledExecutorService ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "venta-flash");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    /**
+     * Contador de un producto en venta flash junto con sus métricas.
+     */
+    private static final class Estado {
+        private final ContadorStockRepartido contador;
+        private final LocalDateTime inicio;
+        private final LongAdder reservadas = new LongAdder();
+        private final LongAdder rechazadas = new LongAdder();
+        private long reservasAlMedir;
+        private long nanosAlMedir = System.nanoTime();
+        private volatile double unidadesPorSegundo;
+
+        private Estado(ContadorStockRepartido contador, LocalDateTime inicio) {
+            this.contador = contador;
+            this.inicio = inicio;
+        }
+    }
+
+    public VentaFlashService(VentaFlashRepository ventaFlashRepository,
+                             JdbcTemplate jdbcTemplate,
+                             NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${app.venta-flash.intervalo-ms:500}") long intervaloMs) {
+        this.ventaFlashRepository = ventaFlashRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.intervaloMs = intervaloMs;
+        for (int i = 0; i < CANDADOS; i++) {
+            candados[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Impide que los productos indicados entren o salgan de venta flash hasta que termine la transacción en
+     * curso, de modo que el modo que vea {@link #esFlash} siga valiendo cuando el descuento se confirme.
+     * Los candados se toman en orden para que dos pagos y un cambio de modo no se bloqueen mutuamente.
+     *
+     * @param productoIds IDs de los productos que la transacción va a descontar.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void fijarModo(Collection<Long> productoIds) {
+        SortedSet<Integer> indices = new TreeSet<>();
+        productoIds.forEach(id -> indices.add(indiceCandado(id)));
+        List<Lock> tomados = new ArrayList<>(indices.size());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                tomados.forEach(Lock::unlock);
+            }
+        });
+        for (int indice : indices) {
+            Lock candado = candados[indice].readLock();
+            candado.lock();
+            tomados.add(candado);
+        }
+    }
+
+    /**
+     * Indica si el stock del producto se reserva en memoria.
+     */
+    public boolean esFlash(Long productoId) {
+        return activas.containsKey(productoId);
+    }
+
+    /**
+     * Obtiene el stock disponible en memoria de un producto en venta flash.
+     *
+     * @return Unidades disponibles o nulo si el producto no está en venta flash.
+     */
+    public Integer disponible(Long productoId) {
+        Estado estado = activas.get(productoId);
+        return estado == null ? null : estado.contador.disponible();
+    }
+
+    /**
+     * Reserva unidades de productos en venta flash dentro de la transacción en curso. Las reservas logradas se
+     * registran como movimientos pendientes y se devuelven al contador si la transacción se revierte.
+     *
+     * @param cantidades Unidades a reservar por ID de producto; todos deben estar en venta flash.
+     * @return Unidades pedidas por ID de los productos que no tenían stock suficiente.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<Long, Integer> reservar(Map<Long, Integer> cantidades) {
+        Map<Long, Integer> fallidas = new HashMap<>();
+        Map<Estado, Integer> reservadas = new HashMap<>();
+        List<Object[]> movimientos = new ArrayList<>();
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        cantidades.forEach((productoId, cantidad) -> {
+            Estado estado = activas.get(productoId);
+            if (estado == null || !estado.contador.reservar(cantidad)) {
+                if (estado != null) {
+                    estado.rechazadas.increment();
+                }
+                fallidas.put(productoId, cantidad);
+                return;
+            }
+            estado.reservadas.add(cantidad);
+            reservadas.put(estado, cantidad);
+            movimientos.add(new Object[]{productoId, cantidad, ahora});
+        });
+        if (reservadas.isEmpty()) {
+            return fallidas;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    reservadas.forEach((estado, cantidad) -> {
+                        estado.contador.liberar(cantidad);
+                        estado.reservadas.add(-cantidad);
+                    });
+                }
+            }
+        });
+        jdbcTemplate.batchUpdate(INSERTAR_MOVIMIENTO, movimientos);
+        return fallidas;
+    }
+
+    /**
+     * Activa la venta flash de un producto. El contador arranca con el stock actual de la columna, después de
+     * aplicar cualquier movimiento pendiente.
+     *
+     * @param productoId ID del producto.
+     * @throws EntityNotFoundException Si el producto no existe.
+     * @throws IllegalStateException Si ya está en venta flash.
+     */
+    public void activar(Long productoId) {
+        Lock candado = candados[indiceCandado(productoId)].writeLock();
+        candado.lock();
+        try {
+            if (activas.containsKey(productoId)) {
+                throw new IllegalStateException("El producto ya está en venta flash.");
+            }
+            aplicarPendientes();
+            transactionTemplate.executeWithoutResult(status -> {
+                Integer stock = jdbcTemplate.query("SELECT stock FROM productos WHERE id = ? FOR UPDATE",
+                        rs -> rs.next() ? rs.getInt(1) : null, productoId);
+                if (stock == null) {
+                    throw new EntityNotFoundException("Producto no encontrado");
+                }
+                LocalDateTime inicio = LocalDateTime.now();
+                ventaFlashRepository.save(VentaFlash.builder().productoId(productoId).activa(true).inicio(inicio).build());
+                activas.put(productoId, new Estado(new ContadorStockRepartido(stock, cantidadFranjas), inicio));
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int estado) {
+                        if (estado != STATUS_COMMITTED) {
+                            activas.remove(productoId);
+                        }
+                    }
+                });
+            });
+        } finally {
+            candado.unlock();
+        }
+        logger.info("Venta flash activada para el producto {}", productoId);
+    }
+
+    /**
+     * Termina la venta flash de un producto: espera a que se confirmen las reservas en curso, aplica lo pendiente
+     * y recién entonces las compras siguientes vuelven a descontar de la columna.
+     *
+     * @param productoId ID del producto.
+     * @throws EntityNotFoundException Si el producto no está en venta flash.
+     */
+    public void desactivar(Long productoId) {
+        Lock candado = candados[indiceCandado(productoId)].writeLock();
+        candado.lock();
+        try {
+            if (activas.remove(productoId) == null) {
+                throw new EntityNotFoundException("El producto no está en venta flash");
+            }
+            aplicarPendientes();
+        } finally {
+            candado.unlock();
+        }
+        transactionTemplate.executeWithoutResult(status -> ventaFlashRepository.findById(productoId).ifPresent(venta -> {
+            venta.setActiva(false);
+            venta.setFin(LocalDateTime.now());
+        }));
+        logger.info("Venta flash terminada para el producto {}", productoId);
+    }
+
+    /**
+     * Descuenta de {@code productos.stock} los movimientos pendientes, en lotes. Cada lote suma los movimientos
+     * por producto, los descuenta y borra exactamente esos movimientos en una sola transacción. Si lo vendido no
+     * cabe en la columna (por ejemplo, porque se editó el stock durante la venta) se registra el error y el stock
+     * queda en cero, ya que esas ventas están pagadas.
+     *
+     * @return Unidades aplicadas.
+     */
+    public synchronized long aplicarPendientes() {
+        long aplicadas = 0;
+        while (true) {
+            Long lote = transactionTemplate.execute(status -> aplicarLote());
+            if (lote == null || lote == 0) {
+                break;
+            }
+            aplicadas += lote;
+        }
+        ultimaAplicacion = LocalDateTime.now();
+        return aplicadas;
+    }
+
+    private Long aplicarLote() {
+        List<Long> ids = new ArrayList<>();
+        Map<Long, Integer> porProducto = new TreeMap<>();
+        jdbcTemplate.query(LEER_MOVIMIENTOS, rs -> {
+            ids.add(rs.getLong(1));
+            porProducto.merge(rs.getLong(2), rs.getInt(3), Integer::sum);
+        });
+        if (ids.isEmpty()) {
+            return 0L;
+        }
+        List<Object[]> descuentos = new ArrayList<>();
+        long unidades = 0;
+        for (Map.Entry<Long, Integer> entrada : porProducto.entrySet()) {
+            descuentos.add(new Object[]{entrada.getValue(), entrada.getKey(), entrada.getValue()});
+            unidades += entrada.getValue();
+        }
+        int[] actualizadas = jdbcTemplate.batchUpdate(DESCONTAR, descuentos);
+        for (int i = 0; i < actualizadas.length; i++) {
+            if (actualizadas[i] == 0) {
+                Long productoId = (Long) descuentos.get(i)[1];
+                logger.error("La venta flash del producto {} vendió {} unidades pero la columna no las tiene; el stock queda en cero",
+                        productoId, descuentos.get(i)[0]);
+                jdbcTemplate.update(AGOTAR, productoId);
+            }
+        }
+        namedParameterJdbcTemplate.update(BORRAR_MOVIMIENTOS, Map.of("ids", ids));
+        eventPublisher.publishEvent(CatalogoModificadoEvent.deActividad(Set.copyOf(porProducto.keySet())));
+        return unidades;
+    }
+
+    /**
+     * Obtiene las métricas de los productos en venta flash.
+     *
+     * @return Stock disponible, reservas, ritmo de reservas y retraso de aplicación por producto.
+     */
+    public List<MetricasVentaFlashDTO> obtenerMetricas() {
+        Map<Long, Object[]> pendientes = new HashMap<>();
+        jdbcTemplate.query(PENDIENTES, rs -> {
+            pendientes.put(rs.getLong(1), new Object[]{rs.getLong(2), rs.getTimestamp(3)});
+        });
+        LocalDateTime ahora = LocalDateTime.now();
+        List<MetricasVentaFlashDTO> metricas = new ArrayList<>();
+        new TreeMap<>(activas).forEach((productoId, estado) -> {
+            Object[] pendiente = pendientes.get(productoId);
+            long unidadesPendientes = pendiente == null ? 0 : (Long) pendiente[0];
+            long retrasoMs = pendiente == null ? 0
+                    : Math.max(0, Duration.between(((Timestamp) pendiente[1]).toLocalDateTime(), ahora).toMillis());
+            metricas.add(new MetricasVentaFlashDTO(productoId, estado.inicio, estado.contador.disponible(),
+                    estado.reservadas.sum(), estado.rechazadas.sum(), estado.unidadesPorSegundo,
+                    unidadesPendientes, retrasoMs, ultimaAplicacion));
+        });
+        return metricas;
+    }
+
+    /**
+     * Aplica lo que quedó pendiente antes de la última detención, carga los contadores de las ventas activas y
+     * programa la aplicación periódica.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        long aplicadas = aplicarPendientes();
+        if (aplicadas > 0) {
+            logger.info("Aplicadas {} unidades de venta flash pendientes al iniciar", aplicadas);
+        }
+        for (VentaFlash venta : ventaFlashRepository.findByActivaTrue()) {
+            Integer stock = jdbcTemplate.query("SELECT stock FROM productos WHERE id = ?",
+                    rs -> rs.next() ? rs.getInt(1) : null, venta.getProductoId());
+            if (stock != null) {
+                activas.put(venta.getProductoId(), new Estado(new ContadorStockRepartido(stock, cantidadFranjas), venta.getInicio()));
+            }
+        }
+        ejecutor.scheduleWithFixedDelay(this::ciclo, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+        try {
+            aplicarPendientes();
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron aplicar las ventas flash pendientes al detener; se aplicarán al reiniciar", e);
+        }
+    }
+
+    private static int indiceCandado(Long productoId) {
+        return (int) Math.floorMod(productoId, (long) CANDADOS);
+    }
+
+    private void ciclo() {
+        try {
+            aplicarPendientes();
+        } catch (RuntimeException e) {
+            logger.error("Error al aplicar ventas flash pendientes", e);
+        }
+        long ahora = System.nanoTime();
+        for (Estado estado : activas.values()) {
+            long reservas = estado.reservadas.sum();
+            double segundos = (ahora - estado.nanosAlMedir) / 1e9;
+            if (segundos > 0) {
+                estado.unidadesPorSegundo = (reservas - estado.reservasAlMedir) / segundos;
+            }
+            estado.reservasAlMedir = reservas;
+            estado.nanosAlMedir = ahora;
+        }
+    }
+}
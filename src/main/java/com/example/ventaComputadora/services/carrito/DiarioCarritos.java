@@ -0,0 +1,179 @@
+package com.example.ventaComputadora.services.carrito;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Diario en disco de los cambios de los carritos en memoria, para reconstruirlos si el proceso se cae antes de
+ * persistirlos. Cada entrada guarda la cantidad absoluta de una línea (0 si se quitó), así que aplicar el diario
+ * más de una vez da el mismo resultado.
+ * Se escribe en segmentos numerados: al persistir, el segmento actual se cierra con {@link #rotar()} y, una vez
+ * confirmada la escritura en la base de datos, se borran los segmentos cubiertos con {@link #descartarHasta(long)}.
+ * Cada entrada se entrega al sistema operativo al escribirla: sobrevive a la caída del proceso, no a la del equipo.
+ */
+public class DiarioCarritos implements Closeable {
+    private static final String PREFIJO = "carritos-";
+    private static final String SUFIJO = ".diario";
+
+    private final Path directorio;
+    private long segmento;
+    private BufferedWriter escritor;
+
+    /**
+     * Entrada del diario: la cantidad que tiene una línea después de un cambio, o la marca de que la orden se
+     * escribió completa y dejó de estar en memoria.
+     */
+    public record Entrada(long ordenId, long productoId, int cantidad, BigDecimal precioUnitario) {
+        public boolean esRetiro() {
+            return productoId < 0;
+        }
+    }
+
+    /**
+     * Abre el diario en el directorio indicado. Los segmentos existentes quedan intactos para {@link #leer()} y
+     * las entradas nuevas van a un segmento posterior.
+     *
+     * @param directorio Directorio de los segmentos; se crea si no existe.
+     */
+    public DiarioCarritos(Path directorio) {
+        this.directorio = directorio;
+        try {
+            Files.createDirectories(directorio);
+            segmento = segmentos().stream().mapToLong(DiarioCarritos::numero).max().orElse(0) + 1;
+            escritor = abrir(segmento);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Agrega una entrada al segmento actual.
+     */
+    public synchronized void registrar(long ordenId, long productoId, int cantidad, BigDecimal precioUnitario) {
+        try {
+            escritor.write(ordenId + ";" + productoId + ";" + cantidad + ";" + precioUnitario.toPlainString());
+            escritor.newLine();
+            escritor.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Marca que la orden ya se escribió completa: al aplicar el diario se ignoran sus entradas anteriores.
+     */
+    public void registrarRetiro(long ordenId) {
+        registrar(ordenId, -1, 0, BigDecimal.ZERO);
+    }
+
+    /**
+     * Cierra el segmento actual y abre el siguiente.
+     *
+     * @return Número del segmento cerrado.
+     */
+    public synchronized long rotar() {
+        try {
+            escritor.close();
+            long cerrado = segmento;
+            segmento++;
+            escritor = abrir(segmento);
+            return cerrado;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Borra los segmentos cerrados hasta el número indicado, inclusive.
+     */
+    public synchronized void descartarHasta(long hasta) {
+        try {
+            for (Path archivo : segmentos()) {
+                long numero = numero(archivo);
+                if (numero >= 0 && numero <= hasta && numero != segmento) {
+                    Files.deleteIfExists(archivo);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lee las entradas de los segmentos anteriores al actual, en el orden en que se escribieron.
+     * Una última línea incompleta, escrita mientras el proceso se caía, se ignora.
+     *
+     * @return Entradas leídas.
+     */
+    public synchronized List<Entrada> leer() {
+        List<Entrada> entradas = new ArrayList<>();
+        try {
+            List<Path> anteriores = segmentos().stream()
+                    .filter(archivo -> numero(archivo) < segmento)
+                    .sorted((a, b) -> Long.compare(numero(a), numero(b)))
+                    .toList();
+            for (Path archivo : anteriores) {
+                for (String linea : Files.readAllLines(archivo, StandardCharsets.UTF_8)) {
+                    String[] campos = linea.split(";");
+                    if (campos.length != 4) {
+                        continue;
+                    }
+                    try {
+                        entradas.add(new Entrada(Long.parseLong(campos[0]), Long.parseLong(campos[1]),
+                                Integer.parseInt(campos[2]), new BigDecimal(campos[3])));
+                    } catch (NumberFormatException e) {
+                        // Línea truncada por una caída: lo anterior sigue siendo válido.
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entradas;
+    }
+
+    /**
+     * Número del último segmento cerrado; los segmentos hasta este son los que devuelve {@link #leer()}.
+     */
+    public synchronized long ultimoCerrado() {
+        return segmento - 1;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        escritor.close();
+    }
+
+    private BufferedWriter abrir(long numero) throws IOException {
+        return Files.newBufferedWriter(directorio.resolve(PREFIJO + numero + SUFIJO), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private List<Path> segmentos() throws IOException {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(archivo -> {
+                String nombre = archivo.getFileName().toString();
+                return nombre.startsWith(PREFIJO) && nombre.endsWith(SUFIJO);
+            }).toList();
+        }
+    }
+
+    private static long numero(Path archivo) {
+        String nombre = archivo.getFileName().toString();
+        try {
+            return Long.parseLong(nombre.substring(PREFIJO.length(), nombre.length() - SUFIJO.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
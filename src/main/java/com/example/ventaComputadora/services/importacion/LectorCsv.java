@@ -0,0 +1,82 @@
+package com.example.ventaComputadora.services.importacion;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector mínimo de CSV (RFC 4180): campos separados por coma, comillas dobles para campos
+ * que contienen comas, comillas o saltos de línea, y "" para una comilla dentro de un campo.
+ * Lee un registro a la vez, sin cargar el archivo completo.
+ */
+public class LectorCsv {
+    private final Reader entrada;
+    private int siguiente = -2;
+
+    public LectorCsv(Reader entrada) {
+        this.entrada = entrada;
+    }
+
+    /**
+     * Lee el siguiente registro.
+     *
+     * @return Campos del registro o nulo si no quedan registros.
+     * @throws IOException Si ocurre un error de lectura.
+     * @throws IllegalArgumentException Si un campo entre comillas no se cierra.
+     */
+    public List<String> leer() throws IOException {
+        int c = leerCaracter();
+        if (c == -1) {
+            return null;
+        }
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        while (true) {
+            if (entreComillas) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Campo entre comillas sin cerrar");
+                }
+                if (c == '"') {
+                    int proximo = leerCaracter();
+                    if (proximo == '"') {
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                        c = proximo;
+                        continue;
+                    }
+                } else {
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.isEmpty()) {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int proximo = leerCaracter();
+                    if (proximo != '\n') {
+                        siguiente = proximo;
+                    }
+                }
+                campos.add(campo.toString());
+                return campos;
+            } else {
+                campo.append((char) c);
+            }
+            c = leerCaracter();
+        }
+    }
+
+    private int leerCaracter() throws IOException {
+        if (siguiente != -2) {
+            int c = siguiente;
+            siguiente = -2;
+            return c;
+        }
+        return entrada.read();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.ventaComputadora.services.indice;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto compacto de enteros no negativos representado como un arreglo de palabras de 64 bits.
+ * Se usa para los índices en memoria del catálogo, donde cada bit es un documento (producto).
+ * No es seguro para uso concurrente; los índices que lo usan se encargan de la sincronización.
+ */
+public final class ConjuntoBits {
+    private long[] palabras;
+
+    public ConjuntoBits() {
+        this(64);
+    }
+
+    public ConjuntoBits(int capacidad) {
+        this.palabras = new long[Math.max(1, (capacidad + 63) >>> 6)];
+    }
+
+    private ConjuntoBits(long[] palabras) {
+        this.palabras = palabras;
+    }
+
+    public void agregar(int i) {
+        int palabra = i >>> 6;
+        if (palabra >= palabras.length) {
+            palabras = Arrays.copyOf(palabras, Math.max(palabra + 1, palabras.length * 2));
+        }
+        palabras[palabra] |= 1L << i;
+    }
+
+    public void quitar(int i) {
+        int palabra = i >>> 6;
+        if (palabra < palabras.length) {
+            palabras[palabra] &= ~(1L << i);
+        }
+    }
+
+    public boolean contiene(int i) {
+        int palabra = i >>> 6;
+        return palabra < palabras.length && (palabras[palabra] & (1L << i)) != 0;
+    }
+
+    /**
+     * Deja en este conjunto solo los elementos que también están en {@code otro}.
+     */
+    public void intersectar(ConjuntoBits otro) {
+        int comunes = Math.min(palabras.length, otro.palabras.length);
+        for (int i = 0; i < comunes; i++) {
+            palabras[i] &= otro.palabras[i];
+        }
+        Arrays.fill(palabras, comunes, palabras.length, 0L);
+    }
+
+    /**
+     * Agrega a este conjunto todos los elementos de {@code otro}.
+     */
+    public void unir(ConjuntoBits otro) {
+        if (otro.palabras.length > palabras.length) {
+            palabras = Arrays.copyOf(palabras, otro.palabras.length);
+        }
+        for (int i = 0; i < otro.palabras.length; i++) {
+            palabras[i] |= otro.palabras[i];
+        }
+    }
+
+    public int cardinalidad() {
+        int total = 0;
+        for (long palabra : palabras) {
+            total += Long.bitCount(palabra);
+        }
+        return total;
+    }
+
+    public boolean estaVacio() {
+        for (long palabra : palabras) {
+            if (palabra != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Devuelve el primer elemento mayor o igual a {@code desde}, o -1 si no hay más.
+     */
+    public int siguiente(int desde) {
+        int palabra = desde >>> 6;
+        if (palabra >= palabras.length) {
+            return -1;
+        }
+        long actual = palabras[palabra] & (-1L << desde);
+        while (true) {
+            if (actual != 0) {
+                return (palabra << 6) + Long.numberOfTrailingZeros(actual);
+            }
+            if (++palabra == palabras.length) {
+                return -1;
+            }
+            actual = palabras[palabra];
+        }
+    }
+
+    public void limpiar() {
+        Arrays.fill(palabras, 0L);
+    }
+
+    public ConjuntoBits copia() {
+        return new ConjuntoBits(palabras.clone());
+    }
+
+    /**
+     * Cuenta los elementos comunes a ambos conjuntos sin crear conjuntos intermedios.
+     */
+    public static int contarInterseccion(ConjuntoBits a, ConjuntoBits b) {
+        int comunes = Math.min(a.palabras.length, b.palabras.length);
+        int total = 0;
+        for (int i = 0; i < comunes; i++) {
+            total += Long.bitCount(a.palabras[i] & b.palabras[i]);
+        }
+        return total;
+    }
+}
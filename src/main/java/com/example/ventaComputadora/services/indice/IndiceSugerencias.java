@@ -0,0 +1,149 @@
+package com.example.ventaComputadora.services.indice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estructura inmutable de prefijos para autocompletar.
+ * Cada entrada se indexa por su texto normalizado y por cada palabra a partir de la cual empieza,
+ * de modo que "think" sugiere "Lenovo ThinkPad". Para los prefijos de hasta {@link #MAX_PREFIJO}
+ * caracteres se precalculan las mejores entradas por popularidad; los prefijos más largos recorren el rango,
+ * ya pequeño, del arreglo ordenado. En ambos casos la consulta escribe en un arreglo del llamador y no crea objetos.
+ */
+public final class IndiceSugerencias {
+    public static final int MAX_SUGERENCIAS = 10;
+    static final int MAX_PREFIJO = 8;
+    private static final int[] VACIO = new int[0];
+
+    /**
+     * Texto sugerible con su popularidad; {@code referencia} identifica el origen (por ejemplo, el ID del producto).
+     */
+    public record Entrada(String texto, String tipo, Long referencia, long popularidad) {
+    }
+
+    private final Entrada[] entradas;
+    private final String[] claves;
+    private final int[] entradaPorClave;
+    private final Map<String, int[]> mejoresPorPrefijo;
+
+    private IndiceSugerencias(Entrada[] entradas, String[] claves, int[] entradaPorClave, Map<String, int[]> mejoresPorPrefijo) {
+        this.entradas = entradas;
+        this.claves = claves;
+        this.entradaPorClave = entradaPorClave;
+        this.mejoresPorPrefijo = mejoresPorPrefijo;
+    }
+
+    public static IndiceSugerencias vacio() {
+        return construir(List.of());
+    }
+
+    /**
+     * Construye el índice. Las entradas se ordenan por popularidad descendente, de modo que un índice
+     * de entrada menor siempre es al menos tan popular como uno mayor.
+     */
+    public static IndiceSugerencias construir(List<Entrada> lista) {
+        Entrada[] entradas = lista.toArray(new Entrada[0]);
+        Arrays.sort(entradas, (a, b) -> a.popularidad() != b.popularidad()
+                ? Long.compare(b.popularidad(), a.popularidad())
+                : a.texto().compareToIgnoreCase(b.texto()));
+
+        List<String[]> pares = new ArrayList<>();
+        for (int i = 0; i < entradas.length; i++) {
+            String normalizado = NormalizadorTexto.normalizar(entradas[i].texto());
+            String[] palabras = normalizado.split("\\s+");
+            int desde = 0;
+            for (String palabra : palabras) {
+                int inicio = normalizado.indexOf(palabra, desde);
+                if (!palabra.isEmpty()) {
+                    pares.add(new String[]{normalizado.substring(inicio), String.valueOf(i)});
+                }
+                desde = inicio + palabra.length();
+            }
+        }
+        pares.sort((a, b) -> a[0].compareTo(b[0]));
+
+        String[] claves = new String[pares.size()];
+        int[] entradaPorClave = new int[pares.size()];
+        Map<String, List<Integer>> mejores = new HashMap<>();
+        for (int k = 0; k < pares.size(); k++) {
+            claves[k] = pares.get(k)[0];
+            entradaPorClave[k] = Integer.parseInt(pares.get(k)[1]);
+            for (int largo = 1; largo <= Math.min(MAX_PREFIJO, claves[k].length()); largo++) {
+                agregarOrdenado(mejores.computeIfAbsent(claves[k].substring(0, largo), p -> new ArrayList<>()), entradaPorClave[k]);
+            }
+        }
+
+        Map<String, int[]> mejoresPorPrefijo = new HashMap<>(mejores.size() * 2);
+        mejores.forEach((prefijo, indices) -> mejoresPorPrefijo.put(prefijo, indices.stream().mapToInt(Integer::intValue).toArray()));
+        return new IndiceSugerencias(entradas, claves, entradaPorClave, mejoresPorPrefijo);
+    }
+
+    /**
+     * Inserta la entrada en la lista ordenada de las mejores, sin duplicados y sin pasar de {@link #MAX_SUGERENCIAS}.
+     */
+    private static void agregarOrdenado(List<Integer> mejores, int entrada) {
+        int posicion = 0;
+        while (posicion < mejores.size() && mejores.get(posicion) < entrada) {
+            posicion++;
+        }
+        if (posicion < mejores.size() && mejores.get(posicion) == entrada) {
+            return;
+        }
+        if (posicion < MAX_SUGERENCIAS) {
+            mejores.add(posicion, entrada);
+            if (mejores.size() > MAX_SUGERENCIAS) {
+                mejores.remove(MAX_SUGERENCIAS);
+            }
+        }
+    }
+
+    public int tamano() {
+        return entradas.length;
+    }
+
+    public Entrada entrada(int indice) {
+        return entradas[indice];
+    }
+
+    /**
+     * Escribe en {@code destino} los índices de las entradas más populares que empiezan con el prefijo, de la más
+     * a la menos popular, sin crear objetos: los prefijos cortos copian el arreglo precalculado y los largos
+     * recorren su rango del arreglo ordenado de claves.
+     *
+     * @param prefijoNormalizado Prefijo ya normalizado con {@link NormalizadorTexto}.
+     * @param destino Arreglo de al menos {@link #MAX_SUGERENCIAS} posiciones.
+     * @return Cantidad de índices escritos.
+     */
+    public int sugerir(String prefijoNormalizado, int[] destino) {
+        if (prefijoNormalizado.isEmpty()) {
+            return 0;
+        }
+        if (prefijoNormalizado.length() <= MAX_PREFIJO) {
+            int[] mejores = mejoresPorPrefijo.getOrDefault(prefijoNormalizado, VACIO);
+            System.arraycopy(mejores, 0, destino, 0, mejores.length);
+            return mejores.length;
+        }
+
+        int desde = Arrays.binarySearch(claves, prefijoNormalizado);
+        if (desde < 0) {
+            desde = -desde - 1;
+        }
+        int cantidad = 0;
+        for (int k = desde; k < claves.length && claves[k].startsWith(prefijoNormalizado); k++) {
+            int entrada = entradaPorClave[k];
+            int posicion = 0;
+            while (posicion < cantidad && destino[posicion] < entrada) {
+                posicion++;
+            }
+            if (posicion < MAX_SUGERENCIAS && (posicion == cantidad || destino[posicion] != entrada)) {
+                System.arraycopy(destino, posicion, destino, posicion + 1, Math.min(cantidad, MAX_SUGERENCIAS - 1) - posicion);
+                destino[posicion] = entrada;
+                cantidad = Math.min(cantidad + 1, MAX_SUGERENCIAS);
+            }
+        }
+        return cantidad;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.ventaComputadora.services.indice;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Índice invertido de texto con puntuación BM25, coincidencia por prefijo y tolerancia a errores de tipeo.
+ * Cada documento se compone de campos con distinto peso; los términos se normalizan con {@link NormalizadorTexto}.
+ * Para la tolerancia a errores se indexan los bigramas de cada término, así que los candidatos aproximados salen
+ * de los términos que comparten bigramas con la consulta y no de todo el vocabulario.
+ * No es seguro para uso concurrente; quien lo use debe sincronizar el acceso.
+ */
+public final class IndiceTexto {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PESO_PREFIJO = 0.8;
+    private static final double PESO_APROXIMADO = 0.6;
+    private static final int MAX_EXPANSIONES_PREFIJO = 50;
+    private static final int MAX_EXPANSIONES_APROXIMADAS = 50;
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "de", "del", "la", "el", "los", "las", "y", "o", "en", "con", "para", "por", "un", "una", "al", "a");
+
+    /**
+     * Campo de un documento con su peso relativo.
+     */
+    public record Campo(String texto, double peso) {
+    }
+
+    /**
+     * Documento encontrado con su puntuación.
+     */
+    public record Resultado(long id, double puntuacion) {
+    }
+
+    private static final Comparator<Resultado> ORDEN = (a, b) -> a.puntuacion() != b.puntuacion()
+            ? Double.compare(b.puntuacion(), a.puntuacion())
+            : Long.compare(a.id(), b.id());
+
+    private final NavigableMap<String, Map<Long, Double>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> terminosPorBigrama = new HashMap<>();
+    private final Map<Long, List<String>> terminosPorDocumento = new HashMap<>();
+    private final Map<Long, Double> longitudPorDocumento = new HashMap<>();
+    private double longitudTotal;
+
+    /**
+     * Agrega o reemplaza un documento.
+     */
+    public void agregar(long id, List<Campo> campos) {
+        quitar(id);
+        Map<String, Double> frecuencias = new HashMap<>();
+        double longitud = 0;
+        for (Campo campo : campos) {
+            for (String termino : tokenizar(campo.texto())) {
+                frecuencias.merge(termino, campo.peso(), Double::sum);
+                longitud += campo.peso();
+            }
+        }
+        for (Map.Entry<String, Double> frecuencia : frecuencias.entrySet()) {
+            Map<Long, Double> documentos = postings.get(frecuencia.getKey());
+            if (documentos == null) {
+                documentos = new HashMap<>();
+                postings.put(frecuencia.getKey(), documentos);
+                for (String bigrama : bigramas(frecuencia.getKey())) {
+                    terminosPorBigrama.computeIfAbsent(bigrama, b -> new HashSet<>()).add(frecuencia.getKey());
+                }
+            }
+            documentos.put(id, frecuencia.getValue());
+        }
+        terminosPorDocumento.put(id, new ArrayList<>(frecuencias.keySet()));
+        longitudPorDocumento.put(id, longitud);
+        longitudTotal += longitud;
+    }
+
+    public void quitar(long id) {
+        List<String> terminos = terminosPorDocumento.remove(id);
+        if (terminos == null) {
+            return;
+        }
+        for (String termino : terminos) {
+            Map<Long, Double> documentos = postings.get(termino);
+            documentos.remove(id);
+            if (documentos.isEmpty()) {
+                postings.remove(termino);
+                for (String bigrama : bigramas(termino)) {
+                    Set<String> conBigrama = terminosPorBigrama.get(bigrama);
+                    conBigrama.remove(termino);
+                    if (conBigrama.isEmpty()) {
+                        terminosPorBigrama.remove(bigrama);
+                    }
+                }
+            }
+        }
+        longitudTotal -= longitudPorDocumento.remove(id);
+    }
+
+    public void limpiar() {
+        postings.clear();
+        terminosPorBigrama.clear();
+        terminosPorDocumento.clear();
+        longitudPorDocumento.clear();
+        longitudTotal = 0;
+    }
+
+    public int tamano() {
+        return terminosPorDocumento.size();
+    }
+
+    /**
+     * Busca los documentos que mejor coinciden con la consulta.
+     * Cada término de la consulta se compara de forma exacta, como prefijo de términos más largos y,
+     * si no existe tal cual, con hasta {@value #MAX_EXPANSIONES_APROXIMADAS} términos a distancia de edición 1
+     * (2 para términos de 8 o más letras).
+     * La puntuación de un documento se multiplica por la fracción de términos de la consulta que contiene.
+     *
+     * @param consulta Texto buscado.
+     * @param limite Número máximo de resultados.
+     * @param despuesDe Último resultado de la página anterior, o nulo para empezar desde el mejor.
+     * @return Resultados ordenados por puntuación descendente y, a igual puntuación, por ID.
+     */
+    public List<Resultado> buscar(String consulta, int limite, Resultado despuesDe) {
+        List<String> terminos = tokenizar(consulta);
+        if (terminos.isEmpty() || terminosPorDocumento.isEmpty()) {
+            return List.of();
+        }
+        double longitudPromedio = longitudTotal / terminosPorDocumento.size();
+
+        Map<Long, double[]> acumulado = new HashMap<>();
+        for (String termino : terminos) {
+            Map<Long, Double> mejorPorDocumento = new HashMap<>();
+            for (Map.Entry<String, Double> expansion : expandir(termino).entrySet()) {
+                Map<Long, Double> documentos = postings.get(expansion.getKey());
+                double idf = Math.log(1 + (terminosPorDocumento.size() - documentos.size() + 0.5) / (documentos.size() + 0.5));
+                for (Map.Entry<Long, Double> documento : documentos.entrySet()) {
+                    double tf = documento.getValue();
+                    double normalizacion = K1 * (1 - B + B * longitudPorDocumento.get(documento.getKey()) / longitudPromedio);
+                    double puntuacion = expansion.getValue() * idf * tf * (K1 + 1) / (tf + normalizacion);
+                    mejorPorDocumento.merge(documento.getKey(), puntuacion, Math::max);
+                }
+            }
+            for (Map.Entry<Long, Double> documento : mejorPorDocumento.entrySet()) {
+                double[] total = acumulado.computeIfAbsent(documento.getKey(), id -> new double[2]);
+                total[0] += documento.getValue();
+                total[1]++;
+            }
+        }
+
+        List<Resultado> resultados = new ArrayList<>(acumulado.size());
+        for (Map.Entry<Long, double[]> documento : acumulado.entrySet()) {
+            double[] total = documento.getValue();
+            Resultado resultado = new Resultado(documento.getKey(), total[0] * total[1] / terminos.size());
+            if (despuesDe == null || ORDEN.compare(resultado, despuesDe) > 0) {
+                resultados.add(resultado);
+            }
+        }
+        resultados.sort(ORDEN);
+        return resultados.size() > limite ? resultados.subList(0, limite) : resultados;
+    }
+
+    /**
+     * Devuelve los términos del índice que corresponden a un término de la consulta, con su peso.
+     */
+    private Map<String, Double> expandir(String termino) {
+        Map<String, Double> expansiones = new HashMap<>();
+        boolean exacto = postings.containsKey(termino);
+        if (exacto) {
+            expansiones.put(termino, 1.0);
+        }
+        if (termino.length() >= 2) {
+            int agregados = 0;
+            for (String candidato : postings.subMap(termino, false, termino + Character.MAX_VALUE, false).keySet()) {
+                if (agregados++ == MAX_EXPANSIONES_PREFIJO) {
+                    break;
+                }
+                expansiones.put(candidato, PESO_PREFIJO);
+            }
+        }
+        if (!exacto && termino.length() >= 4) {
+            int maximaDistancia = termino.length() >= 8 ? 2 : 1;
+            Set<String> propios = bigramas(termino);
+            int minimoCompartidos = propios.size() - 2 * maximaDistancia;
+            if (minimoCompartidos > 0) {
+                Map<String, Integer> compartidos = new HashMap<>();
+                for (String bigrama : propios) {
+                    for (String candidato : terminosPorBigrama.getOrDefault(bigrama, Set.of())) {
+                        if (Math.abs(candidato.length() - termino.length()) <= maximaDistancia) {
+                            compartidos.merge(candidato, 1, Integer::sum);
+                        }
+                    }
+                }
+                int agregados = 0;
+                for (Map.Entry<String, Integer> candidato : compartidos.entrySet()) {
+                    if (candidato.getValue() >= minimoCompartidos
+                            && distanciaAcotada(termino, candidato.getKey(), maximaDistancia) <= maximaDistancia) {
+                        expansiones.putIfAbsent(candidato.getKey(), PESO_APROXIMADO);
+                        if (++agregados == MAX_EXPANSIONES_APROXIMADAS) {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return expansiones;
+    }
+
+    /**
+     * Bigramas distintos de un término. Cada edición destruye a lo sumo dos bigramas, así que un término a
+     * distancia k conserva al menos tantos bigramas distintos de la consulta como ésta tiene menos 2k; los
+     * términos con menos bigramas distintos que eso (por ejemplo, letras repetidas) no se buscan aproximados.
+     */
+    static Set<String> bigramas(String termino) {
+        Set<String> bigramas = new HashSet<>();
+        for (int i = 0; i + 2 <= termino.length(); i++) {
+            bigramas.add(termino.substring(i, i + 2));
+        }
+        return bigramas;
+    }
+
+    /**
+     * Distancia de Levenshtein que deja de calcular cuando se supera {@code maximo}; en ese caso devuelve maximo + 1.
+     */
+    static int distanciaAcotada(String a, String b, int maximo) {
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            int minimoFila = actual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int costo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                actual[j] = Math.min(Math.min(actual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + costo);
+                minimoFila = Math.min(minimoFila, actual[j]);
+            }
+            if (minimoFila > maximo) {
+                return maximo + 1;
+            }
+            int[] temporal = anterior;
+            anterior = actual;
+            actual = temporal;
+        }
+        return anterior[b.length()];
+    }
+
+    /**
+     * Divide un texto en términos normalizados, descartando palabras vacías.
+     */
+    public static List<String> tokenizar(String texto) {
+        List<String> terminos = new ArrayList<>();
+        for (String termino : NormalizadorTexto.normalizar(texto).split("[^\\p{L}\\p{N}]+")) {
+            if (!termino.isEmpty() && !PALABRAS_VACIAS.contains(termino)) {
+                terminos.add(termino);
+            }
+        }
+        return terminos;
+    }
+}
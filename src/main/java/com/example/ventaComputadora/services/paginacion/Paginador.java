@@ -0,0 +1,100 @@
+package com.example.ventaComputadora.services.paginacion;
+
+import com.example.ventaComputadora.domain.DTO.PaginaCursorDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Utilidades de paginación por cursor. El cursor es opaco para el cliente: codifica en Base64 URL
+ * los valores de la clave de orden de la última fila entregada, y la página siguiente se pide
+ * con una condición "mayor que la clave" en lugar de un desplazamiento, por lo que cuesta lo mismo
+ * que la primera.
+ */
+@Component
+public class Paginador {
+    private static final String SEPARADOR = "\u001F";
+
+    private final int tamanoDefecto;
+    private final int tamanoMaximo;
+
+    public Paginador(@Value("${app.paginacion.tamano-defecto:20}") int tamanoDefecto,
+                     @Value("${app.paginacion.tamano-maximo:100}") int tamanoMaximo) {
+        this.tamanoDefecto = tamanoDefecto;
+        this.tamanoMaximo = tamanoMaximo;
+    }
+
+    /**
+     * Devuelve el tamaño de página a usar.
+     *
+     * @param solicitado Tamaño pedido por el cliente o nulo para usar el predeterminado.
+     * @return Tamaño de página.
+     * @throws IllegalArgumentException Si el tamaño está fuera de los límites configurados.
+     */
+    public int tamano(Integer solicitado) {
+        if (solicitado == null) {
+            return tamanoDefecto;
+        }
+        if (solicitado < 1 || solicitado > tamanoMaximo) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + tamanoMaximo + ".");
+        }
+        return solicitado;
+    }
+
+    /**
+     * Codifica los valores de la clave de orden de una fila como cursor.
+     */
+    public String codificar(Object... valores) {
+        String texto = Arrays.stream(valores).map(String::valueOf).collect(Collectors.joining(SEPARADOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor generado por {@link #codificar(Object...)}.
+     *
+     * @param cursor Cursor recibido del cliente o nulo para la primera página.
+     * @param cantidad Número de valores que debe contener.
+     * @return Valores de la clave o nulo si no hay cursor.
+     * @throws IllegalArgumentException Si el cursor no es válido.
+     */
+    public String[] decodificar(String cursor, int cantidad) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] valores;
+        try {
+            valores = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARADOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+        if (valores.length != cantidad) {
+            throw new IllegalArgumentException("Cursor inválido.");
+        }
+        return valores;
+    }
+
+    /**
+     * Arma la página a partir de hasta {@code tamano + 1} filas: la fila extra solo indica que hay más resultados.
+     *
+     * @param filas Filas leídas, en orden.
+     * @param tamano Tamaño de página.
+     * @param clave Valores de la clave de orden de una fila.
+     * @param conversor Conversión de cada fila al elemento devuelto.
+     * @return Página con el cursor de la siguiente, si existe.
+     */
+    public <F, T> PaginaCursorDTO<T> armar(List<F> filas, int tamano, Function<F, Object[]> clave, Function<F, T> conversor) {
+        boolean hayMas = filas.size() > tamano;
+        List<F> pagina = hayMas ? filas.subList(0, tamano) : filas;
+        List<T> contenido = new ArrayList<>(pagina.size());
+        pagina.forEach(fila -> contenido.add(conversor.apply(fila)));
+        String siguiente = hayMas ? codificar(clave.apply(pagina.get(pagina.size() - 1))) : null;
+        return new PaginaCursorDTO<>(contenido, siguiente, tamano);
+    }
+}
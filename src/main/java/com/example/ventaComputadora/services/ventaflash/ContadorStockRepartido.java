@@ -0,0 +1,86 @@
+package com.example.ventaComputadora.services.ventaflash;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Stock de un producto repartido en franjas independientes. Cada hilo empieza a descontar por su propia franja
+ * con compare-and-set, así que las compras simultáneas casi nunca compiten por el mismo contador; si su franja
+ * no alcanza, toma el resto de las siguientes.
+ * Las franjas están separadas en el arreglo para que no compartan línea de caché.
+ */
+public final class ContadorStockRepartido {
+    private static final int SEPARACION = 16;
+
+    private final AtomicIntegerArray franjas;
+    private final int cantidadFranjas;
+
+    public ContadorStockRepartido(int stock, int cantidadFranjas) {
+        this.cantidadFranjas = cantidadFranjas;
+        this.franjas = new AtomicIntegerArray(cantidadFranjas * SEPARACION);
+        int porFranja = stock / cantidadFranjas;
+        int resto = stock % cantidadFranjas;
+        for (int i = 0; i < cantidadFranjas; i++) {
+            franjas.set(i * SEPARACION, porFranja + (i < resto ? 1 : 0));
+        }
+    }
+
+    /**
+     * Descuenta unidades si hay suficientes entre todas las franjas.
+     *
+     * @param cantidad Unidades a descontar.
+     * @return true si se descontaron todas; false si no alcanzaban, en cuyo caso no se descuenta nada.
+     */
+    public boolean reservar(int cantidad) {
+        int inicio = franjaPropia();
+        int[] tomadas = new int[cantidadFranjas];
+        int pendiente = cantidad;
+        for (int k = 0; k < cantidadFranjas && pendiente > 0; k++) {
+            int franja = (inicio + k) % cantidadFranjas;
+            while (true) {
+                int actual = franjas.get(franja * SEPARACION);
+                if (actual == 0) {
+                    break;
+                }
+                int toma = Math.min(actual, pendiente);
+                if (franjas.compareAndSet(franja * SEPARACION, actual, actual - toma)) {
+                    tomadas[franja] += toma;
+                    pendiente -= toma;
+                    break;
+                }
+            }
+        }
+        if (pendiente > 0) {
+            for (int franja = 0; franja < cantidadFranjas; franja++) {
+                if (tomadas[franja] > 0) {
+                    franjas.addAndGet(franja * SEPARACION, tomadas[franja]);
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Devuelve unidades reservadas, por ejemplo si la compra se revierte.
+     *
+     * @param cantidad Unidades a devolver.
+     */
+    public void liberar(int cantidad) {
+        franjas.addAndGet(franjaPropia() * SEPARACION, cantidad);
+    }
+
+    /**
+     * Suma de las franjas; con compras en curso es solo aproximada.
+     */
+    public int disponible() {
+        int total = 0;
+        for (int i = 0; i < cantidadFranjas; i++) {
+            total += franjas.get(i * SEPARACION);
+        }
+        return total;
+    }
+
+    private int franjaPropia() {
+        return (int) (Thread.currentThread().getId() % cantidadFranjas);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.ventaComputadora.webController;
+
+import com.example.ventaComputadora.domain.DTO.ProgresoReconstruccionDTO;
+import com.example.ventaComputadora.domain.DTO.VentasDiaDTO;
+import com.example.ventaComputadora.domain.DTO.VentasProductoDTO;
+import com.example.ventaComputadora.domain.DTO.VentasTipoDTO;
+import com.example.ventaComputadora.services.AnaliticaVentasService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Controlador REST de la analítica de ventas. Los rangos se indican con fechas ISO (por ejemplo 2024-01-31) e
+ * incluyen ambos extremos.
+ */
+@RestController
+@RequestMapping("/analitica")
+@RequiredArgsConstructor
+public class AnaliticaController {
+    private final AnaliticaVentasService analiticaVentasService;
+
+    /**
+     * Obtiene las ventas de cada día del rango, en total o de un producto.
+     *
+     * @param desde Primer día del rango.
+     * @param hasta Último día del rango.
+     * @param productoId ID del producto (opcional).
+     * @return Órdenes, unidades y monto por día con ventas.
+     */
+    @GetMapping("/ventas/dias")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<VentasDiaDTO>> ventasPorDia(@RequestParam String desde, @RequestParam String hasta,
+                                                           @RequestParam(required = false) Long productoId) {
+        try {
+            return ResponseEntity.ok(analiticaVentasService.ventasPorDia(LocalDate.parse(desde), LocalDate.parse(hasta), productoId));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Obtiene los productos más vendidos del rango.
+     *
+     * @param desde Primer día del rango.
+     * @param hasta Último día del rango.
+     * @param limite Cantidad máxima de productos, entre 1 y 100.
+     * @return Órdenes, unidades y monto por producto, de mayor a menor monto.
+     */
+    @GetMapping("/ventas/productos")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<VentasProductoDTO>> ventasPorProducto(@RequestParam String desde, @RequestParam String hasta,
+                                                                     @RequestParam(defaultValue = "10") int limite) {
+        try {
+            return ResponseEntity.ok(analiticaVentasService.ventasPorProducto(LocalDate.parse(desde), LocalDate.parse(hasta), limite));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Obtiene las ventas del rango por tipo de especificación.
+     *
+     * @param desde Primer día del rango.
+     * @param hasta Último día del rango.
+     * @return Unidades de componentes y monto aportado por tipo, de mayor a menor monto.
+     */
+    @GetMapping("/ventas/tipos")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<VentasTipoDTO>> ventasPorTipo(@RequestParam String desde, @RequestParam String hasta) {
+        try {
+            return ResponseEntity.ok(analiticaVentasService.ventasPorTipo(LocalDate.parse(desde), LocalDate.parse(hasta)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Inicia la reconstrucción de los acumulados de ventas del rango desde las órdenes pagadas.
+     *
+     * @param desde Primer día del rango.
+     * @param hasta Último día del rango.
+     * @return Estado inicial de la reconstrucción, con su ID para consultar el avance.
+     */
+    @PostMapping("/reconstruccion")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> reconstruir(@RequestParam String desde, @RequestParam String hasta) {
+        try {
+            ProgresoReconstruccionDTO progreso = analiticaVentasService.reconstruir(LocalDate.parse(desde), LocalDate.parse(hasta));
+            return ResponseEntity.accepted().body(progreso);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene el avance de una reconstrucción de los acumulados.
+     *
+     * @param id ID de la reconstrucción.
+     * @return Bloques de días terminados y estado de la reconstrucción.
+     */
+    @GetMapping("/reconstruccion/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProgresoReconstruccionDTO> obtenerProgresoReconstruccion(@PathVariable String id) {
+        return analiticaVentasService.obtenerProgreso(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.ventaComputadora.webController;
 
 import com.example.ventaComputadora.domain.DTO.ComentarioDTO;
+import com.example.ventaComputadora.domain.DTO.PaginaCursorDTO;
 import com.example.ventaComputadora.domain.entity.Comentario;
 import com.example.ventaComputadora.services.ComentarioService;
 import com.example.ventaComputadora.infra.security.JwtService;
@@ -10,9 +11,8 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.util.List;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Controlador REST para manejar las operaciones relacionadas con los comentarios.
@@ -53,26 +53,23 @@ public class ComentarioController {
     }
 
     /**
-     * Lista todos los comentarios de un producto.
+     * Lista los comentarios de un producto, del más reciente al más antiguo, paginados por cursor.
      *
      * @param productoId ID del producto.
-     * @return Lista de comentarios del producto.
+     * @param cursor Cursor devuelto por la página anterior; se omite para la primera.
+     * @param tamano Tamaño de página.
+     * @return Página de comentarios del producto.
      */
     @GetMapping("/producto/{productoId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<ComentarioDTO>> listarComentariosPorProducto(@PathVariable Long productoId) {
-        List<Comentario> comentarios = comentarioService.listarComentariosPorProducto(productoId);
-        List<ComentarioDTO> response = comentarios.stream()
-                .map(c -> new ComentarioDTO(
-                        c.getId(),
-                        c.getProducto().getNombre(),
-                        c.getContenido(),
-                        c.getUsuario().getId(),
-                        c.getUsuario().getUsername(),
-                        c.getFecha()
-                ))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+    public ResponseEntity<PaginaCursorDTO<ComentarioDTO>> listarComentariosPorProducto(@PathVariable Long productoId,
+                                                                                      @RequestParam(required = false) String cursor,
+                                                                                      @RequestParam(required = false) Integer tamano) {
+        try {
+            return ResponseEntity.ok(comentarioService.listarComentariosPorProducto(productoId, cursor, tamano));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -0,0 +1,105 @@
+package com.example.ventaComputadora.webController;
+
+import com.example.ventaComputadora.domain.DTO.ConfiguracionDTO;
+import com.example.ventaComputadora.domain.DTO.CotizacionDTO;
+import com.example.ventaComputadora.domain.DTO.PersonalizacionDTO;
+import com.example.ventaComputadora.infra.security.JwtService;
+import com.example.ventaComputadora.services.ConfiguradorService;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST del configurador de productos: cotizaciones sin modificar el catálogo y configuraciones
+ * guardadas por cada usuario.
+ */
+@RestController
+@RequestMapping("/configurador")
+@RequiredArgsConstructor
+public class ConfiguradorController {
+    private final ConfiguradorService configuradorService;
+    private final JwtService jwtService;
+
+    /**
+     * Cotiza un producto con las especificaciones elegidas, sin modificarlo ni escribir en la base.
+     *
+     * @param productoId ID del producto base.
+     * @param personalizacionDTO Especificaciones elegidas.
+     * @return Precio, detalle y veredicto de compatibilidad.
+     */
+    @PostMapping("/productos/{productoId}/cotizar")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<CotizacionDTO> cotizar(@PathVariable Long productoId, @RequestBody PersonalizacionDTO personalizacionDTO) {
+        try {
+            return ResponseEntity.ok(configuradorService.cotizar(productoId, personalizacionDTO.getEspecificacionIds()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Guarda una configuración compatible para el usuario autenticado.
+     *
+     * @param productoId ID del producto base.
+     * @param personalizacionDTO Especificaciones elegidas.
+     * @param request HttpServletRequest para obtener el token JWT.
+     * @return La configuración guardada.
+     */
+    @PostMapping("/productos/{productoId}/configuraciones")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<?> guardarConfiguracion(@PathVariable Long productoId, @RequestBody PersonalizacionDTO personalizacionDTO,
+                                                  HttpServletRequest request) {
+        Long usuarioId = jwtService.getUserIdFromToken(request.getHeader("Authorization").substring(7));
+        try {
+            return ResponseEntity.ok(configuradorService.guardar(usuarioId, productoId, personalizacionDTO.getEspecificacionIds()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    /**
+     * Lista las configuraciones guardadas del usuario autenticado con su cotización actual.
+     *
+     * @param request HttpServletRequest para obtener el token JWT.
+     * @return Configuraciones de la más reciente a la más antigua.
+     */
+    @GetMapping("/configuraciones")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<ConfiguracionDTO>> listarConfiguraciones(HttpServletRequest request) {
+        Long usuarioId = jwtService.getUserIdFromToken(request.getHeader("Authorization").substring(7));
+        return ResponseEntity.ok(configuradorService.listar(usuarioId));
+    }
+
+    /**
+     * Elimina una configuración del usuario autenticado.
+     *
+     * @param id ID de la configuración.
+     * @param request HttpServletRequest para obtener el token JWT.
+     * @return Respuesta vacía si la eliminación fue exitosa.
+     */
+    @DeleteMapping("/configuraciones/{id}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Void> eliminarConfiguracion(@PathVariable Long id, HttpServletRequest request) {
+        Long usuarioId = jwtService.getUserIdFromToken(request.getHeader("Authorization").substring(7));
+        try {
+            configuradorService.eliminar(usuarioId, id);
+            return ResponseEntity.noContent().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.example.ventaComputadora.webController;
 
 import com.example.ventaComputadora.domain.DTO.EspecificacionDTO;
+import com.example.ventaComputadora.domain.DTO.EstadisticasCacheDTO;
+import com.example.ventaComputadora.domain.DTO.PaginaCursorDTO;
+import com.example.ventaComputadora.domain.DTO.TerminoEspecificacionDTO;
 import com.example.ventaComputadora.domain.entity.Especificacion;
+import com.example.ventaComputadora.domain.entity.TerminoEspecificacion.Categoria;
+import com.example.ventaComputadora.services.CacheEspecificacionesService;
+import com.example.ventaComputadora.services.DiccionarioEspecificacionesService;
 import com.example.ventaComputadora.services.EspecificacionService;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,6 +25,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class EspecificacionController {
     private final EspecificacionService especificacionService;
+    private final CacheEspecificacionesService cacheEspecificacionesService;
+    private final DiccionarioEspecificacionesService diccionarioEspecificacionesService;
 
     /**
      * Registra una nueva especificación.
@@ -102,13 +111,83 @@ public class EspecificacionController {
     }
 
     /**
-     * Lista todas las especificaciones.
+     * Lista las especificaciones ordenadas por ID, paginadas por cursor.
      *
-     * @return Lista de todas las especificaciones.
+     * @param cursor Cursor devuelto por la página anterior; se omite para la primera.
+     * @param tamano Tamaño de página.
+     * @return Página de especificaciones.
      */
     @GetMapping("/listar")
-    public ResponseEntity<List<EspecificacionDTO>> listarEspecificaciones() {
-        List<EspecificacionDTO> especificaciones = especificacionService.listarEspecificaciones();
-        return ResponseEntity.ok(especificaciones);
+    public ResponseEntity<PaginaCursorDTO<EspecificacionDTO>> listarEspecificaciones(@RequestParam(required = false) String cursor,
+                                                                                    @RequestParam(required = false) Integer tamano) {
+        try {
+            return ResponseEntity.ok(especificacionService.listarEspecificaciones(cursor, tamano));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Lista los tipos de especificación del diccionario con sus sinónimos.
+     *
+     * @return Tipos ordenados por nombre.
+     */
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @GetMapping("/tipos")
+    public ResponseEntity<List<TerminoEspecificacionDTO>> listarTipos() {
+        return ResponseEntity.ok(diccionarioEspecificacionesService.listar(Categoria.TIPO));
+    }
+
+    /**
+     * Lista las marcas del diccionario con sus sinónimos.
+     *
+     * @return Marcas ordenadas por nombre.
+     */
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    @GetMapping("/marcas")
+    public ResponseEntity<List<TerminoEspecificacionDTO>> listarMarcas() {
+        return ResponseEntity.ok(diccionarioEspecificacionesService.listar(Categoria.MARCA));
+    }
+
+    /**
+     * Agrega un sinónimo a un tipo o marca del diccionario.
+     *
+     * @param id ID del término.
+     * @param sinonimo Sinónimo a agregar.
+     * @return El término actualizado.
+     */
+    @PostMapping("/terminos/{id}/sinonimos")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> agregarSinonimo(@PathVariable Long id, @RequestParam String sinonimo) {
+        try {
+            return ResponseEntity.ok(diccionarioEspecificacionesService.agregarSinonimo(id, sinonimo));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Obtiene las estadísticas de la caché de segundo nivel de especificaciones.
+     *
+     * @return Aciertos, fallos y escrituras totales y por región.
+     */
+    @GetMapping("/cache/estadisticas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<EstadisticasCacheDTO> obtenerEstadisticasCache() {
+        return ResponseEntity.ok(cacheEspecificacionesService.obtenerEstadisticas());
+    }
+
+    /**
+     * Vacía la caché de segundo nivel de especificaciones.
+     *
+     * @return Respuesta vacía.
+     */
+    @DeleteMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> vaciarCache() {
+        cacheEspecificacionesService.invalidarTodo();
+        return ResponseEntity.noContent().build();
     }
 }
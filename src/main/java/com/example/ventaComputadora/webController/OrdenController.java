@@ -1,14 +1,26 @@
 package com.example.ventaComputadora.webController;
 
+import com.example.ventaComputadora.domain.DTO.IngresosDTO;
+import com.example.ventaComputadora.domain.DTO.LineaCarritoDTO;
+import com.example.ventaComputadora.domain.DTO.LineaOrdenDTO;
+import com.example.ventaComputadora.domain.DTO.MetricasCarritosDTO;
 import com.example.ventaComputadora.domain.DTO.OrdenDTO;
+import com.example.ventaComputadora.domain.DTO.PaginaCursorDTO;
+import com.example.ventaComputadora.domain.DTO.ResumenOrdenDTO;
+import com.example.ventaComputadora.domain.entity.EstadoOrden;
 import com.example.ventaComputadora.domain.entity.Orden;
+import com.example.ventaComputadora.services.AlmacenCarritosService;
 import com.example.ventaComputadora.services.OrdenService;
+import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -22,18 +34,63 @@ import java.util.Set;
 @RequiredArgsConstructor
 public class OrdenController {
     private final OrdenService ordenService;
+    private final AlmacenCarritosService almacenCarritos;
 
     /**
-     * Lista todas las órdenes de un usuario.
+     * Lista las órdenes de un usuario, de la más reciente a la más antigua, paginadas por cursor.
      *
      * @param usuarioId ID del usuario.
-     * @return Lista de órdenes del usuario.
+     * @param cursor Cursor devuelto por la página anterior; se omite para la primera.
+     * @param tamano Tamaño de página.
+     * @return Página de órdenes del usuario.
      */
     @GetMapping("/usuario/{usuarioId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<OrdenDTO>> listarOrdenesPorUsuario(@PathVariable Long usuarioId) {
-        List<OrdenDTO> ordenes = ordenService.listarOrdenesPorUsuario(usuarioId);
-        return ResponseEntity.ok(ordenes);
+    public ResponseEntity<PaginaCursorDTO<OrdenDTO>> listarOrdenesPorUsuario(@PathVariable Long usuarioId,
+                                                                            @RequestParam(required = false) String cursor,
+                                                                            @RequestParam(required = false) Integer tamano) {
+        try {
+            return ResponseEntity.ok(ordenService.listarOrdenesPorUsuario(usuarioId, cursor, tamano));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Lista el historial de órdenes de un usuario con un resumen por orden: fecha, estado, unidades y monto.
+     * El detalle de cada orden se pide con {@code GET /ordenes/{id}}.
+     *
+     * @param usuarioId ID del usuario.
+     * @param cursor Cursor devuelto por la página anterior; se omite para la primera.
+     * @param tamano Tamaño de página.
+     * @return Página de resúmenes de órdenes.
+     */
+    @GetMapping("/usuario/{usuarioId}/historial")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<PaginaCursorDTO<ResumenOrdenDTO>> listarHistorial(@PathVariable Long usuarioId,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(required = false) Integer tamano) {
+        try {
+            return ResponseEntity.ok(ordenService.listarResumenesPorUsuario(usuarioId, cursor, tamano));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Obtiene el detalle de una orden con sus líneas.
+     *
+     * @param id ID de la orden.
+     * @return La orden con sus líneas.
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<OrdenDTO> obtenerDetalle(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(ordenService.obtenerDetalle(id));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
     }
 
     /**
@@ -44,8 +101,12 @@ public class OrdenController {
      */
     @GetMapping("/usuario/{usuarioId}/activa")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<Orden> obtenerOrdenActiva(@PathVariable Long usuarioId) {
-        Optional<Orden> ordenActiva = ordenService.obtenerOrdenActiva(usuarioId);
+    public ResponseEntity<OrdenDTO> obtenerOrdenActiva(@PathVariable Long usuarioId, WebRequest request) {
+        Optional<String> etag = ordenService.obtenerEtagOrdenActiva(usuarioId);
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        Optional<OrdenDTO> ordenActiva = ordenService.obtenerOrdenActivaDTO(usuarioId);
         if (ordenActiva.isPresent()) {
             return ResponseEntity.ok(ordenActiva.get());
         } else {
@@ -54,7 +115,7 @@ public class OrdenController {
     }
 
     /**
-     * Crea una nueva orden de compra.
+     * Crea una nueva orden de compra con una unidad de cada producto.
      *
      * @param usuarioId ID del usuario que realiza la orden.
      * @param productoIds IDs de los productos en la orden.
@@ -62,59 +123,134 @@ public class OrdenController {
      */
     @PostMapping("/crear")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Orden> crearOrden(@RequestParam Long usuarioId, @RequestBody Set<Long> productoIds) {
-        Orden nuevaOrden = ordenService.crearOrden(usuarioId, productoIds);
-        return ResponseEntity.ok(nuevaOrden);
+    public ResponseEntity<OrdenDTO> crearOrden(@RequestParam Long usuarioId, @RequestBody Set<Long> productoIds) {
+        try {
+            Orden nuevaOrden = ordenService.crearOrden(usuarioId, productoIds);
+            return ResponseEntity.ok(ordenService.convertirADTO(nuevaOrden));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
     }
 
     /**
-     * Agrega un producto al carrito del usuario.
+     * Agrega una unidad de un producto al carrito del usuario.
      *
      * @param datos Mapa con el ID del usuario y el ID del producto.
-     * @return La orden actualizada.
+     * @return La línea del producto con su cantidad actualizada.
      */
     @PostMapping("/agregarProducto")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Orden> agregarProductoAlCarrito(@RequestBody Map<String, Long> datos) {
+    public ResponseEntity<LineaOrdenDTO> agregarProductoAlCarrito(@RequestBody Map<String, Long> datos) {
         Long usuarioId = datos.get("usuarioId");
         Long productoId = datos.get("productoId");
-        Orden ordenActualizada = ordenService.agregarProductoALaOrden(usuarioId, productoId);
-        return ResponseEntity.ok(ordenActualizada);
+        try {
+            return ResponseEntity.ok(ordenService.agregarProductoALaOrden(usuarioId, productoId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
     }
 
     /**
-     * Actualiza una orden de compra.
+     * Agrega varias líneas al carrito del usuario en una sola llamada.
+     *
+     * @param usuarioId ID del usuario.
+     * @param lineas Productos y cantidades a agregar.
+     * @return Las líneas afectadas con sus cantidades actualizadas.
+     */
+    @PostMapping("/usuario/{usuarioId}/lineas")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<LineaOrdenDTO>> agregarLineas(@PathVariable Long usuarioId,
+                                                             @RequestBody List<LineaCarritoDTO> lineas) {
+        try {
+            return ResponseEntity.ok(ordenService.agregarLineas(usuarioId, lineas));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+    }
+
+    /**
+     * Reemplaza las líneas de una orden de compra.
      *
      * @param id ID de la orden a actualizar.
-     * @param orden Nueva información de la orden.
+     * @param estado Nuevo estado de la orden; se omite para conservarlo.
+     * @param lineas Nuevas líneas de la orden.
      * @return La orden actualizada.
      */
     @PutMapping("/{id}/actualizar")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Orden> actualizarOrden(@PathVariable Long id, @RequestBody Orden orden) {
-        Orden ordenActualizada = ordenService.actualizarOrden(id, orden);
-        return ResponseEntity.ok(ordenActualizada);
+    public ResponseEntity<OrdenDTO> actualizarOrden(@PathVariable Long id,
+                                                    @RequestParam(required = false) EstadoOrden estado,
+                                                    @RequestBody List<LineaCarritoDTO> lineas) {
+        try {
+            Orden ordenActualizada = ordenService.actualizarOrden(id, estado, lineas);
+            return ResponseEntity.ok(ordenService.convertirADTO(ordenActualizada));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
     }
 
     /**
-     * Elimina un producto de una orden.
+     * Quita unidades de un producto de una orden.
      *
      * @param id ID de la orden.
-     * @param productoId ID del producto a eliminar.
-     * @return La orden actualizada.
+     * @param productoId ID del producto a quitar.
+     * @param cantidad Unidades a quitar; se omite para quitar la línea completa.
+     * @return La línea con su nueva cantidad, o respuesta vacía si la línea se eliminó.
      */
     @DeleteMapping("/{id}/producto/{productoId}")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<OrdenDTO> eliminarProductoDeLaOrden(@PathVariable Long id, @PathVariable Long productoId) {
+    public ResponseEntity<LineaOrdenDTO> eliminarProductoDeLaOrden(@PathVariable Long id, @PathVariable Long productoId,
+                                                                   @RequestParam(required = false) Integer cantidad) {
         try {
-            Orden ordenActualizada = ordenService.eliminarProductoDeLaOrden(id, productoId);
-            OrdenDTO ordenDTO = ordenService.convertirADTO(ordenActualizada);
-            return ResponseEntity.ok(ordenDTO);
-        } catch (IllegalStateException e) {
+            return ordenService.eliminarProductoDeLaOrden(id, productoId, cantidad)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.noContent().build());
+        } catch (IllegalStateException | IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
 
+    /**
+     * Obtiene lo cobrado por las órdenes pagadas en un rango de fechas de pago.
+     *
+     * @param desde Inicio del rango en formato ISO (por ejemplo 2024-01-01T00:00), inclusive.
+     * @param hasta Fin del rango en formato ISO, exclusive.
+     * @return Cantidad de órdenes y monto cobrado.
+     */
+    @GetMapping("/ingresos")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<IngresosDTO> obtenerIngresos(@RequestParam String desde, @RequestParam String hasta) {
+        try {
+            return ResponseEntity.ok(ordenService.obtenerIngresos(LocalDateTime.parse(desde), LocalDateTime.parse(hasta)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Obtiene las métricas del almacén de carritos en memoria: carritos guardados y con cambios pendientes, y
+     * duración de las escrituras en lote.
+     *
+     * @return Métricas del almacén.
+     */
+    @GetMapping("/carritos/metricas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MetricasCarritosDTO> obtenerMetricasCarritos() {
+        return ResponseEntity.ok(almacenCarritos.obtenerMetricas());
+    }
+
     /**
      * Elimina una orden de compra.
      *
@@ -1,9 +1,7 @@
 package com.example.ventaComputadora.webController;
 
-import com.example.ventaComputadora.domain.entity.EstadoOrden;
-import com.example.ventaComputadora.domain.entity.Orden;
 import com.example.ventaComputadora.domain.entity.Pago;
-import com.example.ventaComputadora.infra.repository.OrdenRepository;
+import com.example.ventaComputadora.domain.entity.StockInsuficienteException;
 import com.example.ventaComputadora.infra.repository.PagoRepository;
 import com.example.ventaComputadora.services.PagoService;
 import com.itextpdf.text.DocumentException;
@@ -12,6 +10,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -19,7 +18,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
-import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -30,7 +28,6 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PagoController {
     private final PagoRepository pagoRepository;
-    private final OrdenRepository ordenRepository;
     private final PagoService pagoService;
     private static final Logger logger = LoggerFactory.getLogger(PagoController.class);
 
@@ -38,33 +35,18 @@ public class PagoController {
      * Realiza un pago para una orden.
      *
      * @param pago Detalles del pago a realizar.
-     * @return El pago realizado.
+     * @return El pago realizado, o 409 con las líneas sin stock suficiente.
      */
     @PostMapping("/realizar")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<Pago> realizarPago(@RequestBody Pago pago) {
-        Orden orden = ordenRepository.findById(pago.getOrden().getId())
-                .orElseThrow(() -> new RuntimeException("Orden no encontrada"));
-
-        if (orden.getEstado() == EstadoOrden.PAGADO) {
-            throw new RuntimeException("La orden ya ha sido pagada.");
+    public ResponseEntity<?> realizarPago(@RequestBody Pago pago) {
+        try {
+            return ResponseEntity.ok(pagoService.realizarPago(pago));
+        } catch (StockInsuficienteException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getFaltantes());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
-
-        double montoTotal = orden.getProductos().stream()
-                .mapToDouble(producto -> producto.getPrecio())
-                .sum();
-
-        pago.setMonto(montoTotal);
-        pago.setEstado("COMPLETADO");
-        pago.setFechaPago(LocalDateTime.now());
-
-        Pago nuevoPago = pagoRepository.save(pago);
-
-        orden.setEstado(EstadoOrden.PAGADO);
-        ordenRepository.save(orden);
-
-        logger.info("Pago realizado con ID: {}", nuevoPago.getId());
-        return ResponseEntity.ok(nuevoPago);
     }
 
     /**
@@ -1,21 +1,61 @@
 package com.example.ventaComputadora.webController;
 
+import com.example.ventaComputadora.domain.DTO.AsignacionEspecificacionesDTO;
+import com.example.ventaComputadora.domain.DTO.ComparacionProductosDTO;
+import com.example.ventaComputadora.domain.DTO.FacetasDTO;
+import com.example.ventaComputadora.domain.DTO.FiltroProductosDTO;
+import com.example.ventaComputadora.domain.DTO.MedicionFiltroDTO;
+import com.example.ventaComputadora.domain.DTO.MetricasCatalogoDTO;
+import com.example.ventaComputadora.domain.DTO.PaginaCursorDTO;
 import com.example.ventaComputadora.domain.DTO.ProductoDTO;
 import com.example.ventaComputadora.domain.DTO.ProductoSimplificadoDTO;
 import com.example.ventaComputadora.domain.DTO.PersonalizacionDTO;
+import com.example.ventaComputadora.domain.DTO.ProgresoImportacionDTO;
+import com.example.ventaComputadora.domain.DTO.ResultadoAsignacionDTO;
+import com.example.ventaComputadora.domain.DTO.ResultadoRepreciadoDTO;
+import com.example.ventaComputadora.domain.DTO.SugerenciaDTO;
 import com.example.ventaComputadora.domain.entity.Producto;
+import com.example.ventaComputadora.infra.storage.AlmacenImagenes;
+import com.example.ventaComputadora.infra.storage.ImagenAlmacenada;
+import com.example.ventaComputadora.services.AsignacionEspecificacionesService;
+import com.example.ventaComputadora.services.CatalogoConsultaService;
+import com.example.ventaComputadora.services.CatalogoSnapshot;
+import com.example.ventaComputadora.services.CatalogoSnapshotService;
+import com.example.ventaComputadora.services.ComparacionProductosService;
+import com.example.ventaComputadora.services.ExportacionCatalogoService;
+import com.example.ventaComputadora.services.ImportacionProductosService;
+import com.example.ventaComputadora.services.PreciosService;
 import com.example.ventaComputadora.services.ProductoService;
+import com.example.ventaComputadora.services.SugerenciasService;
+import com.example.ventaComputadora.services.indice.IndiceSugerencias;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 /**
  * Controlador REST para manejar las operaciones relacionadas con los productos.
@@ -25,17 +65,32 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductoController {
     private final ProductoService productoService;
+    private final AlmacenImagenes almacenImagenes;
+    private final CatalogoSnapshotService catalogoSnapshotService;
+    private final CatalogoConsultaService catalogoConsultaService;
+    private final SugerenciasService sugerenciasService;
+    private final ExportacionCatalogoService exportacionCatalogoService;
+    private final ImportacionProductosService importacionProductosService;
+    private final AsignacionEspecificacionesService asignacionEspecificacionesService;
+    private final PreciosService preciosService;
+    private final ComparacionProductosService comparacionProductosService;
 
     /**
-     * Lista todos los productos simplificados.
+     * Lista una página de productos simplificados.
      *
-     * @return Lista de productos simplificados.
+     * @param pageable Página, tamaño y orden (nombre, precio, stock o id).
+     * @return Página de productos simplificados.
      */
     @GetMapping("/listar")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<ProductoSimplificadoDTO>> listarProductos() {
-        List<ProductoSimplificadoDTO> productos = productoService.listarProductosSimplificados();
-        return ResponseEntity.ok(productos);
+    public ResponseEntity<byte[]> listarProductos(@PageableDefault(size = 20, sort = "nombre") Pageable pageable) {
+        try {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(catalogoSnapshotService.paginaCatalogoJson(pageable));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -76,15 +131,121 @@ public class ProductoController {
     }
 
     /**
-     * Obtiene el catálogo completo de productos.
+     * Obtiene una página del catálogo de productos ordenada por nombre y paginada por cursor.
      *
-     * @return Lista de productos simplificados.
+     * @param cursor Cursor devuelto por la página anterior; se omite para la primera.
+     * @param tamano Tamaño de página.
+     * @return Página de productos simplificados.
      */
     @GetMapping("/catalogo")
     @PreAuthorize("hasRole('USER')")
-    public ResponseEntity<List<ProductoSimplificadoDTO>> obtenerCatalogoCompleto() {
-        List<ProductoSimplificadoDTO> productos = productoService.listarProductosSimplificados();
-        return ResponseEntity.ok(productos);
+    public ResponseEntity<byte[]> obtenerCatalogoCompleto(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer tamano,
+                                                          WebRequest request) {
+        try {
+            Optional<String> etag = catalogoSnapshotService.etagCatalogo(cursor, tamano);
+            if (etag.isPresent() && request.checkNotModified(etag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(catalogoSnapshotService.paginaCatalogoCursorJson(cursor, tamano));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Exporta el catálogo completo como NDJSON, un producto por línea. La respuesta se escribe
+     * a medida que se leen los productos, sin armar la lista completa en memoria.
+     *
+     * @return Flujo con el catálogo en formato NDJSON.
+     */
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportarCatalogo() {
+        StreamingResponseBody cuerpo = exportacionCatalogoService::exportar;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(cuerpo);
+    }
+
+    /**
+     * Inicia la importación masiva de productos. El cuerpo es un CSV con encabezado
+     * (nombre, descripcion, precio, stock, imagen, especificaciones con IDs separados por punto y coma)
+     * o NDJSON con un producto por línea en el formato de registro.
+     *
+     * @param contentType Tipo de contenido del cuerpo (text/csv o application/x-ndjson).
+     * @param request Petición HTTP con el archivo en el cuerpo.
+     * @return Estado inicial de la importación, cuyo avance se consulta en /importar/{id}.
+     */
+    @PostMapping(value = "/importar", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProgresoImportacionDTO> importarProductos(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                   HttpServletRequest request) {
+        ImportacionProductosService.Formato formato = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ImportacionProductosService.Formato.CSV
+                : ImportacionProductosService.Formato.NDJSON;
+        try {
+            ProgresoImportacionDTO progreso = importacionProductosService.iniciar(request.getInputStream(), formato);
+            return ResponseEntity.accepted().body(progreso);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Obtiene el avance de una importación masiva de productos.
+     *
+     * @param id ID de la importación.
+     * @return Filas leídas, importadas, con error y detalle de los errores.
+     */
+    @GetMapping("/importar/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProgresoImportacionDTO> obtenerProgresoImportacion(@PathVariable String id) {
+        return importacionProductosService.obtenerProgreso(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Agrega y quita especificaciones de muchos productos en una sola operación.
+     *
+     * @param asignacion Especificaciones a agregar (con cantidad) y a quitar.
+     * @return Resumen de los cambios aplicados.
+     */
+    @PostMapping("/especificaciones/lote")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResultadoAsignacionDTO> asignarEspecificacionesEnLote(@RequestBody AsignacionEspecificacionesDTO asignacion) {
+        try {
+            return ResponseEntity.ok(asignacionEspecificacionesService.aplicar(asignacion));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Recalcula el precio de todo el catálogo desde el precio base y las especificaciones de cada producto.
+     *
+     * @return Cantidad de productos cuyo precio cambió y duración.
+     */
+    @PostMapping("/repreciar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ResultadoRepreciadoDTO> repreciarCatalogo() {
+        return ResponseEntity.ok(preciosService.repreciarCatalogo());
+    }
+
+    /**
+     * Obtiene las métricas de la foto en memoria del catálogo.
+     *
+     * @return Versión, tamaño, aciertos, fallos y tiempos de reconstrucción.
+     */
+    @GetMapping("/catalogo/metricas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MetricasCatalogoDTO> obtenerMetricasCatalogo() {
+        return ResponseEntity.ok(catalogoSnapshotService.obtenerMetricas());
     }
 
     /**
@@ -95,21 +256,115 @@ public class ProductoController {
      */
     @GetMapping("/{id}/detalles")
     @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
-    public ResponseEntity<ProductoSimplificadoDTO> obtenerDetallesDelProducto(@PathVariable Long id) {
+    public ResponseEntity<?> obtenerDetallesDelProducto(@PathVariable Long id, WebRequest request) {
+        Optional<CatalogoSnapshot.Entrada> detalle = catalogoSnapshotService.detalle(id);
+        if (detalle.isPresent()) {
+            if (request.checkNotModified(etagProducto(id, detalle.get().dto().getVersion()))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(detalle.get().json());
+        }
+        Optional<Long> version = productoService.obtenerVersion(id);
+        if (version.isPresent() && request.checkNotModified(etagProducto(id, version.get()))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
         Producto producto = productoService.obtenerProductoPorId(id);
         ProductoSimplificadoDTO productoSimplificadoDTO = productoService.convertirASimplificadoDTO(producto);
         return ResponseEntity.ok(productoSimplificadoDTO);
     }
 
     /**
-     * Actualiza las especificaciones de un producto.
+     * Compara entre 2 y 6 productos lado a lado: una fila por tipo de especificación, además de precio y stock,
+     * con el mínimo y el máximo de cada fila ya marcados. Las columnas van en orden ascendente de ID, de modo que
+     * la respuesta y su ETag dependen solo del conjunto de productos; responde 304 si ninguno cambió.
+     *
+     * @param ids IDs de los productos a comparar.
+     * @param request Petición HTTP.
+     * @return Matriz de comparación.
+     */
+    @GetMapping("/comparar")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('USER')")
+    public ResponseEntity<ComparacionProductosDTO> compararProductos(@RequestParam List<Long> ids, WebRequest request) {
+        ComparacionProductosService.Comparacion comparacion;
+        try {
+            comparacion = comparacionProductosService.comparar(ids);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(comparacion.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        return ResponseEntity.ok(comparacion.dto());
+    }
+
+    private static String etagProducto(Long id, Long version) {
+        return "producto-" + id + "-" + version;
+    }
+
+    /**
+     * Devuelve la imagen de un producto desde el almacén de imágenes.
+     * Responde 304 si el cliente ya tiene la versión actual (If-None-Match) y, cuando el contenedor
+     * lo soporta, delega el envío del archivo en sendfile para no copiar los bytes por la JVM.
      *
      * @param id ID del producto.
-     * @param personalizacionDTO Detalles de la personalización del producto.
+     * @param request Petición HTTP.
+     * @param response Respuesta HTTP donde se escribe la imagen.
+     * @throws IOException Si ocurre un error al leer el archivo o escribir la respuesta.
+     */
+    @GetMapping("/{id}/imagen")
+    public void obtenerImagen(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImagenAlmacenada imagen;
+        try {
+            imagen = productoService.obtenerImagen(id);
+        } catch (EntityNotFoundException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        if (new ServletWebRequest(request, response).checkNotModified(imagen.getHash())) {
+            return;
+        }
+
+        Path archivo = almacenImagenes.resolver(imagen.getHash());
+        long tamano;
+        try {
+            tamano = Files.size(archivo);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType(imagen.getTipo());
+        response.setContentLengthLong(tamano);
+
+        if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", archivo.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", tamano);
+            return;
+        }
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(response.getOutputStream());
+            long posicion = 0;
+            while (posicion < tamano) {
+                posicion += canal.transferTo(posicion, tamano - posicion, salida);
+            }
+        }
+    }
+
+    /**
+     * Reemplaza las especificaciones de un producto del catálogo. Las personalizaciones de los clientes se
+     * cotizan y guardan con el configurador, que no modifica el producto.
+     *
+     * @param id ID del producto.
+     * @param personalizacionDTO Nuevas especificaciones del producto.
      * @return El producto actualizado.
      */
     @PutMapping("/{id}/especificaciones")
-    @PreAuthorize("hasRole('USER')")
+    @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductoSimplificadoDTO> actualizarEspecificaciones(@PathVariable Long id, @RequestBody PersonalizacionDTO personalizacionDTO) {
         Producto productoActualizado = productoService.modificarEspecificaciones(id, personalizacionDTO.getEspecificacionIds());
         ProductoSimplificadoDTO productoSimplificadoDTO = productoService.convertirASimplificadoDTO(productoActualizado);
@@ -139,22 +394,46 @@ public class ProductoController {
             return ResponseEntity.ok(productoSimplificadoDTO);
         } catch (EntityNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
 
     /**
-     * Busca productos por nombre.
+     * Busca productos por texto en nombre, descripción y especificaciones, ordenados por relevancia
+     * y paginados por cursor. Admite prefijos y errores de tipeo.
      *
-     * @param nombre Nombre del producto.
-     * @return Lista de productos que coinciden con el nombre.
+     * @param nombre Texto buscado.
+     * @param cursor Cursor devuelto por la página anterior; se omite para la primera.
+     * @param tamano Tamaño de página.
+     * @return Página de productos encontrados.
      */
     @GetMapping("/buscar")
-    public ResponseEntity<List<ProductoSimplificadoDTO>> buscarProductos(@RequestParam String nombre) {
-        List<ProductoSimplificadoDTO> productos = productoService.buscarProductosPorNombre(nombre)
-                .stream()
-                .map(productoService::convertirASimplificadoDTO)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(productos);
+    public ResponseEntity<PaginaCursorDTO<ProductoSimplificadoDTO>> buscarProductos(@RequestParam String nombre,
+                                                                                   @RequestParam(required = false) String cursor,
+                                                                                   @RequestParam(required = false) Integer tamano) {
+        try {
+            return ResponseEntity.ok(catalogoConsultaService.buscarProductos(nombre, cursor, tamano));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Sugiere nombres de productos, especificaciones y marcas que empiezan con el texto escrito,
+     * ordenados por popularidad.
+     *
+     * @param q Texto escrito por el usuario.
+     * @param limite Número máximo de sugerencias (1 a 10).
+     * @return Lista de sugerencias.
+     */
+    @GetMapping("/sugerencias")
+    public ResponseEntity<List<SugerenciaDTO>> sugerir(@RequestParam String q,
+                                                       @RequestParam(defaultValue = "8") int limite) {
+        if (limite < 1 || limite > IndiceSugerencias.MAX_SUGERENCIAS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(sugerenciasService.sugerir(q, limite));
     }
 
     /**
@@ -216,21 +495,63 @@ public class ProductoController {
     }
 
     /**
-     * Filtra productos según criterios específicos.
+     * Filtra los productos por especificaciones, precio y stock, paginando por cursor en orden de ID.
      *
-     * @param filtros Mapa de criterios de filtrado.
-     * @return Lista de productos filtrados.
+     * @param filtro Criterios de filtrado.
+     * @param cursor Cursor devuelto por la página anterior; se omite para la primera.
+     * @param tamano Tamaño de página.
+     * @return Página de productos filtrados.
      */
     @PostMapping("/filtrar")
-    public ResponseEntity<List<ProductoSimplificadoDTO>> filtrarProductos(@RequestBody Map<String, Object> filtros) {
-        Set<String> ram = filtros.containsKey("ram") ? new HashSet<>((List<String>) filtros.get("ram")) : null;
-        Set<String> procesador = filtros.containsKey("procesador") ? new HashSet<>((List<String>) filtros.get("procesador")) : null;
-        Set<String> tarjetaGrafica = filtros.containsKey("tarjetaGrafica") ? new HashSet<>((List<String>) filtros.get("tarjetaGrafica")) : null;
-        Double precioMin = filtros.containsKey("precioMin") ? (Double) filtros.get("precioMin") : null;
-        Double precioMax = filtros.containsKey("precioMax") ? (Double) filtros.get("precioMax") : null;
-        Boolean enStock = filtros.containsKey("enStock") ? (Boolean) filtros.get("enStock") : null;
-
-        List<ProductoSimplificadoDTO> productosFiltrados = productoService.filtrarProductos(ram, procesador, tarjetaGrafica, precioMin, precioMax, enStock);
-        return ResponseEntity.ok(productosFiltrados);
+    public ResponseEntity<PaginaCursorDTO<ProductoSimplificadoDTO>> filtrarProductos(@RequestBody FiltroProductosDTO filtro,
+                                                                                    @RequestParam(required = false) String cursor,
+                                                                                    @RequestParam(required = false) Integer tamano) {
+        try {
+            return ResponseEntity.ok(catalogoConsultaService.filtrarProductos(filtro, cursor, tamano));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Compara el tiempo de la primera página de /filtrar con el índice en memoria, la consulta SQL y el
+     * recorrido en la JVM, para elegir {@code app.catalogo.filtro.estrategia} en cada despliegue.
+     *
+     * @param filtro Criterios de filtrado.
+     * @param tamano Tamaño de página.
+     * @param repeticiones Ejecuciones medidas por estrategia (1 a 100).
+     * @return Tiempos por estrategia.
+     */
+    @PostMapping("/filtrar/comparar")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<MedicionFiltroDTO>> compararEstrategiasFiltro(@RequestBody FiltroProductosDTO filtro,
+                                                                            @RequestParam(required = false) Integer tamano,
+                                                                            @RequestParam(defaultValue = "5") int repeticiones) {
+        try {
+            return ResponseEntity.ok(catalogoConsultaService.compararEstrategiasFiltro(filtro, tamano, repeticiones));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Calcula las facetas de navegación (conteos por RAM, procesador, tarjeta gráfica, stock e histograma de precios)
+     * para la selección actual.
+     *
+     * @param filtro Selección actual, con el mismo formato que /filtrar.
+     * @param intervalos Número de intervalos del histograma de precios (1 a 50).
+     * @return Facetas con sus conteos.
+     */
+    @PostMapping("/facetas")
+    public ResponseEntity<FacetasDTO> calcularFacetas(@RequestBody FiltroProductosDTO filtro,
+                                                      @RequestParam(defaultValue = "10") int intervalos) {
+        if (intervalos < 1 || intervalos > 50) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(catalogoConsultaService.calcularFacetas(filtro, intervalos));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
     }
 }
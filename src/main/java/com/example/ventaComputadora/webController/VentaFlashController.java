@@ -0,0 +1,70 @@
+package com.example.ventaComputadora.webController;
+
+import com.example.ventaComputadora.domain.DTO.MetricasVentaFlashDTO;
+import com.example.ventaComputadora.services.VentaFlashService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controlador REST para activar y supervisar el modo venta flash de los productos.
+ */
+@RestController
+@RequestMapping("/ventas-flash")
+@RequiredArgsConstructor
+public class VentaFlashController {
+    private final VentaFlashService ventaFlashService;
+
+    /**
+     * Activa la venta flash de un producto: su stock pasa a reservarse en memoria.
+     *
+     * @param productoId ID del producto.
+     * @return Respuesta vacía si se activó.
+     */
+    @PostMapping("/{productoId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> activar(@PathVariable Long productoId) {
+        try {
+            ventaFlashService.activar(productoId);
+            return ResponseEntity.noContent().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Termina la venta flash de un producto y aplica al stock las ventas pendientes.
+     *
+     * @param productoId ID del producto.
+     * @return Respuesta vacía si se terminó.
+     */
+    @DeleteMapping("/{productoId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> desactivar(@PathVariable Long productoId) {
+        try {
+            ventaFlashService.desactivar(productoId);
+            return ResponseEntity.noContent().build();
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Obtiene, por producto en venta flash, el stock en memoria, las unidades reservadas por segundo y cuánto
+     * falta aplicar a la base.
+     *
+     * @return Métricas de las ventas flash activas.
+     */
+    @GetMapping("/metricas")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<MetricasVentaFlashDTO>> obtenerMetricas() {
+        return ResponseEntity.ok(ventaFlashService.obtenerMetricas());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.ventaComputadora;
+
+import com.example.ventaComputadora.domain.entity.Producto;
+import com.example.ventaComputadora.domain.entity.Role;
+import com.example.ventaComputadora.domain.entity.Usuario;
+import com.example.ventaComputadora.infra.repository.ProductoRepository;
+import com.example.ventaComputadora.infra.repository.UsuarioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Base de las pruebas que necesitan un MySQL real. El contenedor se arranca una sola vez y lo comparten todas
+ * las clases, igual que el contexto de Spring; sin Docker las pruebas se omiten.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class IntegracionMySql {
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUrlParam("rewriteBatchedStatements", "true");
+
+    @Autowired
+    protected UsuarioRepository usuarioRepository;
+
+    @Autowired
+    protected ProductoRepository productoRepository;
+
+    @DynamicPropertySource
+    static void configurarBase(DynamicPropertyRegistry registro) {
+        MYSQL.start();
+        registro.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registro.add("spring.datasource.username", MYSQL::getUsername);
+        registro.add("spring.datasource.password", MYSQL::getPassword);
+        registro.add("spring.datasource.hikari.maximum-pool-size", () -> "40");
+    }
+
+    /**
+     * Crea un usuario con datos únicos.
+     */
+    protected Usuario crearUsuario() {
+        String sufijo = UUID.randomUUID().toString().substring(0, 8);
+        return usuarioRepository.save(Usuario.builder()
+                .nombre("Prueba")
+                .apellido("Integración")
+                .dni(String.format("%08d", ThreadLocalRandom.current().nextInt(100_000_000)))
+                .telefono("999999999")
+                .correo(sufijo + "@prueba.com")
+                .username("usuario-" + sufijo)
+                .password("secreto")
+                .role(Role.USER)
+                .build());
+    }
+
+    /**
+     * Crea un producto sin especificaciones con el precio y el stock indicados.
+     */
+    protected Producto crearProducto(BigDecimal precio, int stock) {
+        return productoRepository.save(Producto.builder()
+                .nombre("Producto " + UUID.randomUUID())
+                .precio(precio)
+                .precioBase(precio)
+                .precioEspecificaciones(BigDecimal.ZERO)
+                .descripcion("Producto de prueba")
+                .imagen("")
+                .stock(stock)
+                .build());
+    }
+}
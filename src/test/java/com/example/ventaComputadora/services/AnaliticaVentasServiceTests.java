@@ -0,0 +1,133 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.IntegracionMySql;
+import com.example.ventaComputadora.domain.DTO.ProgresoReconstruccionDTO;
+import com.example.ventaComputadora.domain.DTO.VentasDiaDTO;
+import com.example.ventaComputadora.domain.DTO.VentasTipoDTO;
+import com.example.ventaComputadora.domain.entity.Especificacion;
+import com.example.ventaComputadora.domain.entity.Orden;
+import com.example.ventaComputadora.domain.entity.Pago;
+import com.example.ventaComputadora.domain.entity.Producto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica contra MySQL que un pago sume la orden a los acumulados del día, por producto, por tipo y en total,
+ * y que la reconstrucción llegue a los mismos valores.
+ */
+class AnaliticaVentasServiceTests extends IntegracionMySql {
+    @Autowired
+    private AnaliticaVentasService analiticaVentasService;
+
+    @Autowired
+    private OrdenService ordenService;
+
+    @Autowired
+    private PagoService pagoService;
+
+    @Autowired
+    private EspecificacionService especificacionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pagoSumaLaOrdenALosAcumulados() {
+        Producto producto = crearProducto(new BigDecimal("100.00"), 10);
+        String tipo = "Tipo " + UUID.randomUUID();
+        Especificacion especificacion = especificacionService.registrarEspecificacion(
+                "Memoria", "Módulo de prueba", new BigDecimal("25.00"), "Marca", tipo);
+        jdbcTemplate.update("INSERT INTO producto_especificaciones (producto_id, especificacion_id, cantidad) VALUES (?, ?, 2)",
+                producto.getId(), especificacion.getId());
+
+        VentasDiaDTO antes = totalDelDia(LocalDate.now());
+        Pago pago = pagar(producto, 3);
+        LocalDate fecha = pago.getFechaPago().toLocalDate();
+
+        assertThat(pago.getMonto()).isEqualByComparingTo("300.00");
+
+        List<VentasDiaDTO> delProducto = analiticaVentasService.ventasPorDia(fecha, fecha, producto.getId());
+        assertThat(delProducto).hasSize(1);
+        assertThat(delProducto.get(0).getOrdenes()).isEqualTo(1);
+        assertThat(delProducto.get(0).getUnidades()).isEqualTo(3);
+        assertThat(delProducto.get(0).getMonto()).isEqualByComparingTo("300.00");
+
+        VentasTipoDTO delTipo = ventasDelTipo(fecha, especificacion.getTipoTermino().getId());
+        assertThat(delTipo.getNombre()).isEqualTo(tipo);
+        assertThat(delTipo.getUnidades()).isEqualTo(6);
+        assertThat(delTipo.getMonto()).isEqualByComparingTo("150.00");
+
+        VentasDiaDTO despues = totalDelDia(fecha);
+        assertThat(despues.getOrdenes()).isEqualTo(antes.getOrdenes() + 1);
+        assertThat(despues.getUnidades()).isEqualTo(antes.getUnidades() + 3);
+        assertThat(despues.getMonto()).isEqualByComparingTo(antes.getMonto().add(new BigDecimal("300.00")));
+    }
+
+    @Test
+    void dosPagosDelMismoDiaSeSumanEnLaMismaFila() {
+        Producto producto = crearProducto(new BigDecimal("40.00"), 10);
+
+        LocalDate fecha = pagar(producto, 1).getFechaPago().toLocalDate();
+        pagar(producto, 2);
+
+        List<VentasDiaDTO> delProducto = analiticaVentasService.ventasPorDia(fecha, fecha, producto.getId());
+        assertThat(delProducto).hasSize(1);
+        assertThat(delProducto.get(0).getOrdenes()).isEqualTo(2);
+        assertThat(delProducto.get(0).getUnidades()).isEqualTo(3);
+        assertThat(delProducto.get(0).getMonto()).isEqualByComparingTo("120.00");
+    }
+
+    @Test
+    void reconstruccionCoincideConLosAcumuladosIncrementales() throws InterruptedException {
+        Producto producto = crearProducto(new BigDecimal("55.50"), 10);
+        LocalDate fecha = pagar(producto, 2).getFechaPago().toLocalDate();
+        pagar(producto, 1);
+        List<VentasDiaDTO> incrementales = analiticaVentasService.ventasPorDia(fecha, fecha, null);
+        List<VentasDiaDTO> delProducto = analiticaVentasService.ventasPorDia(fecha, fecha, producto.getId());
+
+        ProgresoReconstruccionDTO progreso = analiticaVentasService.reconstruir(fecha, fecha);
+        for (int i = 0; i < 100 && !terminada(progreso); i++) {
+            Thread.sleep(100);
+            progreso = analiticaVentasService.obtenerProgreso(progreso.getId()).orElseThrow();
+        }
+
+        assertThat(progreso.getEstado()).isEqualTo("COMPLETADA");
+        assertThat(analiticaVentasService.ventasPorDia(fecha, fecha, null)).isEqualTo(incrementales);
+        assertThat(analiticaVentasService.ventasPorDia(fecha, fecha, producto.getId())).isEqualTo(delProducto);
+    }
+
+    private Pago pagar(Producto producto, int cantidad) {
+        Orden orden = ordenService.crearOrden(crearUsuario().getId(), Set.of(producto.getId()));
+        jdbcTemplate.update("UPDATE lineas_orden SET cantidad = ? WHERE orden_id = ?", cantidad, orden.getId());
+        return pagoService.realizarPago(Pago.builder()
+                .orden(orden)
+                .metodoPago("TARJETA")
+                .build());
+    }
+
+    private VentasDiaDTO totalDelDia(LocalDate fecha) {
+        return analiticaVentasService.ventasPorDia(fecha, fecha, null).stream()
+                .findFirst()
+                .orElse(new VentasDiaDTO(fecha, 0, 0, BigDecimal.ZERO));
+    }
+
+    private VentasTipoDTO ventasDelTipo(LocalDate fecha, Long tipoId) {
+        return analiticaVentasService.ventasPorTipo(fecha, fecha).stream()
+                .filter(v -> v.getTipoId().equals(tipoId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static boolean terminada(ProgresoReconstruccionDTO progreso) {
+        return progreso.getFin() != null;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.domain.DTO.ProductoSimplificadoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica el orden por nombre de la foto del catálogo y que las versiones parciales lo mantengan.
+ */
+class CatalogoSnapshotTests {
+
+    @Test
+    void comparaNombresPorCodigoUnicodeComoMySql() {
+        // U+FF21 es mayor que los sustitutos de U+1F600 como char, pero menor como código Unicode.
+        String anchaA = "Ａ";
+        String emoji = new String(Character.toChars(0x1F600));
+        assertThat(anchaA.compareTo(emoji)).isPositive();
+        assertThat(CatalogoSnapshot.compararNombres(anchaA, emoji)).isNegative();
+
+        assertThat(CatalogoSnapshot.compararNombres("Z", "a")).isNegative();
+        assertThat(CatalogoSnapshot.compararNombres("ab", "abc")).isNegative();
+        assertThat(CatalogoSnapshot.compararNombres("abc", "abc")).isZero();
+        assertThat(CatalogoSnapshot.compararNombres("é", "f")).isPositive();
+    }
+
+    @Test
+    void cambioSinMoverNombresConservaElOrden() {
+        CatalogoSnapshot foto = new CatalogoSnapshot(1, entradas(producto(1L, "b", 5), producto(2L, "a", 5)));
+
+        CatalogoSnapshot siguiente = foto.conCambios(2, entradas(producto(1L, "b", 4)), Set.of());
+
+        assertThat(ids(siguiente.pagina(0, 10))).containsExactly(2L, 1L);
+        assertThat(siguiente.obtener(1L).dto().getStock()).isEqualTo(4);
+        assertThat(foto.obtener(1L).dto().getStock()).isEqualTo(5);
+        assertThat(ids(siguiente.despuesDe("a", 2L, 10))).containsExactly(1L);
+        assertThat(siguiente.despuesDe("a", 2L, 10).get(0).dto().getStock()).isEqualTo(4);
+    }
+
+    @Test
+    void altasBajasYRenombresSeIntercalanEnOrden() {
+        CatalogoSnapshot foto = new CatalogoSnapshot(1,
+                entradas(producto(1L, "a", 1), producto(2L, "c", 1), producto(3L, "e", 1), producto(4L, "g", 1)));
+        foto = foto.conCambios(2, entradas(producto(2L, "c", 0)), Set.of());
+
+        CatalogoSnapshot siguiente = foto.conCambios(3,
+                entradas(producto(5L, "d", 1), producto(3L, "h", 1), producto(6L, "0", 1)), Set.of(1L, 99L));
+
+        assertThat(ids(siguiente.pagina(0, 10))).containsExactly(6L, 2L, 5L, 4L, 3L);
+        assertThat(siguiente.obtener(1L)).isNull();
+        assertThat(siguiente.obtener(2L).dto().getStock()).isZero();
+        assertThat(siguiente.getVersion()).isEqualTo(3);
+    }
+
+    private static ProductoSimplificadoDTO producto(Long id, String nombre, int stock) {
+        return new ProductoSimplificadoDTO(id, nombre, BigDecimal.TEN, null, null, stock, Set.of(), Set.of(), Set.of(), 0L);
+    }
+
+    private static Map<Long, CatalogoSnapshot.Entrada> entradas(ProductoSimplificadoDTO... productos) {
+        Map<Long, CatalogoSnapshot.Entrada> entradas = new HashMap<>();
+        for (ProductoSimplificadoDTO producto : productos) {
+            entradas.put(producto.getId(), new CatalogoSnapshot.Entrada(producto, new byte[0]));
+        }
+        return entradas;
+    }
+
+    private static List<Long> ids(List<CatalogoSnapshot.Entrada> entradas) {
+        List<Long> ids = new ArrayList<>();
+        entradas.forEach(entrada -> ids.add(entrada.dto().getId()));
+        return ids;
+    }
+}
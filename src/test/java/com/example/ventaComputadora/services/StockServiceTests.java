@@ -0,0 +1,175 @@
+package com.example.ventaComputadora.services;
+
+import com.example.ventaComputadora.IntegracionMySql;
+import com.example.ventaComputadora.domain.DTO.FaltanteStockDTO;
+import com.example.ventaComputadora.domain.entity.EstadoOrden;
+import com.example.ventaComputadora.domain.entity.Orden;
+import com.example.ventaComputadora.domain.entity.Pago;
+import com.example.ventaComputadora.domain.entity.Producto;
+import com.example.ventaComputadora.domain.entity.StockInsuficienteException;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica contra MySQL que los pagos simultáneos sobre un mismo producto no vendan más unidades que las
+ * disponibles, tanto descontando de la columna como con el producto en venta flash, y que una línea sin stock
+ * dentro de un lote reescrito por el driver se detecte. El rendimiento de los pagos simultáneos se informa en
+ * el log; no se exige un mínimo porque depende de la máquina.
+ */
+class StockServiceTests extends IntegracionMySql {
+    private static final Logger logger = LoggerFactory.getLogger(StockServiceTests.class);
+    private static final int PAGOS = 200;
+    private static final int HILOS = 32;
+    private static final int STOCK_INICIAL = 50;
+
+    @Autowired
+    private OrdenService ordenService;
+
+    @Autowired
+    private PagoService pagoService;
+
+    @Autowired
+    private VentaFlashService ventaFlashService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void pagosSimultaneosNoDejanStockNegativo() throws Exception {
+        Producto producto = crearProducto(new BigDecimal("10.00"), STOCK_INICIAL);
+
+        int exitosos = pagarEnParalelo("stock en columna", crearOrdenes(producto));
+
+        int stock = stock(producto);
+        assertThat(stock).isGreaterThanOrEqualTo(0);
+        assertThat(stock).isEqualTo(STOCK_INICIAL - exitosos);
+        assertThat(exitosos).isEqualTo(STOCK_INICIAL);
+        assertThat(ordenesPagadas(producto)).isEqualTo(exitosos);
+    }
+
+    @Test
+    void pagosSimultaneosEnVentaFlashNoDejanStockNegativo() throws Exception {
+        Producto producto = crearProducto(new BigDecimal("10.00"), STOCK_INICIAL);
+        List<Long> ordenes = crearOrdenes(producto);
+
+        ventaFlashService.activar(producto.getId());
+        int exitosos;
+        try {
+            exitosos = pagarEnParalelo("venta flash", ordenes);
+            assertThat(ventaFlashService.disponible(producto.getId())).isEqualTo(STOCK_INICIAL - exitosos);
+        } finally {
+            ventaFlashService.desactivar(producto.getId());
+        }
+
+        int stock = stock(producto);
+        assertThat(stock).isGreaterThanOrEqualTo(0);
+        assertThat(stock).isEqualTo(STOCK_INICIAL - exitosos);
+        assertThat(exitosos).isEqualTo(STOCK_INICIAL);
+        assertThat(ordenesPagadas(producto)).isEqualTo(exitosos);
+    }
+
+    @Test
+    void unaLineaSinStockEnUnLoteRevierteTodasLasDemas() {
+        // Más de tres líneas para que el driver reescriba el lote en una sola sentencia múltiple.
+        List<Producto> conStock = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            conStock.add(crearProducto(new BigDecimal("10.00"), STOCK_INICIAL));
+        }
+        Producto sinStock = crearProducto(new BigDecimal("10.00"), 0);
+        Set<Long> productoIds = new HashSet<>();
+        conStock.forEach(producto -> productoIds.add(producto.getId()));
+        productoIds.add(sinStock.getId());
+        Long ordenId = ordenService.crearOrden(crearUsuario().getId(), productoIds).getId();
+
+        assertThatThrownBy(() -> pagoService.realizarPago(Pago.builder()
+                .orden(Orden.builder().id(ordenId).version(0L).build())
+                .metodoPago("TARJETA")
+                .build()))
+                .isInstanceOfSatisfying(StockInsuficienteException.class, e -> assertThat(e.getFaltantes())
+                        .extracting(FaltanteStockDTO::getProductoId)
+                        .containsExactly(sinStock.getId()));
+
+        for (Producto producto : conStock) {
+            assertThat(stock(producto)).isEqualTo(STOCK_INICIAL);
+        }
+        assertThat(stock(sinStock)).isZero();
+        assertThat(ordenService.obtenerDetalle(ordenId).getEstado()).isEqualTo(EstadoOrden.CARRITO.name());
+    }
+
+    private List<Long> crearOrdenes(Producto producto) {
+        Long usuarioId = crearUsuario().getId();
+        List<Long> ordenes = new ArrayList<>(PAGOS);
+        for (int i = 0; i < PAGOS; i++) {
+            ordenes.add(ordenService.crearOrden(usuarioId, Set.of(producto.getId())).getId());
+        }
+        return ordenes;
+    }
+
+    /**
+     * Paga todas las órdenes a la vez y devuelve cuántos pagos se completaron. Los pagos rechazados deben serlo
+     * por falta de stock; cualquier otro error hace fallar la prueba. Informa en el log cuántos pagos por segundo
+     * se atendieron, contando tanto los completados como los rechazados.
+     */
+    private int pagarEnParalelo(String escenario, List<Long> ordenes) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>(ordenes.size());
+        try {
+            for (Long ordenId : ordenes) {
+                resultados.add(ejecutor.submit(() -> {
+                    largada.await();
+                    try {
+                        pagoService.realizarPago(Pago.builder()
+                                .orden(Orden.builder().id(ordenId).version(0L).build())
+                                .metodoPago("TARJETA")
+                                .build());
+                        return true;
+                    } catch (StockInsuficienteException e) {
+                        return false;
+                    }
+                }));
+            }
+            long inicio = System.nanoTime();
+            largada.countDown();
+            int exitosos = 0;
+            for (Future<Boolean> resultado : resultados) {
+                if (resultado.get(2, TimeUnit.MINUTES)) {
+                    exitosos++;
+                }
+            }
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            logger.info("{}: {} pagos simultáneos con {} hilos en {} s ({} pagos/s, {} completados)", escenario,
+                    ordenes.size(), HILOS, String.format("%.2f", segundos), String.format("%.0f", ordenes.size() / segundos),
+                    exitosos);
+            return exitosos;
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    private int ordenesPagadas(Producto producto) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ordenes o JOIN lineas_orden l ON l.orden_id = o.id " +
+                "WHERE l.producto_id = ? AND o.estado = ?", Integer.class, producto.getId(), EstadoOrden.PAGADO.name());
+    }
+
+    private int stock(Producto producto) {
+        return jdbcTemplate.queryForObject("SELECT stock FROM productos WHERE id = ?", Integer.class, producto.getId());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ventaComputadora.services.importacion;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica la lectura de registros CSV con campos entre comillas y los distintos finales de línea.
+ */
+class LectorCsvTests {
+
+    @Test
+    void leeCamposEntreComillasConComasComillasYSaltos() throws IOException {
+        LectorCsv lector = new LectorCsv(new StringReader(
+                "nombre,descripcion,precio\n\"Monitor, 27\"\"\",\"Línea 1\nLínea 2\",199.90\n"));
+
+        assertThat(lector.leer()).containsExactly("nombre", "descripcion", "precio");
+        assertThat(lector.leer()).containsExactly("Monitor, 27\"", "Línea 1\nLínea 2", "199.90");
+        assertThat(lector.leer()).isNull();
+    }
+
+    @Test
+    void aceptaFinesDeLineaCrLfYCrYUltimaLineaSinSalto() throws IOException {
+        LectorCsv lector = new LectorCsv(new StringReader("a,b\r\nc,d\re,\"\""));
+
+        assertThat(lector.leer()).containsExactly("a", "b");
+        assertThat(lector.leer()).containsExactly("c", "d");
+        assertThat(lector.leer()).containsExactly("e", "");
+        assertThat(lector.leer()).isNull();
+    }
+
+    @Test
+    void conservaCamposVacios() throws IOException {
+        LectorCsv lector = new LectorCsv(new StringReader(",x,\n\n"));
+
+        assertThat(lector.leer()).containsExactly("", "x", "");
+        assertThat(lector.leer()).containsExactly("");
+        assertThat(lector.leer()).isNull();
+    }
+
+    @Test
+    void rechazaUnCampoEntreComillasSinCerrar() throws IOException {
+        LectorCsv lector = new LectorCsv(new StringReader("ok\n\"sin cerrar,1\n"));
+
+        assertThat(lector.leer()).containsExactly("ok");
+        assertThatThrownBy(lector::leer).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.ventaComputadora.services.indice;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica las operaciones del conjunto de bits, incluidos los bordes de palabra y el crecimiento.
+ */
+class ConjuntoBitsTests {
+
+    @Test
+    void agregaQuitaYCreceMasAllaDeLaCapacidad() {
+        ConjuntoBits conjunto = new ConjuntoBits(1);
+        conjunto.agregar(0);
+        conjunto.agregar(63);
+        conjunto.agregar(64);
+        conjunto.agregar(1000);
+
+        assertThat(conjunto.contiene(63)).isTrue();
+        assertThat(conjunto.contiene(64)).isTrue();
+        assertThat(conjunto.contiene(1000)).isTrue();
+        assertThat(conjunto.contiene(1)).isFalse();
+        assertThat(conjunto.contiene(5000)).isFalse();
+        assertThat(conjunto.cardinalidad()).isEqualTo(4);
+
+        conjunto.quitar(64);
+        conjunto.quitar(5000);
+        assertThat(conjunto.contiene(64)).isFalse();
+        assertThat(conjunto.cardinalidad()).isEqualTo(3);
+    }
+
+    @Test
+    void recorreLosElementosEnOrden() {
+        ConjuntoBits conjunto = new ConjuntoBits();
+        for (int i : new int[]{3, 63, 64, 127, 128, 700}) {
+            conjunto.agregar(i);
+        }
+
+        List<Integer> elementos = new ArrayList<>();
+        for (int i = conjunto.siguiente(0); i >= 0; i = conjunto.siguiente(i + 1)) {
+            elementos.add(i);
+        }
+
+        assertThat(elementos).containsExactly(3, 63, 64, 127, 128, 700);
+        assertThat(conjunto.siguiente(701)).isEqualTo(-1);
+        assertThat(conjunto.siguiente(100_000)).isEqualTo(-1);
+    }
+
+    @Test
+    void intersectaYUneConjuntosDeDistintoLargo() {
+        ConjuntoBits corto = new ConjuntoBits(64);
+        corto.agregar(1);
+        corto.agregar(2);
+        ConjuntoBits largo = new ConjuntoBits(64);
+        largo.agregar(2);
+        largo.agregar(500);
+
+        assertThat(ConjuntoBits.contarInterseccion(corto, largo)).isEqualTo(1);
+
+        ConjuntoBits interseccion = largo.copia();
+        interseccion.intersectar(corto);
+        assertThat(interseccion.cardinalidad()).isEqualTo(1);
+        assertThat(interseccion.contiene(2)).isTrue();
+        assertThat(interseccion.contiene(500)).isFalse();
+        assertThat(largo.contiene(500)).isTrue();
+
+        corto.unir(largo);
+        assertThat(corto.cardinalidad()).isEqualTo(3);
+        assertThat(corto.contiene(500)).isTrue();
+
+        corto.limpiar();
+        assertThat(corto.estaVacio()).isTrue();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ventaComputadora.services.indice;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que las sugerencias salgan por popularidad, tanto para prefijos cortos precalculados como largos.
+ */
+class IndiceSugerenciasTests {
+
+    @Test
+    void sugierePorPopularidadDesdeCualquierPalabra() {
+        IndiceSugerencias indice = IndiceSugerencias.construir(List.of(
+                entrada("Lenovo ThinkPad", 5),
+                entrada("Lenovo IdeaPad", 20),
+                entrada("ThinkCentre", 10),
+                entrada("Mouse Logitech", 50)));
+
+        assertThat(sugerir(indice, "lenovo")).containsExactly("Lenovo IdeaPad", "Lenovo ThinkPad");
+        assertThat(sugerir(indice, "think")).containsExactly("ThinkCentre", "Lenovo ThinkPad");
+        assertThat(sugerir(indice, "pad")).isEmpty();
+        assertThat(sugerir(indice, "")).isEmpty();
+    }
+
+    @Test
+    void noRepiteUnaEntradaConVariasPalabrasCoincidentes() {
+        IndiceSugerencias indice = IndiceSugerencias.construir(List.of(
+                entrada("Cable cable cargador", 1),
+                entrada("Cable HDMI cable", 2)));
+
+        assertThat(sugerir(indice, "cable")).containsExactly("Cable HDMI cable", "Cable cable cargador");
+        assertThat(sugerir(indice, "cable hdmi")).containsExactly("Cable HDMI cable");
+    }
+
+    @Test
+    void limitaLaCantidadDeSugerenciasConPrefijosCortosYLargos() {
+        List<IndiceSugerencias.Entrada> entradas = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            entradas.add(entrada("Procesadores modelo " + i, i));
+        }
+        IndiceSugerencias indice = IndiceSugerencias.construir(entradas);
+
+        List<String> esperadas = new ArrayList<>();
+        for (int i = 29; i >= 20; i--) {
+            esperadas.add("Procesadores modelo " + i);
+        }
+        assertThat(sugerir(indice, "proc")).containsExactlyElementsOf(esperadas);
+        assertThat(sugerir(indice, "procesadores m")).containsExactlyElementsOf(esperadas);
+        assertThat(sugerir(indice, "procesadores modelo 1")).containsExactly(
+                "Procesadores modelo 19", "Procesadores modelo 18", "Procesadores modelo 17", "Procesadores modelo 16",
+                "Procesadores modelo 15", "Procesadores modelo 14", "Procesadores modelo 13", "Procesadores modelo 12",
+                "Procesadores modelo 11", "Procesadores modelo 10");
+        assertThat(sugerir(indice, "procesadores x")).isEmpty();
+    }
+
+    private static IndiceSugerencias.Entrada entrada(String texto, long popularidad) {
+        return new IndiceSugerencias.Entrada(texto, "PRODUCTO", popularidad, popularidad);
+    }
+
+    private static List<String> sugerir(IndiceSugerencias indice, String prefijo) {
+        int[] destino = new int[IndiceSugerencias.MAX_SUGERENCIAS];
+        int cantidad = indice.sugerir(NormalizadorTexto.normalizar(prefijo), destino);
+        List<String> textos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            textos.add(indice.entrada(destino[i]).texto());
+        }
+        return textos;
+    }
+}
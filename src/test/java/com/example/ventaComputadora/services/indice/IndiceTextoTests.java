@@ -0,0 +1,90 @@
+package com.example.ventaComputadora.services.indice;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica la puntuación BM25, la coincidencia por prefijo y la tolerancia a errores de tipeo del índice de texto.
+ */
+class IndiceTextoTests {
+
+    @Test
+    void ordenaPorCampoPesoYCoberturaDeLaConsulta() {
+        IndiceTexto indice = new IndiceTexto();
+        indice.agregar(1, List.of(new IndiceTexto.Campo("Notebook Lenovo", 3), new IndiceTexto.Campo("liviana", 1)));
+        indice.agregar(2, List.of(new IndiceTexto.Campo("Monitor", 3), new IndiceTexto.Campo("ideal para notebook", 1)));
+        indice.agregar(3, List.of(new IndiceTexto.Campo("Notebook Gamer Lenovo Legion", 3)));
+        indice.agregar(4, List.of(new IndiceTexto.Campo("Mouse", 3)));
+
+        assertThat(ids(indice.buscar("notebook", 10, null))).containsExactly(1L, 3L, 2L);
+        assertThat(ids(indice.buscar("lenovo legion", 10, null))).containsExactly(3L, 1L);
+        assertThat(indice.buscar("de la", 10, null)).isEmpty();
+    }
+
+    @Test
+    void paginaDespuesDelUltimoResultado() {
+        IndiceTexto indice = new IndiceTexto();
+        for (long id = 1; id <= 5; id++) {
+            indice.agregar(id, List.of(new IndiceTexto.Campo("teclado", 1)));
+        }
+
+        List<IndiceTexto.Resultado> primera = indice.buscar("teclado", 2, null);
+        List<IndiceTexto.Resultado> segunda = indice.buscar("teclado", 2, primera.get(1));
+
+        assertThat(ids(primera)).containsExactly(1L, 2L);
+        assertThat(ids(segunda)).containsExactly(3L, 4L);
+    }
+
+    @Test
+    void expandePrefijosYErroresDeTipeo() {
+        IndiceTexto indice = new IndiceTexto();
+        indice.agregar(1, List.of(new IndiceTexto.Campo("Lenovo ThinkPad", 1)));
+        indice.agregar(2, List.of(new IndiceTexto.Campo("Procesador Intel", 1)));
+
+        assertThat(ids(indice.buscar("think", 10, null))).containsExactly(1L);
+        assertThat(ids(indice.buscar("lenvo", 10, null))).containsExactly(1L);
+        assertThat(ids(indice.buscar("procesdaor", 10, null))).containsExactly(2L);
+        assertThat(ids(indice.buscar("intl", 10, null))).containsExactly(2L);
+        assertThat(indice.buscar("xyzw", 10, null)).isEmpty();
+    }
+
+    @Test
+    void elTerminoExactoPuntuaMasQueElAproximado() {
+        IndiceTexto indice = new IndiceTexto();
+        indice.agregar(1, List.of(new IndiceTexto.Campo("cargador", 1)));
+        indice.agregar(2, List.of(new IndiceTexto.Campo("cargados", 1)));
+
+        assertThat(ids(indice.buscar("cargador", 10, null))).containsExactly(1L);
+        assertThat(ids(indice.buscar("cargadorr", 10, null))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void quitarBorraElDocumentoYSusTerminos() {
+        IndiceTexto indice = new IndiceTexto();
+        indice.agregar(1, List.of(new IndiceTexto.Campo("auriculares", 1)));
+        indice.agregar(2, List.of(new IndiceTexto.Campo("parlante", 1)));
+
+        indice.quitar(1);
+        indice.agregar(2, List.of(new IndiceTexto.Campo("parlante portatil", 1)));
+
+        assertThat(indice.tamano()).isEqualTo(1);
+        assertThat(indice.buscar("auriculares", 10, null)).isEmpty();
+        assertThat(indice.buscar("auricular", 10, null)).isEmpty();
+        assertThat(ids(indice.buscar("portatil", 10, null))).containsExactly(2L);
+    }
+
+    @Test
+    void distanciaAcotadaSeDetieneAlSuperarElMaximo() {
+        assertThat(IndiceTexto.distanciaAcotada("lenovo", "lenvo", 1)).isEqualTo(1);
+        assertThat(IndiceTexto.distanciaAcotada("lenovo", "lenovo", 1)).isZero();
+        assertThat(IndiceTexto.distanciaAcotada("lenovo", "xyzabc", 2)).isEqualTo(3);
+        assertThat(IndiceTexto.bigramas("aaaa")).containsExactly("aa");
+    }
+
+    private static List<Long> ids(List<IndiceTexto.Resultado> resultados) {
+        return resultados.stream().map(IndiceTexto.Resultado::id).toList();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.ventaComputadora.services.paginacion;
+
+import com.example.ventaComputadora.domain.DTO.PaginaCursorDTO;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Verifica la codificación de cursores, el rechazo de cursores alterados y el armado de páginas.
+ */
+class PaginadorTests {
+    private final Paginador paginador = new Paginador(20, 100);
+
+    @Test
+    void elCursorConservaLosValoresDeLaClave() {
+        String cursor = paginador.codificar("Notebook, 15\" / ñandú", 42L);
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+        assertThat(paginador.decodificar(cursor, 2)).containsExactly("Notebook, 15\" / ñandú", "42");
+        assertThat(paginador.decodificar(paginador.codificar("", 7L), 2)).containsExactly("", "7");
+        assertThat(paginador.decodificar(null, 2)).isNull();
+        assertThat(paginador.decodificar(" ", 2)).isNull();
+    }
+
+    @Test
+    void rechazaCursoresAlterados() {
+        String cursor = paginador.codificar("Mouse", 3L);
+        String otraCantidad = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("Mouse\u001F3\u001Fextra".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> paginador.decodificar(cursor, 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> paginador.decodificar(otraCantidad, 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> paginador.decodificar(cursor + "*", 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> paginador.decodificar("\"><script>", 2)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void validaElTamanoDePagina() {
+        assertThat(paginador.tamano(null)).isEqualTo(20);
+        assertThat(paginador.tamano(100)).isEqualTo(100);
+        assertThatThrownBy(() -> paginador.tamano(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> paginador.tamano(101)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void laFilaExtraIndicaQueHayOtraPagina() {
+        PaginaCursorDTO<String> pagina = paginador.armar(List.of(1, 2, 3), 2, fila -> new Object[]{fila}, String::valueOf);
+        PaginaCursorDTO<String> ultima = paginador.armar(List.of(3), 2, fila -> new Object[]{fila}, String::valueOf);
+
+        assertThat(pagina.getContenido()).containsExactly("1", "2");
+        assertThat(paginador.decodificar(pagina.getSiguienteCursor(), 1)).containsExactly("2");
+        assertThat(ultima.getContenido()).containsExactly("3");
+        assertThat(ultima.getSiguienteCursor()).isNull();
+    }
+}
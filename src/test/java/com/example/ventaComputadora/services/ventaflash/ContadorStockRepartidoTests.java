@@ -0,0 +1,83 @@
+package com.example.ventaComputadora.services.ventaflash;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifica que el contador repartido nunca reserve más unidades que las que tiene, también con muchos hilos.
+ */
+class ContadorStockRepartidoTests {
+    private static final int HILOS = 16;
+    private static final int STOCK = 10_000;
+
+    @Test
+    void reservaEntreFranjasOnoReservaNada() {
+        ContadorStockRepartido contador = new ContadorStockRepartido(10, 4);
+
+        assertThat(contador.disponible()).isEqualTo(10);
+        assertThat(contador.reservar(11)).isFalse();
+        assertThat(contador.disponible()).isEqualTo(10);
+        assertThat(contador.reservar(9)).isTrue();
+        assertThat(contador.disponible()).isEqualTo(1);
+
+        contador.liberar(4);
+        assertThat(contador.reservar(5)).isTrue();
+        assertThat(contador.reservar(1)).isFalse();
+        assertThat(contador.disponible()).isZero();
+    }
+
+    @Test
+    void hilosSimultaneosNoReservanDeMas() throws Exception {
+        ContadorStockRepartido contador = new ContadorStockRepartido(STOCK, 8);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Integer>> resultados = new ArrayList<>(HILOS);
+        try {
+            for (int h = 0; h < HILOS; h++) {
+                resultados.add(ejecutor.submit(() -> {
+                    largada.await();
+                    int reservadas = 0;
+                    int rechazos = 0;
+                    while (rechazos < 100) {
+                        int cantidad = ThreadLocalRandom.current().nextInt(1, 8);
+                        if (contador.reservar(cantidad)) {
+                            reservadas += cantidad;
+                            if (cantidad % 3 == 0) {
+                                contador.liberar(1);
+                                reservadas--;
+                            }
+                        } else {
+                            rechazos++;
+                        }
+                    }
+                    return reservadas;
+                }));
+            }
+            largada.countDown();
+            int total = 0;
+            for (Future<Integer> resultado : resultados) {
+                total += resultado.get(1, TimeUnit.MINUTES);
+            }
+
+            assertThat(total).isLessThanOrEqualTo(STOCK);
+            assertThat(contador.disponible()).isEqualTo(STOCK - total);
+            int restantes = 0;
+            while (contador.reservar(1)) {
+                restantes++;
+            }
+            assertThat(total + restantes).isEqualTo(STOCK);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+}